@@ -0,0 +1,104 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.benchmarks;
+
+import com.azure.cosmos.examples.common.JsonCodecs;
+import com.azure.cosmos.examples.generator.SyntheticDataGenerator;
+import com.azure.cosmos.examples.models.CompactModels;
+import com.azure.cosmos.examples.models.CompactModels.CompactCustomer;
+import com.azure.cosmos.examples.models.CompactModels.CompactProduct;
+import com.azure.cosmos.examples.models.Models.CustomerV4;
+import com.azure.cosmos.examples.models.Models.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import reactor.core.publisher.Flux;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Retained heap per object of the {@link CompactModels} against the {@link CustomerV4} and
+ * {@link Product} they are made from.
+ * <p>
+ * Generates the customers and products with the {@link SyntheticDataGenerator}, measures the heap
+ * held by a list of each kind after a full collection, and then checks that every compact object
+ * converts back to a model with the same JSON. The compact figures include everything they added to
+ * the shared pool. Run with
+ * <pre>
+ * mvn -P benchmarks package
+ * java -XX:+UseSerialGC -cp target/benchmarks.jar com.azure.cosmos.examples.benchmarks.ModelFootprint
+ * </pre>
+ * The number of objects is configurable with -DFOOTPRINT_CUSTOMERS=[n] and -DFOOTPRINT_PRODUCTS=[n].
+ */
+public final class ModelFootprint {
+
+    public static final int CUSTOMERS = Integer.getInteger("FOOTPRINT_CUSTOMERS", 50_000);
+    public static final int PRODUCTS = Integer.getInteger("FOOTPRINT_PRODUCTS", 50_000);
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private ModelFootprint() {
+    }
+
+    public static void main(String[] args) throws JsonProcessingException {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(42, CUSTOMERS, PRODUCTS, 40, 200, 3, 1.0);
+
+        System.out.printf(Locale.ROOT, "%-10s %10s %14s %14s %8s%n", "model", "objects", "model B/obj", "compact B/obj", "ratio");
+        measure("customer",
+                () -> read(generator.documents(4, "customer").filter(d -> "customer".equals(d.path("type").asText())),
+                        CustomerV4.class),
+                CompactModels::compactCustomers, CompactCustomer::toModel);
+        measure("product",
+                () -> read(generator.documents(4, "product"), Product.class),
+                CompactModels::compactProducts, CompactProduct::toModel);
+        System.out.printf(Locale.ROOT, "%d values pooled%n", CompactModels.pooledValues());
+    }
+
+    private interface Source<T> {
+        List<T> read() throws JsonProcessingException;
+    }
+
+    private static <T, C> void measure(String name, Source<T> models, Function<List<T>, List<C>> compact,
+                                       Function<C, T> expand) throws JsonProcessingException {
+        long baseline = usedHeap();
+        List<T> held = models.read();
+        long modelBytes = usedHeap() - baseline;
+        List<C> heldCompact = compact.apply(held);
+        held = null;
+        long compactBytes = usedHeap() - baseline;
+        int objects = heldCompact.size();
+        System.out.printf(Locale.ROOT, "%-10s %10d %14d %14d %7.2fx%n", name, objects, modelBytes / objects,
+                compactBytes / objects, (double) modelBytes / compactBytes);
+
+        List<T> expected = models.read();
+        for (int i = 0; i < objects; i++) {
+            String before = JsonCodecs.mapper().writeValueAsString(expected.get(i));
+            String after = JsonCodecs.mapper().writeValueAsString(expand.apply(heldCompact.get(i)));
+            if (!before.equals(after)) {
+                throw new IllegalStateException(name + " " + i + " does not convert back:\n" + before + "\n" + after);
+            }
+        }
+    }
+
+    private static <T> List<T> read(Flux<JsonNode> documents, Class<T> type) throws JsonProcessingException {
+        List<T> models = new ArrayList<>();
+        for (JsonNode document : documents.toIterable()) {
+            models.add(JsonCodecs.treeToValue(document, type));
+        }
+        return models;
+    }
+
+    private static long usedHeap() {
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, MEMORY.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,296 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.benchmarks;
+
+import com.azure.cosmos.examples.common.CustomPOJO;
+import com.azure.cosmos.examples.common.JsonCodecs;
+import com.azure.cosmos.examples.generator.SyntheticDataGenerator;
+import com.azure.cosmos.examples.models.ModelCodec;
+import com.azure.cosmos.examples.models.Models.CustomerV2;
+import com.azure.cosmos.examples.models.Models.CustomerV4;
+import com.azure.cosmos.examples.models.Models.Product;
+import com.azure.cosmos.examples.models.Models.ProductCategory;
+import com.azure.cosmos.examples.models.Models.SalesOrder;
+import com.azure.cosmos.implementation.Utils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and allocation of (de)serializing the model classes with the mapper the samples use
+ * everywhere, {@link Utils#getSimpleObjectMapper()}.
+ * <p>
+ * Documents come from the {@link SyntheticDataGenerator} and carry the system properties the service
+ * adds to every item. The {@code typical} shape is a document as generated; the {@code large} shape
+ * gives customers {@value #LARGE_ADDRESSES} addresses, orders {@value #LARGE_DETAILS} details and
+ * products {@value #LARGE_TAGS} tags.
+ * <p>
+ * Run with
+ * <pre>
+ * mvn -P benchmarks package
+ * java -jar target/benchmarks.jar ModelSerializationBenchmark -prof gc
+ * </pre>
+ * where {@code -prof gc} adds the allocation rate ({@code gc.alloc.rate.norm} is bytes per operation).
+ * The {@link JsonCodecs} cases bind the models through their generated {@link ModelCodec}s; add
+ * {@code -jvmArgs -DMODEL_CODECS=false} to measure them with reflection-based binding instead.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelSerializationBenchmark {
+
+    static final int LARGE_ADDRESSES = 20;
+    static final int LARGE_DETAILS = 50;
+    static final int LARGE_TAGS = 20;
+
+    private static final ObjectMapper OBJECT_MAPPER = Utils.getSimpleObjectMapper();
+
+    /**
+     * One document of each model, as a POJO, as a tree and as the bytes the service returns.
+     */
+    @State(Scope.Benchmark)
+    public static class Document {
+
+        @Param({"product", "salesOrder", "customerV4", "customerV2"})
+        public String model;
+
+        @Param({"typical", "large"})
+        public String shape;
+
+        Class<?> type;
+        ModelCodec<Object> codec;
+        Object pojo;
+        JsonNode tree;
+        byte[] bytes;
+
+        @Setup
+        public void setUp() throws IOException {
+            ObjectNode document;
+            switch (model) {
+                case "product":
+                    type = Product.class;
+                    document = generate(4, "product", null, "tags");
+                    grow(document, "tags", LARGE_TAGS);
+                    break;
+                case "salesOrder":
+                    type = SalesOrder.class;
+                    document = generate(4, "customer", "salesOrder", "details");
+                    grow(document, "details", LARGE_DETAILS);
+                    break;
+                case "customerV4":
+                    type = CustomerV4.class;
+                    document = generate(4, "customer", "customer", "addresses");
+                    grow(document, "addresses", LARGE_ADDRESSES);
+                    break;
+                case "customerV2":
+                    type = CustomerV2.class;
+                    document = generate(2, "customer", null, "addresses");
+                    grow(document, "addresses", LARGE_ADDRESSES);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown model " + model);
+            }
+            addSystemProperties(document);
+            bytes = OBJECT_MAPPER.writeValueAsBytes(document);
+            tree = OBJECT_MAPPER.readTree(bytes);
+            pojo = OBJECT_MAPPER.treeToValue(tree, type);
+            codec = codec(type);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static ModelCodec<Object> codec(Class<?> type) {
+            return (ModelCodec<Object>) ModelCodec.forType(type);
+        }
+
+        private void grow(ObjectNode document, String field, int size) {
+            if (!"large".equals(shape)) {
+                return;
+            }
+            ArrayNode array = (ArrayNode) document.get(field);
+            JsonNode template = array.get(0);
+            for (int i = array.size(); i < size; i++) {
+                array.add(template.deepCopy());
+            }
+        }
+    }
+
+    /**
+     * A product category as the change feed delivers it to {@code ProductCategoryChangeFeedProcessor}.
+     */
+    @State(Scope.Benchmark)
+    public static class CategoryEvent {
+
+        JsonNode tree;
+
+        @Setup
+        public void setUp() {
+            ObjectNode document = generate(4, "productMeta", "category", null);
+            addSystemProperties(document);
+            tree = document;
+        }
+    }
+
+    @Benchmark
+    public byte[] writeBytes(Document document) throws IOException {
+        return OBJECT_MAPPER.writeValueAsBytes(document.pojo);
+    }
+
+    /**
+     * As {@link #writeBytes}, through the writer of {@link JsonCodecs}.
+     */
+    @Benchmark
+    public byte[] writeBytesCodec(Document document) throws IOException {
+        return JsonCodecs.writer(document.type).writeValueAsBytes(document.pojo);
+    }
+
+    @Benchmark
+    public Object readBytes(Document document) throws IOException {
+        return OBJECT_MAPPER.readValue(document.bytes, document.type);
+    }
+
+    /**
+     * As {@link #readBytes}, through the cached reader of {@link JsonCodecs}.
+     */
+    @Benchmark
+    public Object readBytesCachedReader(Document document) throws IOException {
+        return JsonCodecs.reader(document.type).readValue(document.bytes);
+    }
+
+    @Benchmark
+    public JsonNode readTree(Document document) throws IOException {
+        return OBJECT_MAPPER.readTree(document.bytes);
+    }
+
+    @Benchmark
+    public JsonNode valueToTree(Document document) {
+        return OBJECT_MAPPER.valueToTree(document.pojo);
+    }
+
+    /**
+     * The tree the item serializer hands to the SDK on a write.
+     */
+    @Benchmark
+    public JsonNode valueToTreeCodec(Document document) {
+        return document.codec.toTree(document.pojo);
+    }
+
+    /**
+     * A query result or change feed document bound to its model, as in
+     * {@code queryCustomerAndSalesOrdersByCustomerId}.
+     */
+    @Benchmark
+    public Object treeToValue(Document document) throws IOException {
+        return OBJECT_MAPPER.treeToValue(document.tree, document.type);
+    }
+
+    @Benchmark
+    public Object treeToValueCachedReader(Document document) throws IOException {
+        return JsonCodecs.treeToValue(document.tree, document.type);
+    }
+
+    /**
+     * A query result read as {@link JsonNode} by the SDK and then bound to its model: the combined
+     * cost of the path {@link #treeToValue} starts halfway through.
+     */
+    @Benchmark
+    public Object readTreeToValue(Document document) throws IOException {
+        return OBJECT_MAPPER.treeToValue(OBJECT_MAPPER.readTree(document.bytes), document.type);
+    }
+
+    @Benchmark
+    public String writeCompact(Document document) throws IOException {
+        return OBJECT_MAPPER.writeValueAsString(document.pojo);
+    }
+
+    @Benchmark
+    public String writePretty(Document document) throws IOException {
+        return OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(document.pojo);
+    }
+
+    @Benchmark
+    public String writePrettySharedWriter(Document document) throws IOException {
+        return JsonCodecs.toPrettyString(document.pojo);
+    }
+
+    /**
+     * Pretty printing through a mapper created for the purpose, as the modeling demos do.
+     */
+    @Benchmark
+    public String writePrettyNewMapper(Document document) throws IOException {
+        return new ObjectMapper().writerWithDefaultPrettyPrinter().writeValueAsString(document.pojo);
+    }
+
+    /**
+     * The bindings {@code ProductCategoryChangeFeedProcessor} made of every document it received.
+     */
+    @Benchmark
+    public void changeFeedEvent(CategoryEvent event, Blackhole blackhole) throws IOException {
+        blackhole.consume(OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(event.tree));
+        blackhole.consume(OBJECT_MAPPER.treeToValue(event.tree, CustomPOJO.class));
+        blackhole.consume(OBJECT_MAPPER.treeToValue(event.tree, ProductCategory.class));
+    }
+
+    /**
+     * The bindings {@code ProductCategoryChangeFeedProcessor} makes of every document it receives,
+     * through {@link JsonCodecs}.
+     */
+    @Benchmark
+    public void changeFeedEventCodecs(CategoryEvent event, Blackhole blackhole) throws IOException {
+        blackhole.consume(JsonCodecs.toPrettyString(event.tree));
+        blackhole.consume(JsonCodecs.treeToValue(event.tree, CustomPOJO.class));
+        blackhole.consume(JsonCodecs.treeToValue(event.tree, ProductCategory.class));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ModelSerializationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    /**
+     * The first document the generator makes for the container, of the given type if the container
+     * holds several, and with at least one element in {@code array} if given.
+     */
+    static ObjectNode generate(int schemaVersion, String container, String type, String array) {
+        return (ObjectNode) new SyntheticDataGenerator(SyntheticDataGenerator.SEED, 10, 10, 4, 20, 3, 1.0)
+                .documents(schemaVersion, container)
+                .filter(document -> type == null || type.equals(document.path("type").asText()))
+                .filter(document -> array == null || document.path(array).size() > 0)
+                .blockFirst();
+    }
+
+    /**
+     * The properties the service adds to every item it returns.
+     */
+    static void addSystemProperties(ObjectNode document) {
+        document.put("_rid", "dJ8hAOK2ZxABAAAAAAAAAA==")
+                .put("_self", "dbs/dJ8hAA==/colls/dJ8hAOK2ZxA=/docs/dJ8hAOK2ZxABAAAAAAAAAA==/")
+                .put("_etag", "\"0000d986-0000-0700-0000-5f5a3e1c0000\"")
+                .put("_attachments", "attachments/")
+                .put("_ts", 1599749660);
+    }
+}
@@ -0,0 +1,360 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.loader;
+
+import com.azure.cosmos.examples.modeling.async.Deployment;
+import com.azure.cosmos.examples.repository.InMemoryItemContainer;
+import com.azure.cosmos.examples.repository.OperationResult;
+import com.azure.cosmos.examples.repository.RequestCharges;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end throughput of the ingestion pipeline of {@link Deployment#loadDatabase()}, without a
+ * Cosmos DB account.
+ * <p>
+ * Every data set {@code cosmic-works-vN} is scaled up by repeating its documents (with a new
+ * {@code id} for every copy) and loaded container by container, {@link DataLoader#MAX_CONCURRENT_LOADS}
+ * at a time, through an increasing number of {@link Stage}s. The difference between two stages is
+ * the cost of the later one, which is how a regression is traced to the stage that caused it.
+ * <p>
+ * For every data set, scale and stage it reports documents/sec and MB/sec (of the data files as
+ * stored), bytes allocated per document across all threads, and the count, total and longest
+ * stop-the-world GC pause. Run with
+ * <pre>
+ * mvn -P benchmarks package
+ * java -cp target/benchmarks.jar com.azure.cosmos.examples.loader.IngestionBenchmark
+ * </pre>
+ * from the repository root. The runs are configurable with -DBENCHMARK_DATA_SETS=[1,2,3,4],
+ * -DBENCHMARK_SCALES=[1,10,50], -DBENCHMARK_STAGES=[TOKENS,...,LOADER], -DBENCHMARK_WARMUP_RUNS=[n]
+ * and -DBENCHMARK_RUNS=[n]. A fixed heap (-Xms equal to -Xmx) makes the GC figures comparable.
+ */
+public final class IngestionBenchmark {
+
+    public static final String DATA_SETS = System.getProperty("BENCHMARK_DATA_SETS", "1,2,3,4");
+    public static final String SCALES = System.getProperty("BENCHMARK_SCALES", "1,10,50");
+    public static final String STAGES = System.getProperty("BENCHMARK_STAGES", "TOKENS,DOCUMENTS,PARTITION_KEYS,OPERATIONS,IN_MEMORY,LOADER");
+    public static final int WARMUP_RUNS = Integer.getInteger("BENCHMARK_WARMUP_RUNS", 2);
+    public static final int RUNS = Integer.getInteger("BENCHMARK_RUNS", 5);
+
+    /** Where the scaled data sets are written. */
+    private static final File SCALED_DATA_DIR = new File("target/ingestion-benchmark");
+
+    /**
+     * How far down the pipeline the documents go. Every stage includes the ones before it.
+     */
+    public enum Stage {
+        /** Reading the file and tokenizing the JSON, without building documents. */
+        TOKENS,
+        /** Building a {@link JsonNode} per document, on every core for large files (see {@link ChunkedDataFileReader}). */
+        DOCUMENTS,
+        /** Reading the partition key value of every document. */
+        PARTITION_KEYS,
+        /** Creating the bulk operations, which are then dropped. */
+        OPERATIONS,
+        /** Writing the operations to an {@link InMemoryItemContainer} that charges nothing and has no latency. */
+        IN_MEMORY,
+        /**
+         * Loading into the same containers through {@link DataLoader#loadContainer}, with its
+         * {@link com.azure.cosmos.examples.common.BulkWriter}, {@link LoadCheckpoint}s and
+         * {@link IngestionMonitor}, from scratch every run.
+         */
+        LOADER
+    }
+
+    private IngestionBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        PauseRecorder pauses = new PauseRecorder();
+        System.out.println(String.format(Locale.ROOT, "%-16s %6s %-15s %10s %9s %12s %9s %11s %6s %9s %9s",
+                "data set", "scale", "stage", "documents", "MB", "docs/sec", "MB/sec", "bytes/doc",
+                "pauses", "pause ms", "max ms"));
+        for (String version : DATA_SETS.split(",")) {
+            int schemaVersion = Integer.parseInt(version.trim());
+            String dataSet = "cosmic-works-v" + schemaVersion;
+            List<ContainerLoad> loads = new Deployment()
+                    .getContainerLoads(schemaVersion, dataSet, "database-v" + schemaVersion);
+            for (String scale : SCALES.split(",")) {
+                List<ContainerLoad> scaledLoads = scale(loads, dataSet, Integer.parseInt(scale.trim()));
+                long bytes = 0;
+                for (ContainerLoad load : scaledLoads) {
+                    bytes += load.getFile().length();
+                }
+                for (String stage : STAGES.split(",")) {
+                    Result result = measure(scaledLoads, Stage.valueOf(stage.trim()), pauses);
+                    double megabytes = bytes / (1024.0 * 1024.0);
+                    double seconds = result.nanos / 1e9;
+                    System.out.println(String.format(Locale.ROOT,
+                            "%-16s %6s %-15s %10d %9.1f %12.0f %9.1f %11.0f %6d %9d %9d",
+                            dataSet, scale.trim(), stage.trim(), result.documents / RUNS, megabytes,
+                            result.documents / seconds, megabytes * RUNS / seconds,
+                            (double) result.allocatedBytes / result.documents,
+                            result.pauses, result.pauseMillis, result.maxPauseMillis));
+                }
+            }
+        }
+        pauses.close();
+        Schedulers.shutdownNow();
+    }
+
+    /**
+     * Runs {@link #WARMUP_RUNS} unmeasured and {@link #RUNS} measured loads of {@code loads} up to
+     * {@code stage}, and adds up the measured ones.
+     */
+    private static Result measure(List<ContainerLoad> loads, Stage stage, PauseRecorder pauses) {
+        for (int run = 0; run < WARMUP_RUNS; run++) {
+            load(loads, stage);
+        }
+        Result result = new Result();
+        for (int run = 0; run < RUNS; run++) {
+            System.gc();
+            pauses.settle();
+            Map<Long, Long> allocatedBefore = allocatedBytes();
+            pauses.reset();
+            long start = System.nanoTime();
+            result.documents += load(loads, stage);
+            result.nanos += System.nanoTime() - start;
+            Map<Long, Long> allocatedAfter = allocatedBytes();
+            pauses.settle();
+            for (Map.Entry<Long, Long> thread : allocatedAfter.entrySet()) {
+                result.allocatedBytes += thread.getValue() - allocatedBefore.getOrDefault(thread.getKey(), 0L);
+            }
+            result.pauses += pauses.count.get();
+            result.pauseMillis += pauses.totalMillis.get();
+            result.maxPauseMillis = Math.max(result.maxPauseMillis, pauses.maxMillis.get());
+        }
+        return result;
+    }
+
+    /**
+     * Loads every container of the data set up to {@code stage}, as many at a time as the
+     * {@link DataLoader} would, and returns the number of documents that got through.
+     */
+    private static long load(List<ContainerLoad> loads, Stage stage) {
+        if (stage == Stage.LOADER) {
+            return loadThroughDataLoader(loads);
+        }
+        return Flux.fromIterable(loads)
+                .flatMap(load -> load(load, stage), DataLoader.MAX_CONCURRENT_LOADS)
+                .reduce(0L, Long::sum)
+                .block();
+    }
+
+    private static Mono<Long> load(ContainerLoad load, Stage stage) {
+        File file = load.getFile();
+        String partitionKeyPath = load.getPartitionKeyPath();
+        if (stage == Stage.TOKENS) {
+            return Mono.fromCallable(() -> countTokenizedDocuments(file)).subscribeOn(Schedulers.boundedElastic());
+        }
+        Flux<DataFileDocument> documents = ChunkedDataFileReader.readDocuments(file, 0)
+                .subscribeOn(Schedulers.boundedElastic());
+        switch (stage) {
+            case DOCUMENTS:
+                return documents.count();
+            case PARTITION_KEYS:
+                return documents
+                        .map(document -> DataLoader.partitionKey(document.getDocument(), partitionKeyPath))
+                        .count();
+            case OPERATIONS:
+                return documents
+                        .map(document -> DataLoader.toOperation(document.getDocument(),
+                                DataLoader.partitionKey(document.getDocument(), partitionKeyPath), false, document))
+                        .count();
+            default:
+                InMemoryItemContainer container = new InMemoryItemContainer(load.getContainerName(), partitionKeyPath,
+                        Duration.ZERO, RequestCharges.NONE);
+                return container
+                        .<DataFileDocument>executeBulk(documents
+                                .map(document -> DataLoader.toOperation(document.getDocument(),
+                                        DataLoader.partitionKey(document.getDocument(), partitionKeyPath), false,
+                                        document)))
+                        .filter(OperationResult::isSuccessStatusCode)
+                        .count();
+        }
+    }
+
+    /**
+     * Loads every container of the data set with a {@link DataLoader} into in-memory containers,
+     * after clearing what an earlier run left behind, and returns the number of documents loaded.
+     */
+    private static long loadThroughDataLoader(List<ContainerLoad> loads) {
+        Map<ContainerLoad, InMemoryItemContainer> containers = new IdentityHashMap<>();
+        for (ContainerLoad load : loads) {
+            LoadCheckpoint.clear(load.getDatabaseName());
+            ContentManifest.clear(load.getDatabaseName());
+            containers.put(load, new InMemoryItemContainer(load.getContainerName(), load.getPartitionKeyPath(),
+                    Duration.ZERO, RequestCharges.NONE));
+        }
+        new DataLoader(containers::get).load(Flux.fromIterable(loads)).block();
+        long documents = 0;
+        for (InMemoryItemContainer container : containers.values()) {
+            documents += container.size();
+        }
+        return documents;
+    }
+
+    private static long countTokenizedDocuments(File file) throws IOException {
+        long documents = 0;
+        try (JsonParser parser = DataFileFormat.of(file).createParser(file)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a top-level JSON array in " + file.getName());
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                documents++;
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * Writes the documents of every load {@code scale} times over, in the format of the original
+     * file, and returns the loads of the scaled files.
+     */
+    private static List<ContainerLoad> scale(List<ContainerLoad> loads, String dataSet, int scale) throws IOException {
+        File folder = new File(SCALED_DATA_DIR, dataSet + "-x" + scale);
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("Could not create " + folder);
+        }
+        List<ContainerLoad> scaledLoads = new ArrayList<>();
+        for (ContainerLoad load : loads) {
+            DataFileFormat format = DataFileFormat.of(load.getFile());
+            File scaled = new File(folder, load.getContainerName() + format.getSuffix());
+            List<JsonNode> documents = DataFileReader.readDocuments(load.getFile()).collectList().block();
+            try (JsonGenerator generator = format.createGenerator(scaled)) {
+                generator.writeStartArray();
+                for (int copy = 0; copy < scale; copy++) {
+                    for (JsonNode document : documents) {
+                        if (copy > 0) {
+                            ObjectNode copied = document.deepCopy();
+                            document = copied.put("id", document.path("id").asText() + "-" + copy);
+                        }
+                        DataFileReader.objectMapper().writeTree(generator, document);
+                    }
+                }
+                generator.writeEndArray();
+            }
+            // a database name of its own, so that the checkpoints of the LOADER stage are apart from real ones
+            scaledLoads.add(new ContainerLoad("ingestion-benchmark-" + load.getDatabaseName() + "-x" + scale,
+                    load.getContainerName(), load.getPartitionKeyPath(), scaled));
+        }
+        return scaledLoads;
+    }
+
+    /**
+     * Bytes allocated so far by every live thread, by thread id.
+     */
+    private static Map<Long, Long> allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] ids = threads.getAllThreadIds();
+        long[] allocated = threads.getThreadAllocatedBytes(ids);
+        Map<Long, Long> allocatedBytes = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (allocated[i] >= 0) {
+                allocatedBytes.put(ids[i], allocated[i]);
+            }
+        }
+        return allocatedBytes;
+    }
+
+    private static final class Result {
+        long documents;
+        long nanos;
+        long allocatedBytes;
+        long pauses;
+        long pauseMillis;
+        long maxPauseMillis;
+    }
+
+    /**
+     * Records the stop-the-world pauses the collectors report. Collectors that run concurrently with
+     * the application (the "Concurrent" and "Cycles" beans) are left out.
+     */
+    private static final class PauseRecorder implements NotificationListener {
+
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong totalMillis = new AtomicLong();
+        final AtomicLong maxMillis = new AtomicLong();
+        private final List<NotificationEmitter> emitters = new ArrayList<>();
+
+        PauseRecorder() {
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                if (collector instanceof NotificationEmitter) {
+                    ((NotificationEmitter) collector).addNotificationListener(this, null, null);
+                    emitters.add((NotificationEmitter) collector);
+                }
+            }
+        }
+
+        @Override
+        public void handleNotification(Notification notification, Object handback) {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                return;
+            }
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            if (info.getGcName().contains("Concurrent") || info.getGcName().contains("Cycles")) {
+                return;
+            }
+            long millis = info.getGcInfo().getDuration();
+            count.incrementAndGet();
+            totalMillis.addAndGet(millis);
+            maxMillis.accumulateAndGet(millis, Math::max);
+        }
+
+        void reset() {
+            count.set(0);
+            totalMillis.set(0);
+            maxMillis.set(0);
+        }
+
+        /**
+         * Gives the notifications of the collections that already happened time to arrive; they are
+         * delivered on a separate thread.
+         */
+        void settle() {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void close() {
+            for (NotificationEmitter emitter : emitters) {
+                try {
+                    emitter.removeNotificationListener(this);
+                } catch (ListenerNotFoundException e) {
+                    // never added, ignore
+                }
+            }
+        }
+    }
+}
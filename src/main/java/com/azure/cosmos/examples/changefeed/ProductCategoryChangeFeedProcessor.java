@@ -10,18 +10,21 @@ import com.azure.cosmos.CosmosAsyncContainer;
 import com.azure.cosmos.CosmosAsyncDatabase;
 import com.azure.cosmos.CosmosClientBuilder;
 import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.examples.common.BulkWriter;
 import com.azure.cosmos.examples.common.CustomPOJO;
+import com.azure.cosmos.examples.common.JsonCodecs;
+import com.azure.cosmos.examples.common.QueryCatalog;
+import com.azure.cosmos.examples.models.ModelItemSerializer;
 import com.azure.cosmos.examples.models.Models.Product;
 import com.azure.cosmos.examples.models.Models.ProductCategory;
-import com.azure.cosmos.implementation.Utils;
 import com.azure.cosmos.models.CosmosBulkOperations;
 import com.azure.cosmos.models.CosmosItemOperation;
 import com.azure.cosmos.models.CosmosQueryRequestOptions;
 import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlQuerySpec;
 import com.azure.cosmos.util.CosmosPagedFlux;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import reactor.core.publisher.Flux;
@@ -34,7 +37,6 @@ import java.util.List;
  */
 public class ProductCategoryChangeFeedProcessor {
 
-    private static final ObjectMapper OBJECT_MAPPER = Utils.getSimpleObjectMapper();
     protected static Logger logger = LoggerFactory.getLogger(ProductCategoryChangeFeedProcessor.class);
     static CosmosAsyncContainer productContainer;
 
@@ -79,13 +81,11 @@ public class ProductCategoryChangeFeedProcessor {
                     logger.info("--->setHandleChanges() START");
                     for (JsonNode document : docs) {
                         try {
-                            logger.info(
-                                    "---->DOCUMENT UPDATE RECEIVED: " + OBJECT_MAPPER.writerWithDefaultPrettyPrinter()
-                                            .writeValueAsString(document));
-                            CustomPOJO pojo_doc = OBJECT_MAPPER.treeToValue(document, CustomPOJO.class);
+                            logger.info("---->DOCUMENT UPDATE RECEIVED: " + JsonCodecs.toPrettyString(document));
+                            CustomPOJO pojo_doc = JsonCodecs.treeToValue(document, CustomPOJO.class);
                             logger.info("----=>id: " + pojo_doc.getId());
 
-                            ProductCategory doc = OBJECT_MAPPER.treeToValue(document, ProductCategory.class);
+                            ProductCategory doc = JsonCodecs.treeToValue(document, ProductCategory.class);
                             String categoryId = doc.getId();
                             String categoryName = doc.getName();
                             System.out.println("categoryId: " + categoryId);
@@ -109,6 +109,7 @@ public class ProductCategoryChangeFeedProcessor {
                 .key(ChangeFeedConfigurations.MASTER_KEY)
                 .contentResponseOnWriteEnabled(true)
                 .consistencyLevel(ConsistencyLevel.SESSION)
+                .customItemSerializer(ModelItemSerializer.INSTANCE)
                 .buildAsyncClient();
     }
 
@@ -116,15 +117,16 @@ public class ProductCategoryChangeFeedProcessor {
         Flux<CosmosItemOperation> cosmosItemOperations = products
                 .map(product -> CosmosBulkOperations.getReplaceItemOperation(product.getId(), product,
                         new PartitionKey(product.getCategoryId())));
-        productContainer.executeBulkOperations(cosmosItemOperations).blockLast();
+        new BulkWriter(productContainer, "database-v3.product").execute(cosmosItemOperations).blockLast();
     }
 
     public static void UpdateProductCategoryName(String categoryId, String categoryName) {
         int preferredPageSize = 100;
         CosmosQueryRequestOptions queryOptions = new CosmosQueryRequestOptions();
         queryOptions.setQueryMetricsEnabled(true);
+        SqlQuerySpec query = QueryCatalog.PRODUCTS_BY_CATEGORY.bind(categoryId);
         CosmosPagedFlux<Product> productByCategoryPagedFluxResponse = productContainer.queryItems(
-                "SELECT * FROM c WHERE c.categoryId = '" + categoryId + "'", queryOptions, Product.class);
+                query, QueryCatalog.PRODUCTS_BY_CATEGORY.scope(queryOptions, query), Product.class);
 
         try {
             List<Product> productList = new ArrayList<>();
@@ -136,7 +138,7 @@ public class ProductCategoryChangeFeedProcessor {
                         productList.add(doc);
                         //noinspection BlockingMethodInNonBlockingContext
                         System.out.println("Product doc that will be updated: "
-                                + OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(doc));
+                                + JsonCodecs.toPrettyString(doc));
                     } catch (JsonProcessingException e) {
                         e.printStackTrace();
                     }
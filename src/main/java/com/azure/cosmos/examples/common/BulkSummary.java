@@ -0,0 +1,100 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.common;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Outcome of the operations a {@link BulkWriter} executed against one container.
+ */
+public class BulkSummary {
+
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final DoubleAdder requestCharge = new DoubleAdder();
+    private final ConcurrentHistogram latencyMicros = new ConcurrentHistogram(3);
+
+    /**
+     * Operations that completed with a 2xx status code.
+     */
+    public long getSucceeded() {
+        return succeeded.get();
+    }
+
+    /**
+     * Operations rejected with 409, i.e. creates of documents that already exist.
+     */
+    public long getConflicts() {
+        return conflicts.get();
+    }
+
+    /**
+     * Re-submissions of operations that failed with a retryable status code. An operation retried
+     * three times counts three times.
+     */
+    public long getRetried() {
+        return retried.get();
+    }
+
+    /**
+     * Operations that failed for good, either with a non-retryable status code or after exhausting
+     * their retries.
+     */
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public double getRequestCharge() {
+        return requestCharge.sum();
+    }
+
+    /**
+     * Latency of the bulk requests that carried the operations, in microseconds, one value per
+     * operation response.
+     */
+    public Histogram getLatencyHistogram() {
+        return latencyMicros.copy();
+    }
+
+    void recordLatency(Duration latency) {
+        latencyMicros.recordValue(Math.max(0, latency.toNanos() / 1000));
+    }
+
+    void recordSucceeded() {
+        succeeded.incrementAndGet();
+    }
+
+    void recordConflict() {
+        conflicts.incrementAndGet();
+    }
+
+    void recordRetried(int operations) {
+        retried.addAndGet(operations);
+    }
+
+    void recordFailed() {
+        failed.incrementAndGet();
+    }
+
+    void recordRequestCharge(double charge) {
+        requestCharge.add(charge);
+    }
+
+    @Override
+    public String toString() {
+        Histogram latency = getLatencyHistogram();
+        return String.format("succeeded=%d, conflicts=%d, retried=%d, failed=%d, request charge=%.2f RU, "
+                        + "latency p50=%.1f ms p99=%.1f ms max=%.1f ms",
+                getSucceeded(), getConflicts(), getRetried(), getFailed(), getRequestCharge(),
+                latency.getValueAtPercentile(50) / 1000d, latency.getValueAtPercentile(99) / 1000d,
+                latency.getMaxValue() / 1000d);
+    }
+}
@@ -0,0 +1,363 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.common;
+
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.examples.repository.ItemContainer;
+import com.azure.cosmos.examples.repository.OperationResult;
+import com.azure.cosmos.models.CosmosBulkExecutionOptions;
+import com.azure.cosmos.models.CosmosBulkItemResponse;
+import com.azure.cosmos.models.CosmosBulkOperationResponse;
+import com.azure.cosmos.models.CosmosItemOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulk execution layer with per-operation result handling and adaptive throttling.
+ * <p>
+ * All operations of an {@link #execute} call, and their retries, flow through one long-lived call of
+ * the SDK bulk executor, which cuts them into micro-batches per partition and pipelines those itself.
+ * The writer only decides how many operations are in flight: an operation is let in once it holds a
+ * permit, and gives it back as soon as its response arrives. Every response is inspected: operations
+ * rejected with a retryable status code (429, 408, 410, 449, 503) are submitted again after a back-off,
+ * everything else is emitted downstream once. The number of permits follows an additive-increase /
+ * multiplicative-decrease rule driven by the status codes: it grows while responses are neither
+ * throttled nor above {@link #TARGET_RU_PER_SECOND}, and is halved when a 429 shows up. A
+ * {@link BulkSummary} of the container is logged when the operations complete.
+ * <p>
+ * A writer is meant for one container; its throttling state is shared by every {@link #execute} call.
+ * The container is either a Cosmos DB one, whose bulk executor runs the operations, or any
+ * {@link ItemContainer} that is not backed by a writer itself, such as an in-memory one.
+ */
+public class BulkWriter {
+
+    /**
+     * Upper bound for the operations in flight, configurable with -DBULK_MAX_IN_FLIGHT=[n].
+     */
+    public static final int MAX_IN_FLIGHT = Integer.getInteger("BULK_MAX_IN_FLIGHT", 2000);
+
+    /**
+     * RU/s the writer aims to stay below, configurable with -DBULK_TARGET_RU_PER_SECOND=[n]. Defaults to
+     * the autoscale maximum the Deployment classes provision for each container.
+     */
+    public static final double TARGET_RU_PER_SECOND =
+            Double.parseDouble(System.getProperty("BULK_TARGET_RU_PER_SECOND", "4000"));
+
+    /** Largest micro-batch the bulk executor sends to a partition. */
+    static final int MAX_MICRO_BATCH_SIZE = 100;
+
+    private static final int MIN_IN_FLIGHT = MAX_MICRO_BATCH_SIZE;
+    private static final int INITIAL_IN_FLIGHT = 4 * MAX_MICRO_BATCH_SIZE;
+    private static final int IN_FLIGHT_STEP = MAX_MICRO_BATCH_SIZE;
+    private static final int MAX_ATTEMPTS = 10;
+    private static final Duration MIN_BACKOFF = Duration.ofMillis(100);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(10);
+    private static final long DECREASE_INTERVAL_NANOS = Duration.ofSeconds(1).toNanos();
+    private static final long RATE_WINDOW_NANOS = Duration.ofSeconds(1).toNanos();
+
+    private static Logger logger = LoggerFactory.getLogger(BulkWriter.class);
+
+    private final Executor executor;
+    private final String name;
+    private final BulkSummary summary = new BulkSummary();
+
+    // throttling state, guarded by this
+    private int limit = Math.min(MAX_IN_FLIGHT, INITIAL_IN_FLIGHT);
+    private int inFlight;
+    // successful responses since the limit last grew
+    private int increaseCredit;
+    private final Deque<Waiter> waiting = new ArrayDeque<>();
+    private long lastDecreaseNanos;
+    private long rateWindowStartNanos = System.nanoTime();
+    private double rateWindowCharge;
+    private double ruPerSecond;
+
+    public BulkWriter(CosmosAsyncContainer container, String name) {
+        this(new Executor() {
+            @Override
+            public <TContext> Flux<OperationResult<TContext>> execute(Flux<CosmosItemOperation> operations) {
+                return container.<TContext>executeBulkOperations(operations, new CosmosBulkExecutionOptions())
+                        .map(BulkWriter::toResult);
+            }
+        }, name);
+    }
+
+    /**
+     * A writer that runs the operations through {@link ItemContainer#executeBulk} of {@code container}.
+     */
+    public BulkWriter(ItemContainer container, String name) {
+        this(new Executor() {
+            @Override
+            public <TContext> Flux<OperationResult<TContext>> execute(Flux<CosmosItemOperation> operations) {
+                return container.executeBulk(operations);
+            }
+        }, name);
+    }
+
+    private BulkWriter(Executor executor, String name) {
+        this.executor = executor;
+        this.name = name;
+    }
+
+    public BulkSummary getSummary() {
+        return summary;
+    }
+
+    /**
+     * How many operations for one of {@code partitionKeyRanges} ranges to send together: a full
+     * micro-batch of the bulk executor, or the range's share of the operations currently let in flight
+     * when that is smaller.
+     */
+    public synchronized int getGroupSize(int partitionKeyRanges) {
+        return Math.max(1, Math.min(MAX_MICRO_BATCH_SIZE, limit / Math.max(1, partitionKeyRanges)));
+    }
+
+    /**
+     * Executes {@code operations} and emits exactly one final response per operation: the successful
+     * one, or the last failure once the operation is not retried any more.
+     */
+    public <TContext> Flux<OperationResult<TContext>> execute(Flux<CosmosItemOperation> operations) {
+        return Flux.defer(() -> {
+            Call call = new Call();
+            Flux<CosmosItemOperation> admitted = Flux
+                    .merge(operations
+                                    .doOnNext(operation -> call.outstanding.incrementAndGet())
+                                    .doOnComplete(call::onSubmitted),
+                            call.retries.asFlux())
+                    .concatMap(operation -> acquire(call).thenReturn(operation));
+            return executor.<TContext>execute(admitted)
+                    .<OperationResult<TContext>>handle((response, sink) -> {
+                        Duration backoff = onResponse(call, response);
+                        if (backoff != null) {
+                            CosmosItemOperation operation = response.getOperation();
+                            Mono.delay(backoff).subscribe(tick -> call.retry(operation));
+                            return;
+                        }
+                        sink.next(response);
+                        call.onDone();
+                    })
+                    .doFinally(signal -> close(call));
+        }).doOnComplete(() -> logger.info("bulk summary for " + name + ": " + summary));
+    }
+
+    /**
+     * The outcome of an operation the SDK bulk executor ran; 500 when it failed without a status code.
+     */
+    private static <TContext> OperationResult<TContext> toResult(CosmosBulkOperationResponse<TContext> response) {
+        CosmosBulkItemResponse itemResponse = response.getResponse();
+        if (itemResponse != null) {
+            return new OperationResult<>(response.getOperation(), itemResponse.getStatusCode(),
+                    itemResponse.getRequestCharge(), itemResponse.getDuration(), itemResponse.getRetryAfterDuration());
+        }
+        Exception exception = response.getException();
+        return new OperationResult<>(response.getOperation(),
+                exception instanceof CosmosException ? ((CosmosException) exception).getStatusCode() : 500, 0);
+    }
+
+    private static boolean isRetryable(int statusCode) {
+        return statusCode == 429 || statusCode == 408 || statusCode == 410 || statusCode == 449 || statusCode == 503;
+    }
+
+    private void record(int statusCode) {
+        if (statusCode >= 200 && statusCode < 300) {
+            summary.recordSucceeded();
+        } else if (statusCode == 409) {
+            summary.recordConflict();
+        } else {
+            summary.recordFailed();
+        }
+    }
+
+    /**
+     * Gives back the permit of the operation {@code response} belongs to and applies the
+     * additive-increase / multiplicative-decrease rule to its status code. Returns the back-off after
+     * which to submit the operation again, or {@code null} when the response is final.
+     */
+    private Duration onResponse(Call call, OperationResult<?> response) {
+        int statusCode = response.getStatusCode();
+        if (response.getDuration() != null) {
+            summary.recordLatency(response.getDuration());
+        }
+        int attempt = call.attempt(response.getOperation());
+        Duration backoff = null;
+        if (isRetryable(statusCode) && attempt < MAX_ATTEMPTS) {
+            backoff = MIN_BACKOFF.multipliedBy(1L << Math.min(attempt - 1, 6));
+            if (response.getRetryAfter() != null && response.getRetryAfter().compareTo(backoff) > 0) {
+                backoff = response.getRetryAfter();
+            }
+            if (backoff.compareTo(MAX_BACKOFF) > 0) {
+                backoff = MAX_BACKOFF;
+            }
+            call.retrying(response.getOperation(), attempt + 1);
+            summary.recordRetried(1);
+        } else {
+            call.done(response.getOperation());
+            record(statusCode);
+        }
+
+        List<MonoSink<Void>> granted;
+        synchronized (this) {
+            inFlight--;
+            call.held--;
+            adapt(statusCode, response.getRequestCharge());
+            granted = grant();
+        }
+        // the permits go to other operations outside the lock, they run on
+        granted.forEach(MonoSink::success);
+        return backoff;
+    }
+
+    // callers hold the lock on this
+    private void adapt(int statusCode, double charge) {
+        summary.recordRequestCharge(charge);
+        long now = System.nanoTime();
+        rateWindowCharge += charge;
+        if (now - rateWindowStartNanos >= RATE_WINDOW_NANOS) {
+            ruPerSecond = rateWindowCharge * 1_000_000_000d / (now - rateWindowStartNanos);
+            rateWindowStartNanos = now;
+            rateWindowCharge = 0;
+        }
+
+        if (statusCode == 429) {
+            increaseCredit = 0;
+            if (now - lastDecreaseNanos >= DECREASE_INTERVAL_NANOS) {
+                lastDecreaseNanos = now;
+                limit = Math.max(Math.min(MIN_IN_FLIGHT, MAX_IN_FLIGHT), limit / 2);
+                logger.info(String.format("%s throttled, reducing to %d operations in flight", name, limit));
+            }
+        } else if (ruPerSecond < TARGET_RU_PER_SECOND && ++increaseCredit >= limit) {
+            // one step per limit's worth of responses, i.e. per round trip of the whole window
+            increaseCredit = 0;
+            limit = Math.min(MAX_IN_FLIGHT, limit + IN_FLIGHT_STEP);
+        }
+    }
+
+    private Mono<Void> acquire(Call call) {
+        return Mono.create(sink -> {
+            boolean granted = false;
+            synchronized (this) {
+                if (call.closed) {
+                    return;
+                }
+                if (inFlight < limit && waiting.isEmpty()) {
+                    inFlight++;
+                    call.held++;
+                    granted = true;
+                } else {
+                    waiting.add(new Waiter(call, sink));
+                }
+            }
+            if (granted) {
+                sink.success();
+            }
+        });
+    }
+
+    /**
+     * Gives back the permits {@code call} still holds, e.g. when it was cancelled with operations in
+     * flight, and drops its waiting operations.
+     */
+    private void close(Call call) {
+        List<MonoSink<Void>> granted;
+        synchronized (this) {
+            call.closed = true;
+            waiting.removeIf(waiter -> waiter.call == call);
+            inFlight -= call.held;
+            call.held = 0;
+            granted = grant();
+        }
+        granted.forEach(MonoSink::success);
+    }
+
+    // callers hold the lock on this, and complete the returned sinks once they released it
+    private List<MonoSink<Void>> grant() {
+        List<MonoSink<Void>> granted = new ArrayList<>();
+        while (inFlight < limit && !waiting.isEmpty()) {
+            Waiter waiter = waiting.poll();
+            inFlight++;
+            waiter.call.held++;
+            granted.add(waiter.sink);
+        }
+        return granted;
+    }
+
+    /**
+     * Runs operations once, without retries, as they arrive.
+     */
+    private interface Executor {
+        <TContext> Flux<OperationResult<TContext>> execute(Flux<CosmosItemOperation> operations);
+    }
+
+    /**
+     * State of one {@link #execute} call: the operations it still owes a final response for, the
+     * retries it feeds back into the executor, and the permits it holds.
+     */
+    private static final class Call {
+        final AtomicInteger outstanding = new AtomicInteger();
+        final Sinks.Many<CosmosItemOperation> retries = Sinks.many().unicast().onBackpressureBuffer();
+        // attempts of the operations that were retried, by identity: the executor hands back the
+        // operation it was given
+        final Map<CosmosItemOperation, Integer> attempts = new IdentityHashMap<>();
+        volatile boolean submitted;
+        // guarded by the writer
+        int held;
+        boolean closed;
+
+        synchronized int attempt(CosmosItemOperation operation) {
+            return attempts.getOrDefault(operation, 1);
+        }
+
+        synchronized void retrying(CosmosItemOperation operation, int attempt) {
+            attempts.put(operation, attempt);
+        }
+
+        synchronized void done(CosmosItemOperation operation) {
+            attempts.remove(operation);
+        }
+
+        synchronized void retry(CosmosItemOperation operation) {
+            retries.tryEmitNext(operation);
+        }
+
+        void onSubmitted() {
+            submitted = true;
+            completeIfDone();
+        }
+
+        void onDone() {
+            outstanding.decrementAndGet();
+            completeIfDone();
+        }
+
+        private synchronized void completeIfDone() {
+            if (submitted && outstanding.get() == 0) {
+                retries.tryEmitComplete();
+            }
+        }
+    }
+
+    private static final class Waiter {
+        final Call call;
+        final MonoSink<Void> sink;
+
+        Waiter(Call call, MonoSink<Void> sink) {
+            this.call = call;
+            this.sink = sink;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.common;
+
+import com.azure.cosmos.examples.models.ModelCodec;
+import com.azure.cosmos.examples.models.Models;
+import com.azure.cosmos.implementation.Utils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared, pre-built Jackson readers and writers for the samples.
+ * <p>
+ * Everything is derived from a copy of the SDK's {@link Utils#getSimpleObjectMapper()}, which
+ * registers the Blackbird module when it is on the classpath and the JVM is Java 11 or later. The
+ * {@link Models} classes are bound through their generated {@link ModelCodec}s instead, unless those
+ * are disabled. Readers and writers are immutable and thread-safe, and one is built per model type on
+ * first use, so the type is introspected once per process instead of once per call. Use these rather
+ * than creating an {@link ObjectMapper} or calling {@code writerWithDefaultPrettyPrinter()} per
+ * document.
+ */
+public final class JsonCodecs {
+
+    private static final ObjectMapper OBJECT_MAPPER = ModelCodec.ENABLED
+            ? Utils.getSimpleObjectMapper().copy().registerModule(ModelCodec.module())
+            : Utils.getSimpleObjectMapper();
+    private static final ObjectWriter PRETTY_WRITER = OBJECT_MAPPER.writerWithDefaultPrettyPrinter();
+    private static final Map<Class<?>, ObjectReader> READERS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+
+    private JsonCodecs() {
+    }
+
+    /**
+     * The mapper every reader and writer is derived from. Do not reconfigure it: it is shared.
+     */
+    public static ObjectMapper mapper() {
+        return OBJECT_MAPPER;
+    }
+
+    /**
+     * A reader that binds JSON, or a {@link JsonNode}, to {@code type}.
+     */
+    public static ObjectReader reader(Class<?> type) {
+        return READERS.computeIfAbsent(type, OBJECT_MAPPER::readerFor);
+    }
+
+    /**
+     * A writer that writes compact JSON for values of {@code type}.
+     */
+    public static ObjectWriter writer(Class<?> type) {
+        return WRITERS.computeIfAbsent(type, OBJECT_MAPPER::writerFor);
+    }
+
+    /**
+     * A writer that indents its output, for logging and printing documents.
+     */
+    public static ObjectWriter prettyWriter() {
+        return PRETTY_WRITER;
+    }
+
+    /**
+     * Binds {@code node}, e.g. a query result or change feed document, to {@code type}. Fails the way
+     * {@link ObjectMapper#treeToValue} does.
+     */
+    public static <T> T treeToValue(JsonNode node, Class<T> type) throws JsonProcessingException {
+        ModelCodec<T> codec = ModelCodec.forType(type);
+        if (codec != null) {
+            try {
+                return codec.fromTree(node);
+            } catch (UncheckedIOException e) {
+                throw e.getCause() instanceof JsonProcessingException
+                        ? (JsonProcessingException) e.getCause()
+                        : new JsonMappingException(null, e.getCause().getMessage(), e.getCause());
+            }
+        }
+        try {
+            return reader(type).readValue(node);
+        } catch (JsonProcessingException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * {@code value} as indented JSON.
+     */
+    public static String toPrettyString(Object value) throws JsonProcessingException {
+        return PRETTY_WRITER.writeValueAsString(value);
+    }
+}
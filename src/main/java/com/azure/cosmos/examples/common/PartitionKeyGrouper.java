@@ -0,0 +1,134 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.common;
+
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.models.CosmosItemOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Optional pre-grouping stage for bulk operations.
+ * <p>
+ * Data files interleave partition key values at random, so the micro-batches the bulk executor builds
+ * per physical partition are often half-empty when they are flushed. This stage buckets operations
+ * by partition key range and releases a bucket as soon as it holds a group of the size the
+ * {@link BulkWriter} asks for, so that every round trip to a partition carries as many documents as
+ * the writer currently lets through. Buffered operations are bounded by
+ * {@link #MEMORY_BUDGET_BYTES}: when the budget is exceeded the largest bucket is released early.
+ * <p>
+ * Enable it with -DBULK_GROUP_BY_PARTITION=true. Operations are reordered, so it only suits workloads
+ * that do not depend on submission order.
+ */
+public final class PartitionKeyGrouper {
+
+    public static final boolean ENABLED = Boolean.getBoolean("BULK_GROUP_BY_PARTITION");
+
+    /**
+     * Upper bound for the operations held back, configurable with -DBULK_GROUPING_BUDGET_MB=[n].
+     */
+    public static final long MEMORY_BUDGET_BYTES = Long.getLong("BULK_GROUPING_BUDGET_MB", 64) * 1024 * 1024;
+
+    /**
+     * Weight assumed for an operation whose size is not known.
+     */
+    public static final long DEFAULT_OPERATION_BYTES = 1024;
+
+    private static Logger logger = LoggerFactory.getLogger(PartitionKeyGrouper.class);
+
+    private PartitionKeyGrouper() {
+    }
+
+    /**
+     * Reorders {@code operations} into runs of up to {@link BulkWriter#getGroupSize} operations per
+     * partition key range of {@code container}, for {@code bulkWriter} to execute. {@code weigher}
+     * estimates the bytes an operation keeps in memory.
+     */
+    public static Flux<CosmosItemOperation> group(Flux<CosmosItemOperation> operations, CosmosAsyncContainer container,
+                                                  BulkWriter bulkWriter, ToLongFunction<CosmosItemOperation> weigher) {
+        return PartitionKeyRanges.fetch(container)
+                .map(ranges -> {
+                    logger.info("grouping bulk operations for " + container.getId() + " by " + ranges.size()
+                            + " partition key ranges");
+                    return Flux.defer(() -> {
+                        Buckets buckets = new Buckets(ranges, bulkWriter, weigher);
+                        return operations
+                                .concatMapIterable(buckets::add)
+                                .concatWith(Flux.defer(() -> Flux.fromIterable(buckets.drain())));
+                    });
+                })
+                .onErrorResume(e -> {
+                    logger.warn("cannot resolve partition key ranges of " + container.getId()
+                            + ", sending operations ungrouped: " + e);
+                    return Mono.just(operations);
+                })
+                .flatMapMany(grouped -> grouped);
+    }
+
+    private static class Buckets {
+
+        private final PartitionKeyRanges ranges;
+        private final BulkWriter bulkWriter;
+        private final ToLongFunction<CosmosItemOperation> weigher;
+        private final List<List<CosmosItemOperation>> buckets;
+        private final long[] weights;
+        private long totalWeight;
+
+        Buckets(PartitionKeyRanges ranges, BulkWriter bulkWriter, ToLongFunction<CosmosItemOperation> weigher) {
+            this.ranges = ranges;
+            this.bulkWriter = bulkWriter;
+            this.weigher = weigher;
+            this.buckets = new ArrayList<>(ranges.size());
+            for (int i = 0; i < ranges.size(); i++) {
+                buckets.add(new ArrayList<>());
+            }
+            this.weights = new long[ranges.size()];
+        }
+
+        List<CosmosItemOperation> add(CosmosItemOperation operation) {
+            int index = ranges.indexOf(operation.getPartitionKeyValue());
+            long weight = weigher.applyAsLong(operation);
+            buckets.get(index).add(operation);
+            weights[index] += weight;
+            totalWeight += weight;
+
+            if (buckets.get(index).size() >= bulkWriter.getGroupSize(ranges.size())) {
+                return release(index);
+            }
+            if (totalWeight > MEMORY_BUDGET_BYTES) {
+                int largest = 0;
+                for (int i = 1; i < buckets.size(); i++) {
+                    if (weights[i] > weights[largest]) {
+                        largest = i;
+                    }
+                }
+                return release(largest);
+            }
+            return Collections.emptyList();
+        }
+
+        List<CosmosItemOperation> drain() {
+            List<CosmosItemOperation> remaining = new ArrayList<>();
+            for (int i = 0; i < buckets.size(); i++) {
+                remaining.addAll(release(i));
+            }
+            return remaining;
+        }
+
+        private List<CosmosItemOperation> release(int index) {
+            List<CosmosItemOperation> released = buckets.get(index);
+            buckets.set(index, new ArrayList<>());
+            totalWeight -= weights[index];
+            weights[index] = 0;
+            return released;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.common;
+
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.implementation.routing.PartitionKeyInternalHelper;
+import com.azure.cosmos.models.FeedRange;
+import com.azure.cosmos.models.ModelBridgeInternal;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.PartitionKeyDefinition;
+import com.fasterxml.jackson.databind.JsonNode;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Maps partition key values to the physical partition key ranges of a container.
+ * <p>
+ * The ranges are the container's feed ranges at the time {@link #fetch} was called. A value is
+ * mapped by hashing it into its effective partition key, exactly as the SDK routes requests, and
+ * looking up the range that contains it. The bounds of a range are read from its public
+ * {@link FeedRange#toString()} form, base64 encoded JSON such as {"Range":{"min":"","max":"FF"}}.
+ * After a partition split the mapping is merely coarser, it never routes a request: the SDK still
+ * does that.
+ */
+public class PartitionKeyRanges {
+
+    private final PartitionKeyDefinition partitionKeyDefinition;
+    private final List<FeedRange> feedRanges;
+    private final String[] minInclusive;
+
+    private PartitionKeyRanges(PartitionKeyDefinition partitionKeyDefinition, List<FeedRange> feedRanges) {
+        List<FeedRange> sorted = new ArrayList<>(feedRanges);
+        sorted.sort(Comparator.comparing(PartitionKeyRanges::minInclusive));
+        this.partitionKeyDefinition = partitionKeyDefinition;
+        this.feedRanges = sorted;
+        this.minInclusive = new String[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            minInclusive[i] = minInclusive(sorted.get(i));
+        }
+    }
+
+    /**
+     * The lowest effective partition key of {@code feedRange}.
+     */
+    private static String minInclusive(FeedRange feedRange) {
+        try {
+            byte[] json = Base64.getDecoder().decode(feedRange.toString());
+            JsonNode range = JsonCodecs.mapper().readTree(json).path("Range");
+            if (!range.path("min").isTextual()) {
+                throw new IllegalStateException("Feed range " + feedRange + " is not a range of effective partition keys");
+            }
+            return range.get("min").asText();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to parse feed range " + feedRange, e);
+        }
+    }
+
+    public static Mono<PartitionKeyRanges> fetch(CosmosAsyncContainer container) {
+        return container.read()
+                .map(response -> response.getProperties().getPartitionKeyDefinition())
+                .zipWith(container.getFeedRanges())
+                .map(definitionAndRanges -> new PartitionKeyRanges(definitionAndRanges.getT1(), definitionAndRanges.getT2()));
+    }
+
+    public int size() {
+        return feedRanges.size();
+    }
+
+    public FeedRange getFeedRange(int index) {
+        return feedRanges.get(index);
+    }
+
+    /**
+     * Returns the index of the range that holds {@code partitionKey}.
+     */
+    public int indexOf(PartitionKey partitionKey) {
+        String effectivePartitionKey = PartitionKeyInternalHelper.getEffectivePartitionKeyString(
+                ModelBridgeInternal.getPartitionKeyInternal(partitionKey), partitionKeyDefinition);
+        int index = Arrays.binarySearch(minInclusive, effectivePartitionKey);
+        return index >= 0 ? index : Math.max(0, -index - 2);
+    }
+}
@@ -0,0 +1,75 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.common;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Every query the samples run, as a {@link QueryTemplate}. Bind values with
+ * {@link QueryTemplate#bind}; never concatenate them into a query text.
+ */
+public final class QueryCatalog {
+
+    private static final Map<String, QueryTemplate> TEMPLATES = new LinkedHashMap<>();
+
+    /** A customer of a container partitioned by {@code /id}. */
+    public static final QueryTemplate CUSTOMER_BY_ID = add("customerById",
+            "SELECT * FROM c WHERE c.id = @id", "@id");
+
+    /** Every document of a container, e.g. to load it into a cache. */
+    public static final QueryTemplate ALL_DOCUMENTS = add("allDocuments", "SELECT * FROM c", null);
+
+    /** The documents of one type in a container partitioned by {@code /type}, e.g. categories or tags. */
+    public static final QueryTemplate DOCUMENTS_BY_TYPE = add("documentsByType",
+            "SELECT * FROM c WHERE c.type = @type", "@type");
+
+    public static final QueryTemplate PRODUCTS_BY_CATEGORY = add("productsByCategory",
+            "SELECT * FROM c WHERE c.categoryId = @categoryId", "@categoryId");
+
+    public static final QueryTemplate PRODUCT_COUNT_BY_CATEGORY = add("productCountByCategory",
+            "SELECT COUNT(1) AS ProductCount, c.categoryName FROM c WHERE c.categoryId = @categoryId "
+                    + "GROUP BY c.categoryName", "@categoryId");
+
+    /** The orders of a customer in the customer container of {@code database-v4}. */
+    public static final QueryTemplate SALES_ORDERS_BY_CUSTOMER = add("salesOrdersByCustomer",
+            "SELECT * FROM c WHERE c.type = 'salesOrder' AND c.customerId = @customerId", "@customerId");
+
+    /** A customer and all their orders, from the customer container of {@code database-v4}. */
+    public static final QueryTemplate CUSTOMER_AND_SALES_ORDERS = add("customerAndSalesOrders",
+            "SELECT * FROM c WHERE c.customerId = @customerId", "@customerId");
+
+    /** Ids of customers in the customer container of {@code database-v4}, e.g. to read them by id. */
+    public static final QueryTemplate CUSTOMER_IDS = add("customerIds",
+            "SELECT TOP @count c.id, c.customerId FROM c WHERE c.type = 'customer'", null);
+
+    public static final QueryTemplate TOP_CUSTOMERS = add("topCustomers",
+            "SELECT TOP @count * FROM c WHERE c.type = 'customer' ORDER BY c.salesOrderCount DESC", null);
+
+    public static final QueryTemplate TOP_CUSTOMER_NAMES = add("topCustomerNames",
+            "SELECT TOP @count c.firstName, c.lastName, c.salesOrderCount FROM c WHERE c.type = 'customer' "
+                    + "ORDER BY c.salesOrderCount DESC", null);
+
+    private QueryCatalog() {
+    }
+
+    /**
+     * The template called {@code name}, or {@code null}.
+     */
+    public static QueryTemplate get(String name) {
+        return TEMPLATES.get(name);
+    }
+
+    public static Collection<QueryTemplate> all() {
+        return Collections.unmodifiableCollection(TEMPLATES.values());
+    }
+
+    private static QueryTemplate add(String name, String text, String partitionKeyParameter) {
+        QueryTemplate template = new QueryTemplate(name, text, partitionKeyParameter);
+        TEMPLATES.put(name, template);
+        return template;
+    }
+}
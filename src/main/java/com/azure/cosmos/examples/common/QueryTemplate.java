@@ -0,0 +1,108 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.common;
+
+import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlParameter;
+import com.azure.cosmos.models.SqlQuerySpec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A named query whose values are always bound as parameters, never written into its text.
+ * <p>
+ * Every execution of a template sends the same query text, so the SDK's query plan cache, which is
+ * keyed by text, serves every execution after the first instead of filling up with one entry per
+ * literal. The parameters and the one that holds the partition key are worked out once, when the
+ * template is created, and a template with a partition key parameter scopes its queries to that
+ * partition.
+ */
+public final class QueryTemplate {
+
+    private static final Pattern PARAMETER = Pattern.compile("@[A-Za-z_][A-Za-z0-9_]*");
+
+    private final String name;
+    private final String text;
+    private final List<String> parameters;
+    private final int partitionKeyIndex;
+
+    QueryTemplate(String name, String text, String partitionKeyParameter) {
+        this.name = name;
+        this.text = text;
+        List<String> parameters = new ArrayList<>();
+        Matcher matcher = PARAMETER.matcher(text);
+        while (matcher.find()) {
+            if (!parameters.contains(matcher.group())) {
+                parameters.add(matcher.group());
+            }
+        }
+        this.parameters = Collections.unmodifiableList(parameters);
+        this.partitionKeyIndex = partitionKeyParameter == null ? -1 : parameters.indexOf(partitionKeyParameter);
+        if (partitionKeyParameter != null && partitionKeyIndex < 0) {
+            throw new IllegalArgumentException("Query " + name + " has no parameter " + partitionKeyParameter);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * The parameter names, in the order of their first use in the text.
+     */
+    public List<String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * The query with {@code values} bound to the {@link #getParameters() parameters}, in order.
+     */
+    public SqlQuerySpec bind(Object... values) {
+        if (values.length != parameters.size()) {
+            throw new IllegalArgumentException("Query " + name + " takes " + parameters + " but got "
+                    + values.length + " values");
+        }
+        List<SqlParameter> bound = new ArrayList<>(values.length);
+        for (int i = 0; i < values.length; i++) {
+            bound.add(new SqlParameter(parameters.get(i), values[i]));
+        }
+        return new SqlQuerySpec(text, bound);
+    }
+
+    /**
+     * The partition {@code query}, bound from this template, is scoped to, or {@code null} if it
+     * runs across partitions.
+     */
+    public PartitionKey partitionKey(SqlQuerySpec query) {
+        if (partitionKeyIndex < 0) {
+            return null;
+        }
+        return new PartitionKey(query.getParameters().get(partitionKeyIndex).getValue(Object.class));
+    }
+
+    /**
+     * Scopes {@code options} to the {@link #partitionKey partition} of {@code query}, if it has one.
+     */
+    public CosmosQueryRequestOptions scope(CosmosQueryRequestOptions options, SqlQuerySpec query) {
+        PartitionKey partitionKey = partitionKey(query);
+        if (partitionKey != null) {
+            options.setPartitionKey(partitionKey);
+        }
+        return options;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + text;
+    }
+}
@@ -0,0 +1,507 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.generator;
+
+import com.azure.cosmos.examples.loader.DataFileFormat;
+import com.azure.cosmos.implementation.Utils;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Seeded generator of Cosmic Works data sets of any size, in the layout of every database-vN schema.
+ * <p>
+ * Every customer, product, category, tag and order is derived from the seed, its kind and its index
+ * alone, so any container can be generated on its own, in any order, and a document references the
+ * same customer or product ids in every container and every run. Nothing but a few distribution
+ * tables is held in memory, whatever the number of documents.
+ * <p>
+ * The data is skewed like a real shop: the number of orders per customer and the number of products
+ * per category follow a Zipf distribution with exponent {@link #SKEW}, so a few customers have very
+ * many orders and a few categories hold most products, and order lines favour popular products.
+ * <p>
+ * The size is configured with -DGENERATOR_CUSTOMERS, -DGENERATOR_PRODUCTS, -DGENERATOR_CATEGORIES,
+ * -DGENERATOR_TAGS and -DGENERATOR_ORDERS_PER_CUSTOMER, the data with -DGENERATOR_SEED and
+ * -DGENERATOR_SKEW. To write data files that the loader reads like the bundled ones, run
+ * <pre>
+ * mvn exec:java -Dexec.mainClass=com.azure.cosmos.examples.generator.SyntheticDataGenerator \
+ *     -Dexec.args="src/main/java/com/azure/cosmos/examples/data/synthetic-works-v4 4 SMILE"
+ * </pre>
+ */
+public class SyntheticDataGenerator {
+
+    public static final long SEED = Long.getLong("GENERATOR_SEED", 42);
+    public static final int CUSTOMERS = Integer.getInteger("GENERATOR_CUSTOMERS", 100_000);
+    public static final int PRODUCTS = Integer.getInteger("GENERATOR_PRODUCTS", 10_000);
+    public static final int CATEGORIES = Integer.getInteger("GENERATOR_CATEGORIES", 40);
+    public static final int TAGS = Integer.getInteger("GENERATOR_TAGS", 200);
+    public static final double ORDERS_PER_CUSTOMER =
+            Double.parseDouble(System.getProperty("GENERATOR_ORDERS_PER_CUSTOMER", "5"));
+    public static final double SKEW = Double.parseDouble(System.getProperty("GENERATOR_SKEW", "1.0"));
+
+    private static final int CUSTOMER = 1;
+    private static final int PRODUCT = 2;
+    private static final int CATEGORY = 3;
+    private static final int TAG = 4;
+    private static final int ORDER_COUNT = 5;
+    private static final int ORDER = 6;
+    private static final int ORDER_LINES = 7;
+    private static final int PRODUCT_CATEGORY = 8;
+
+    private static final String[] CATEGORY_NAMES = {
+        "Bikes, Road Bikes", "Components, Saddles", "Clothing, Jerseys", "Accessories, Helmets",
+        "Bikes, Mountain Bikes", "Components, Wheels", "Clothing, Gloves", "Accessories, Bottles and Cages",
+        "Bikes, Touring Bikes", "Components, Pedals", "Clothing, Socks", "Accessories, Lights",
+        "Components, Handlebars", "Clothing, Vests", "Accessories, Locks", "Components, Brakes"};
+    private static final String[] COLORS = {"Black", "Red", "Blue", "Silver", "Yellow", "White"};
+    private static final String[] TITLES = {"", "Mr.", "Ms.", "Mrs.", "Dr."};
+    private static final String[] FIRST_NAMES = {
+        "Alex", "Ana", "Ben", "Carla", "Dev", "Elena", "Femi", "Grace", "Hiro", "Ines",
+        "Jon", "Kira", "Luis", "Maya", "Nikhil", "Olga", "Priya", "Quinn", "Rosa", "Sam"};
+    private static final String[] LAST_NAMES = {
+        "Adams", "Brown", "Chen", "Diaz", "Evans", "Fischer", "Garcia", "Hughes", "Ito", "Jensen",
+        "Khan", "Lopez", "Martin", "Nguyen", "Okafor", "Patel", "Rossi", "Silva", "Tanaka", "Weber"};
+    private static final String[][] CITIES = {
+        {"Seattle", "WA", "US"}, {"Redmond", "WA", "US"}, {"Portland", "OR", "US"}, {"Austin", "TX", "US"},
+        {"Toronto", "ON", "CA"}, {"London", "England", "GB"}, {"Paris", "Seine (Paris)", "FR"},
+        {"Berlin", "Berlin", "DE"}, {"Sydney", "New South Wales", "AU"}, {"Melbourne", "Victoria", "AU"}};
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2019, 1, 1, 0, 0);
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private static final ObjectMapper OBJECT_MAPPER = Utils.getSimpleObjectMapper();
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private static Logger logger = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    private final long seed;
+    private final int customers;
+    private final int products;
+    private final int categories;
+    private final int tags;
+    private final double skew;
+    private final double ordersPerUnitWeight;
+    private final double[] categoryCdf;
+    private final double[] productCdf;
+
+    public SyntheticDataGenerator() {
+        this(SEED, CUSTOMERS, PRODUCTS, CATEGORIES, TAGS, ORDERS_PER_CUSTOMER, SKEW);
+    }
+
+    public SyntheticDataGenerator(long seed, int customers, int products, int categories, int tags,
+                                  double ordersPerCustomer, double skew) {
+        this.seed = seed;
+        this.customers = customers;
+        this.products = products;
+        this.categories = categories;
+        this.tags = tags;
+        this.skew = skew;
+        double harmonic = 0;
+        for (int rank = 1; rank <= customers; rank++) {
+            harmonic += Math.pow(rank, -skew);
+        }
+        this.ordersPerUnitWeight = customers * ordersPerCustomer / harmonic;
+        this.categoryCdf = zipfCdf(categories, skew);
+        this.productCdf = zipfCdf(products, skew);
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("usage: SyntheticDataGenerator <folder> <schema version> [JSON|JSON_GZIP|SMILE]");
+            System.exit(1);
+        }
+        int schemaVersion = Integer.parseInt(args[1]);
+        DataFileFormat format = args.length > 2
+                ? DataFileFormat.valueOf(args[2].toUpperCase(Locale.ROOT))
+                : DataFileFormat.JSON;
+        new SyntheticDataGenerator().writeDataFiles(schemaVersion, new File(args[0]), format);
+    }
+
+    /**
+     * The containers this generator produces documents for in the given schema version.
+     */
+    public static List<String> getContainerNames(int schemaVersion) {
+        switch (schemaVersion) {
+            case 1:
+                return Arrays.asList("customer", "customerAddress", "customerPassword", "product", "productCategory",
+                        "productTag", "productTags", "salesOrder", "salesOrderDetail");
+            case 2:
+            case 3:
+                return Arrays.asList("customer", "product", "productCategory", "productTag", "salesOrder");
+            case 4:
+                return Arrays.asList("customer", "product", "productMeta", "salesByCategory");
+            default:
+                return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Returns a cold {@link Flux} of the documents of {@code containerName} in database-v{@code schemaVersion}.
+     * Containers that hold no data, such as {@code leases}, are empty.
+     */
+    public Flux<JsonNode> documents(int schemaVersion, String containerName) {
+        switch (schemaVersion + "/" + containerName) {
+            case "1/customer":
+                return Flux.range(0, customers).map(i -> customer(i, 1));
+            case "1/customerAddress":
+                return Flux.range(0, customers).map(i -> {
+                    ObjectNode address = address(random(CUSTOMER, i), i);
+                    address.put("customerId", customerId(i));
+                    return address.put("id", customerId(i));
+                });
+            case "1/customerPassword":
+                return Flux.range(0, customers).map(i -> password(i).put("id", customerId(i)));
+            case "1/product":
+                return Flux.range(0, products).map(j -> product(j, 1));
+            case "1/productCategory":
+                return Flux.range(0, categories).map(c -> category(c, false));
+            case "1/productTag":
+                return Flux.range(0, tags).map(t -> tag(t, false));
+            case "1/productTags":
+                return Flux.range(0, products).concatMapIterable(j -> {
+                    String productId = productId(j);
+                    ArrayNode productTags = NODES.arrayNode();
+                    for (int t : productTags(j)) {
+                        productTags.add(NODES.objectNode()
+                                .put("id", productId + "." + tagId(t))
+                                .put("productId", productId)
+                                .put("productTagId", tagId(t)));
+                    }
+                    return productTags;
+                });
+            case "1/salesOrder":
+                return orders(1);
+            case "1/salesOrderDetail":
+                return orders(1).concatMapIterable(order -> {
+                    ArrayNode details = (ArrayNode) order.get("details");
+                    ((ObjectNode) order).remove("details");
+                    for (int line = 0; line < details.size(); line++) {
+                        ((ObjectNode) details.get(line))
+                                .put("id", order.get("id").asText() + "." + (line + 1))
+                                .put("salesOrderId", order.get("id").asText());
+                    }
+                    return details;
+                });
+            case "2/customer":
+            case "3/customer":
+                return Flux.range(0, customers).map(i -> customer(i, schemaVersion));
+            case "2/product":
+            case "3/product":
+            case "4/product":
+                return Flux.range(0, products).map(j -> product(j, schemaVersion));
+            case "2/productCategory":
+            case "3/productCategory":
+                return Flux.range(0, categories).map(c -> category(c, true));
+            case "2/productTag":
+            case "3/productTag":
+                return Flux.range(0, tags).map(t -> tag(t, true));
+            case "2/salesOrder":
+            case "3/salesOrder":
+                return orders(schemaVersion);
+            case "4/customer":
+                return Flux.concat(Flux.range(0, customers).map(i -> customer(i, 4)), orders(4));
+            case "4/productMeta":
+                return Flux.concat(Flux.range(0, categories).map(c -> category(c, true)),
+                        Flux.range(0, tags).map(t -> tag(t, true)));
+            case "4/salesByCategory":
+                return salesByCategory();
+            case "3/leases":
+                return Flux.empty();
+            default:
+                return Flux.error(new IllegalArgumentException(
+                        "No synthetic data for container " + containerName + " in schema v" + schemaVersion));
+        }
+    }
+
+    /**
+     * Writes one data file per container of {@code schemaVersion} into {@code folder}, named like the
+     * container, so that the loader can read the folder like the bundled data.
+     */
+    public void writeDataFiles(int schemaVersion, File folder, DataFileFormat format) {
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new UncheckedIOException(new IOException("Cannot create " + folder));
+        }
+        for (String containerName : getContainerNames(schemaVersion)) {
+            File file = new File(folder, containerName + format.getSuffix());
+            long start = System.currentTimeMillis();
+            long[] count = {0};
+            try (JsonGenerator generator = format.createGenerator(file)) {
+                generator.writeStartArray();
+                documents(schemaVersion, containerName).doOnNext(document -> {
+                    try {
+                        OBJECT_MAPPER.writeTree(generator, document);
+                        count[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }).blockLast();
+                generator.writeEndArray();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to write " + file, e);
+            }
+            logger.info("generated " + count[0] + " documents into " + file + " (" + file.length() + " bytes) in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    /**
+     * The number of orders of customer {@code i}, whose rank in the Zipf distribution is {@code i + 1}.
+     */
+    public int orderCount(int i) {
+        double expected = ordersPerUnitWeight * Math.pow(i + 1, -skew);
+        int count = (int) expected;
+        return random(ORDER_COUNT, i).nextDouble() < expected - count ? count + 1 : count;
+    }
+
+    private ObjectNode customer(int i, int schemaVersion) {
+        SplittableRandom random = random(CUSTOMER, i);
+        String id = uuid(random);
+        String firstName = pick(random, FIRST_NAMES);
+        String lastName = pick(random, LAST_NAMES);
+        ObjectNode customer = NODES.objectNode().put("id", id);
+        if (schemaVersion == 4) {
+            customer.put("type", "customer").put("customerId", id);
+        }
+        customer.put("title", pick(random, TITLES))
+                .put("firstName", firstName)
+                .put("lastName", lastName)
+                .put("emailAddress", firstName.toLowerCase(Locale.ROOT) + "." + lastName.toLowerCase(Locale.ROOT)
+                        + i + "@example.com")
+                .put("phoneNumber", String.format("1 (11) 500 555-%04d", random.nextInt(10_000)))
+                .put("creationDate", date(random, 0));
+        if (schemaVersion > 1) {
+            customer.set("addresses", NODES.arrayNode().add(address(random, i)));
+            customer.set("password", password(i));
+        }
+        if (schemaVersion == 4) {
+            customer.put("salesOrderCount", orderCount(i));
+        }
+        return customer;
+    }
+
+    private ObjectNode address(SplittableRandom random, int i) {
+        String[] city = pick(random, CITIES);
+        ObjectNode address = NODES.objectNode()
+                .put("addressLine1", (1 + random.nextInt(9_999)) + " " + pick(random, LAST_NAMES) + " Street")
+                .put("addressLine2", "")
+                .put("city", city[0])
+                .put("state", city[1])
+                .put("country", city[2])
+                .put("zipCode", String.format("%05d", random.nextInt(100_000)));
+        ObjectNode location = address.putObject("location").put("type", "Point");
+        location.putArray("coordinates")
+                .add((float) (random.nextDouble() * 360 - 180))
+                .add((float) (random.nextDouble() * 180 - 90));
+        return address;
+    }
+
+    private ObjectNode password(int i) {
+        SplittableRandom random = random(CUSTOMER, ~i);
+        byte[] hash = new byte[32];
+        for (int b = 0; b < hash.length; b++) {
+            hash[b] = (byte) random.nextInt(256);
+        }
+        return NODES.objectNode()
+                .put("hash", Base64.getEncoder().encodeToString(hash))
+                .put("salt", String.format("%08X", random.nextInt()));
+    }
+
+    private ObjectNode product(int j, int schemaVersion) {
+        SplittableRandom random = random(PRODUCT, j);
+        String id = uuid(random);
+        int category = productCategory(j);
+        String categoryName = categoryName(category);
+        String baseName = CATEGORY_NAMES[category % CATEGORY_NAMES.length];
+        String model = baseName.substring(baseName.indexOf(", ") + 2).replaceAll("s$", "")
+                + "-" + (100 + j % 900);
+        String name = model + " " + pick(random, COLORS);
+        ObjectNode product = NODES.objectNode()
+                .put("id", id)
+                .put("categoryId", categoryId(category));
+        if (schemaVersion >= 3) {
+            product.put("categoryName", categoryName);
+        }
+        product.put("sku", categoryName.substring(0, 2).toUpperCase(Locale.ROOT) + "-"
+                        + Integer.toString(random.nextInt(46_656), 36).toUpperCase(Locale.ROOT) + "-" + j)
+                .put("name", name)
+                .put("description", "The product called \"" + name + "\"")
+                .put("price", Math.round(Math.exp(1 + random.nextDouble() * 7) * 100) / 100d);
+        if (schemaVersion == 2) {
+            ArrayNode tagIds = product.putArray("tagIds");
+            for (int t : productTags(j)) {
+                tagIds.add(tagId(t));
+            }
+        } else if (schemaVersion >= 3) {
+            ArrayNode productTags = product.putArray("tags");
+            for (int t : productTags(j)) {
+                productTags.addObject().put("id", tagId(t)).put("name", tagName(t));
+            }
+        }
+        return product;
+    }
+
+    private int productCategory(int j) {
+        return sample(categoryCdf, random(PRODUCT_CATEGORY, j));
+    }
+
+    private int[] productTags(int j) {
+        SplittableRandom random = random(PRODUCT, ~j);
+        return random.ints(0, tags).distinct().limit(Math.min(tags, random.nextInt(6))).sorted().toArray();
+    }
+
+    private ObjectNode category(int c, boolean typed) {
+        ObjectNode category = NODES.objectNode().put("id", categoryId(c)).put("name", categoryName(c));
+        return typed ? category.put("type", "category") : category;
+    }
+
+    private ObjectNode tag(int t, boolean typed) {
+        ObjectNode tag = NODES.objectNode().put("id", tagId(t)).put("name", tagName(t));
+        return typed ? tag.put("type", "tag") : tag;
+    }
+
+    private Flux<JsonNode> orders(int schemaVersion) {
+        return Flux.range(0, customers)
+                .concatMap(i -> Flux.range(0, orderCount(i)).map(k -> order(i, k, schemaVersion)));
+    }
+
+    private JsonNode order(int i, int k, int schemaVersion) {
+        SplittableRandom random = random(ORDER, ((long) i << 32) | k);
+        ObjectNode order = NODES.objectNode().put("id", uuid(random));
+        if (schemaVersion == 4) {
+            order.put("type", "salesOrder");
+        }
+        int days = random.nextInt(5 * 365);
+        order.put("customerId", customerId(i))
+                .put("orderDate", date(random, days))
+                .put("shipDate", date(random, days + 1 + random.nextInt(7)));
+        ArrayNode details = order.putArray("details");
+        for (int[] line : orderLines(i, k)) {
+            JsonNode product = product(line[0], 1);
+            details.addObject()
+                    .put("sku", product.get("sku").asText())
+                    .put("name", product.get("name").asText())
+                    .put("price", product.get("price").asDouble())
+                    .put("quantity", line[1]);
+        }
+        return order;
+    }
+
+    /**
+     * The lines of order {@code k} of customer {@code i}, as {product index, quantity} pairs.
+     */
+    private int[][] orderLines(int i, int k) {
+        SplittableRandom random = random(ORDER_LINES, ((long) i << 32) | k);
+        int[][] lines = new int[1 + random.nextInt(5)][];
+        for (int line = 0; line < lines.length; line++) {
+            lines[line] = new int[] {sample(productCdf, random), 1 + random.nextInt(5)};
+        }
+        return lines;
+    }
+
+    /**
+     * Sums up the sales of every category over all orders, which takes a full pass over the orders but
+     * only one counter per category in memory.
+     */
+    private Flux<JsonNode> salesByCategory() {
+        return Flux.defer(() -> {
+            double[] totals = new double[categories];
+            return Flux.range(0, customers)
+                    .doOnNext(i -> {
+                        for (int k = orderCount(i) - 1; k >= 0; k--) {
+                            for (int[] line : orderLines(i, k)) {
+                                totals[productCategory(line[0])] += product(line[0], 1).get("price").asDouble() * line[1];
+                            }
+                        }
+                    })
+                    .thenMany(Flux.range(0, categories).map(c -> NODES.objectNode()
+                            .put("id", categoryId(c))
+                            .put("categoryId", categoryId(c))
+                            .put("categoryName", categoryName(c))
+                            .put("totalSales", Math.round(totals[c] * 100) / 100d)));
+        });
+    }
+
+    private String customerId(int i) {
+        return uuid(random(CUSTOMER, i));
+    }
+
+    private String productId(int j) {
+        return uuid(random(PRODUCT, j));
+    }
+
+    private String categoryId(int c) {
+        return uuid(random(CATEGORY, c));
+    }
+
+    private String tagId(int t) {
+        return uuid(random(TAG, t));
+    }
+
+    private static String categoryName(int c) {
+        String name = CATEGORY_NAMES[c % CATEGORY_NAMES.length];
+        return c < CATEGORY_NAMES.length ? name : name + " " + (c / CATEGORY_NAMES.length + 1);
+    }
+
+    private static String tagName(int t) {
+        return "Tag-" + (t + 1);
+    }
+
+    /**
+     * The random source of one entity: a pure function of the seed, the kind of entity and its index.
+     */
+    private SplittableRandom random(int kind, long index) {
+        long z = seed + kind * 0x9E3779B97F4A7C15L + index * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return new SplittableRandom(z ^ (z >>> 31));
+    }
+
+    private static String uuid(SplittableRandom random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString().toUpperCase(Locale.ROOT);
+    }
+
+    private static String date(SplittableRandom random, int days) {
+        return EPOCH.plusDays(days).plusSeconds(random.nextInt(86_400)).format(DATE_FORMAT);
+    }
+
+    private static <T> T pick(SplittableRandom random, T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static double[] zipfCdf(int n, double skew) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += Math.pow(rank, -skew);
+            cdf[rank - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int sample(double[] cdf, SplittableRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(cdf.length - 1, index >= 0 ? index : -index - 1);
+    }
+}
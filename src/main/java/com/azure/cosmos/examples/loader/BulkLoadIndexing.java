@@ -0,0 +1,171 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.loader;
+
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.implementation.DocumentCollection;
+import com.azure.cosmos.models.CosmosContainerProperties;
+import com.azure.cosmos.models.CosmosContainerRequestOptions;
+import com.azure.cosmos.models.ExcludedPath;
+import com.azure.cosmos.models.IndexingMode;
+import com.azure.cosmos.models.IndexingPolicy;
+import com.azure.cosmos.models.ModelBridgeInternal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+
+/**
+ * Bulk-load indexing mode: defers indexing of a container until its documents have been written.
+ * <p>
+ * Before the load the container's indexing policy is saved and replaced with a minimal one that
+ * indexes no paths, so writes are charged for the document only. Once the load has succeeded the
+ * saved policy is put back and the load waits until the index transformation has caught up, polling
+ * its progress every {@link #POLL_INTERVAL}. If the load fails the policy is restored right away.
+ * <p>
+ * The saved policy is kept in {@code [LOAD_CHECKPOINT_DIR]/[database].[container].indexing.json}
+ * until it is restored, so a load that was killed while indexing was deferred restores the original
+ * policy, not the minimal one, when it is run again. Enable it with -DLOAD_DEFER_INDEXING=true.
+ */
+public final class BulkLoadIndexing {
+
+    public static final boolean ENABLED = Boolean.getBoolean("LOAD_DEFER_INDEXING");
+
+    /**
+     * Interval between two reads of the index transformation progress, configurable with
+     * -DLOAD_INDEX_POLL_SECONDS=[n].
+     */
+    public static final Duration POLL_INTERVAL = Duration.ofSeconds(Long.getLong("LOAD_INDEX_POLL_SECONDS", 10));
+
+    private static Logger logger = LoggerFactory.getLogger(BulkLoadIndexing.class);
+
+    private BulkLoadIndexing() {
+    }
+
+    /**
+     * Runs {@code load} with indexing of {@code container} deferred, and completes once the restored
+     * index is up to date.
+     */
+    public static Mono<Void> around(CosmosAsyncContainer container, String name, Mono<Void> load) {
+        return relax(container, name)
+                .then(load)
+                .onErrorResume(e -> restore(container, name)
+                        .onErrorResume(restoreError -> {
+                            logger.error("failed to restore the indexing policy of " + name + ": " + restoreError);
+                            return Mono.empty();
+                        })
+                        .then(Mono.error(e)))
+                .then(Mono.defer(() -> restore(container, name)))
+                .then(Mono.defer(() -> awaitIndexing(container, name)));
+    }
+
+    /**
+     * Deletes the saved indexing policies of every container in {@code databaseName}.
+     */
+    public static void clear(String databaseName) {
+        if (!Files.isDirectory(LoadCheckpoint.CHECKPOINT_DIR)) {
+            return;
+        }
+        try (DirectoryStream<Path> policies = Files.newDirectoryStream(LoadCheckpoint.CHECKPOINT_DIR,
+                databaseName + ".*.indexing.json")) {
+            for (Path policy : policies) {
+                Files.delete(policy);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to clear saved indexing policies of " + databaseName, e);
+        }
+    }
+
+    private static Mono<Void> relax(CosmosAsyncContainer container, String name) {
+        Path saved = savedPolicy(container);
+        return container.read()
+                // the response arrives on a netty thread, save the policy off it
+                .flatMap(response -> Mono.fromCallable(() -> {
+                    CosmosContainerProperties properties = response.getProperties();
+                    if (!Files.exists(saved)) {
+                        IndexingPolicy original = properties.getIndexingPolicy();
+                        ModelBridgeInternal.populatePropertyBag(original);
+                        write(saved, ModelBridgeInternal.getJsonSerializable(original).toJson());
+                    }
+                    return properties;
+                }).subscribeOn(Schedulers.boundedElastic()))
+                .flatMap(properties -> {
+                    logger.info("deferring indexing of " + name + " until it is loaded");
+                    properties.setIndexingPolicy(new IndexingPolicy()
+                            .setIndexingMode(IndexingMode.CONSISTENT)
+                            .setAutomatic(true)
+                            .setIncludedPaths(Collections.emptyList())
+                            .setExcludedPaths(Collections.singletonList(new ExcludedPath("/*"))));
+                    return container.replace(properties);
+                })
+                .then();
+    }
+
+    private static Mono<Void> restore(CosmosAsyncContainer container, String name) {
+        Path saved = savedPolicy(container);
+        return Mono.defer(() -> {
+            if (!Files.exists(saved)) {
+                return Mono.<Void>empty();
+            }
+            IndexingPolicy original = new DocumentCollection("{\"indexingPolicy\":" + read(saved) + "}")
+                    .getIndexingPolicy();
+            return container.read()
+                    .flatMap(response -> {
+                        logger.info("restoring the indexing policy of " + name);
+                        return container.replace(response.getProperties().setIndexingPolicy(original));
+                    })
+                    .then(Mono.<Void>fromRunnable(() -> delete(saved)).subscribeOn(Schedulers.boundedElastic()));
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static Mono<Void> awaitIndexing(CosmosAsyncContainer container, String name) {
+        CosmosContainerRequestOptions options = new CosmosContainerRequestOptions().setQuotaInfoEnabled(true);
+        return Flux.interval(Duration.ZERO, POLL_INTERVAL)
+                .concatMap(tick -> container.read(options))
+                .map(response -> response.getIndexTransformationProgress())
+                .doOnNext(progress -> logger.info("index transformation of " + name + ": " + progress + "%"))
+                .takeUntil(progress -> progress < 0 || progress >= 100)
+                .then(Mono.fromRunnable(() -> logger.info("indexing of " + name + " caught up")));
+    }
+
+    private static Path savedPolicy(CosmosAsyncContainer container) {
+        return LoadCheckpoint.CHECKPOINT_DIR.resolve(container.getDatabase().getId() + "." + container.getId()
+                + ".indexing.json");
+    }
+
+    private static void write(Path path, String json) {
+        try {
+            Files.createDirectories(path.getParent());
+            Files.write(path, json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to save indexing policy to " + path, e);
+        }
+    }
+
+    private static String read(Path path) {
+        try {
+            return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read indexing policy from " + path, e);
+        }
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete " + path + ": " + e);
+        }
+    }
+}
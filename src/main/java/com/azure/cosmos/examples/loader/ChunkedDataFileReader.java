@@ -0,0 +1,233 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.loader;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Parses large Cosmic Works data files on every core.
+ * <p>
+ * The file is memory-mapped and scanned once to split its top-level array into byte ranges that
+ * start and end on document boundaries. Each range is then parsed on its own fork/join worker, so
+ * a single large container file (e.g. {@code salesOrder} or {@code customer}) is no longer limited
+ * to one thread. Files below {@link #MIN_CHUNK_BYTES} are streamed sequentially, and so are gzip and
+ * Smile files (see {@link DataFileFormat}), whose document boundaries cannot be found without
+ * decoding them.
+ * <p>
+ * Reading can start at any offset at which a previous read acknowledged a document (see
+ * {@link DataFileDocument}), which is how interrupted loads are resumed.
+ */
+public final class ChunkedDataFileReader {
+
+    /** Smallest byte range handed to a parser; files smaller than two chunks are not split. */
+    public static final long MIN_CHUNK_BYTES = 4L * 1024 * 1024;
+
+    /** Largest byte range handed to a parser; keeps every chunk within a single mapping. */
+    private static final long MAX_CHUNK_BYTES = 256L * 1024 * 1024;
+
+    /** Size of the windows mapped while scanning for document boundaries. */
+    private static final long SCAN_WINDOW_BYTES = 64L * 1024 * 1024;
+
+    /** Size of the blocks copied out of a mapped window while scanning. */
+    private static final int SCAN_BLOCK_BYTES = 64 * 1024;
+
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+    private static final Scheduler PARSE_SCHEDULER =
+            Schedulers.fromExecutorService(new ForkJoinPool(PARALLELISM), "data-file-parse");
+
+    private static final byte[] ARRAY_START = {'['};
+    private static final byte[] ARRAY_END = {']'};
+
+    private ChunkedDataFileReader() {
+    }
+
+    /**
+     * Returns a cold {@link Flux} of the documents in the given file. Documents of different chunks
+     * are interleaved, so the order of the file is not preserved.
+     */
+    public static Flux<JsonNode> readDocuments(File file) {
+        return readDocuments(file, 0).map(DataFileDocument::getDocument);
+    }
+
+    /**
+     * Returns a cold {@link Flux} of the documents that follow {@code fromOffset}, which must be
+     * {@code 0} or the end offset of a document previously read from the same file.
+     */
+    public static Flux<DataFileDocument> readDocuments(File file, long fromOffset) {
+        if (DataFileFormat.of(file) != DataFileFormat.JSON) {
+            return DataFileReader.readDocuments(file, fromOffset);
+        }
+        if (PARALLELISM < 2 || file.length() - fromOffset < 2 * MIN_CHUNK_BYTES) {
+            return readSequentially(file, fromOffset);
+        }
+        return Flux.defer(() -> Flux.fromIterable(split(file, fromOffset, PARALLELISM)))
+                .flatMap(chunk -> readChunk(file, chunk).subscribeOn(PARSE_SCHEDULER), PARALLELISM);
+    }
+
+    /**
+     * Splits the top-level array of {@code file}, from {@code fromOffset} on, into roughly
+     * {@code chunkCount} ranges holding whole documents without the separating commas. Each range is
+     * returned as {@code {parseStart, parseEnd, startOffset}}, where {@code startOffset} is the offset
+     * at which the first {@link DataFileDocument} of the range starts.
+     */
+    static List<long[]> split(File file, long fromOffset, int chunkCount) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long contentStart = contentStart(channel, fromOffset, file.getName());
+            long chunkSize = Math.min(MAX_CHUNK_BYTES,
+                    Math.max(MIN_CHUNK_BYTES, (size - contentStart) / chunkCount));
+
+            List<long[]> chunks = new ArrayList<>();
+            int depth = 1;
+            boolean inString = false;
+            boolean escaped = false;
+            long chunkStart = contentStart;
+            long startOffset = fromOffset;
+            long elementEnd = fromOffset;
+            byte[] block = new byte[SCAN_BLOCK_BYTES];
+
+            for (long windowStart = contentStart; windowStart < size; windowStart += SCAN_WINDOW_BYTES) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart,
+                        Math.min(SCAN_WINDOW_BYTES, size - windowStart));
+                while (window.hasRemaining()) {
+                    long blockStart = windowStart + window.position();
+                    int length = Math.min(block.length, window.remaining());
+                    window.get(block, 0, length);
+                    for (int i = 0; i < length; i++) {
+                        byte b = block[i];
+                        if (inString) {
+                            if (escaped) {
+                                escaped = false;
+                            } else if (b == '\\') {
+                                escaped = true;
+                            } else if (b == '"') {
+                                inString = false;
+                            }
+                            continue;
+                        }
+                        switch (b) {
+                            case '"':
+                                inString = true;
+                                break;
+                            case '[':
+                            case '{':
+                                depth++;
+                                break;
+                            case ']':
+                            case '}':
+                                if (--depth == 0) {
+                                    chunks.add(new long[] {chunkStart, blockStart + i, startOffset});
+                                    return chunks;
+                                }
+                                if (depth == 1) {
+                                    elementEnd = blockStart + i + 1;
+                                }
+                                break;
+                            case ',':
+                                long offset = blockStart + i;
+                                if (depth == 1 && offset - chunkStart >= chunkSize) {
+                                    chunks.add(new long[] {chunkStart, offset, startOffset});
+                                    chunkStart = offset + 1;
+                                    startOffset = elementEnd;
+                                }
+                                break;
+                            default:
+                                break;
+                        }
+                    }
+                }
+            }
+            throw new IOException("Unterminated top-level JSON array in " + file.getName());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to split " + file.getName(), e);
+        }
+    }
+
+    /**
+     * Returns the offset of the first array element after {@code fromOffset}, or of the closing
+     * bracket when no element is left.
+     */
+    private static long contentStart(FileChannel channel, long fromOffset, String source) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        boolean expectElement = false;
+        for (long position = fromOffset; channel.read(buffer, position) > 0; position++) {
+            byte b = buffer.get(0);
+            buffer.clear();
+            if (Character.isWhitespace(b)) {
+                continue;
+            }
+            if (expectElement || (fromOffset > 0 && b == ']')) {
+                return position;
+            }
+            if ((fromOffset == 0 && b == '[') || (fromOffset > 0 && b == ',')) {
+                expectElement = true;
+                continue;
+            }
+            break;
+        }
+        throw new IOException("No document boundary at offset " + fromOffset + " in " + source);
+    }
+
+    private static Flux<DataFileDocument> readSequentially(File file, long fromOffset) {
+        return Flux.defer(() -> {
+            long contentStart;
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                contentStart = contentStart(channel, fromOffset, file.getName());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open " + file.getName(), e);
+            }
+            return DataFileReader.readArray(() -> {
+                FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                channel.position(contentStart);
+                return parser(Channels.newInputStream(channel), false);
+            }, file.getName(), contentStart - 1, fromOffset);
+        });
+    }
+
+    private static Flux<DataFileDocument> readChunk(File file, long[] chunk) {
+        String source = file.getName() + "[" + chunk[0] + ".." + chunk[1] + "]";
+        return DataFileReader.readArray(() -> {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]);
+            }
+            return parser(new ByteBufferBackedInputStream(buffer), true);
+        }, source, chunk[0] - 1, chunk[2]);
+    }
+
+    /**
+     * Creates a parser over {@code content} preceded by an opening bracket, and followed by a closing
+     * one when {@code closeArray} is set.
+     */
+    private static JsonParser parser(InputStream content, boolean closeArray)
+            throws IOException {
+        List<InputStream> parts = closeArray
+                ? Arrays.asList(new ByteArrayInputStream(ARRAY_START), content, new ByteArrayInputStream(ARRAY_END))
+                : Arrays.asList(new ByteArrayInputStream(ARRAY_START), content);
+        return DataFileReader.objectMapper().getFactory()
+                .createParser(new SequenceInputStream(Collections.enumeration(parts)));
+    }
+}
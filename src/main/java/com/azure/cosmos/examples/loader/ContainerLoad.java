@@ -0,0 +1,48 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.loader;
+
+import java.io.File;
+
+/**
+ * A single unit of work for the {@link DataLoader}: one data file loaded into one container.
+ */
+public class ContainerLoad {
+
+    public ContainerLoad(String databaseName, String containerName, String partitionKeyPath, File file) {
+        this.databaseName = databaseName;
+        this.containerName = containerName;
+        this.partitionKeyPath = partitionKeyPath;
+        this.file = file;
+    }
+
+    public String getDatabaseName() {
+        return databaseName;
+    }
+
+    public String getContainerName() {
+        return containerName;
+    }
+
+    /**
+     * The partition key path of the target container, e.g. {@code /customerId}.
+     */
+    public String getPartitionKeyPath() {
+        return partitionKeyPath;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    @Override
+    public String toString() {
+        return databaseName + "." + containerName;
+    }
+
+    private final String databaseName;
+    private final String containerName;
+    private final String partitionKeyPath;
+    private final File file;
+}
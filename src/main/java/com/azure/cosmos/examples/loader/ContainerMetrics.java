@@ -0,0 +1,126 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.loader;
+
+import com.azure.cosmos.examples.common.BulkSummary;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters of one {@link ContainerLoad}.
+ * <p>
+ * Bytes are counted from the data file: a document accounts for the bytes it occupies in the file
+ * once it has been parsed, and once more when it is submitted to the bulk executor. Documents that
+ * an earlier run already loaded are parsed but not sent, so the two numbers show whether a load is
+ * limited by parsing or by sending. The send side (request charge, latency, outcomes) comes from
+ * the {@link BulkSummary} of the container's writer.
+ */
+public class ContainerMetrics {
+
+    private final ContainerLoad load;
+    private final LongAdder documentsParsed = new LongAdder();
+    private final LongAdder bytesParsed = new LongAdder();
+    private final LongAdder documentsSent = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+    private final LongAdder documentsAcknowledged = new LongAdder();
+    private final LongAdder documentsUnchanged = new LongAdder();
+    private final LongAdder documentsDeleted = new LongAdder();
+    private volatile BulkSummary bulkSummary = new BulkSummary();
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    ContainerMetrics(ContainerLoad load) {
+        this.load = load;
+    }
+
+    public ContainerLoad getLoad() {
+        return load;
+    }
+
+    public long getDocumentsParsed() {
+        return documentsParsed.sum();
+    }
+
+    public long getBytesParsed() {
+        return bytesParsed.sum();
+    }
+
+    public long getDocumentsSent() {
+        return documentsSent.sum();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.sum();
+    }
+
+    public long getDocumentsAcknowledged() {
+        return documentsAcknowledged.sum();
+    }
+
+    /**
+     * Documents a differential load skipped because the container already holds them as they are.
+     */
+    public long getDocumentsUnchanged() {
+        return documentsUnchanged.sum();
+    }
+
+    public long getDocumentsDeleted() {
+        return documentsDeleted.sum();
+    }
+
+    public BulkSummary getBulkSummary() {
+        return bulkSummary;
+    }
+
+    public boolean isRunning() {
+        return startNanos != 0 && endNanos == 0;
+    }
+
+    /**
+     * Time spent loading the container so far, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        if (startNanos == 0) {
+            return 0;
+        }
+        return (endNanos == 0 ? System.nanoTime() : endNanos) - startNanos;
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    void onStart(BulkSummary bulkSummary) {
+        this.bulkSummary = bulkSummary;
+        startNanos = System.nanoTime();
+    }
+
+    void onEnd() {
+        if (startNanos != 0 && endNanos == 0) {
+            endNanos = System.nanoTime();
+        }
+    }
+
+    void onParsed(DataFileDocument document) {
+        documentsParsed.increment();
+        bytesParsed.add(document.getEndOffset() - document.getStartOffset());
+    }
+
+    void onSent(DataFileDocument document) {
+        documentsSent.increment();
+        bytesSent.add(document.getEndOffset() - document.getStartOffset());
+    }
+
+    void onAcknowledged() {
+        documentsAcknowledged.increment();
+    }
+
+    void onUnchanged() {
+        documentsUnchanged.increment();
+    }
+
+    void onDeleted() {
+        documentsDeleted.increment();
+    }
+}
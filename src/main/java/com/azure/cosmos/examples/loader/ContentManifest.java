@@ -0,0 +1,228 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.loader;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Content hashes of the documents a differential load wrote into one container.
+ * <p>
+ * Every document is identified by its partition key value and id, and fingerprinted with the first
+ * 64 bits of the SHA-256 of its serialized form. On the next differential load a document whose
+ * fingerprint did not change is not sent at all, and the documents of the manifest that are no longer
+ * in the data file are the ones to delete. The manifest is kept next to the checkpoints, in
+ * {@code [LOAD_CHECKPOINT_DIR]/[database].[container].manifest}.
+ */
+public class ContentManifest {
+
+    private static final int VERSION = 1;
+
+    private static Logger logger = LoggerFactory.getLogger(ContentManifest.class);
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final Path path;
+    private final Map<Key, Long> hashes = new ConcurrentHashMap<>();
+    private final Set<Key> seen = ConcurrentHashMap.newKeySet();
+
+    private ContentManifest(Path path) {
+        this.path = path;
+    }
+
+    public static ContentManifest open(ContainerLoad load) {
+        ContentManifest manifest = new ContentManifest(LoadCheckpoint.CHECKPOINT_DIR
+                .resolve(load.getDatabaseName() + "." + load.getContainerName() + ".manifest"));
+        if (!Files.exists(manifest.path)) {
+            return manifest;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(manifest.path)))) {
+            if (in.readInt() != VERSION) {
+                logger.warn("unknown manifest version in " + manifest.path + ", ignoring it");
+                return manifest;
+            }
+            while (true) {
+                String partitionKey;
+                try {
+                    partitionKey = in.readUTF();
+                } catch (EOFException e) {
+                    break;
+                }
+                manifest.hashes.put(new Key(partitionKey, in.readUTF()), in.readLong());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read manifest " + manifest.path, e);
+        }
+        return manifest;
+    }
+
+    /**
+     * Deletes the manifests of every container in {@code databaseName}.
+     */
+    public static void clear(String databaseName) {
+        if (!Files.isDirectory(LoadCheckpoint.CHECKPOINT_DIR)) {
+            return;
+        }
+        try (DirectoryStream<Path> manifests = Files.newDirectoryStream(LoadCheckpoint.CHECKPOINT_DIR,
+                databaseName + ".*.manifest")) {
+            for (Path manifest : manifests) {
+                Files.delete(manifest);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to clear manifests of " + databaseName, e);
+        }
+    }
+
+    /**
+     * Fingerprints the content of {@code document}.
+     */
+    public static long hash(JsonNode document) {
+        byte[] digest;
+        try {
+            digest = DIGEST.get().digest(DataFileReader.objectMapper().writeValueAsBytes(document));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize document " + document.path("id"), e);
+        }
+        long hash = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash = (hash << 8) | (digest[i] & 0xff);
+        }
+        return hash;
+    }
+
+    public int size() {
+        return hashes.size();
+    }
+
+    /**
+     * Marks the document as present in the data file, and tells whether the container already holds
+     * it with the same content.
+     */
+    public boolean isUnchanged(String partitionKey, String id, long hash) {
+        Key key = new Key(partitionKey, id);
+        seen.add(key);
+        Long previous = hashes.get(key);
+        return previous != null && previous == hash;
+    }
+
+    /**
+     * Marks the document as present in the data file, when its content does not need comparing, and
+     * tells whether the manifest holds it.
+     */
+    public boolean markPresent(String partitionKey, String id) {
+        Key key = new Key(partitionKey, id);
+        seen.add(key);
+        return hashes.containsKey(key);
+    }
+
+    /**
+     * Records that the container holds the document with the given content.
+     */
+    public void record(String partitionKey, String id, long hash) {
+        hashes.put(new Key(partitionKey, id), hash);
+    }
+
+    public void remove(Key key) {
+        hashes.remove(key);
+    }
+
+    /**
+     * The documents of the manifest that were not marked as present during this load.
+     */
+    public List<Key> getRemoved() {
+        List<Key> removed = new ArrayList<>();
+        for (Key key : hashes.keySet()) {
+            if (!seen.contains(key)) {
+                removed.add(key);
+            }
+        }
+        return removed;
+    }
+
+    public synchronized void save() {
+        try {
+            Files.createDirectories(path.getParent());
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(VERSION);
+                for (Map.Entry<Key, Long> entry : hashes.entrySet()) {
+                    out.writeUTF(entry.getKey().getPartitionKey());
+                    out.writeUTF(entry.getKey().getId());
+                    out.writeLong(entry.getValue());
+                }
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Failed to write manifest " + path + ": " + e);
+        }
+    }
+
+    /**
+     * Identity of a document within its container.
+     */
+    public static final class Key {
+
+        private final String partitionKey;
+        private final String id;
+
+        Key(String partitionKey, String id) {
+            this.partitionKey = partitionKey;
+            this.id = id;
+        }
+
+        public String getPartitionKey() {
+            return partitionKey;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return partitionKey.equals(other.partitionKey) && id.equals(other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * partitionKey.hashCode() + id.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return partitionKey + "/" + id;
+        }
+    }
+}
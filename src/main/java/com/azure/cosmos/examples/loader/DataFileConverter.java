@@ -0,0 +1,82 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.loader;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+
+/**
+ * Converts Cosmic Works data files into another {@link DataFileFormat}, so that repeated loads of the
+ * same data read compressed or binary files instead of parsing JSON text every time.
+ * <p>
+ * The converted file is written next to its source, e.g. {@code product} becomes
+ * {@code product.smile}, and is preferred by the loader as long as it is not older than its source.
+ * Run it once per data folder:
+ * <pre>
+ * mvn exec:java -Dexec.mainClass=com.azure.cosmos.examples.loader.DataFileConverter \
+ *     -Dexec.args="src/main/java/com/azure/cosmos/examples/data/cosmic-works-v1 SMILE"
+ * </pre>
+ */
+public final class DataFileConverter {
+
+    private static Logger logger = LoggerFactory.getLogger(DataFileConverter.class);
+
+    private DataFileConverter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: DataFileConverter <data file or folder> [SMILE|JSON_GZIP]");
+            System.exit(1);
+        }
+        File source = new File(args[0]);
+        DataFileFormat format = args.length > 1
+                ? DataFileFormat.valueOf(args[1].toUpperCase(Locale.ROOT))
+                : DataFileFormat.SMILE;
+        File[] files = source.isDirectory() ? source.listFiles() : new File[] {source};
+        if (files == null) {
+            throw new IOException("Cannot list " + source);
+        }
+        for (File file : files) {
+            if (file.isFile() && DataFileFormat.of(file) == DataFileFormat.JSON) {
+                convert(file, format);
+            }
+        }
+    }
+
+    /**
+     * Streams the documents of the plain JSON file {@code source} into a sibling file in
+     * {@code format}, and returns that file. Documents are copied token by token, so memory use does
+     * not depend on the size of the file.
+     */
+    public static File convert(File source, DataFileFormat format) throws IOException {
+        File target = new File(source.getParentFile(), source.getName() + format.getSuffix());
+        File temporary = new File(target.getParentFile(), target.getName() + ".tmp");
+        long start = System.currentTimeMillis();
+        try (JsonParser parser = DataFileFormat.JSON.createParser(source);
+             JsonGenerator generator = format.createGenerator(temporary)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a top-level JSON array in " + source.getName());
+            }
+            generator.copyCurrentStructure(parser);
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary.toPath());
+            throw e;
+        }
+        Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        logger.info("converted " + source + " (" + source.length() + " bytes) to " + target.getName()
+                + " (" + target.length() + " bytes) in " + (System.currentTimeMillis() - start) + " ms");
+        return target;
+    }
+}
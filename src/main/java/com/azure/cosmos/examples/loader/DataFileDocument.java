@@ -0,0 +1,38 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.loader;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A document read from a data file together with the byte range it occupies in that file.
+ * <p>
+ * The ranges of consecutive documents are contiguous: a range starts where the previous document
+ * ended (so it includes the separating comma and whitespace) and ends right after the closing
+ * brace of this document. Acknowledged ranges can therefore be merged into a single file offset.
+ */
+public class DataFileDocument {
+
+    public DataFileDocument(JsonNode document, long startOffset, long endOffset) {
+        this.document = document;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+    }
+
+    public JsonNode getDocument() {
+        return document;
+    }
+
+    public long getStartOffset() {
+        return startOffset;
+    }
+
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    private final JsonNode document;
+    private final long startOffset;
+    private final long endOffset;
+}
@@ -0,0 +1,131 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.loader;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodings a Cosmic Works data file can be stored in, told apart by the file name suffix.
+ * <p>
+ * The name of a data file without its suffix is the name of the container it is loaded into, so
+ * {@code product}, {@code product.gz} and {@code product.smile} all hold the documents of the
+ * {@code product} container. Whatever the encoding, a file holds a single top-level array.
+ */
+public enum DataFileFormat {
+
+    /** Plain JSON text, the format the data files are shipped in. */
+    JSON(""),
+
+    /** JSON text compressed with gzip, decompressed while it is parsed. */
+    JSON_GZIP(".gz"),
+
+    /** Binary Smile encoding of the JSON documents, which skips text parsing altogether. */
+    SMILE(".smile");
+
+    private static final JsonFactory SMILE_FACTORY = new SmileFactory();
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final String suffix;
+
+    DataFileFormat(String suffix) {
+        this.suffix = suffix;
+    }
+
+    public String getSuffix() {
+        return suffix;
+    }
+
+    /**
+     * Returns the format of {@code file}, derived from its name.
+     */
+    public static DataFileFormat of(File file) {
+        for (DataFileFormat format : values()) {
+            if (format != JSON && file.getName().endsWith(format.suffix)) {
+                return format;
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * Returns the name of the container the documents of {@code file} are loaded into.
+     */
+    public static String containerName(File file) {
+        String name = file.getName();
+        return name.substring(0, name.length() - of(file).suffix.length());
+    }
+
+    /**
+     * Picks one data file per container among {@code files}. When a container has several encodings,
+     * the cheapest to parse wins, unless it is older than the plain JSON file it was converted from.
+     */
+    public static Map<String, File> selectDataFiles(File[] files) {
+        Map<String, File> json = new LinkedHashMap<>();
+        Map<String, File> selected = new LinkedHashMap<>();
+        for (File file : files) {
+            if (file.isFile() && of(file) == JSON) {
+                json.put(file.getName(), file);
+                selected.put(file.getName(), file);
+            }
+        }
+        for (DataFileFormat format : new DataFileFormat[] {JSON_GZIP, SMILE}) {
+            for (File file : files) {
+                if (!file.isFile() || of(file) != format) {
+                    continue;
+                }
+                File source = json.get(containerName(file));
+                if (source == null || file.lastModified() >= source.lastModified()) {
+                    selected.put(containerName(file), file);
+                }
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Opens a parser over the whole of {@code file}.
+     */
+    JsonParser createParser(File file) throws IOException {
+        switch (this) {
+            case JSON_GZIP:
+                return DataFileReader.objectMapper().getFactory()
+                        .createParser(new GZIPInputStream(new FileInputStream(file), BUFFER_BYTES));
+            case SMILE:
+                return SMILE_FACTORY.createParser(new BufferedInputStream(new FileInputStream(file), BUFFER_BYTES));
+            default:
+                return DataFileReader.objectMapper().getFactory().createParser(file);
+        }
+    }
+
+    /**
+     * Opens a generator that writes {@code file} in this format.
+     */
+    public JsonGenerator createGenerator(File file) throws IOException {
+        switch (this) {
+            case JSON_GZIP:
+                return DataFileReader.objectMapper().getFactory()
+                        .createGenerator(new GZIPOutputStream(new FileOutputStream(file), BUFFER_BYTES));
+            case SMILE:
+                return SMILE_FACTORY.createGenerator(new BufferedOutputStream(new FileOutputStream(file), BUFFER_BYTES));
+            default:
+                return DataFileReader.objectMapper().getFactory().createGenerator(file, JsonEncoding.UTF8);
+        }
+    }
+}
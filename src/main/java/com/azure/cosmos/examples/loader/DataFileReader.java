@@ -0,0 +1,103 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.loader;
+
+import com.azure.cosmos.implementation.Utils;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import reactor.core.publisher.Flux;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Callable;
+
+/**
+ * Streams the documents of a Cosmic Works data file.
+ * <p>
+ * Every data file holds a single top-level array, as JSON text or in one of the other
+ * {@link DataFileFormat}s. The array is read token by token and each element is emitted as soon as
+ * it has been parsed, so only the documents that are in flight towards the bulk executor are held
+ * in memory, regardless of the size of the file.
+ */
+public final class DataFileReader {
+
+    private static final ObjectMapper OBJECT_MAPPER = Utils.getSimpleObjectMapper();
+
+    private DataFileReader() {
+    }
+
+    /**
+     * Returns a cold {@link Flux} of the documents in the given file. The file is opened on subscription
+     * and closed when the flux completes, fails or is cancelled.
+     */
+    public static Flux<JsonNode> readDocuments(File file) {
+        return readDocuments(file, 0).map(DataFileDocument::getDocument);
+    }
+
+    /**
+     * Returns a cold {@link Flux} of the documents of {@code file}, in any {@link DataFileFormat}, that
+     * follow {@code fromOffset}. Offsets count the bytes seen by the parser, i.e. the decompressed
+     * bytes of a gzip file. Compressed and binary files cannot be entered in the middle, so they are
+     * read from the start and the documents before {@code fromOffset} are skipped.
+     */
+    static Flux<DataFileDocument> readDocuments(File file, long fromOffset) {
+        DataFileFormat format = DataFileFormat.of(file);
+        return readArray(() -> format.createParser(file), file.getName(), 0, 0)
+                .filter(document -> document.getEndOffset() > fromOffset);
+    }
+
+    /**
+     * Streams the elements of the top-level JSON array produced by {@code parserFactory}. The parser is
+     * created on subscription and closed when the flux terminates.
+     *
+     * @param baseOffset file offset of the first byte seen by the parser
+     * @param startOffset file offset at which the range of the first element starts
+     */
+    static Flux<DataFileDocument> readArray(Callable<JsonParser> parserFactory, String source,
+                                            long baseOffset, long startOffset) {
+        return Flux.using(
+                () -> openArray(parserFactory.call(), source),
+                parser -> {
+                    long[] previousEnd = {startOffset};
+                    return Flux.generate(sink -> {
+                        try {
+                            if (parser.nextToken() == JsonToken.END_ARRAY) {
+                                sink.complete();
+                            } else {
+                                JsonNode document = OBJECT_MAPPER.readTree(parser);
+                                long end = baseOffset + parser.currentLocation().getByteOffset();
+                                sink.next(new DataFileDocument(document, previousEnd[0], end));
+                                previousEnd[0] = end;
+                            }
+                        } catch (IOException e) {
+                            sink.error(new UncheckedIOException("Failed to parse " + source, e));
+                        }
+                    });
+                },
+                DataFileReader::closeQuietly);
+    }
+
+    static ObjectMapper objectMapper() {
+        return OBJECT_MAPPER;
+    }
+
+    private static JsonParser openArray(JsonParser parser, String source) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new IOException("Expected a top-level JSON array in " + source);
+        }
+        return parser;
+    }
+
+    private static void closeQuietly(JsonParser parser) {
+        try {
+            parser.close();
+        } catch (IOException e) {
+            // nothing left to read, ignore
+        }
+    }
+}
@@ -0,0 +1,333 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.loader;
+
+import com.azure.cosmos.CosmosAsyncClient;
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.examples.common.BulkWriter;
+import com.azure.cosmos.examples.common.PartitionKeyGrouper;
+import com.azure.cosmos.examples.repository.ItemContainer;
+import com.azure.cosmos.examples.repository.OperationResult;
+import com.azure.cosmos.models.CosmosBulkOperations;
+import com.azure.cosmos.models.CosmosItemOperation;
+import com.azure.cosmos.models.PartitionKey;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Non-blocking ingestion pipeline for the Cosmic Works data files.
+ * <p>
+ * All container loads share the client passed to the constructor, and at most
+ * {@link #MAX_CONCURRENT_LOADS} files are read and bulk-inserted at the same time, no matter how
+ * many databases and containers are being loaded. Nothing in the pipeline blocks; callers decide
+ * where, and for how long, to wait for the returned {@link Mono}.
+ * <p>
+ * A loader can also write into {@link ItemContainer}s, e.g. in-memory ones to measure the pipeline
+ * without an account; the options that tune a Cosmos DB container for the load do not apply then.
+ */
+public class DataLoader {
+
+    /**
+     * Maximum number of container loads in flight across all databases, configurable with
+     * -DLOAD_MAX_CONCURRENCY=[n].
+     */
+    public static final int MAX_CONCURRENT_LOADS = Integer.getInteger("LOAD_MAX_CONCURRENCY", 4);
+
+    /**
+     * How long callers wait for a full load before reporting it as unfinished, configurable with
+     * -DLOAD_TIMEOUT_MINUTES=[n].
+     */
+    public static final Duration LOAD_TIMEOUT = Duration.ofMinutes(Long.getLong("LOAD_TIMEOUT_MINUTES", 60));
+
+    /**
+     * Upserts only the documents whose content changed since the last differential load (see
+     * {@link ContentManifest}), enabled with -DLOAD_DIFFERENTIAL=true.
+     */
+    public static final boolean DIFFERENTIAL = Boolean.getBoolean("LOAD_DIFFERENTIAL");
+
+    /**
+     * Makes a differential load also delete the documents that were removed from the data file,
+     * enabled with -DLOAD_DELETE_REMOVED=true.
+     */
+    public static final boolean DELETE_REMOVED = Boolean.getBoolean("LOAD_DELETE_REMOVED");
+
+    private static Logger logger = LoggerFactory.getLogger(DataLoader.class);
+
+    private final CosmosAsyncClient client;
+    private final Function<ContainerLoad, ItemContainer> containers;
+    private final IngestionMonitor monitor = new IngestionMonitor();
+
+    public DataLoader(CosmosAsyncClient client) {
+        this.client = client;
+        this.containers = null;
+    }
+
+    /**
+     * A loader that writes the data of every load into the container {@code containers} returns for it.
+     */
+    public DataLoader(Function<ContainerLoad, ItemContainer> containers) {
+        this.client = null;
+        this.containers = containers;
+    }
+
+    public IngestionMonitor getMonitor() {
+        return monitor;
+    }
+
+    /**
+     * Loads every container in {@code loads}. A failing container does not stop the others; the
+     * returned {@link Mono} fails once all loads have ended if any of them failed.
+     */
+    public Mono<Void> load(Flux<ContainerLoad> loads) {
+        return Mono.using(
+                monitor::start,
+                progress -> loads
+                        .flatMapDelayError(load -> loadContainer(load).then(Mono.just(load)), MAX_CONCURRENT_LOADS, 1)
+                        .then(),
+                Disposable::dispose);
+    }
+
+    /**
+     * Loads one container, resuming from its {@link LoadCheckpoint}. Documents that were already
+     * acknowledged are not sent again, and a container whose load completed earlier is skipped.
+     * <p>
+     * Documents are created, or upserted when {@link #DIFFERENTIAL} is set. A differential load skips
+     * the documents its {@link ContentManifest} holds with the same content, and with
+     * {@link #DELETE_REMOVED} it ends by deleting the documents that are gone from the data file.
+     * With {@link BulkLoadIndexing#ENABLED} indexing is deferred during the load, and the load only
+     * completes once the index has caught up. With {@link ThroughputRamp#ENABLED} the container's
+     * throughput is raised for the load, including the index catch-up, and restored afterwards. Those
+     * two and {@link PartitionKeyGrouper#ENABLED} only apply to Cosmos DB containers.
+     */
+    public Mono<Void> loadContainer(ContainerLoad load) {
+        return Mono.defer(() -> {
+            ContainerMetrics metrics = monitor.register(load);
+            LoadCheckpoint checkpoint = LoadCheckpoint.open(load);
+            if (checkpoint.isComplete()) {
+                logger.info("data for container " + load + " already loaded, skipping");
+                return Mono.empty();
+            }
+            if (checkpoint.getAcknowledgedDocuments() > 0) {
+                logger.info("resuming container " + load + " after " + checkpoint.getAcknowledgedDocuments()
+                        + " documents at offset " + checkpoint.getOffset());
+            } else {
+                logger.info("loading data for container: " + load);
+            }
+
+            CosmosAsyncContainer container = client != null
+                    ? client.getDatabase(load.getDatabaseName()).getContainer(load.getContainerName())
+                    : null;
+            String partitionKeyPath = load.getPartitionKeyPath();
+            ContentManifest manifest = DIFFERENTIAL ? ContentManifest.open(load) : null;
+            // deleting what is gone from the data file needs every document in it marked as present,
+            // including the ones a resumed load acknowledged before its checkpoint
+            long readOffset = manifest != null && DELETE_REMOVED ? 0 : checkpoint.getOffset();
+            AtomicLong unacknowledged = new AtomicLong();
+            Flux<PendingDocument> documents = ChunkedDataFileReader
+                    .readDocuments(load.getFile(), readOffset)
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .doOnNext(metrics::onParsed)
+                    .filter(document -> {
+                        if (!checkpoint.isAcknowledged(document)) {
+                            return true;
+                        }
+                        if (manifest != null) {
+                            JsonNode item = document.getDocument();
+                            String partitionKey = item.at(partitionKeyPath).asText();
+                            String id = item.path("id").asText();
+                            if (!manifest.markPresent(partitionKey, id)) {
+                                // acknowledged after the manifest was last saved, e.g. before a crash
+                                manifest.record(partitionKey, id, ContentManifest.hash(item));
+                            }
+                        }
+                        return false;
+                    })
+                    .map(document -> new PendingDocument(document,
+                            manifest != null ? ContentManifest.hash(document.getDocument()) : 0));
+            if (manifest != null) {
+                documents = documents.filter(pending -> {
+                    JsonNode item = pending.document.getDocument();
+                    if (manifest.isUnchanged(item.at(partitionKeyPath).asText(), item.path("id").asText(),
+                            pending.hash)) {
+                        metrics.onUnchanged();
+                        checkpoint.acknowledge(pending.document);
+                        return false;
+                    }
+                    return true;
+                });
+            }
+            Flux<CosmosItemOperation> cosmosItemOperations = documents
+                    .doOnNext(pending -> metrics.onSent(pending.document))
+                    .map(pending -> toOperation(pending.document.getDocument(),
+                            partitionKey(pending.document.getDocument(), partitionKeyPath), manifest != null, pending));
+            BulkWriter bulkWriter = container != null
+                    ? new BulkWriter(container, load.toString())
+                    : new BulkWriter(containers.apply(load), load.toString());
+            if (PartitionKeyGrouper.ENABLED && container != null) {
+                cosmosItemOperations = PartitionKeyGrouper.group(cosmosItemOperations, container, bulkWriter,
+                        operation -> {
+                            DataFileDocument document = operation.<PendingDocument>getContext().document;
+                            return document.getEndOffset() - document.getStartOffset();
+                        });
+            }
+            metrics.onStart(bulkWriter.getSummary());
+            Mono<Void> ingestion = bulkWriter.<PendingDocument>execute(cosmosItemOperations)
+                    .doOnNext(response -> {
+                        PendingDocument pending = response.getContext();
+                        if (isAcknowledged(response)) {
+                            metrics.onAcknowledged();
+                            // recorded before it is acknowledged, so a saved checkpoint never lists a
+                            // document the manifest saved before it lacks
+                            if (manifest != null) {
+                                JsonNode item = pending.document.getDocument();
+                                manifest.record(item.at(partitionKeyPath).asText(), item.path("id").asText(),
+                                        pending.hash);
+                            }
+                            checkpoint.acknowledge(pending.document);
+                        } else {
+                            unacknowledged.incrementAndGet();
+                        }
+                    })
+                    .then(Mono.defer(() -> manifest != null && DELETE_REMOVED && unacknowledged.get() == 0
+                            ? deleteRemoved(load, bulkWriter, manifest, metrics, unacknowledged)
+                            : Mono.<Void>empty()))
+                    .then(Mono.defer(() -> unacknowledged.get() > 0
+                            ? Mono.<Void>error(new IllegalStateException(unacknowledged.get() + " documents of "
+                                    + load + " were not acknowledged, run the load again to resume"))
+                            : Mono.<Void>empty()));
+            if (BulkLoadIndexing.ENABLED && container != null) {
+                ingestion = BulkLoadIndexing.around(container, load.toString(), ingestion);
+            }
+            if (ThroughputRamp.ENABLED && container != null) {
+                ingestion = ThroughputRamp.around(container, load, checkpoint.getOffset(), ingestion);
+            }
+            Mono<Void> loading = ingestion;
+            // the acknowledgements run on the netty threads, the files are written on a worker
+            return Mono.using(
+                            () -> Flux.interval(LoadCheckpoint.SAVE_INTERVAL, Schedulers.boundedElastic())
+                                    .onBackpressureDrop()
+                                    .subscribe(tick -> save(checkpoint, manifest)),
+                            saving -> loading,
+                            Disposable::dispose)
+                    .then(Mono.<Void>fromRunnable(() -> {
+                        if (manifest != null) {
+                            manifest.save();
+                        }
+                        checkpoint.markComplete();
+                        logger.info("finished loading data for container: " + load);
+                    }).subscribeOn(Schedulers.boundedElastic()))
+                    .doFinally(signal -> {
+                        metrics.onEnd();
+                        save(checkpoint, manifest);
+                    })
+                    .doOnError(e -> logger.error("loading data for container " + load + " failed with " + e));
+        });
+    }
+
+    /**
+     * Saves the manifest, if any, and then the checkpoint: a document the checkpoint lists as
+     * acknowledged must be in the manifest too, or a later run would never delete it.
+     */
+    private static void save(LoadCheckpoint checkpoint, ContentManifest manifest) {
+        if (manifest != null) {
+            manifest.save();
+        }
+        checkpoint.save();
+    }
+
+    /**
+     * Deletes the documents of {@code manifest} that were not in the data file, counting the ones
+     * that could not be deleted in {@code unacknowledged}.
+     */
+    private static Mono<Void> deleteRemoved(ContainerLoad load, BulkWriter bulkWriter, ContentManifest manifest,
+                                            ContainerMetrics metrics, AtomicLong unacknowledged) {
+        List<ContentManifest.Key> removed = manifest.getRemoved();
+        if (removed.isEmpty()) {
+            return Mono.empty();
+        }
+        logger.info("deleting " + removed.size() + " documents removed from the data file of " + load);
+        Flux<CosmosItemOperation> deletes = Flux.fromIterable(removed)
+                .map(key -> CosmosBulkOperations.getDeleteItemOperation(key.getId(),
+                        new PartitionKey(key.getPartitionKey()), null, key));
+        return bulkWriter.<ContentManifest.Key>execute(deletes)
+                .doOnNext(response -> {
+                    if (response.isSuccessStatusCode() || response.getStatusCode() == 404) {
+                        manifest.remove(response.getContext());
+                        metrics.onDeleted();
+                    } else {
+                        unacknowledged.incrementAndGet();
+                    }
+                })
+                .then();
+    }
+
+    /**
+     * A document counts as loaded once it was created, or when it already existed from an earlier,
+     * interrupted run.
+     */
+    private static boolean isAcknowledged(OperationResult<?> response) {
+        return response.isSuccessStatusCode() || response.getStatusCode() == 409;
+    }
+
+    /**
+     * The partition key value of {@code item}, read from {@code partitionKeyPath}.
+     */
+    static PartitionKey partitionKey(JsonNode item, String partitionKeyPath) {
+        return new PartitionKey(item.at(partitionKeyPath).asText());
+    }
+
+    /**
+     * The bulk operation that creates {@code item}, or upserts it when {@code upsert} is set, with
+     * {@code context} attached for the response.
+     */
+    static <TContext> CosmosItemOperation toOperation(JsonNode item, PartitionKey partitionKey, boolean upsert,
+                                                      TContext context) {
+        return upsert
+                ? CosmosBulkOperations.getUpsertItemOperation(item, partitionKey, null, context)
+                : CosmosBulkOperations.getCreateItemOperation(item, partitionKey, null, context);
+    }
+
+    /**
+     * Creates every document in {@code items} through the bulk executor, taking the partition key
+     * value from {@code partitionKeyPath}.
+     */
+    public static Mono<Void> bulkCreate(Flux<JsonNode> items, CosmosAsyncContainer container,
+                                        String partitionKeyPath) {
+        Flux<CosmosItemOperation> cosmosItemOperations = items
+                .map(item -> toOperation(item, partitionKey(item, partitionKeyPath), false, null));
+        BulkWriter bulkWriter = new BulkWriter(container, container.getId());
+        if (PartitionKeyGrouper.ENABLED) {
+            cosmosItemOperations = PartitionKeyGrouper.group(cosmosItemOperations, container, bulkWriter,
+                    operation -> PartitionKeyGrouper.DEFAULT_OPERATION_BYTES);
+        }
+        Mono<Void> ingestion = bulkWriter.execute(cosmosItemOperations).then();
+        return BulkLoadIndexing.ENABLED
+                ? BulkLoadIndexing.around(container, container.getDatabase().getId() + "." + container.getId(), ingestion)
+                : ingestion;
+    }
+
+    /**
+     * A document on its way to the container, with its {@link ContentManifest#hash} when the load is
+     * differential, so that it is computed once.
+     */
+    private static final class PendingDocument {
+        final DataFileDocument document;
+        final long hash;
+
+        PendingDocument(DataFileDocument document, long hash) {
+            this.document = document;
+            this.hash = hash;
+        }
+    }
+}
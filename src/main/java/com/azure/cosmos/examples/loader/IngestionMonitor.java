@@ -0,0 +1,124 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.loader;
+
+import com.azure.cosmos.examples.common.BulkSummary;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live telemetry of a {@link DataLoader} run.
+ * <p>
+ * While the load runs, one line per active container is logged every {@link #REPORT_INTERVAL} with
+ * the documents/sec and RU/sec of the last interval, and the bytes parsed versus the bytes sent so
+ * far. {@link #report()} summarizes the whole run per database, including the p50/p99/max latency of
+ * the bulk responses.
+ */
+public class IngestionMonitor {
+
+    /**
+     * Interval between two progress lines, configurable with -DLOAD_REPORT_INTERVAL_SECONDS=[n].
+     */
+    public static final Duration REPORT_INTERVAL = Duration.ofSeconds(Long.getLong("LOAD_REPORT_INTERVAL_SECONDS", 5));
+
+    private static final double MB = 1024d * 1024d;
+
+    private static Logger logger = LoggerFactory.getLogger(IngestionMonitor.class);
+
+    private final Map<ContainerLoad, ContainerMetrics> containers = new LinkedHashMap<>();
+    private final Map<ContainerMetrics, double[]> previous = new HashMap<>();
+
+    public synchronized ContainerMetrics register(ContainerLoad load) {
+        return containers.computeIfAbsent(load, ContainerMetrics::new);
+    }
+
+    public synchronized List<ContainerMetrics> getContainers() {
+        return new ArrayList<>(containers.values());
+    }
+
+    /**
+     * Starts logging progress lines until the returned {@link Disposable} is disposed.
+     */
+    public Disposable start() {
+        return Flux.interval(REPORT_INTERVAL, REPORT_INTERVAL).subscribe(tick -> logProgress());
+    }
+
+    synchronized void logProgress() {
+        for (ContainerMetrics metrics : containers.values()) {
+            if (!metrics.isRunning()) {
+                continue;
+            }
+            long now = System.nanoTime();
+            double documents = metrics.getDocumentsAcknowledged();
+            double charge = metrics.getBulkSummary().getRequestCharge();
+            double[] last = previous.getOrDefault(metrics, new double[] {0, 0, now - metrics.getElapsedNanos()});
+            double seconds = (now - last[2]) / 1_000_000_000d;
+            previous.put(metrics, new double[] {documents, charge, now});
+
+            logger.info(String.format("%s: %.0f docs/s, %.0f RU/s, parsed %.2f MB, sent %.2f MB, %d of %d documents acknowledged",
+                    metrics.getLoad(), (documents - last[0]) / seconds, (charge - last[1]) / seconds,
+                    metrics.getBytesParsed() / MB, metrics.getBytesSent() / MB,
+                    metrics.getDocumentsAcknowledged(), metrics.getDocumentsParsed()));
+        }
+    }
+
+    /**
+     * Summarizes every registered container, grouped by database.
+     */
+    public synchronized String report() {
+        Map<String, List<ContainerMetrics>> databases = new LinkedHashMap<>();
+        for (ContainerMetrics metrics : containers.values()) {
+            databases.computeIfAbsent(metrics.getLoad().getDatabaseName(), name -> new ArrayList<>()).add(metrics);
+        }
+
+        StringBuilder report = new StringBuilder();
+        for (Map.Entry<String, List<ContainerMetrics>> database : databases.entrySet()) {
+            long documents = 0;
+            long bytesParsed = 0;
+            long bytesSent = 0;
+            double charge = 0;
+            long start = Long.MAX_VALUE;
+            long end = Long.MIN_VALUE;
+            Histogram latency = new Histogram(3);
+            StringBuilder containerLines = new StringBuilder();
+            for (ContainerMetrics metrics : database.getValue()) {
+                BulkSummary summary = metrics.getBulkSummary();
+                documents += metrics.getDocumentsAcknowledged();
+                bytesParsed += metrics.getBytesParsed();
+                bytesSent += metrics.getBytesSent();
+                charge += summary.getRequestCharge();
+                latency.add(summary.getLatencyHistogram());
+                if (metrics.getStartNanos() != 0) {
+                    start = Math.min(start, metrics.getStartNanos());
+                    end = Math.max(end, metrics.getStartNanos() + metrics.getElapsedNanos());
+                }
+                containerLines.append(String.format("    %s: %d documents in %.1f s, %d unchanged, %d deleted, "
+                                + "parsed %.2f MB, sent %.2f MB, %s%n",
+                        metrics.getLoad().getContainerName(), metrics.getDocumentsAcknowledged(),
+                        metrics.getElapsedNanos() / 1_000_000_000d, metrics.getDocumentsUnchanged(),
+                        metrics.getDocumentsDeleted(), metrics.getBytesParsed() / MB,
+                        metrics.getBytesSent() / MB, summary));
+            }
+            double seconds = start == Long.MAX_VALUE ? 0 : (end - start) / 1_000_000_000d;
+            report.append(String.format("%s: %d documents in %.1f s (%.0f docs/s, %.0f RU/s), parsed %.2f MB, sent %.2f MB, "
+                            + "%.2f RU, latency p50=%.1f ms p99=%.1f ms max=%.1f ms%n",
+                    database.getKey(), documents, seconds, seconds > 0 ? documents / seconds : 0,
+                    seconds > 0 ? charge / seconds : 0, bytesParsed / MB, bytesSent / MB, charge,
+                    latency.getValueAtPercentile(50) / 1000d, latency.getValueAtPercentile(99) / 1000d,
+                    latency.getMaxValue() / 1000d));
+            report.append(containerLines);
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,204 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.loader;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Durable progress of loading one data file into one container.
+ * <p>
+ * The checkpoint tracks the byte ranges of the documents the bulk executor has acknowledged (see
+ * {@link DataFileDocument}). Contiguous ranges are merged into a single offset from which an
+ * interrupted load resumes; ranges acknowledged ahead of that offset (e.g. by other parse chunks) are
+ * kept as well, so their documents are not sent again. The state is written to
+ * {@code [LOAD_CHECKPOINT_DIR]/[database].[container].properties} every {@link #SAVE_INTERVAL} while
+ * the load runs, and once more when it ends. Writing takes a snapshot of the state and writes it
+ * without holding the lock the acknowledgements take, so they never wait for the file.
+ */
+public class LoadCheckpoint {
+
+    /**
+     * Directory holding the checkpoint files, configurable with -DLOAD_CHECKPOINT_DIR=[path].
+     */
+    public static final Path CHECKPOINT_DIR = Paths.get(System.getProperty("LOAD_CHECKPOINT_DIR", ".load-checkpoints"));
+
+    /**
+     * How often a running load saves its checkpoint.
+     */
+    static final Duration SAVE_INTERVAL = Duration.ofSeconds(1);
+
+    private static Logger logger = LoggerFactory.getLogger(LoadCheckpoint.class);
+
+    private final Path path;
+    private final File file;
+    private long offset;
+    private final TreeMap<Long, Long> acknowledgedRanges = new TreeMap<>();
+    private long acknowledgedDocuments;
+    private boolean complete;
+    // serializes the writes of the file, so that an older snapshot never replaces a newer one
+    private final Object writeLock = new Object();
+
+    private LoadCheckpoint(Path path, File file) {
+        this.path = path;
+        this.file = file;
+    }
+
+    /**
+     * Reads the checkpoint of {@code load}. A checkpoint written for a different version of the data
+     * file (length or modification time changed) is discarded.
+     */
+    public static LoadCheckpoint open(ContainerLoad load) {
+        LoadCheckpoint checkpoint = new LoadCheckpoint(
+                CHECKPOINT_DIR.resolve(load.getDatabaseName() + "." + load.getContainerName() + ".properties"),
+                load.getFile());
+        if (!Files.exists(checkpoint.path)) {
+            return checkpoint;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(checkpoint.path)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read checkpoint " + checkpoint.path, e);
+        }
+        if (Long.parseLong(properties.getProperty("fileLength", "-1")) != load.getFile().length()
+                || Long.parseLong(properties.getProperty("fileLastModified", "-1")) != load.getFile().lastModified()) {
+            logger.warn("data file for " + load + " changed since the last load, ignoring its checkpoint");
+            return checkpoint;
+        }
+        checkpoint.offset = Long.parseLong(properties.getProperty("offset", "0"));
+        checkpoint.acknowledgedDocuments = Long.parseLong(properties.getProperty("acknowledgedDocuments", "0"));
+        checkpoint.complete = Boolean.parseBoolean(properties.getProperty("complete", "false"));
+        String ranges = properties.getProperty("acknowledgedRanges", "");
+        for (String range : ranges.isEmpty() ? new String[0] : ranges.split(",")) {
+            String[] bounds = range.split("-");
+            checkpoint.acknowledgedRanges.put(Long.parseLong(bounds[0]), Long.parseLong(bounds[1]));
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Deletes the checkpoints of every container in {@code databaseName}.
+     */
+    public static void clear(String databaseName) {
+        if (!Files.isDirectory(CHECKPOINT_DIR)) {
+            return;
+        }
+        try (DirectoryStream<Path> checkpoints = Files.newDirectoryStream(CHECKPOINT_DIR, databaseName + ".*.properties")) {
+            for (Path checkpoint : checkpoints) {
+                Files.delete(checkpoint);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to clear checkpoints of " + databaseName, e);
+        }
+    }
+
+    /**
+     * The offset up to which every document has been acknowledged.
+     */
+    public synchronized long getOffset() {
+        return offset;
+    }
+
+    public synchronized long getAcknowledgedDocuments() {
+        return acknowledgedDocuments;
+    }
+
+    public synchronized boolean isComplete() {
+        return complete;
+    }
+
+    public synchronized boolean isAcknowledged(DataFileDocument document) {
+        if (document.getEndOffset() <= offset) {
+            return true;
+        }
+        Map.Entry<Long, Long> range = acknowledgedRanges.floorEntry(document.getStartOffset());
+        return range != null && range.getValue() >= document.getEndOffset();
+    }
+
+    public synchronized void acknowledge(DataFileDocument document) {
+        long start = document.getStartOffset();
+        long end = document.getEndOffset();
+        acknowledgedDocuments++;
+
+        Map.Entry<Long, Long> previous = acknowledgedRanges.floorEntry(start);
+        if (previous != null && previous.getValue() >= start) {
+            start = previous.getKey();
+            end = Math.max(end, previous.getValue());
+            acknowledgedRanges.remove(previous.getKey());
+        }
+        Long next = acknowledgedRanges.get(end);
+        if (next != null) {
+            acknowledgedRanges.remove(end);
+            end = next;
+        }
+        if (start <= offset) {
+            offset = Math.max(offset, end);
+        } else {
+            acknowledgedRanges.put(start, end);
+        }
+    }
+
+    public void markComplete() {
+        synchronized (this) {
+            complete = true;
+            acknowledgedRanges.clear();
+        }
+        save();
+    }
+
+    /**
+     * Writes the current state to the checkpoint file. Blocks on the file system, so the pipeline
+     * calls it on {@link reactor.core.scheduler.Schedulers#boundedElastic()}.
+     */
+    public void save() {
+        synchronized (writeLock) {
+            write(snapshot());
+        }
+    }
+
+    private synchronized Properties snapshot() {
+        Properties properties = new Properties();
+        properties.setProperty("file", file.getAbsolutePath());
+        properties.setProperty("fileLength", Long.toString(file.length()));
+        properties.setProperty("fileLastModified", Long.toString(file.lastModified()));
+        properties.setProperty("offset", Long.toString(offset));
+        properties.setProperty("acknowledgedDocuments", Long.toString(acknowledgedDocuments));
+        properties.setProperty("complete", Boolean.toString(complete));
+        StringBuilder ranges = new StringBuilder();
+        for (Map.Entry<Long, Long> range : acknowledgedRanges.entrySet()) {
+            ranges.append(ranges.length() == 0 ? "" : ",").append(range.getKey()).append('-').append(range.getValue());
+        }
+        properties.setProperty("acknowledgedRanges", ranges.toString());
+        return properties;
+    }
+
+    private void write(Properties properties) {
+        try {
+            Files.createDirectories(CHECKPOINT_DIR);
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                properties.store(out, "Cosmic Works load checkpoint");
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.error("Failed to write checkpoint " + path + ": " + e);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.loader;
+
+/**
+ * Outcome of a full data load: whether it finished, and the per-database report of the
+ * {@link IngestionMonitor}.
+ */
+public class LoadReport {
+
+    public LoadReport(boolean finished, String summary) {
+        this.finished = finished;
+        this.summary = summary;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    @Override
+    public String toString() {
+        return summary;
+    }
+
+    private final boolean finished;
+    private final String summary;
+}
@@ -0,0 +1,328 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.loader;
+
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.models.ThroughputProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Raises the throughput of a container for the time it is being loaded, and restores it afterwards.
+ * <p>
+ * The number and size of the documents still to load are estimated from a sample at the start of the
+ * data file, and turned into the throughput that writes them within {@link #TARGET_DURATION} at
+ * {@link #RU_PER_KB} request units per KB. The autoscale maximum (or the manual throughput) of the
+ * container is raised to that, capped at {@link #MAX_THROUGHPUT}, and never lowered. Once the load
+ * has ended, successfully or not, the original throughput is put back. Every change is logged.
+ * <p>
+ * The original throughput is kept in {@code [LOAD_CHECKPOINT_DIR]/[database].[container].throughput}
+ * until it is restored, so a load that was killed while the throughput was raised restores it when it
+ * is run again. Enable it with -DLOAD_RAMP_THROUGHPUT=true.
+ */
+public final class ThroughputRamp {
+
+    public static final boolean ENABLED = Boolean.getBoolean("LOAD_RAMP_THROUGHPUT");
+
+    /**
+     * Highest throughput, in RU/s, a load raises a container to, configurable with
+     * -DLOAD_RAMP_MAX_RU=[n].
+     */
+    public static final int MAX_THROUGHPUT = Integer.getInteger("LOAD_RAMP_MAX_RU", 20000);
+
+    /**
+     * How long a load should take at the raised throughput, configurable with
+     * -DLOAD_RAMP_TARGET_MINUTES=[n].
+     */
+    public static final Duration TARGET_DURATION = Duration.ofMinutes(Long.getLong("LOAD_RAMP_TARGET_MINUTES", 10));
+
+    /**
+     * Estimated charge of writing one KB of document, configurable with -DLOAD_RAMP_RU_PER_KB=[n].
+     */
+    public static final double RU_PER_KB = Double.parseDouble(System.getProperty("LOAD_RAMP_RU_PER_KB", "6"));
+
+    private static final int SAMPLE_SIZE = 1000;
+
+    private static final long GZIP_SIZE_MODULUS = 1L << 32;
+
+    private static Logger logger = LoggerFactory.getLogger(ThroughputRamp.class);
+
+    private ThroughputRamp() {
+    }
+
+    /**
+     * Runs {@code ingestion} with the throughput of {@code container} raised for the documents of
+     * {@code load} that follow {@code fromOffset}.
+     */
+    public static Mono<Void> around(CosmosAsyncContainer container, ContainerLoad load, long fromOffset,
+                                    Mono<Void> ingestion) {
+        String name = load.toString();
+        return estimate(load.getFile(), fromOffset)
+                .flatMap(estimate -> raise(container, name, estimate))
+                .then(ingestion)
+                .onErrorResume(e -> restore(container, name)
+                        .onErrorResume(restoreError -> {
+                            logger.error("failed to restore the throughput of " + name + ": " + restoreError);
+                            return Mono.empty();
+                        })
+                        .then(Mono.error(e)))
+                .then(Mono.defer(() -> restore(container, name)));
+    }
+
+    /**
+     * Deletes the saved throughputs of every container in {@code databaseName}.
+     */
+    public static void clear(String databaseName) {
+        if (!Files.isDirectory(LoadCheckpoint.CHECKPOINT_DIR)) {
+            return;
+        }
+        try (DirectoryStream<Path> throughputs = Files.newDirectoryStream(LoadCheckpoint.CHECKPOINT_DIR,
+                databaseName + ".*.throughput")) {
+            for (Path throughput : throughputs) {
+                Files.delete(throughput);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to clear saved throughputs of " + databaseName, e);
+        }
+    }
+
+    /**
+     * Estimates the documents of {@code file} after {@code fromOffset} from its first
+     * {@link #SAMPLE_SIZE} documents.
+     */
+    static Mono<Estimate> estimate(File file, long fromOffset) {
+        return DataFileReader.readDocuments(file, 0)
+                .take(SAMPLE_SIZE)
+                .reduceWith(() -> new long[3], (sample, document) -> {
+                    sample[0]++;
+                    sample[1] = document.getEndOffset();
+                    sample[2] += serializedSize(document.getDocument());
+                    return sample;
+                })
+                .map(sample -> {
+                    if (sample[0] == 0) {
+                        return new Estimate(0, 0);
+                    }
+                    long parsedLength = sample[0] < SAMPLE_SIZE ? sample[1] : parsedLength(file, sample[1]);
+                    long documents = Math.max(0, parsedLength - fromOffset) * sample[0] / sample[1];
+                    return new Estimate(documents, sample[2] / sample[0]);
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static Mono<Void> raise(CosmosAsyncContainer container, String name, Estimate estimate) {
+        Path saved = savedThroughput(container);
+        return container.readThroughput()
+                .flatMap(response -> {
+                    ThroughputProperties current = response.getProperties();
+                    boolean autoscale = current.getAutoscaleMaxThroughput() > 0;
+                    int currentValue = autoscale ? current.getAutoscaleMaxThroughput() : current.getManualThroughput();
+                    int step = autoscale ? 1000 : 100;
+                    long required = estimate.getRequestUnits() / Math.max(1, TARGET_DURATION.getSeconds());
+                    int wanted = (int) Math.min(MAX_THROUGHPUT, (required + step - 1) / step * step);
+                    if (wanted <= currentValue) {
+                        logger.info("keeping throughput of " + name + " at " + describe(autoscale, currentValue)
+                                + " for " + estimate);
+                        return Mono.<Void>empty();
+                    }
+                    // the response arrives on a netty thread, save the throughput off it
+                    return Mono.<Void>fromRunnable(() -> {
+                                if (!Files.exists(saved)) {
+                                    save(saved, autoscale, currentValue);
+                                }
+                            })
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .then(Mono.defer(() -> {
+                                logger.info("raising throughput of " + name + " from "
+                                        + describe(autoscale, currentValue) + " to " + describe(autoscale, wanted)
+                                        + " for " + estimate);
+                                return container.replaceThroughput(throughput(autoscale, wanted));
+                            }))
+                            .doOnNext(replaced -> {
+                                if (replaced.isReplacePending()) {
+                                    logger.warn("throughput change of " + name + " is pending, the load starts"
+                                            + " at the current throughput");
+                                }
+                            })
+                            .then();
+                })
+                .onErrorResume(e -> e instanceof CosmosException
+                                && (((CosmosException) e).getStatusCode() == 400 || ((CosmosException) e).getStatusCode() == 404),
+                        e -> {
+                            logger.info(name + " has no dedicated throughput, not raising it");
+                            return Mono.empty();
+                        });
+    }
+
+    private static Mono<Void> restore(CosmosAsyncContainer container, String name) {
+        Path saved = savedThroughput(container);
+        return Mono.defer(() -> {
+            if (!Files.exists(saved)) {
+                return Mono.<Void>empty();
+            }
+            Properties properties = load(saved);
+            boolean autoscale = Boolean.parseBoolean(properties.getProperty("autoscale"));
+            int original = Integer.parseInt(properties.getProperty("throughput"));
+            logger.info("restoring throughput of " + name + " to " + describe(autoscale, original));
+            return container.replaceThroughput(throughput(autoscale, original))
+                    .then(Mono.<Void>fromRunnable(() -> delete(saved)).subscribeOn(Schedulers.boundedElastic()));
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static ThroughputProperties throughput(boolean autoscale, int value) {
+        return autoscale
+                ? ThroughputProperties.createAutoscaledThroughput(value)
+                : ThroughputProperties.createManualThroughput(value);
+    }
+
+    private static String describe(boolean autoscale, int value) {
+        return autoscale ? "autoscale " + value + " RU/s" : value + " RU/s";
+    }
+
+    private static int serializedSize(JsonNode document) {
+        try {
+            return DataFileReader.objectMapper().writeValueAsBytes(document).length;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize document " + document.path("id"), e);
+        }
+    }
+
+    /**
+     * Number of bytes the parser sees in {@code file}: the file length, or for a gzip file its
+     * uncompressed size. The gzip trailer only records that size modulo 4 GiB, so it is taken as the
+     * value with those low bits nearest to the compressed length scaled by the ratio of the first
+     * {@code sampledLength} parsed bytes.
+     */
+    private static long parsedLength(File file, long sampledLength) {
+        if (DataFileFormat.of(file) != DataFileFormat.JSON_GZIP) {
+            return file.length();
+        }
+        long recorded;
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            in.seek(file.length() - 4);
+            recorded = 0;
+            for (int i = 0; i < 4; i++) {
+                recorded |= (long) in.read() << (8 * i);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the size of " + file, e);
+        }
+        long compressed = compressedLength(file, sampledLength);
+        if (compressed <= 0) {
+            return recorded;
+        }
+        double scaled = (double) file.length() * sampledLength / compressed;
+        long wraps = Math.max(0, Math.round((scaled - recorded) / GZIP_SIZE_MODULUS));
+        return recorded + wraps * GZIP_SIZE_MODULUS;
+    }
+
+    /**
+     * Number of bytes of the gzip {@code file} inflated to the first {@code uncompressedLength} bytes.
+     */
+    private static long compressedLength(File file, long uncompressedLength) {
+        try (CountingGzipInputStream in = new CountingGzipInputStream(new FileInputStream(file))) {
+            long remaining = uncompressedLength;
+            while (remaining > 0) {
+                long skipped = in.skip(remaining);
+                if (skipped <= 0) {
+                    break;
+                }
+                remaining -= skipped;
+            }
+            return in.getCompressedCount();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to sample the compression ratio of " + file, e);
+        }
+    }
+
+    private static Path savedThroughput(CosmosAsyncContainer container) {
+        return LoadCheckpoint.CHECKPOINT_DIR.resolve(container.getDatabase().getId() + "." + container.getId()
+                + ".throughput");
+    }
+
+    private static void save(Path path, boolean autoscale, int throughput) {
+        Properties properties = new Properties();
+        properties.setProperty("autoscale", Boolean.toString(autoscale));
+        properties.setProperty("throughput", Integer.toString(throughput));
+        try {
+            Files.createDirectories(path.getParent());
+            try (OutputStream out = Files.newOutputStream(path)) {
+                properties.store(out, "Cosmic Works throughput before load");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to save throughput to " + path, e);
+        }
+    }
+
+    private static Properties load(Path path) {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(path)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read throughput from " + path, e);
+        }
+        return properties;
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Failed to delete " + path + ": " + e);
+        }
+    }
+
+    /**
+     * Estimated number and average serialized size of the documents left to load.
+     */
+    static final class Estimate {
+
+        private final long documents;
+        private final long averageBytes;
+
+        Estimate(long documents, long averageBytes) {
+            this.documents = documents;
+            this.averageBytes = averageBytes;
+        }
+
+        long getRequestUnits() {
+            return (long) Math.ceil(documents * Math.max(1.0, averageBytes / 1024.0) * RU_PER_KB);
+        }
+
+        @Override
+        public String toString() {
+            return "an estimated " + documents + " documents of " + averageBytes + " bytes";
+        }
+    }
+
+    private static final class CountingGzipInputStream extends GZIPInputStream {
+
+        CountingGzipInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        long getCompressedCount() {
+            return inf.getBytesRead();
+        }
+    }
+}
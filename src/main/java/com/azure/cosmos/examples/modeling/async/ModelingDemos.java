@@ -5,29 +5,40 @@ package com.azure.cosmos.examples.modeling.async;
 
 import com.azure.cosmos.ConsistencyLevel;
 import com.azure.cosmos.CosmosAsyncClient;
-import com.azure.cosmos.CosmosAsyncContainer;
-import com.azure.cosmos.CosmosAsyncDatabase;
 import com.azure.cosmos.CosmosClientBuilder;
 import com.azure.cosmos.CosmosException;
 import com.azure.cosmos.examples.common.AccountSettings;
-import com.azure.cosmos.models.CosmosBatch;
-import com.azure.cosmos.models.CosmosBatchOperationResult;
-import com.azure.cosmos.models.CosmosBatchResponse;
-import com.azure.cosmos.models.CosmosItemRequestOptions;
-import com.azure.cosmos.models.CosmosItemResponse;
-import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.examples.common.JsonCodecs;
+import com.azure.cosmos.examples.common.QueryCatalog;
+import com.azure.cosmos.examples.generator.SyntheticDataGenerator;
+import com.azure.cosmos.examples.loader.DataLoader;
+import com.azure.cosmos.examples.loader.LoadReport;
+import com.azure.cosmos.models.CosmosItemIdentity;
 import com.azure.cosmos.models.PartitionKey;
-import com.azure.cosmos.util.CosmosPagedFlux;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.azure.cosmos.examples.models.ModelItemSerializer;
 import com.azure.cosmos.examples.models.Models.CustomerV2;
 import com.azure.cosmos.examples.models.Models.CustomerV4;
 import com.azure.cosmos.examples.models.Models.Product;
 import com.azure.cosmos.examples.models.Models.ProductCategory;
 import com.azure.cosmos.examples.models.Models.SalesOrder;
 import com.azure.cosmos.examples.models.Models.SalesOrderDetails;
-import com.azure.cosmos.implementation.Utils;
+import com.azure.cosmos.examples.repository.BatchPointReader;
+import com.azure.cosmos.examples.repository.BatchResult;
+import com.azure.cosmos.examples.repository.CachingItemContainer;
+import com.azure.cosmos.examples.repository.CosmosItemContainer;
+import com.azure.cosmos.examples.repository.FeedPage;
+import com.azure.cosmos.examples.repository.InMemoryItemContainer;
+import com.azure.cosmos.examples.repository.ItemContainer;
+import com.azure.cosmos.examples.repository.ItemResult;
+import com.azure.cosmos.examples.repository.PointReadItemContainer;
+import com.azure.cosmos.examples.repository.ProductCatalog;
+import com.azure.cosmos.examples.repository.ReadManyBatch;
+import com.azure.cosmos.examples.repository.Repositories;
+import com.azure.cosmos.examples.schema.SchemaDefinition;
+import com.azure.cosmos.examples.schema.SchemaDefinition.DatabaseDefinition;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,20 +51,61 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
+/**
+ * The modeling demos over the async client. Every operation is a {@link Mono} or {@link Flux} of its
+ * results with their request charges, which starts when subscribed to and never blocks, so that many
+ * of them can run at once on the few event-loop threads of the client; only the menu in
+ * {@link #main} waits for them, to print what they return.
+ * <p>
+ * Customers and orders of database-v4 go through its {@link Repositories}. With -DDEMO_OFFLINE=true
+ * every container is an in-process one (see {@link Repositories#inMemory()}), so that the demos run
+ * without an account; the upload options then fill those containers.
+ */
 public class ModelingDemos implements AutoCloseable {
 
+    // for the throughput measurement; -DTHROUGHPUT_OPERATIONS=[n] -DTHROUGHPUT_CONCURRENCY=[n]
+    private static final int THROUGHPUT_OPERATIONS = Integer.getInteger("THROUGHPUT_OPERATIONS", 1000);
+    private static final int THROUGHPUT_CONCURRENCY = Integer.getInteger("THROUGHPUT_CONCURRENCY", 64);
+
+    private static final boolean OFFLINE = Boolean.getBoolean("DEMO_OFFLINE");
+
+    private static final String CUSTOMER_ID = "FFD0DD37-1F0E-4E2E-8FAC-EAF45B0E9447";
+    private static final String ORDER_ID = "5350ce31-ea50-4df9-9a48-faff97675ac5";
+    private static final String CATEGORY_ID = "86F3CBAB-97A7-4D01-BABB-ADEFFFAED6B4";
+
+    // null when offline
     private final CosmosAsyncClient client;
-    private CosmosAsyncDatabase database;
-    private CosmosAsyncContainer container;
-    private static final ObjectMapper OBJECT_MAPPER = Utils.getSimpleObjectMapper();
+    // containers by database and container name
+    private final BiFunction<String, String, ItemContainer> containers;
+    private final Repositories repositories;
+    // point reads of customers go through these; the batches that update customers invalidate them
+    private final CachingItemContainer customersV2;
+    private final CachingItemContainer customersV4;
+    // queries of database-v2 customers that only pin ids run as point reads through the cache
+    private final PointReadItemContainer customerQueriesV2;
+    private final ItemContainer productCategories;
+    private final ItemContainer products;
+    // categories and products of database-v3, kept current from their change feeds
+    private final ProductCatalog catalog;
 
     protected static Logger logger = LoggerFactory.getLogger(ModelingDemos.class);
 
     public void close() {
-        client.close();
+        customersV2.close();
+        customersV4.close();
+        catalog.close();
+        if (client != null) {
+            client.close();
+        }
     }
 
     public static void clearScreen() {
@@ -66,7 +118,7 @@ public class ModelingDemos implements AutoCloseable {
      */
     // <Main>
     public static void main(String[] args) {
-        ModelingDemos p = new ModelingDemos();
+        ModelingDemos p = OFFLINE ? offline() : new ModelingDemos();
 
         try (Scanner in = new Scanner(System.in)) {
 
@@ -85,9 +137,12 @@ public class ModelingDemos implements AutoCloseable {
                 System.out.println("[h]   Create new order and update order total");
                 System.out.println("[i]   Delete order and update order total");
                 System.out.println("[j]   Query top 10 customers");
+                System.out.println("[n]   Point read many customers at once");
+                System.out.println("[o]   Measure concurrent point read throughput");
                 System.out.println("---------------------------------------------");
                 System.out.println("[k]   Create databases and containers");
                 System.out.println("[l]   Upload data to containers");
+                System.out.println("[p]   Upload synthetic data to containers");
                 System.out.println("[m]   Delete databases and containers");
                 System.out.println("---------------------------------------------");
                 System.out.println("[x]   Exit");
@@ -95,91 +150,214 @@ public class ModelingDemos implements AutoCloseable {
                 if (input.equals("a")) {
                     clearScreen();
                     System.out.println("Calling query for single customer");
-                    p.queryCustomer();
+                    p.queryCustomer()
+                            .doOnNext(page -> {
+                                logPage(page);
+                                logger.info("Item Ids " + page
+                                        .getResults()
+                                        .stream()
+                                        .map(CustomerV2::getId)
+                                        .collect(Collectors.toList()));
+                            })
+                            .blockLast();
+                    logger.info(p.customerQueriesV2.getRewrittenQueryCount() + " of "
+                            + p.customerQueriesV2.getQueryCount() + " queries run as point reads");
                     p.pressAnyKeyToContinue("Press any key to continue...");
                 }
                 if (input.equals("b")) {
                     clearScreen();
                     System.out.println("Point read for single customer");
-                    p.getCustomer();
+                    ItemResult<CustomerV2> item = p.getCustomer().block();
+                    if (item == null) {
+                        logger.info("Customer " + CUSTOMER_ID + " not found");
+                    } else {
+                        logger.info(String.format(
+                                "Point Read for a single customer\n. Item successfully read with id %s with a charge of %.2f and within duration %s",
+                                item.getItem().getId(), item.getRequestCharge(), item.getDuration()));
+                    }
+                    logger.info(p.customersV2.getSummary());
                     p.pressAnyKeyToContinue("Press any key to continue...");
                 }
                 if (input.equals("c")) {
                     clearScreen();
                     System.out.println("List all product categories");
-                    p.listAllProductCategories();
+                    List<ProductCategory> categories = p.listAllProductCategories().block();
+                    logger.info("Got " + categories.size() + " categories from the catalog");
+                    logger.info("Product types " + categories
+                            .stream()
+                            .map(ProductCategory::getName)
+                            .collect(Collectors.toList()));
                     p.pressAnyKeyToContinue("Press any key to continue...");
                 }
                 if (input.equals("d")) {
                     clearScreen();
                     System.out.println("Query products by category id");
-                    p.queryProductsByCategoryId();
+                    List<Product> products = p.queryProductsByCategoryId().block();
+                    logger.info("Got " + products.size() + " products from the catalog");
+                    products.forEach(product -> System.out.println(toPrettyString(product)));
                     p.pressAnyKeyToContinue("Press any key to continue...");
                 }
                 if (input.equals("e")) {
                     clearScreen();
                     System.out.println("Update product category name");
-                    p.queryProductsForCategory();
-                    p.updateProductCategory();
+                    p.queryProductsForCategory().doOnNext(ModelingDemos::printProductCounts).blockLast();
+                    System.out.println("Update the name and replace 'and' with '&'");
+                    logReplace(p.updateProductCategory().block());
                     p.pressAnyKeyToContinue("Category updated.\nPress any key to continue...");
-                    p.queryProductsForCategory();
+                    p.queryProductsForCategory().doOnNext(ModelingDemos::printProductCounts).blockLast();
                     p.pressAnyKeyToContinue("Press any key to revert categories...");
-                    p.revertProductCategory();
-                    p.pressAnyKeyToContinue("Press any key to continue...");
+                    System.out.println("Change category name back to original");
+                    logReplace(p.revertProductCategory().block());
+                    p.pressAnyKeyToContinue("Category reverted.\nPress any key to continue...");
                 }
                 if (input.equals("f")) {
                     clearScreen();
                     System.out.println("Query orders by customer id");
-                    p.querySalesOrdersByCustomerId();
+                    p.querySalesOrdersByCustomerId()
+                            .doOnNext(page -> {
+                                logPage(page);
+                                System.out.println("Print out orders for this customer\n");
+                                page.getResults().forEach(order -> System.out.println(toPrettyString(order)));
+                            })
+                            .blockLast();
                     p.pressAnyKeyToContinue("Press any key to continue...");
                 }
                 if (input.equals("g")) {
                     clearScreen();
                     System.out.println("Query for customer and all orders");
-                    p.queryCustomerAndSalesOrdersByCustomerId();
+                    CustomerOrders customerOrders = p.queryCustomerAndSalesOrdersByCustomerId().block();
+                    logger.info("Got the customer and " + customerOrders.getOrders().size()
+                            + " orders with request charge of " + customerOrders.getRequestCharge());
+                    System.out.println("Printing out customer record and all their orders\n");
+                    System.out.println(toPrettyString(customerOrders.getCustomer()));
+                    customerOrders.getOrders().forEach(order -> System.out.println(toPrettyString(order)));
                     p.pressAnyKeyToContinue("Press any key to continue...");
                 }
                 if (input.equals("h")) {
                     clearScreen();
                     System.out.println("Create new order and update order total");
-                    p.createNewOrderAndUpdateCustomerOrderTotal();
+                    BatchResult result = p.createNewOrderAndUpdateCustomerOrderTotal().block();
+                    if (result == null) {
+                        System.out.println("Customer " + CUSTOMER_ID + " not found");
+                    } else if (!result.isSuccessStatusCode()) {
+                        // Handle and log exception
+                        int statusCode = result.getResults().get(0).getStatusCode();
+                        System.out.println("There was an error, status code: " + statusCode);
+                        if (statusCode == 409) {
+                            System.out.println("Looks like the record is already there. Try running delete record first.");
+                        }
+                    } else {
+                        System.out.println("Order created successfully, request charge: " + result.getRequestCharge());
+                    }
                     p.pressAnyKeyToContinue("Press any key to continue...");
                 }
                 if (input.equals("i")) {
                     clearScreen();
                     System.out.println("Delete order and update order total");
-                    p.deleteOrder();
+                    BatchResult result = p.deleteOrder().block();
+                    if (result == null) {
+                        System.out.println("Customer " + CUSTOMER_ID + " not found");
+                    } else if (!result.isSuccessStatusCode()) {
+                        // Handle and log exception
+                        System.out.println("There was an error, status code: "
+                                + result.getResults().get(0).getStatusCode());
+                    } else {
+                        System.out.println("Order deleted successfully, request charge: " + result.getRequestCharge());
+                    }
                     p.pressAnyKeyToContinue("Press any key to continue...");
                 }
                 if (input.equals("j")) {
                     clearScreen();
                     System.out.println("Query top 10 customers");
-                    p.getTop10Customers();
+                    System.out.println("Print out top 10 customers and number of orders\n");
+                    p.getTop10Customers()
+                            .doOnNext(customer -> System.out.println("Customer Name: " + customer.firstName + " "
+                                    + customer.lastName + "\t\tOrders: " + customer.salesOrderCount))
+                            .blockLast();
+                    p.pressAnyKeyToContinue("Press any key to continue...");
+                }
+                if (input.equals("n")) {
+                    clearScreen();
+                    System.out.println("Point read many customers at once");
+                    long start = System.nanoTime();
+                    List<ReadManyBatch<CustomerV4>> batches = p.readManyCustomers()
+                            .doOnNext(batch -> logger.info(String.format(
+                                    "Read %d of %d customers in partition key range %d with a charge of %.2f and within duration %s",
+                                    batch.getItems().size(), batch.getRequested(), batch.getRangeIndex(),
+                                    batch.getRequestCharge(), batch.getDuration())))
+                            .collectList()
+                            .block();
+                    logger.info(String.format(
+                            "Read %d of %d customers in %d round trips over %d partition key ranges, with a charge of %.2f and within duration %s",
+                            batches.stream().mapToInt(batch -> batch.getItems().size()).sum(),
+                            batches.stream().mapToInt(ReadManyBatch::getRequested).sum(), batches.size(),
+                            batches.stream().mapToInt(ReadManyBatch::getRangeIndex).distinct().count(),
+                            batches.stream().mapToDouble(ReadManyBatch::getRequestCharge).sum(),
+                            Duration.ofNanos(System.nanoTime() - start)));
+                    p.pressAnyKeyToContinue("Press any key to continue...");
+                }
+                if (input.equals("o")) {
+                    clearScreen();
+                    System.out.println("Measure concurrent point read throughput");
+                    Throughput throughput = p.measurePointReadThroughput(THROUGHPUT_OPERATIONS,
+                            THROUGHPUT_CONCURRENCY).block();
+                    logger.info(throughput == null ? "No customers to read" : throughput.getSummary());
                     p.pressAnyKeyToContinue("Press any key to continue...");
                 }
                 if (input.equals("k")) {
                     clearScreen();
                     System.out.println("Create databases and containers");
-                    new Deployment().createDatabase(p.client, 1);
+                    if (p.client == null) {
+                        System.out.println("Offline, the in-process containers need no provisioning");
+                    } else {
+                        new Deployment().createDatabase(p.client, 1);
+                    }
                     p.pressAnyKeyToContinue("Press any key to continue...");
                 }
                 if (input.equals("l")) {
                     clearScreen();
                     System.out.println("Upload data to containers");
                     final long startTime = System.currentTimeMillis();
-                    new Deployment().loadDatabase();
+                    LoadReport report = p.client == null
+                            ? new Deployment().loadDatabase(new DataLoader(
+                                    load -> p.containers.apply(load.getDatabaseName(), load.getContainerName())))
+                            : new Deployment().loadDatabase();
                     final long endTime = System.currentTimeMillis();
                     final long durationMillis = (endTime - startTime);
                     String duration = millisecondsToTime(durationMillis);
                     clearScreen();
-                    System.out.println("Finished loading all data!!");
+                    if (report.isFinished()) {
+                        System.out.println("Finished loading all data!!");
+                    } else {
+                        System.out.println("Loading did NOT finish, check the log for the failed containers.");
+                    }
+                    System.out.println("Upload took: " + duration);
+                    System.out.println(report.getSummary());
+                    p.pressAnyKeyToContinue("Press any key to continue...");
+                }
+                if (input.equals("p")) {
+                    clearScreen();
+                    System.out.println("Upload synthetic data to containers");
+                    final long startTime = System.currentTimeMillis();
+                    boolean finished = p.client == null
+                            ? p.loadSyntheticData()
+                            : new Deployment().loadSyntheticDatabase();
+                    String duration = millisecondsToTime(System.currentTimeMillis() - startTime);
+                    clearScreen();
+                    System.out.println(finished
+                            ? "Finished loading all synthetic data!!"
+                            : "Loading did NOT finish, check the log for the failed containers.");
                     System.out.println("Upload took: " + duration);
                     p.pressAnyKeyToContinue("Press any key to continue...");
                 }
                 if (input.equals("m")) {
                     clearScreen();
                     System.out.println("Delete databases and containers");
-                    new Deployment().deleteDatabases(p.client, 1);
+                    if (p.client == null) {
+                        System.out.println("Offline, the in-process containers go away on exit");
+                    } else {
+                        new Deployment().deleteDatabases(p.client, 1);
+                    }
 
                 }
                 if (input.equals("x")) {
@@ -197,405 +375,305 @@ public class ModelingDemos implements AutoCloseable {
     }
 
     ModelingDemos() {
+        this(buildClient());
+    }
+
+    private ModelingDemos(CosmosAsyncClient client) {
+        this(client, (databaseName, containerName) ->
+                new CosmosItemContainer(client.getDatabase(databaseName).getContainer(containerName)),
+                Repositories.cosmos(client));
+    }
+
+    private ModelingDemos(CosmosAsyncClient client, BiFunction<String, String, ItemContainer> containers,
+                          Repositories repositories) {
+        this.client = client;
+        this.containers = containers;
+        this.repositories = repositories;
+        customersV2 = customerCache(2);
+        customersV4 = customerCache(4);
+        customerQueriesV2 = new PointReadItemContainer(customersV2,
+                SchemaDefinition.load().getDatabase(2).getContainer("customer").partitionKey);
+        productCategories = itemContainer("database-v3", "productCategory");
+        products = itemContainer("database-v3", "product");
+        catalog = new ProductCatalog(productCategories, products);
+        // built in the background, the catalog demos wait for it if it is not done yet
+        catalog.snapshot().subscribe(snapshot -> { },
+                e -> logger.warn("Could not build the product catalog yet: " + e.getMessage()));
+
+    }
+    // </Main>
+
+    private static CosmosAsyncClient buildClient() {
         ArrayList<String> preferredRegions = new ArrayList<>();
         preferredRegions.add("West US");
-        client = new CosmosClientBuilder()
+        return new CosmosClientBuilder()
                 .endpoint(AccountSettings.HOST)
                 .key(AccountSettings.MASTER_KEY)
                 .preferredRegions(preferredRegions)
                 .consistencyLevel(ConsistencyLevel.EVENTUAL)
                 .contentResponseOnWriteEnabled(true)
+                .customItemSerializer(ModelItemSerializer.INSTANCE)
                 .buildAsyncClient();
-
     }
-    // </Main>
 
-    public void queryCustomer() {
-        database = client.getDatabase("database-v2");
-        container = database.getContainer("customer");
-        int preferredPageSize = 10;
-        CosmosQueryRequestOptions queryOptions = new CosmosQueryRequestOptions();
-        queryOptions.setQueryMetricsEnabled(true);
-
-        String customerId = "FFD0DD37-1F0E-4E2E-8FAC-EAF45B0E9447";
-        CosmosPagedFlux<Product> customerPagedFluxResponse = container.queryItems(
-                "SELECT * FROM c WHERE c.id = \"" + customerId + "\"", queryOptions, Product.class);
-        customerPagedFluxResponse.byPage(preferredPageSize).flatMap(fluxResponse -> {
-            logger.info("Got a page of query result with " +
-                    fluxResponse.getResults().size() + " items(s)"
-                    + " and request charge of " + fluxResponse.getRequestCharge());
-            logger.info("Item Ids " + fluxResponse
-                    .getResults()
-                    .stream()
-                    .map(Product::getId)
-                    .collect(Collectors.toList()));
-            return Flux.empty();
-        }).onErrorResume((exception) -> {
-            logger.error(String.format("Read Item failed with %s\n", exception));
-            return Mono.empty();
-
-        }).blockLast();
-    }
-
-    public void getCustomer() {
-        try {
-            database = client.getDatabase("database-v2");
-            container = database.getContainer("customer");
-            String customerId = "FFD0DD37-1F0E-4E2E-8FAC-EAF45B0E9447";
-            CosmosItemResponse<CustomerV2> item = container.readItem(customerId, new PartitionKey(customerId),
-                    CustomerV2.class).block();
-            double requestCharge = item.getRequestCharge();
-            Duration requestLatency = item.getDuration();
-            logger.info(String.format(
-                    "Point Read for a single customer\n. Item successfully read with id %s with a charge of %.2f and within duration %s",
-                    item.getItem().getId(), requestCharge, requestLatency));
-        } catch (CosmosException e) {
-            e.printStackTrace();
-            logger.info(String.format("Read Item failed with %s", e));
-        }
+    /**
+     * The demos over empty in-process containers: those of database-v4 behind
+     * {@link Repositories#inMemory()}, and stand-ins alike for the other databases.
+     */
+    static ModelingDemos offline() {
+        Repositories repositories = Repositories.inMemory();
+        SchemaDefinition schema = SchemaDefinition.load();
+        String repositoryDatabase = schema.getDatabase(Repositories.SCHEMA_VERSION).name;
+        Map<String, ItemContainer> containers = new ConcurrentHashMap<>();
+        return new ModelingDemos(null, (databaseName, containerName) -> {
+            if (databaseName.equals(repositoryDatabase)) {
+                return repositories.getContainer(containerName);
+            }
+            return containers.computeIfAbsent(databaseName + "." + containerName, key -> {
+                DatabaseDefinition database = schema.databases.stream()
+                        .filter(definition -> definition.name.equals(databaseName))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("No database " + databaseName
+                                + " in the schema definition"));
+                return new InMemoryItemContainer(containerName, database.getContainer(containerName).partitionKey,
+                        Repositories.LATENCY, Repositories.CHARGES);
+            });
+        }, repositories);
+    }
 
+    private CachingItemContainer customerCache(int schemaVersion) {
+        DatabaseDefinition definition = SchemaDefinition.load().getDatabase(schemaVersion);
+        return new CachingItemContainer(containers.apply(definition.name, "customer"),
+                definition.getContainer("customer").partitionKey);
     }
 
-    public void listAllProductCategories() {
-        database = client.getDatabase("database-v2");
-        container = database.getContainer("productCategory");
-        int preferredPageSize = 100;
-        CosmosQueryRequestOptions queryOptions = new CosmosQueryRequestOptions();
-        queryOptions.setQueryMetricsEnabled(true);
+    private ItemContainer itemContainer(String databaseName, String containerName) {
+        return containers.apply(databaseName, containerName);
+    }
 
-        CosmosPagedFlux<ProductCategory> productTypesPagedFlux = container.queryItems(
-                "SELECT * FROM c WHERE c.type = 'category'", queryOptions, ProductCategory.class);
+    /**
+     * Creates a synthetic data set (see {@link SyntheticDataGenerator}) in the containers of the
+     * repositories; tells whether it finished.
+     */
+    private boolean loadSyntheticData() {
+        try {
+            repositories.loadSyntheticData(new SyntheticDataGenerator()).timeout(DataLoader.LOAD_TIMEOUT).block();
+            return true;
+        } catch (RuntimeException e) {
+            logger.error("loading did not finish: " + e);
+            return false;
+        }
+    }
 
-        productTypesPagedFlux.byPage(preferredPageSize).flatMap(cosmosItemPropertiesFeedResponse -> {
-            logger.info("Got a page of query result with " +
-                    cosmosItemPropertiesFeedResponse.getResults().size() + " items(s)"
-                    + " and request charge of " + cosmosItemPropertiesFeedResponse.getRequestCharge());
+    public Flux<FeedPage<CustomerV2>> queryCustomer() {
+        SqlQuerySpec query = QueryCatalog.CUSTOMER_BY_ID.bind(CUSTOMER_ID);
+        // pins the id and, as the container is partitioned on /id, the partition key: runs as a point read
+        return customerQueriesV2.query(query, QueryCatalog.CUSTOMER_BY_ID.partitionKey(query), CustomerV2.class)
+                .onErrorResume((exception) -> {
+                    logger.error(String.format("Read Item failed with %s\n", exception));
+                    return Mono.empty();
+                });
+    }
 
-            logger.info("Product types " + cosmosItemPropertiesFeedResponse
-                    .getResults()
-                    .stream()
-                    .map(ProductCategory::getName)
-                    .collect(Collectors.toList()));
-            return Flux.empty();
-        }).blockLast();
+    /**
+     * The customer, empty if it does not exist or cannot be read.
+     */
+    public Mono<ItemResult<CustomerV2>> getCustomer() {
+        // after the first read, served from the cache without a request charge
+        return customersV2.read(CUSTOMER_ID, new PartitionKey(CUSTOMER_ID), CustomerV2.class)
+                .onErrorResume(CosmosException.class, e -> {
+                    logger.info(String.format("Read Item failed with %s", e));
+                    return Mono.empty();
+                });
     }
 
-    public void queryProductsByCategoryId() {
-        database = client.getDatabase("database-v3");
-        container = database.getContainer("product");
-        int preferredPageSize = 100;
-        CosmosQueryRequestOptions queryOptions = new CosmosQueryRequestOptions();
-        queryOptions.setQueryMetricsEnabled(true);
+    public Mono<List<ProductCategory>> listAllProductCategories() {
+        // from the catalog snapshot: no request once the catalog is built
+        return catalog.snapshot().map(ProductCatalog.Snapshot::getCategories);
+    }
 
+    public Mono<List<Product>> queryProductsByCategoryId() {
         String categoryId = "AB952F9F-5ABA-4251-BC2D-AFF8DF412A4A";
 
-        CosmosPagedFlux<JsonNode> productByCategoryPagedFlux = container.queryItems(
-                "SELECT * FROM c WHERE c.categoryId = '" + categoryId + "'", queryOptions, JsonNode.class);
-
-        productByCategoryPagedFlux.byPage(preferredPageSize).flatMap(cosmosItemPropertiesFeedResponse -> {
-            logger.info("Got a page of query result with " +
-                    cosmosItemPropertiesFeedResponse.getResults().size() + " items(s)"
-                    + " and request charge of " + cosmosItemPropertiesFeedResponse.getRequestCharge());
-
-            for (JsonNode product : cosmosItemPropertiesFeedResponse.getResults()) {
-                ObjectMapper doc = new ObjectMapper();
-                try {
-                    System.out.println(doc.writerWithDefaultPrettyPrinter().writeValueAsString(product));
-                } catch (JsonProcessingException e) {
-                    // TODO Auto-generated catch block
-                    e.printStackTrace();
-                }
-            }
-            return Flux.empty();
-        }).blockLast();
-
+        // from the catalog snapshot: no request once the catalog is built
+        return catalog.snapshot().map(snapshot -> snapshot.getProducts(categoryId));
     }
 
-    public void queryProductsForCategory() {
-        database = client.getDatabase("database-v3");
-        container = database.getContainer("product");
-        int preferredPageSize = 100;
-        CosmosQueryRequestOptions queryOptions = new CosmosQueryRequestOptions();
-        queryOptions.setQueryMetricsEnabled(true);
-
-        String sql = "SELECT COUNT(1) AS ProductCount, c.categoryName " +
-                "FROM c WHERE c.categoryId = '86F3CBAB-97A7-4D01-BABB-ADEFFFAED6B4' " +
-                "GROUP BY c.categoryName";
-        CosmosPagedFlux<JsonNode> productByCategoryPagedFlux = container.queryItems(
-                sql, queryOptions, JsonNode.class);
-
-        productByCategoryPagedFlux.byPage(preferredPageSize).flatMap(cosmosItemPropertiesFeedResponse -> {
-            logger.info("Got a page of query result with " +
-                    cosmosItemPropertiesFeedResponse.getResults().size() + " items(s)"
-                    + " and request charge of " + cosmosItemPropertiesFeedResponse.getRequestCharge());
-
-            for (JsonNode product : cosmosItemPropertiesFeedResponse.getResults()) {
-                try {
-                    System.out.println("Product count: " + product.get("ProductCount").asText() + "\nCategory name: "
-                            + product.get("categoryName").asText());
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            }
-            return Flux.empty();
-        }).blockLast();
-
+    /**
+     * Pages of the product count and name of the category, as {@code ProductCount} and
+     * {@code categoryName}.
+     */
+    public Flux<FeedPage<JsonNode>> queryProductsForCategory() {
+        SqlQuerySpec query = QueryCatalog.PRODUCT_COUNT_BY_CATEGORY.bind(CATEGORY_ID);
+        return products.query(query, QueryCatalog.PRODUCT_COUNT_BY_CATEGORY.partitionKey(query), JsonNode.class)
+                // GROUP BY is beyond the in-process containers
+                .onErrorResume(IllegalArgumentException.class, e -> {
+                    logger.warn("Query for product counts not supported: " + e.getMessage());
+                    return Flux.empty();
+                });
     }
 
-    private void updateProductCategory() {
-        database = client.getDatabase("database-v3");
-        container = database.getContainer("productCategory");
-
-        String categoryId = "86F3CBAB-97A7-4D01-BABB-ADEFFFAED6B4";
-
-        System.out.println("Update the name and replace 'and' with '&'");
-        ProductCategory updatedProductCategory = new ProductCategory();
-        updatedProductCategory.setId(categoryId);
-        updatedProductCategory.setType("category");
-        updatedProductCategory.setName("Accessories, Tires & Tubes");
-
-        Mono<CosmosItemResponse<ProductCategory>> productCategoryResponse = container.replaceItem(
-                updatedProductCategory,
-                updatedProductCategory.getId(), new PartitionKey(updatedProductCategory.getType()),
-                new CosmosItemRequestOptions());
-
-        logger.info("Request charge of replace operation: {} RU", productCategoryResponse.block().getRequestCharge());
-
-        logger.info("Done.");
+    public Mono<ItemResult<ProductCategory>> updateProductCategory() {
+        // Update the name and replace 'and' with '&'
+        return renameProductCategory("Accessories, Tires & Tubes");
     }
 
-    private void revertProductCategory() {
-        database = client.getDatabase("database-v3");
-        container = database.getContainer("productCategory");
-
-        String categoryId = "86F3CBAB-97A7-4D01-BABB-ADEFFFAED6B4";
+    public Mono<ItemResult<ProductCategory>> revertProductCategory() {
+        return renameProductCategory("Accessories, Tires and Tubes");
+    }
 
-        System.out.println("Change category name back to original");
+    private Mono<ItemResult<ProductCategory>> renameProductCategory(String name) {
         ProductCategory updatedProductCategory = new ProductCategory();
-        updatedProductCategory.setId(categoryId);
+        updatedProductCategory.setId(CATEGORY_ID);
         updatedProductCategory.setType("category");
-        updatedProductCategory.setName("Accessories, Tires and Tubes");
-
-        Mono<CosmosItemResponse<ProductCategory>> productCategoryResponse = container.replaceItem(
-                updatedProductCategory,
-                updatedProductCategory.getId(), new PartitionKey(updatedProductCategory.getType()),
-                new CosmosItemRequestOptions());
+        updatedProductCategory.setName(name);
 
-        logger.info("Request charge of replace operation: {} RU", productCategoryResponse.block().getRequestCharge());
-        pressAnyKeyToContinue("Category reverted.\nPress any key to continue...");
-        logger.info("Done.");
+        return productCategories.replace(updatedProductCategory.getId(), updatedProductCategory,
+                new PartitionKey(updatedProductCategory.getType()));
     }
 
-    private void querySalesOrdersByCustomerId() {
-        int preferredPageSize = 100;
-        CosmosQueryRequestOptions queryOptions = new CosmosQueryRequestOptions();
-        queryOptions.setQueryMetricsEnabled(true);
-        database = client.getDatabase("database-v4");
-        container = database.getContainer("customer");
-
-        String customerId = "FFD0DD37-1F0E-4E2E-8FAC-EAF45B0E9447";
-
-        String sql = "SELECT * from c WHERE c.type = 'salesOrder' and c.customerId = '" + customerId + "'";
-
-        CosmosPagedFlux<SalesOrder> customerSalesOrderPagedFlux = container.queryItems(
-                sql, queryOptions, SalesOrder.class);
-
-        customerSalesOrderPagedFlux.byPage(preferredPageSize).flatMap(cosmosItemPropertiesFeedResponse -> {
-            logger.info("Got a page of query result with " +
-                    cosmosItemPropertiesFeedResponse.getResults().size() + " items(s)"
-                    + " and request charge of " + cosmosItemPropertiesFeedResponse.getRequestCharge());
-
-            System.out.println("Print out orders for this customer\n");
-            for (SalesOrder product : cosmosItemPropertiesFeedResponse.getResults()) {
-                ObjectMapper doc = new ObjectMapper();
-                try {
-                    System.out.println(doc.writerWithDefaultPrettyPrinter().writeValueAsString(product));
-                } catch (JsonProcessingException e) {
-                    // TODO Auto-generated catch block
-                    e.printStackTrace();
-                }
-            }
-            return Flux.empty();
-        }).blockLast();
+    public Flux<FeedPage<SalesOrder>> querySalesOrdersByCustomerId() {
+        SqlQuerySpec query = QueryCatalog.SALES_ORDERS_BY_CUSTOMER.bind(CUSTOMER_ID);
+        return customersV4.query(query, QueryCatalog.SALES_ORDERS_BY_CUSTOMER.partitionKey(query),
+                SalesOrder.class);
     }
 
-    private void queryCustomerAndSalesOrdersByCustomerId() {
-        int preferredPageSize = 100;
-        CosmosQueryRequestOptions queryOptions = new CosmosQueryRequestOptions();
-        queryOptions.setQueryMetricsEnabled(true);
-        database = client.getDatabase("database-v4");
-        container = database.getContainer("customer");
-
-        String customerId = "FFD0DD37-1F0E-4E2E-8FAC-EAF45B0E9447";
-
-        String sql = "SELECT * from c WHERE c.customerId = '" + customerId + "'";
-
-        CosmosPagedFlux<JsonNode> customerSalesOrderPagedFlux = container.queryItems(
-                sql, queryOptions, JsonNode.class);
-        customerSalesOrderPagedFlux.byPage(preferredPageSize).flatMap(cosmosItemPropertiesFeedResponse -> {
-            logger.info("Got a page of query result with " +
-                    cosmosItemPropertiesFeedResponse.getResults().size() + " items(s)"
-                    + " and request charge of " + cosmosItemPropertiesFeedResponse.getRequestCharge());
+    public Mono<CustomerOrders> queryCustomerAndSalesOrdersByCustomerId() {
+        SqlQuerySpec query = QueryCatalog.CUSTOMER_AND_SALES_ORDERS.bind(CUSTOMER_ID);
+        return customersV4.query(query, QueryCatalog.CUSTOMER_AND_SALES_ORDERS.partitionKey(query), JsonNode.class)
+                .reduceWith(CustomerOrders::new, CustomerOrders::add);
+    }
 
-            List<SalesOrder> orders = new ArrayList<>();
-            CustomerV4 customer = new CustomerV4();
-            for (JsonNode record : cosmosItemPropertiesFeedResponse.getResults()) {
-                try {
-                    if (record.get("type").asText().equals("customer")) {
-                        customer = OBJECT_MAPPER.treeToValue(record, CustomerV4.class);
+    /**
+     * Creates an order for the customer and counts it in the customer's order total, in one
+     * transactional batch; empty if the customer does not exist.
+     */
+    public Mono<BatchResult> createNewOrderAndUpdateCustomerOrderTotal() {
+        return customersV4.read(CUSTOMER_ID, new PartitionKey(CUSTOMER_ID), CustomerV4.class)
+                .flatMap(read -> {
+                    CustomerV4 customer = read.getItem();
+
+                    // Create a new order, normally with a new random id
+                    SalesOrder salesOrder = new SalesOrder();
+                    salesOrder.setId(ORDER_ID);
+                    salesOrder.setType("salesOrder");
+                    salesOrder.setCustomerId(customer.id);
+                    salesOrder.setOrderDate(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
+                    salesOrder.setShipDate("");
+                    List<SalesOrderDetails> salesOrders = new ArrayList<>();
+                    SalesOrderDetails order1 = new SalesOrderDetails();
+                    {
+                        order1.setSku("FR-M94B-38");
+                        order1.setName("HL Mountain Frame - Black, 38");
+                        order1.setPrice(1349.6);
+                        order1.setQuantity(1);
                     }
-                    if (record.get("type").asText().equals("salesOrder")) {
-                        orders.add(OBJECT_MAPPER.treeToValue(record, SalesOrder.class));
+                    SalesOrderDetails order2 = new SalesOrderDetails();
+                    {
+                        order1.setSku("SO-R809-M");
+                        order1.setName("Racing Socks, M");
+                        order1.setPrice(8.99);
+                        order1.setQuantity(2);
                     }
-                } catch (JsonProcessingException | IllegalArgumentException e) {
-                    e.printStackTrace();
-                }
-            }
-            System.out.println("Printing out customer record and all their orders\n");
-            ObjectMapper json = new ObjectMapper();
-            try {
-                System.out.println(json.writerWithDefaultPrettyPrinter().writeValueAsString(customer));
-                for (SalesOrder order : orders) {
-                    System.out.println(json.writerWithDefaultPrettyPrinter().writeValueAsString(order));
-                }
-            } catch (JsonProcessingException e) {
-                e.printStackTrace();
-            }
-            return Flux.empty();
-        }).blockLast();
-    }
-
-    private void createNewOrderAndUpdateCustomerOrderTotal() {
-        database = client.getDatabase("database-v4");
-        container = database.getContainer("customer");
-
-        // Get the customer
-        String customerId = "FFD0DD37-1F0E-4E2E-8FAC-EAF45B0E9447";
-
-        Mono<CosmosItemResponse<CustomerV4>> item = container.readItem(customerId, new PartitionKey(customerId),
-                CustomerV4.class);
-        CustomerV4 customer = item.block().getItem();
-
-        // Increment the salesOrderTotal property
-        customer.salesOrderCount++;
-
-        // Create a new order
-        String orderId = "5350ce31-ea50-4df9-9a48-faff97675ac5"; // Normally would use Guid.NewGuid().ToString()
-
-        SalesOrder salesOrder = new SalesOrder();
-        salesOrder.setId(orderId);
-        salesOrder.setType("salesOrder");
-        salesOrder.setCustomerId(customer.id);
-        LocalDateTime myDateObj = LocalDateTime.now();
-        System.out.println("Before formatting: " + myDateObj);
-        DateTimeFormatter myFormatObj = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-        String formattedDate = myDateObj.format(myFormatObj);
-        System.out.println("After formatting: " + formattedDate);
-        salesOrder.setOrderDate(formattedDate);
-        salesOrder.setShipDate("");
-        List<SalesOrderDetails> salesOrders = new ArrayList<>();
-        SalesOrderDetails order1 = new SalesOrderDetails();
-        {
-            order1.setSku("FR-M94B-38");
-            order1.setName("HL Mountain Frame - Black, 38");
-            order1.setPrice(1349.6);
-            order1.setQuantity(1);
-        }
-        SalesOrderDetails order2 = new SalesOrderDetails();
-        {
-            order1.setSku("SO-R809-M");
-            order1.setName("Racing Socks, M");
-            order1.setPrice(8.99);
-            order1.setQuantity(2);
-        }
-        salesOrders.add(order1);
-        salesOrders.add(order2);
-        salesOrder.setDetails(salesOrders);
+                    salesOrders.add(order1);
+                    salesOrders.add(order2);
+                    salesOrder.setDetails(salesOrders);
+
+                    logger.info("Sales order to be created: " + toPrettyString(salesOrder));
+                    logger.info("Customer record to have its order total incremented: " + toPrettyString(customer));
+
+                    // The repository submits both as a transactional batch, failing if the customer
+                    // changed since it was read; the cache drops the customer once it completes
+                    return repositories.salesOrders().create(customer, read.getETag(), salesOrder)
+                            .doFinally(signal -> customersV4.invalidate(CUSTOMER_ID, new PartitionKey(CUSTOMER_ID)));
+                });
+    }
 
-        ObjectMapper doc = new ObjectMapper();
-        try {
-            System.out.println("Sales order to be updated: "
-                    + doc.writerWithDefaultPrettyPrinter().writeValueAsString(salesOrder));
-            System.out.println("Customer record to be updated: "
-                    + doc.writerWithDefaultPrettyPrinter().writeValueAsString(customer));
-        } catch (JsonProcessingException e) {
-            // TODO Auto-generated catch block
-            e.printStackTrace();
-        }
-        // Submit both as a transactional batch
-        CosmosBatch batch = CosmosBatch.createCosmosBatch(new PartitionKey(customerId));
-        batch.createItemOperation(salesOrder);
-        batch.upsertItemOperation(customer);
-        CosmosBatchResponse response = container.executeCosmosBatch(batch).block();
-        CosmosBatchOperationResult result = response.getResults().get(0);
-
-        if (!response.isSuccessStatusCode()) {
-            // Handle and log exception
-            System.out.println("There was an error, status code: " + result.getStatusCode());
-            if (result.getStatusCode() == 409) {
-                System.out.println("Looks like the record is already there. Try running delete record first.");
-            }
-        } else {
-            System.out.println("Order created successfully");
-        }
+    /**
+     * Deletes the order and takes it off the customer's order total, in one transactional batch;
+     * empty if the customer does not exist.
+     */
+    public Mono<BatchResult> deleteOrder() {
+        return customersV4.read(CUSTOMER_ID, new PartitionKey(CUSTOMER_ID), CustomerV4.class)
+                // The repository submits the delete and the customer with its order total decremented as
+                // a transactional batch, failing if the customer changed since it was read; the cache
+                // drops the customer once it completes
+                .flatMap(read -> repositories.salesOrders().delete(read.getItem(), read.getETag(), ORDER_ID)
+                        .doFinally(signal -> customersV4.invalidate(CUSTOMER_ID, new PartitionKey(CUSTOMER_ID))));
     }
 
-    private void deleteOrder() {
-        database = client.getDatabase("database-v4");
-        container = database.getContainer("customer");
+    public Flux<ReadManyBatch<CustomerV4>> readManyCustomers() {
+        ItemContainer customers = customersV4.getContainer();
 
-        String customerId = "FFD0DD37-1F0E-4E2E-8FAC-EAF45B0E9447";
-        String orderId = "5350ce31-ea50-4df9-9a48-faff97675ac5";
+        // one readMany per partition key range and up to 100 items, instead of a point read per customer
+        return Mono.zip(customerIdentities(customers, 500), BatchPointReader.create(customers))
+                .flatMapMany(loaded -> loaded.getT2().read(loaded.getT1(), CustomerV4.class));
+    }
 
-        Mono<CosmosItemResponse<CustomerV4>> item = container.readItem(customerId, new PartitionKey(customerId),
-                CustomerV4.class);
-        CustomerV4 customer = item.block().getItem();
+    /**
+     * The 10 customers with the most orders, most first.
+     */
+    public Flux<CustomerV4> getTop10Customers() {
+        return repositories.customers().findTopBySalesOrderCount(10);
+    }
 
-        // Decrement the salesOrderTotal property
-        customer.salesOrderCount--;
+    /**
+     * Point reads {@code operations} customers of database-v4, cycling through the first 500,
+     * straight from the container and {@code concurrency} at a time, and measures how fast they
+     * complete; empty if there are no customers.
+     */
+    public Mono<Throughput> measurePointReadThroughput(int operations, int concurrency) {
+        ItemContainer customers = customersV4.getContainer();
+        return customerIdentities(customers, 500)
+                .filter(items -> !items.isEmpty())
+                .flatMap(items -> Mono.defer(() -> {
+                    Throughput throughput = new Throughput(System.nanoTime());
+                    return Flux.range(0, operations)
+                            .map(i -> items.get(i % items.size()))
+                            .flatMap(item -> customers.read(item.getId(), item.getPartitionKey(), JsonNode.class)
+                                    .doOnNext(throughput::add), concurrency)
+                            .then(Mono.fromSupplier(throughput::finish));
+                }));
+    }
 
-        // Submit both as a transactional batch
-        CosmosBatch batch = CosmosBatch.createCosmosBatch(new PartitionKey(customerId));
-        batch.deleteItemOperation(orderId);
-        batch.replaceItemOperation(customerId, customer);
-        CosmosBatchResponse response = container.executeCosmosBatch(batch).block();
-        CosmosBatchOperationResult result = response.getResults().get(0);
+    /**
+     * Ids and partition keys of up to {@code count} customers in {@code customers}.
+     */
+    private static Mono<List<CosmosItemIdentity>> customerIdentities(ItemContainer customers, int count) {
+        SqlQuerySpec query = QueryCatalog.CUSTOMER_IDS.bind(count);
+        return customers
+                .query(query, QueryCatalog.CUSTOMER_IDS.partitionKey(query), JsonNode.class)
+                .flatMapIterable(FeedPage::getResults)
+                .map(customer -> new CosmosItemIdentity(new PartitionKey(customer.get("customerId").asText()),
+                        customer.get("id").asText()))
+                .collectList();
+    }
 
-        if (!response.isSuccessStatusCode()) {
-            // Handle and log exception
-            System.out.println("There was an error, status code: " + result.getStatusCode());
-        } else {
-            System.out.println("Order deleted successfully");
-        }
+    private static void logPage(FeedPage<?> page) {
+        logger.info("Got a page of query result with " +
+                page.getResults().size() + " items(s)"
+                + " and request charge of " + page.getRequestCharge());
     }
 
-    private void getTop10Customers() {
-        int preferredPageSize = 100;
-        CosmosQueryRequestOptions queryOptions = new CosmosQueryRequestOptions();
-        queryOptions.setQueryMetricsEnabled(true);
-        database = client.getDatabase("database-v4");
-        container = database.getContainer("customer");
+    private static void printProductCounts(FeedPage<JsonNode> page) {
+        logPage(page);
+        for (JsonNode product : page.getResults()) {
+            System.out.println("Product count: " + product.path("ProductCount").asText() + "\nCategory name: "
+                    + product.path("categoryName").asText());
+        }
+    }
 
-        // Query to get our top 10 customers
-        String sql = "SELECT TOP 10 c.firstName, c.lastName, c.salesOrderCount " +
-                "FROM c WHERE c.type = 'customer' " +
-                "ORDER BY c.salesOrderCount DESC";
+    private static void logReplace(ItemResult<ProductCategory> result) {
+        logger.info("Request charge of replace operation: {} RU", result.getRequestCharge());
+        logger.info("Done.");
+    }
 
-        CosmosPagedFlux<JsonNode> customerPagedFlux = container.queryItems(
-                sql, queryOptions, JsonNode.class);
-        customerPagedFlux.byPage(preferredPageSize).flatMap(cosmosItemPropertiesFeedResponse -> {
-            System.out.println("Print out top 10 customers and number of orders\n");
-            for (JsonNode record : cosmosItemPropertiesFeedResponse.getResults()) {
-                try {
-                    System.out.println(
-                            "Customer Name: " + record.get("firstName").asText() + " " + record.get("lastName").asText()
-                                    + "\t\tOrders: " + record.get("salesOrderCount").asText());
-                } catch (IllegalArgumentException e) {
-                    e.printStackTrace();
-                }
-            }
-            return Flux.empty();
-        }).blockLast();
+    private static String toPrettyString(Object value) {
+        try {
+            return JsonCodecs.toPrettyString(value);
+        } catch (JsonProcessingException e) {
+            return String.valueOf(value);
+        }
     }
 
     private static String millisecondsToTime(long milliseconds) {
@@ -622,7 +700,117 @@ public class ModelingDemos implements AutoCloseable {
     }
 
     private void shutdown() {
-        client.close();
+        logger.info(customersV2.getSummary());
+        logger.info(customersV4.getSummary());
+        close();
         logger.info("Done.");
     }
+
+    /**
+     * A customer and their orders, as one query of the customer's partition returns them.
+     */
+    public static final class CustomerOrders {
+
+        private CustomerV4 customer;
+        private final List<SalesOrder> orders = new ArrayList<>();
+        private double requestCharge;
+
+        private CustomerOrders add(FeedPage<JsonNode> page) {
+            requestCharge += page.getRequestCharge();
+            for (JsonNode record : page.getResults()) {
+                String type = record.path("type").asText();
+                try {
+                    if (type.equals("customer")) {
+                        customer = JsonCodecs.treeToValue(record, CustomerV4.class);
+                    }
+                    if (type.equals("salesOrder")) {
+                        orders.add(JsonCodecs.treeToValue(record, SalesOrder.class));
+                    }
+                } catch (JsonProcessingException e) {
+                    logger.warn("Skipping " + type + " " + record.path("id").asText() + ": " + e.getMessage());
+                }
+            }
+            return this;
+        }
+
+        /**
+         * The customer, or {@code null} if it does not exist.
+         */
+        public CustomerV4 getCustomer() {
+            return customer;
+        }
+
+        public List<SalesOrder> getOrders() {
+            return orders;
+        }
+
+        public double getRequestCharge() {
+            return requestCharge;
+        }
+    }
+
+    /**
+     * How fast a number of concurrent point reads completed, and on how many threads their results
+     * arrived.
+     */
+    public static final class Throughput {
+
+        private final long start;
+        private final Set<String> threads = ConcurrentHashMap.newKeySet();
+        private final AtomicLong operations = new AtomicLong();
+        private final AtomicLong latencyNanos = new AtomicLong();
+        private final DoubleAdder requestCharge = new DoubleAdder();
+        private volatile Duration duration;
+
+        private Throughput(long start) {
+            this.start = start;
+        }
+
+        private void add(ItemResult<?> result) {
+            threads.add(Thread.currentThread().getName());
+            operations.incrementAndGet();
+            latencyNanos.addAndGet(result.getDuration().toNanos());
+            requestCharge.add(result.getRequestCharge());
+        }
+
+        private Throughput finish() {
+            duration = Duration.ofNanos(System.nanoTime() - start);
+            return this;
+        }
+
+        public long getOperations() {
+            return operations.get();
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+
+        public double getOperationsPerSecond() {
+            return duration.isZero() ? 0 : operations.get() * 1e9 / duration.toNanos();
+        }
+
+        public Duration getMeanLatency() {
+            long count = operations.get();
+            return Duration.ofNanos(count == 0 ? 0 : latencyNanos.get() / count);
+        }
+
+        public double getRequestCharge() {
+            return requestCharge.sum();
+        }
+
+        /**
+         * Number of threads the results were delivered on.
+         */
+        public int getThreadCount() {
+            return threads.size();
+        }
+
+        public String getSummary() {
+            return String.format(
+                    "%d point reads in %s: %.0f reads/s, mean latency %s, %.2f RU, results on %d threads",
+                    getOperations(), getDuration(), getOperationsPerSecond(), getMeanLatency(), getRequestCharge(),
+                    getThreadCount());
+        }
+    }
 }
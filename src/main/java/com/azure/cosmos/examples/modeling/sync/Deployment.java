@@ -4,46 +4,49 @@
 package com.azure.cosmos.examples.modeling.sync;
 
 import java.io.File;
-import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import com.azure.cosmos.ConsistencyLevel;
 import com.azure.cosmos.CosmosAsyncClient;
 import com.azure.cosmos.CosmosAsyncContainer;
-import com.azure.cosmos.CosmosAsyncDatabase;
 import com.azure.cosmos.CosmosClient;
 import com.azure.cosmos.CosmosClientBuilder;
-import com.azure.cosmos.CosmosContainer;
-import com.azure.cosmos.CosmosDatabase;
 import com.azure.cosmos.examples.changefeed.ChangeFeedConfigurations;
-import com.azure.cosmos.models.CosmosBulkOperations;
-import com.azure.cosmos.models.CosmosContainerProperties;
-import com.azure.cosmos.models.CosmosContainerRequestOptions;
-import com.azure.cosmos.models.CosmosContainerResponse;
+import com.azure.cosmos.examples.generator.SyntheticDataGenerator;
+import com.azure.cosmos.examples.loader.BulkLoadIndexing;
+import com.azure.cosmos.examples.loader.ContainerLoad;
+import com.azure.cosmos.examples.loader.ContentManifest;
+import com.azure.cosmos.examples.loader.DataFileFormat;
+import com.azure.cosmos.examples.loader.DataLoader;
+import com.azure.cosmos.examples.loader.LoadCheckpoint;
+import com.azure.cosmos.examples.loader.LoadReport;
+import com.azure.cosmos.examples.loader.ThroughputRamp;
+import com.azure.cosmos.examples.models.ModelItemSerializer;
+import com.azure.cosmos.examples.repository.Repositories;
+import com.azure.cosmos.examples.schema.SchemaDefinition;
+import com.azure.cosmos.examples.schema.SchemaDefinition.ContainerDefinition;
+import com.azure.cosmos.examples.schema.SchemaDefinition.DatabaseDefinition;
+import com.azure.cosmos.examples.schema.SchemaProvisioner;
 import com.azure.cosmos.models.CosmosDatabaseRequestOptions;
-import com.azure.cosmos.models.CosmosDatabaseResponse;
-import com.azure.cosmos.models.CosmosItemOperation;
-import com.azure.cosmos.models.PartitionKey;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import com.azure.cosmos.models.ThroughputProperties;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.json.JSONArray;
+import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 public class Deployment {
 
     private static Logger logger = LoggerFactory.getLogger(Deployment.class);
 
-    public void createDatabase(CosmosClient cosmosDBClient, int schemaVersion) {
+    public void createDatabase(int schemaVersion) {
         {
             int schemaVersionStart;
             int schemaVersionEnd;
@@ -55,78 +58,46 @@ public class Deployment {
                 schemaVersionEnd = 4;
             }
 
-            for (int schemaVersionCounter = schemaVersionStart; schemaVersionCounter <= schemaVersionEnd; schemaVersionCounter++) {
-                logger.info("create started for schema " + schemaVersionCounter);
-                createDatabaseAndContainers(cosmosDBClient, "database-v" + schemaVersionCounter, schemaVersionCounter);
-            }
+            logger.info("create started for schemas " + schemaVersionStart + " to " + schemaVersionEnd);
+            provision(SchemaDefinition.load().getDatabases(schemaVersionStart, schemaVersionEnd));
         }
     }
 
+    /**
+     * The containers and partition keys of every schema version, as listed in the {@link SchemaDefinition}.
+     */
     public List<List<SchemaDetails>> getSchemaDetails() {
 
         List<List<SchemaDetails>> databaseSchema = new ArrayList<>();
-
-        List<SchemaDetails> databaseSchema_1 = new ArrayList<>();
-        databaseSchema_1.add(new SchemaDetails("customer", "/id"));
-        databaseSchema_1.add(new SchemaDetails("customerAddress", "/id"));
-        databaseSchema_1.add(new SchemaDetails("customerPassword", "/id"));
-        databaseSchema_1.add(new SchemaDetails("product", "/id"));
-        databaseSchema_1.add(new SchemaDetails("productCategory", "/id"));
-        databaseSchema_1.add(new SchemaDetails("productTag", "/id"));
-        databaseSchema_1.add(new SchemaDetails("productTags", "/id"));
-        databaseSchema_1.add(new SchemaDetails("salesOrder", "/id"));
-        databaseSchema_1.add(new SchemaDetails("salesOrderDetail", "/id"));
-
-        List<SchemaDetails> databaseSchema_2 = new ArrayList<>();
-        databaseSchema_2.add(new SchemaDetails("customer", "/id"));
-        databaseSchema_2.add(new SchemaDetails("product", "/categoryId"));
-        databaseSchema_2.add(new SchemaDetails("productCategory", "/type"));
-        databaseSchema_2.add(new SchemaDetails("productTag", "/type"));
-        databaseSchema_2.add(new SchemaDetails("salesOrder", "/customerId"));
-
-        List<SchemaDetails> databaseSchema_3 = new ArrayList<>();
-        databaseSchema_3.add(new SchemaDetails("leases", "/id"));
-        databaseSchema_3.add(new SchemaDetails("customer", "/id"));
-        databaseSchema_3.add(new SchemaDetails("product", "/categoryId"));
-        databaseSchema_3.add(new SchemaDetails("productCategory", "/type"));
-        databaseSchema_3.add(new SchemaDetails("productTag", "/type"));
-        databaseSchema_3.add(new SchemaDetails("salesOrder", "/customerId"));
-
-        List<SchemaDetails> databaseSchema_4 = new ArrayList<>();
-        databaseSchema_4.add(new SchemaDetails("customer", "/customerId"));
-        databaseSchema_4.add(new SchemaDetails("product", "/categoryId"));
-        databaseSchema_4.add(new SchemaDetails("productMeta", "/type"));
-        databaseSchema_4.add(new SchemaDetails("salesByCategory", "/categoryId"));
-
-        databaseSchema.add(databaseSchema_1);
-        databaseSchema.add(databaseSchema_2);
-        databaseSchema.add(databaseSchema_3);
-        databaseSchema.add(databaseSchema_4);
-
+        SchemaDefinition definition = SchemaDefinition.load();
+        for (int schemaVersion = 1; schemaVersion <= 4; schemaVersion++) {
+            List<SchemaDetails> containers = new ArrayList<>();
+            for (ContainerDefinition container : definition.getDatabase(schemaVersion).containers) {
+                containers.add(new SchemaDetails(container.name, container.partitionKey));
+            }
+            databaseSchema.add(containers);
+        }
         return databaseSchema;
-
     }
 
-    public void createDatabaseAndContainers(CosmosClient cosmosDBClient, String database, int schema) {
+    public void createDatabaseAndContainers(String database, int schema) {
 
         logger.info("creating database and containers for schema v" + schema);
         logger.info("DatabaseName:" + database + " key:provided");
+        provision(Collections.singletonList(SchemaDefinition.load().getDatabase(schema).withName(database)));
+    }
 
-        List<List<SchemaDetails>> DatabaseSchema = getSchemaDetails();
-        if (schema >= 1 & schema <= 4) {
-            ThroughputProperties throughputProperties = ThroughputProperties.createAutoscaledThroughput(4000);
-            CosmosDatabaseResponse cosmosDatabaseResponse = cosmosDBClient.createDatabaseIfNotExists(database,
-                    throughputProperties);
-            CosmosDatabase cosmosDatabase = cosmosDBClient.getDatabase(cosmosDatabaseResponse.getProperties().getId());
-            for (SchemaDetails schemaDetails : DatabaseSchema.get(schema - 1)) {
-                CosmosContainerProperties autoScaleContainerProperties = new CosmosContainerProperties(
-                        schemaDetails.getContainerName(), schemaDetails.getPk());
-                CosmosContainerResponse databaseResponse = cosmosDatabase.createContainer(autoScaleContainerProperties,
-                        throughputProperties,
-                        new CosmosContainerRequestOptions());
-                CosmosContainer container = cosmosDatabase.getContainer(databaseResponse.getProperties().getId());
-                logger.info("container: " + cosmosDatabase.getId() + "." + container.getId() + " created!");
-            }
+    /**
+     * Provisions {@code databases} through an async client of its own, as {@link #loadDatabase()}
+     * loads them, so that their containers are created concurrently; the sync client does not expose
+     * the async client it wraps.
+     */
+    private void provision(List<DatabaseDefinition> databases) {
+        CosmosAsyncClient clientAsync = getCosmosClient();
+        try {
+            new SchemaProvisioner(clientAsync, SchemaDefinition.load()).provision(databases).block();
+        } finally {
+            clientAsync.close();
         }
     }
 
@@ -163,28 +134,43 @@ public class Deployment {
         logger.info("creating database and containers for schema v" + schema);
         logger.info("DatabaseName:" + database + " key:provided");
         cosmosDBClient.getDatabase(database).delete(new CosmosDatabaseRequestOptions());
+        LoadCheckpoint.clear(database);
+        ContentManifest.clear(database);
+        BulkLoadIndexing.clear(database);
+        ThroughputRamp.clear(database);
     }    
 
-    public void loadDatabase() {
-        {
-            final ExecutorService es = Executors.newCachedThreadPool();
-            int[] schemaVersions = {1,2,3,4};
-            for (int v : schemaVersions) {
-                final Runnable task = () -> loadContainersFromFolder(v, "cosmic-works-v" + v,
-                        "database-v" + v);
-                es.execute(task);
-            }
-            es.shutdown();
+    /**
+     * Loads every schema version through a client of its own (see {@link #getLoaderClient()}).
+     */
+    public LoadReport loadDatabase() {
+        CosmosAsyncClient clientAsync = getLoaderClient();
+        try {
+            return loadDatabase(clientAsync);
+        } finally {
+            clientAsync.close();
+        }
+    }
 
-            try {
-                final boolean finished = es.awaitTermination(10, TimeUnit.MINUTES);
-                if (finished) {
-                    logger.info("finished loading all data!!");
-                }
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+    public LoadReport loadDatabase(CosmosAsyncClient clientAsync) {
+        Flux<ContainerLoad> loads = Flux.range(1, 4)
+                .flatMapIterable(v -> getContainerLoads(v, "cosmic-works-v" + v, "database-v" + v));
+        DataLoader dataLoader = new DataLoader(clientAsync);
+        boolean finished = false;
+        try {
+            dataLoader.load(loads).timeout(DataLoader.LOAD_TIMEOUT).block();
+            logger.info("finished loading all data!!");
+            finished = true;
+        } catch (RuntimeException e) {
+            if (Exceptions.unwrap(e) instanceof TimeoutException) {
+                logger.error("loading did not finish within " + DataLoader.LOAD_TIMEOUT);
+            } else {
+                logger.error("loading did not finish: " + e);
             }
         }
+        LoadReport report = new LoadReport(finished, dataLoader.getMonitor().report());
+        logger.info("load report:\n" + report);
+        return report;
     }
 
     public static CosmosAsyncClient getCosmosClient() {
@@ -194,14 +180,81 @@ public class Deployment {
                 .key(ChangeFeedConfigurations.MASTER_KEY)
                 .contentResponseOnWriteEnabled(true)
                 .consistencyLevel(ConsistencyLevel.SESSION)
+                .customItemSerializer(ModelItemSerializer.INSTANCE)
                 .buildAsyncClient();
     }
 
-    public void loadContainersFromFolder(int schemaVersion, String sourceDatabaseName,
-                                         String targetDatabaseName) {
-        List<List<SchemaDetails>> DatabaseSchema = getSchemaDetails();    
-        CosmosAsyncClient clientAsync = getCosmosClient();
-        CosmosAsyncDatabase database = clientAsync.getDatabase(targetDatabaseName);
+    /**
+     * A client for bulk loads. Unlike {@link #getCosmosClient()} it does not return the content of every
+     * written document, which the loader never reads.
+     */
+    public static CosmosAsyncClient getLoaderClient() {
+
+        return new CosmosClientBuilder()
+                .endpoint(ChangeFeedConfigurations.HOST)
+                .key(ChangeFeedConfigurations.MASTER_KEY)
+                .contentResponseOnWriteEnabled(false)
+                .consistencyLevel(ConsistencyLevel.SESSION)
+                .customItemSerializer(ModelItemSerializer.INSTANCE)
+                .buildAsyncClient();
+    }
+
+    public Mono<Void> loadContainersFromFolder(CosmosAsyncClient clientAsync, int schemaVersion,
+                                               String sourceDatabaseName, String targetDatabaseName) {
+        return new DataLoader(clientAsync)
+                .load(Flux.fromIterable(getContainerLoads(schemaVersion, sourceDatabaseName, targetDatabaseName)));
+    }
+
+    /**
+     * Streams a synthetic data set (see {@link SyntheticDataGenerator}) straight into the containers of
+     * database-v{@code schemaVersion}, without writing data files. The v4 schema is loaded through its
+     * {@link Repositories}.
+     */
+    public Mono<Void> loadSyntheticData(CosmosAsyncClient clientAsync, int schemaVersion, String targetDatabaseName) {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator();
+        if (schemaVersion == Repositories.SCHEMA_VERSION) {
+            logger.info("loading synthetic data for the repositories of " + targetDatabaseName);
+            return Repositories.cosmos(clientAsync, targetDatabaseName).loadSyntheticData(generator);
+        }
+        return Flux.fromIterable(getSchemaDetails().get(schemaVersion - 1))
+                .flatMapDelayError(schema -> {
+                    logger.info("loading synthetic data for container: " + targetDatabaseName + "." + schema.getContainerName());
+                    return DataLoader.bulkCreate(generator.documents(schemaVersion, schema.getContainerName()),
+                            clientAsync.getDatabase(targetDatabaseName).getContainer(schema.getContainerName()),
+                            schema.getPk());
+                }, DataLoader.MAX_CONCURRENT_LOADS, 1)
+                .then();
+    }
+
+    /**
+     * Loads a synthetic data set of every schema version (see {@link #loadSyntheticData}) instead of the
+     * bundled data files, through a client of its own; tells whether the load finished.
+     */
+    public boolean loadSyntheticDatabase() {
+        CosmosAsyncClient clientAsync = getLoaderClient();
+        try {
+            Flux.range(1, 4)
+                    .concatMapDelayError(v -> loadSyntheticData(clientAsync, v, "database-v" + v))
+                    .then()
+                    .timeout(DataLoader.LOAD_TIMEOUT)
+                    .block();
+            logger.info("finished loading all synthetic data!!");
+            return true;
+        } catch (RuntimeException e) {
+            if (Exceptions.unwrap(e) instanceof TimeoutException) {
+                logger.error("loading did not finish within " + DataLoader.LOAD_TIMEOUT);
+            } else {
+                logger.error("loading did not finish: " + e);
+            }
+            return false;
+        } finally {
+            clientAsync.close();
+        }
+    }
+
+    public List<ContainerLoad> getContainerLoads(int schemaVersion, String sourceDatabaseName,
+                                                 String targetDatabaseName) {
+        List<List<SchemaDetails>> DatabaseSchema = getSchemaDetails();
         Path currentRelativePath = Paths.get("");
         String s = currentRelativePath.toAbsolutePath().toString();
         String folder = s + "/src/main/java/com/azure/cosmos/examples/data" + "/" + sourceDatabaseName + "/";
@@ -210,63 +263,29 @@ public class Deployment {
         logger.info("Preparing to load containers and data for " + targetDatabaseName + "....");
         File path = new java.io.File(folder);
         File[] listOfFiles = path.listFiles();
-        final ExecutorService es = Executors.newCachedThreadPool();
 
+        List<ContainerLoad> loads = new ArrayList<>();
         assert listOfFiles != null;
-        for (File file : listOfFiles) {
-            final Runnable task = () -> {
-                logger.info("new container thread...");
-                if (file.isFile()) {
-                    String pk = "";
-                    logger.info("loading data for container: " + file.getName()+" in database "+targetDatabaseName);
-                    logger.info("schemaVersion: "+schemaVersion);
-                    List<SchemaDetails> schemaDetails = DatabaseSchema.get(schemaVersion -1);
-                    for (SchemaDetails schema : schemaDetails) {
-                        if (file.getName().equals(schema.getContainerName())) {
-                            pk = schema.getPk().substring(1);
-                        }
-                    }
-                    Scanner sc;
-                    try {
-                        sc = new Scanner(file);
-                        sc.useDelimiter("\\Z");
-                        String JsonArrayString = sc.next();
-                        JSONArray jsonArray = new JSONArray(JsonArrayString);
-                        List<JsonNode> docList = new ArrayList<>();
-                        for (Object doc : jsonArray) {
-                            ObjectMapper mapper = new ObjectMapper();
-                            JsonNode actualObj = mapper.readTree(doc.toString());
-                            docList.add(actualObj);
-                        }
-                        Flux<JsonNode> docsToInsert = Flux.fromIterable(docList);
-                        CosmosAsyncContainer productCategoryContainer = database.getContainer(file.getName());
-                        bulkCreateGeneric(docsToInsert, productCategoryContainer, pk);
-                        sc.close();
-                    } catch (IOException e) {
-                        logger.info("Exception: " + e);
-                    }
-                    logger.info("finished loading data for container: " + file.getName());
+        for (Map.Entry<String, File> dataFile : DataFileFormat.selectDataFiles(listOfFiles).entrySet()) {
+            String containerName = dataFile.getKey();
+            String pk = null;
+            for (SchemaDetails schema : DatabaseSchema.get(schemaVersion - 1)) {
+                if (containerName.equals(schema.getContainerName())) {
+                    pk = schema.getPk();
                 }
-            };
-            es.execute(task);
-        }
-        es.shutdown();
-
-        try {
-            final boolean finished = es.awaitTermination(10, TimeUnit.MINUTES);
-            if (finished) {
-                logger.info("finished loading all data for database: " + targetDatabaseName);
             }
-        } catch (InterruptedException e) {
-            logger.info("Exception: " + e);
+            if (pk == null) {
+                logger.warn("no container " + containerName + " in database " + targetDatabaseName + ", skipping");
+                continue;
+            }
+            logger.info("loading " + containerName + " from " + dataFile.getValue().getName());
+            loads.add(new ContainerLoad(targetDatabaseName, containerName, pk, dataFile.getValue()));
         }
+        return loads;
     }
 
-    public static void bulkCreateGeneric(Flux<JsonNode> items, CosmosAsyncContainer cosmosDBClient, String pk) {
-        Flux<CosmosItemOperation> cosmosItemOperations = items
-                .map(item -> CosmosBulkOperations.getCreateItemOperation(item,
-                        new PartitionKey(item.get(pk).asText())));
-        cosmosDBClient.executeBulkOperations(cosmosItemOperations).blockLast();
+    public static Mono<Void> bulkCreateGeneric(Flux<JsonNode> items, CosmosAsyncContainer container, String pk) {
+        return DataLoader.bulkCreate(items, container, "/" + pk);
     }
 
     public static class SchemaDetails {
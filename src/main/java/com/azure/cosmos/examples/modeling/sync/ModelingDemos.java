@@ -4,30 +4,46 @@
 package com.azure.cosmos.examples.modeling.sync;
 
 import com.azure.cosmos.ConsistencyLevel;
+import com.azure.cosmos.CosmosBridgeInternal;
 import com.azure.cosmos.CosmosClient;
 import com.azure.cosmos.CosmosClientBuilder;
 import com.azure.cosmos.CosmosContainer;
 import com.azure.cosmos.CosmosDatabase;
 import com.azure.cosmos.CosmosException;
 import com.azure.cosmos.examples.common.AccountSettings;
+import com.azure.cosmos.examples.common.JsonCodecs;
+import com.azure.cosmos.examples.common.QueryCatalog;
+import com.azure.cosmos.examples.loader.LoadReport;
 import com.azure.cosmos.models.CosmosBatch;
 import com.azure.cosmos.models.CosmosBatchOperationResult;
 import com.azure.cosmos.models.CosmosBatchResponse;
+import com.azure.cosmos.models.CosmosItemIdentity;
 import com.azure.cosmos.models.CosmosItemRequestOptions;
 import com.azure.cosmos.models.CosmosItemResponse;
 import com.azure.cosmos.models.CosmosQueryRequestOptions;
 import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlQuerySpec;
 import com.azure.cosmos.util.CosmosPagedIterable;
+import com.azure.cosmos.examples.models.ModelItemSerializer;
 import com.azure.cosmos.examples.models.Models.CustomerV2;
 import com.azure.cosmos.examples.models.Models.CustomerV4;
 import com.azure.cosmos.examples.models.Models.Product;
 import com.azure.cosmos.examples.models.Models.ProductCategory;
 import com.azure.cosmos.examples.models.Models.SalesOrder;
 import com.azure.cosmos.examples.models.Models.SalesOrderDetails;
-import com.azure.cosmos.implementation.Utils;
+import com.azure.cosmos.examples.repository.BatchPointReader;
+import com.azure.cosmos.examples.repository.CachingItemContainer;
+import com.azure.cosmos.examples.repository.CosmosItemContainer;
+import com.azure.cosmos.examples.repository.FeedPage;
+import com.azure.cosmos.examples.repository.ItemContainer;
+import com.azure.cosmos.examples.repository.ItemResult;
+import com.azure.cosmos.examples.repository.PointReadItemContainer;
+import com.azure.cosmos.examples.repository.ProductCatalog;
+import com.azure.cosmos.examples.repository.ReadManyBatch;
+import com.azure.cosmos.examples.schema.SchemaDefinition;
+import com.azure.cosmos.examples.schema.SchemaDefinition.DatabaseDefinition;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,11 +61,20 @@ public class ModelingDemos implements AutoCloseable {
     private final CosmosClient client;
     private CosmosDatabase database;
     private CosmosContainer container;
-    private static final ObjectMapper OBJECT_MAPPER = Utils.getSimpleObjectMapper();
+    // point reads of customers go through these; the batches that update customers invalidate them
+    private final CachingItemContainer customersV2;
+    private final CachingItemContainer customersV4;
+    // queries of database-v2 customers that only pin ids run as point reads through the cache
+    private final PointReadItemContainer customerQueriesV2;
+    // categories and products of database-v3, kept current from their change feeds
+    private final ProductCatalog catalog;
 
     protected static Logger logger = LoggerFactory.getLogger(ModelingDemos.class);
 
     public void close() {
+        customersV2.close();
+        customersV4.close();
+        catalog.close();
         client.close();
     }
 
@@ -82,9 +107,11 @@ public class ModelingDemos implements AutoCloseable {
                 System.out.println("[h]   Create new order and update order total");
                 System.out.println("[i]   Delete order and update order total");
                 System.out.println("[j]   Query top 10 customers");
+                System.out.println("[n]   Point read many customers at once");
                 System.out.println("---------------------------------------------");
                 System.out.println("[k]   Create databases and containers");
                 System.out.println("[l]   Upload data to containers");
+                System.out.println("[p]   Upload synthetic data to containers");
                 System.out.println("[m]   Delete databases and containers");
                 System.out.println("---------------------------------------------");
                 System.out.println("[x]   Exit");
@@ -154,22 +181,46 @@ public class ModelingDemos implements AutoCloseable {
                     p.getTop10Customers();
                     p.pressAnyKeyToContinue("Press any key to continue...");
                 }
+                if (input.equals("n")) {
+                    clearScreen();
+                    System.out.println("Point read many customers at once");
+                    p.readManyCustomers();
+                    p.pressAnyKeyToContinue("Press any key to continue...");
+                }
                 if (input.equals("k")) {
                     clearScreen();
                     System.out.println("Create databases and containers");
-                    new Deployment().createDatabase(p.client, 1);
+                    new Deployment().createDatabase(1);
                     p.pressAnyKeyToContinue("Press any key to continue...");
                 }
                 if (input.equals("l")) {
                     clearScreen();
                     System.out.println("Upload data to containers");
                     final long startTime = System.currentTimeMillis();
-                    new Deployment().loadDatabase();
+                    LoadReport report = new Deployment().loadDatabase();
                     final long endTime = System.currentTimeMillis();
                     final long durationMillis = (endTime - startTime);
                     String duration = millisecondsToTime(durationMillis);
                     clearScreen();
-                    System.out.println("Finished loading all data!!");
+                    if (report.isFinished()) {
+                        System.out.println("Finished loading all data!!");
+                    } else {
+                        System.out.println("Loading did NOT finish, check the log for the failed containers.");
+                    }
+                    System.out.println("Upload took: " + duration);
+                    System.out.println(report.getSummary());
+                    p.pressAnyKeyToContinue("Press any key to continue...");
+                }
+                if (input.equals("p")) {
+                    clearScreen();
+                    System.out.println("Upload synthetic data to containers");
+                    final long startTime = System.currentTimeMillis();
+                    boolean finished = new Deployment().loadSyntheticDatabase();
+                    String duration = millisecondsToTime(System.currentTimeMillis() - startTime);
+                    clearScreen();
+                    System.out.println(finished
+                            ? "Finished loading all synthetic data!!"
+                            : "Loading did NOT finish, check the log for the failed containers.");
                     System.out.println("Upload took: " + duration);
                     p.pressAnyKeyToContinue("Press any key to continue...");
                 }
@@ -202,47 +253,67 @@ public class ModelingDemos implements AutoCloseable {
                 .preferredRegions(preferredRegions)
                 .consistencyLevel(ConsistencyLevel.EVENTUAL)
                 .contentResponseOnWriteEnabled(true)
+                .customItemSerializer(ModelItemSerializer.INSTANCE)
                 .buildClient();
+        customersV2 = customerCache(2);
+        customersV4 = customerCache(4);
+        customerQueriesV2 = new PointReadItemContainer(customersV2,
+                SchemaDefinition.load().getDatabase(2).getContainer("customer").partitionKey);
+        catalog = new ProductCatalog(itemContainer("database-v3", "productCategory"),
+                itemContainer("database-v3", "product"));
+        // built in the background, the catalog demos wait for it if it is not done yet
+        catalog.snapshot().subscribe(snapshot -> { },
+                e -> logger.warn("Could not build the product catalog yet: " + e.getMessage()));
     }
     // </Main>
 
-    public void queryCustomer() {
-        database = client.getDatabase("database-v2");
-        container = database.getContainer("customer");
-        int preferredPageSize = 10;
-        CosmosQueryRequestOptions queryOptions = new CosmosQueryRequestOptions();
-        queryOptions.setQueryMetricsEnabled(true);
+    private CachingItemContainer customerCache(int schemaVersion) {
+        DatabaseDefinition definition = SchemaDefinition.load().getDatabase(schemaVersion);
+        return new CachingItemContainer(itemContainer(definition.name, "customer"),
+                definition.getContainer("customer").partitionKey);
+    }
 
-        String customerId = "FFD0DD37-1F0E-4E2E-8FAC-EAF45B0E9447";
-        CosmosPagedIterable<Product> customerPagedIterable = container.queryItems(
-                "SELECT * FROM c WHERE c.id = \"" + customerId + "\"", queryOptions, Product.class);
+    private CosmosItemContainer itemContainer(String databaseName, String containerName) {
+        return new CosmosItemContainer(CosmosBridgeInternal.getCosmosAsyncContainer(
+                client.getDatabase(databaseName).getContainer(containerName)));
+    }
 
-        customerPagedIterable.iterableByPage(preferredPageSize).forEach(cosmosItemPropertiesFeedResponse -> {
+    public void queryCustomer() {
+        String customerId = "FFD0DD37-1F0E-4E2E-8FAC-EAF45B0E9447";
+        SqlQuerySpec query = QueryCatalog.CUSTOMER_BY_ID.bind(customerId);
+        // pins the id and, as the container is partitioned on /id, the partition key: runs as a point read
+        for (FeedPage<Product> page : customerQueriesV2.query(query, QueryCatalog.CUSTOMER_BY_ID.partitionKey(query),
+                Product.class).toIterable()) {
             logger.info("Got a page of query result with " +
-                    cosmosItemPropertiesFeedResponse.getResults().size() + " items(s)"
-                    + " and request charge of " + cosmosItemPropertiesFeedResponse.getRequestCharge());
+                    page.getResults().size() + " items(s)"
+                    + " and request charge of " + page.getRequestCharge());
 
-            logger.info("Item Ids " + cosmosItemPropertiesFeedResponse
+            logger.info("Item Ids " + page
                     .getResults()
                     .stream()
                     .map(Product::getId)
                     .collect(Collectors.toList()));
-        });
-
+        }
+        logger.info(customerQueriesV2.getRewrittenQueryCount() + " of " + customerQueriesV2.getQueryCount()
+                + " queries run as point reads");
     }
 
     public void getCustomer() {
         try {
-            database = client.getDatabase("database-v2");
-            container = database.getContainer("customer");
             String customerId = "FFD0DD37-1F0E-4E2E-8FAC-EAF45B0E9447";
-            CosmosItemResponse<CustomerV2> item = container.readItem(customerId, new PartitionKey(customerId),
-                    CustomerV2.class);
+            // after the first read, served from the cache without a request charge
+            ItemResult<CustomerV2> item = customersV2.read(customerId, new PartitionKey(customerId),
+                    CustomerV2.class).block();
+            if (item == null) {
+                logger.info("Customer " + customerId + " not found");
+                return;
+            }
             double requestCharge = item.getRequestCharge();
             Duration requestLatency = item.getDuration();
             logger.info(String.format(
                     "Point Read for a single customer\n. Item successfully read with id %s with a charge of %.2f and within duration %s",
                     item.getItem().getId(), requestCharge, requestLatency));
+            logger.info(customersV2.getSummary());
         } catch (CosmosException e) {
             e.printStackTrace();
             logger.info(String.format("Read Item failed with %s", e));
@@ -251,56 +322,35 @@ public class ModelingDemos implements AutoCloseable {
     }
 
     public void listAllProductCategories() {
-        database = client.getDatabase("database-v2");
-        container = database.getContainer("productCategory");
-        int preferredPageSize = 100;
-        CosmosQueryRequestOptions queryOptions = new CosmosQueryRequestOptions();
-        queryOptions.setQueryMetricsEnabled(true);
-
-        CosmosPagedIterable<ProductCategory> productTypesIterable = container.queryItems(
-                "SELECT * FROM c WHERE c.type = 'category'", queryOptions, ProductCategory.class);
-
-        productTypesIterable.iterableByPage(preferredPageSize).forEach(cosmosItemPropertiesFeedResponse -> {
-            logger.info("Got a page of query result with " +
-                    cosmosItemPropertiesFeedResponse.getResults().size() + " items(s)"
-                    + " and request charge of " + cosmosItemPropertiesFeedResponse.getRequestCharge());
-
-            logger.info("Product types " + cosmosItemPropertiesFeedResponse
-                    .getResults()
-                    .stream()
-                    .map(ProductCategory::getName)
-                    .collect(Collectors.toList()));
-        });
+        // from the catalog snapshot: no request once the catalog is built
+        ProductCatalog.Snapshot snapshot = catalog.snapshot().block();
+        logger.info("Got " + snapshot.getCategories().size() + " categories from version "
+                + snapshot.getVersion() + " of the catalog");
+
+        logger.info("Product types " + snapshot
+                .getCategories()
+                .stream()
+                .map(ProductCategory::getName)
+                .collect(Collectors.toList()));
     }
 
     public void queryProductsByCategoryId() {
-        database = client.getDatabase("database-v3");
-        container = database.getContainer("product");
-        int preferredPageSize = 100;
-        CosmosQueryRequestOptions queryOptions = new CosmosQueryRequestOptions();
-        queryOptions.setQueryMetricsEnabled(true);
-
         String categoryId = "AB952F9F-5ABA-4251-BC2D-AFF8DF412A4A";
 
-        CosmosPagedIterable<JsonNode> productByCategoryIterable = container.queryItems(
-                "SELECT * FROM c WHERE c.categoryId = '" + categoryId + "'", queryOptions, JsonNode.class);
+        // from the catalog snapshot: no request once the catalog is built
+        ProductCatalog.Snapshot snapshot = catalog.snapshot().block();
+        List<Product> products = snapshot.getProducts(categoryId);
+        logger.info("Got " + products.size() + " products from version " + snapshot.getVersion()
+                + " of the catalog");
 
-        productByCategoryIterable.iterableByPage(preferredPageSize).forEach(cosmosItemPropertiesFeedResponse -> {
-            logger.info("Got a page of query result with " +
-                    cosmosItemPropertiesFeedResponse.getResults().size() + " items(s)"
-                    + " and request charge of " + cosmosItemPropertiesFeedResponse.getRequestCharge());
-
-            for (JsonNode product : cosmosItemPropertiesFeedResponse.getResults()) {
-                ObjectMapper doc = new ObjectMapper();
-                try {
-                    System.out.println(doc.writerWithDefaultPrettyPrinter().writeValueAsString(product));
-                } catch (JsonProcessingException e) {
-                    // TODO Auto-generated catch block
-                    e.printStackTrace();
-                }
+        for (Product product : products) {
+            try {
+                System.out.println(JsonCodecs.toPrettyString(product));
+            } catch (JsonProcessingException e) {
+                // TODO Auto-generated catch block
+                e.printStackTrace();
             }
-        });
-
+        }
     }
 
     public void queryProductsForCategory() {
@@ -310,11 +360,10 @@ public class ModelingDemos implements AutoCloseable {
         CosmosQueryRequestOptions queryOptions = new CosmosQueryRequestOptions();
         queryOptions.setQueryMetricsEnabled(true);
 
-        String sql = "SELECT COUNT(1) AS ProductCount, c.categoryName " +
-                "FROM c WHERE c.categoryId = '86F3CBAB-97A7-4D01-BABB-ADEFFFAED6B4' " +
-                "GROUP BY c.categoryName";
+        String categoryId = "86F3CBAB-97A7-4D01-BABB-ADEFFFAED6B4";
+        SqlQuerySpec query = QueryCatalog.PRODUCT_COUNT_BY_CATEGORY.bind(categoryId);
         CosmosPagedIterable<JsonNode> productByCategoryIterable = container.queryItems(
-                sql, queryOptions, JsonNode.class);
+                query, QueryCatalog.PRODUCT_COUNT_BY_CATEGORY.scope(queryOptions, query), JsonNode.class);
 
         productByCategoryIterable.iterableByPage(preferredPageSize).forEach(cosmosItemPropertiesFeedResponse -> {
             logger.info("Got a page of query result with " +
@@ -384,10 +433,10 @@ public class ModelingDemos implements AutoCloseable {
 
         String customerId = "FFD0DD37-1F0E-4E2E-8FAC-EAF45B0E9447";
 
-        String sql = "SELECT * from c WHERE c.type = 'salesOrder' and c.customerId = '" + customerId + "'";
+        SqlQuerySpec query = QueryCatalog.SALES_ORDERS_BY_CUSTOMER.bind(customerId);
 
         CosmosPagedIterable<SalesOrder> customerSalesOrderIterable = container.queryItems(
-                sql, queryOptions, SalesOrder.class);
+                query, QueryCatalog.SALES_ORDERS_BY_CUSTOMER.scope(queryOptions, query), SalesOrder.class);
 
         customerSalesOrderIterable.iterableByPage(preferredPageSize).forEach(cosmosItemPropertiesFeedResponse -> {
             logger.info("Got a page of query result with " +
@@ -396,9 +445,8 @@ public class ModelingDemos implements AutoCloseable {
 
             System.out.println("Print out orders for this customer\n");
             for (SalesOrder product : cosmosItemPropertiesFeedResponse.getResults()) {
-                ObjectMapper doc = new ObjectMapper();
                 try {
-                    System.out.println(doc.writerWithDefaultPrettyPrinter().writeValueAsString(product));
+                    System.out.println(JsonCodecs.toPrettyString(product));
                 } catch (JsonProcessingException e) {
                     // TODO Auto-generated catch block
                     e.printStackTrace();
@@ -416,10 +464,10 @@ public class ModelingDemos implements AutoCloseable {
 
         String customerId = "FFD0DD37-1F0E-4E2E-8FAC-EAF45B0E9447";
 
-        String sql = "SELECT * from c WHERE c.customerId = '" + customerId + "'";
+        SqlQuerySpec query = QueryCatalog.CUSTOMER_AND_SALES_ORDERS.bind(customerId);
 
         CosmosPagedIterable<JsonNode> customerSalesOrderIterable = container.queryItems(
-                sql, queryOptions, JsonNode.class);
+                query, QueryCatalog.CUSTOMER_AND_SALES_ORDERS.scope(queryOptions, query), JsonNode.class);
         customerSalesOrderIterable.iterableByPage(preferredPageSize).forEach(cosmosItemPropertiesFeedResponse -> {
             logger.info("Got a page of query result with " +
                     cosmosItemPropertiesFeedResponse.getResults().size() + " items(s)"
@@ -430,21 +478,20 @@ public class ModelingDemos implements AutoCloseable {
             for (JsonNode record : cosmosItemPropertiesFeedResponse.getResults()) {
                 try {
                     if (record.get("type").asText().equals("customer")) {
-                        customer = OBJECT_MAPPER.treeToValue(record, CustomerV4.class);
+                        customer = JsonCodecs.treeToValue(record, CustomerV4.class);
                     }
                     if (record.get("type").asText().equals("salesOrder")) {
-                        orders.add(OBJECT_MAPPER.treeToValue(record, SalesOrder.class));
+                        orders.add(JsonCodecs.treeToValue(record, SalesOrder.class));
                     }
                 } catch (JsonProcessingException | IllegalArgumentException e) {
                     e.printStackTrace();
                 }
             }
             System.out.println("Printing out customer record and all their orders\n");
-            ObjectMapper json = new ObjectMapper();
             try {
-                System.out.println(json.writerWithDefaultPrettyPrinter().writeValueAsString(customer));
+                System.out.println(JsonCodecs.toPrettyString(customer));
                 for (SalesOrder order : orders) {
-                    System.out.println(json.writerWithDefaultPrettyPrinter().writeValueAsString(order));
+                    System.out.println(JsonCodecs.toPrettyString(order));
                 }
             } catch (JsonProcessingException e) {
                 e.printStackTrace();
@@ -459,9 +506,8 @@ public class ModelingDemos implements AutoCloseable {
 
         // Get the customer
         String customerId = "FFD0DD37-1F0E-4E2E-8FAC-EAF45B0E9447";
-        CosmosItemResponse<CustomerV4> item = container.readItem(customerId, new PartitionKey(customerId),
-                CustomerV4.class);
-        CustomerV4 customer = item.getItem();
+        CustomerV4 customer = customersV4.read(customerId, new PartitionKey(customerId), CustomerV4.class)
+                .block().getItem();
 
         // Increment the salesOrderTotal property
         customer.salesOrderCount++;
@@ -499,12 +545,11 @@ public class ModelingDemos implements AutoCloseable {
         salesOrders.add(order2);
         salesOrder.setDetails(salesOrders);
 
-        ObjectMapper doc = new ObjectMapper();
         try {
             System.out.println("Sales order to be updated: "
-                    + doc.writerWithDefaultPrettyPrinter().writeValueAsString(salesOrder));
+                    + JsonCodecs.toPrettyString(salesOrder));
             System.out.println("Customer record to be updated: "
-                    + doc.writerWithDefaultPrettyPrinter().writeValueAsString(customer));
+                    + JsonCodecs.toPrettyString(customer));
         } catch (JsonProcessingException e) {
             // TODO Auto-generated catch block
             e.printStackTrace();
@@ -524,6 +569,8 @@ public class ModelingDemos implements AutoCloseable {
             }
         } else {
             System.out.println("Order created successfully");
+            // the change feed refreshes other cached customers once it is polled; drop this one now
+            customersV4.invalidate(customerId, new PartitionKey(customerId));
         }
     }
 
@@ -534,9 +581,8 @@ public class ModelingDemos implements AutoCloseable {
         String customerId = "FFD0DD37-1F0E-4E2E-8FAC-EAF45B0E9447";
         String orderId = "5350ce31-ea50-4df9-9a48-faff97675ac5";
 
-        CosmosItemResponse<CustomerV4> item = container.readItem(customerId, new PartitionKey(customerId),
-                CustomerV4.class);
-        CustomerV4 customer = item.getItem();
+        CustomerV4 customer = customersV4.read(customerId, new PartitionKey(customerId), CustomerV4.class)
+                .block().getItem();
 
         // Decrement the salesOrderTotal property
         customer.salesOrderCount--;
@@ -553,9 +599,46 @@ public class ModelingDemos implements AutoCloseable {
             System.out.println("There was an error, status code: " + result.getStatusCode());
         } else {
             System.out.println("Order deleted successfully");
+            // the change feed refreshes other cached customers once it is polled; drop this one now
+            customersV4.invalidate(customerId, new PartitionKey(customerId));
         }
     }
 
+    private void readManyCustomers() {
+        ItemContainer customers = itemContainer("database-v4", "customer");
+
+        // ids of up to 500 customers, to read back by id
+        SqlQuerySpec query = QueryCatalog.CUSTOMER_IDS.bind(500);
+        List<CosmosItemIdentity> items = new ArrayList<>();
+        for (FeedPage<JsonNode> page : customers.query(query, QueryCatalog.CUSTOMER_IDS.partitionKey(query),
+                JsonNode.class).toIterable()) {
+            for (JsonNode customer : page.getResults()) {
+                items.add(new CosmosItemIdentity(new PartitionKey(customer.get("customerId").asText()),
+                        customer.get("id").asText()));
+            }
+        }
+
+        // one readMany per partition key range and up to 100 items, instead of a point read per customer
+        BatchPointReader reader = BatchPointReader.create(customers).block();
+        long start = System.nanoTime();
+        int batches = 0;
+        int found = 0;
+        double requestCharge = 0;
+        for (ReadManyBatch<CustomerV4> batch : reader.read(items, CustomerV4.class).toIterable()) {
+            logger.info(String.format(
+                    "Read %d of %d customers in partition key range %d with a charge of %.2f and within duration %s",
+                    batch.getItems().size(), batch.getRequested(), batch.getRangeIndex(), batch.getRequestCharge(),
+                    batch.getDuration()));
+            batches++;
+            found += batch.getItems().size();
+            requestCharge += batch.getRequestCharge();
+        }
+        logger.info(String.format(
+                "Read %d of %d customers in %d round trips over %d partition key ranges, with a charge of %.2f and within duration %s",
+                found, items.size(), batches, reader.getRangeCount(), requestCharge,
+                Duration.ofNanos(System.nanoTime() - start)));
+    }
+
     private void getTop10Customers() {
         int preferredPageSize = 100;
         CosmosQueryRequestOptions queryOptions = new CosmosQueryRequestOptions();
@@ -564,12 +647,9 @@ public class ModelingDemos implements AutoCloseable {
         container = database.getContainer("customer");
 
         // Query to get our top 10 customers
-        String sql = "SELECT TOP 10 c.firstName, c.lastName, c.salesOrderCount " +
-                "FROM c WHERE c.type = 'customer' " +
-                "ORDER BY c.salesOrderCount DESC";
-
+        SqlQuerySpec query = QueryCatalog.TOP_CUSTOMER_NAMES.bind(10);
         CosmosPagedIterable<JsonNode> customerIterable = container.queryItems(
-                sql, queryOptions, JsonNode.class);
+                query, QueryCatalog.TOP_CUSTOMER_NAMES.scope(queryOptions, query), JsonNode.class);
         customerIterable.iterableByPage(preferredPageSize).forEach(cosmosItemPropertiesFeedResponse -> {
             System.out.println("Print out top 10 customers and number of orders\n");
             for (JsonNode record : cosmosItemPropertiesFeedResponse.getResults()) {
@@ -608,6 +688,11 @@ public class ModelingDemos implements AutoCloseable {
     }
 
     private void shutdown() {
+        logger.info(customersV2.getSummary());
+        logger.info(customersV4.getSummary());
+        customersV2.close();
+        customersV4.close();
+        catalog.close();
         client.close();
         logger.info("Done.");
     }
@@ -0,0 +1,460 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.models;
+
+import com.azure.cosmos.examples.models.Models.CustomerAddress;
+import com.azure.cosmos.examples.models.Models.CustomerV4;
+import com.azure.cosmos.examples.models.Models.Location;
+import com.azure.cosmos.examples.models.Models.Password;
+import com.azure.cosmos.examples.models.Models.Product;
+import com.azure.cosmos.examples.models.Models.Tag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact in-memory variants of the {@link Models} that large result sets and caches hold many of.
+ * <p>
+ * Ids that are upper-case UUIDs, the form of every id in the data sets and the generator, are kept
+ * as two longs instead of a 36 character string; any other id is kept as it is. Coordinates are a
+ * {@code float[]} instead of a list of boxed floats. Category names, tags, customer types and titles,
+ * the values with a handful of distinct values, are shared between all objects through a process-wide
+ * pool of at most -DCOMPACT_POOL_SIZE=[n] values (default 10000); values seen once it is full are kept
+ * as they are.
+ * <p>
+ * Conversion is lossless in both directions: {@code toModel()} returns an object that writes exactly
+ * the JSON of the one it was created from, including nulls and empty lists. The one exception is a
+ * null coordinate, which comes back as {@link Float#NaN}.
+ */
+public final class CompactModels {
+
+    private static final int POOL_SIZE = Integer.getInteger("COMPACT_POOL_SIZE", 10_000);
+
+    private static final Map<Object, Object> POOL = new ConcurrentHashMap<>();
+
+    private CompactModels() {
+    }
+
+    public static final class CompactProduct {
+
+        private final long idHigh;
+        private final long idLow;
+        private final String idText;
+        private final long categoryIdHigh;
+        private final long categoryIdLow;
+        private final String categoryIdText;
+        private final String categoryName;
+        private final String sku;
+        private final String name;
+        private final String description;
+        private final double price;
+        private final CompactTag[] tags;
+
+        private CompactProduct(Product product) {
+            idHigh = uuidHigh(product.id);
+            idLow = uuidLow(product.id);
+            idText = uuidText(product.id);
+            categoryIdHigh = uuidHigh(product.categoryId);
+            categoryIdLow = uuidLow(product.categoryId);
+            categoryIdText = uuidText(product.categoryId);
+            categoryName = pooled(product.categoryName);
+            sku = product.sku;
+            name = product.name;
+            description = product.description;
+            price = product.price;
+            if (product.tags == null) {
+                tags = null;
+            } else {
+                tags = new CompactTag[product.tags.size()];
+                for (int i = 0; i < tags.length; i++) {
+                    Tag tag = product.tags.get(i);
+                    tags[i] = tag == null ? null : pooled(new CompactTag(tag));
+                }
+            }
+        }
+
+        public static CompactProduct of(Product product) {
+            return product == null ? null : new CompactProduct(product);
+        }
+
+        public String getId() {
+            return id(idHigh, idLow, idText);
+        }
+
+        public String getCategoryId() {
+            return id(categoryIdHigh, categoryIdLow, categoryIdText);
+        }
+
+        public String getCategoryName() {
+            return categoryName;
+        }
+
+        public String getSku() {
+            return sku;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public Product toModel() {
+            Product product = new Product();
+            product.id = getId();
+            product.categoryId = getCategoryId();
+            product.categoryName = categoryName;
+            product.sku = sku;
+            product.name = name;
+            product.description = description;
+            product.price = price;
+            if (tags != null) {
+                product.tags = new ArrayList<>(tags.length);
+                for (CompactTag tag : tags) {
+                    product.tags.add(tag == null ? null : tag.toModel());
+                }
+            }
+            return product;
+        }
+    }
+
+    /**
+     * A tag; equal tags are one shared instance.
+     */
+    public static final class CompactTag {
+
+        private final long idHigh;
+        private final long idLow;
+        private final String idText;
+        private final String name;
+
+        private CompactTag(Tag tag) {
+            idHigh = uuidHigh(tag.id);
+            idLow = uuidLow(tag.id);
+            idText = uuidText(tag.id);
+            name = pooled(tag.name);
+        }
+
+        public String getId() {
+            return id(idHigh, idLow, idText);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Tag toModel() {
+            Tag tag = new Tag();
+            tag.id = getId();
+            tag.name = name;
+            return tag;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof CompactTag)) {
+                return false;
+            }
+            CompactTag tag = (CompactTag) other;
+            return idHigh == tag.idHigh && idLow == tag.idLow && equal(idText, tag.idText) && equal(name, tag.name);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = Long.hashCode(idHigh) * 31 + Long.hashCode(idLow);
+            hash = hash * 31 + (idText == null ? 0 : idText.hashCode());
+            return hash * 31 + (name == null ? 0 : name.hashCode());
+        }
+    }
+
+    /**
+     * A {@link CustomerV4}: a customer document of the customer container.
+     */
+    public static final class CompactCustomer {
+
+        private final long idHigh;
+        private final long idLow;
+        private final String idText;
+        private final String type;
+        private final long customerIdHigh;
+        private final long customerIdLow;
+        private final String customerIdText;
+        private final String title;
+        private final String firstName;
+        private final String lastName;
+        private final String emailAddress;
+        private final String phoneNumber;
+        private final String creationDate;
+        private final CompactAddress[] addresses;
+        private final Password password;
+        private final int salesOrderCount;
+
+        private CompactCustomer(CustomerV4 customer) {
+            idHigh = uuidHigh(customer.id);
+            idLow = uuidLow(customer.id);
+            idText = uuidText(customer.id);
+            type = pooled(customer.type);
+            customerIdHigh = uuidHigh(customer.customerId);
+            customerIdLow = uuidLow(customer.customerId);
+            customerIdText = uuidText(customer.customerId);
+            title = pooled(customer.title);
+            firstName = customer.firstName;
+            lastName = customer.lastName;
+            emailAddress = customer.emailAddress;
+            phoneNumber = customer.phoneNumber;
+            creationDate = customer.creationDate;
+            if (customer.addresses == null) {
+                addresses = null;
+            } else {
+                addresses = new CompactAddress[customer.addresses.size()];
+                for (int i = 0; i < addresses.length; i++) {
+                    CustomerAddress address = customer.addresses.get(i);
+                    addresses[i] = address == null ? null : new CompactAddress(address);
+                }
+            }
+            password = customer.password == null ? null : copy(customer.password);
+            salesOrderCount = customer.salesOrderCount;
+        }
+
+        public static CompactCustomer of(CustomerV4 customer) {
+            return customer == null ? null : new CompactCustomer(customer);
+        }
+
+        public String getId() {
+            return id(idHigh, idLow, idText);
+        }
+
+        public String getCustomerId() {
+            return id(customerIdHigh, customerIdLow, customerIdText);
+        }
+
+        public String getEmailAddress() {
+            return emailAddress;
+        }
+
+        public int getSalesOrderCount() {
+            return salesOrderCount;
+        }
+
+        public CustomerV4 toModel() {
+            CustomerV4 customer = new CustomerV4();
+            customer.id = getId();
+            customer.type = type;
+            customer.customerId = getCustomerId();
+            customer.title = title;
+            customer.firstName = firstName;
+            customer.lastName = lastName;
+            customer.emailAddress = emailAddress;
+            customer.phoneNumber = phoneNumber;
+            customer.creationDate = creationDate;
+            if (addresses != null) {
+                customer.addresses = new ArrayList<>(addresses.length);
+                for (CompactAddress address : addresses) {
+                    customer.addresses.add(address == null ? null : address.toModel());
+                }
+            }
+            customer.password = password == null ? null : copy(password);
+            customer.salesOrderCount = salesOrderCount;
+            return customer;
+        }
+    }
+
+    /**
+     * A {@link CustomerAddress} with its {@link Location} inlined.
+     */
+    public static final class CompactAddress {
+
+        private final String addressLine1;
+        private final String addressLine2;
+        private final String city;
+        private final String state;
+        private final String country;
+        private final String zipCode;
+        private final boolean hasLocation;
+        private final String locationType;
+        private final float[] coordinates;
+
+        private CompactAddress(CustomerAddress address) {
+            addressLine1 = address.addressLine1;
+            addressLine2 = address.addressLine2;
+            city = address.city;
+            state = address.state;
+            country = address.country;
+            zipCode = address.zipCode;
+            Location location = address.location;
+            hasLocation = location != null;
+            locationType = location == null ? null : pooled(location.type);
+            if (location == null || location.coordinates == null) {
+                coordinates = null;
+            } else {
+                coordinates = new float[location.coordinates.size()];
+                for (int i = 0; i < coordinates.length; i++) {
+                    Float coordinate = location.coordinates.get(i);
+                    coordinates[i] = coordinate == null ? Float.NaN : coordinate;
+                }
+            }
+        }
+
+        public String getCity() {
+            return city;
+        }
+
+        public String getCountry() {
+            return country;
+        }
+
+        /**
+         * The coordinates of the location, or {@code null}. Do not modify the array.
+         */
+        public float[] getCoordinates() {
+            return coordinates;
+        }
+
+        public CustomerAddress toModel() {
+            CustomerAddress address = new CustomerAddress();
+            address.addressLine1 = addressLine1;
+            address.addressLine2 = addressLine2;
+            address.city = city;
+            address.state = state;
+            address.country = country;
+            address.zipCode = zipCode;
+            if (hasLocation) {
+                address.location = new Location();
+                address.location.type = locationType;
+                if (coordinates != null) {
+                    address.location.coordinates = new ArrayList<>(coordinates.length);
+                    for (float coordinate : coordinates) {
+                        address.location.coordinates.add(coordinate);
+                    }
+                }
+            }
+            return address;
+        }
+    }
+
+    /**
+     * Converts every element of {@code products}, e.g. a query result about to be cached.
+     */
+    public static List<CompactProduct> compactProducts(List<Product> products) {
+        List<CompactProduct> compact = new ArrayList<>(products.size());
+        for (Product product : products) {
+            compact.add(CompactProduct.of(product));
+        }
+        return compact;
+    }
+
+    /**
+     * Converts every element of {@code customers}, e.g. a query result about to be cached.
+     */
+    public static List<CompactCustomer> compactCustomers(List<CustomerV4> customers) {
+        List<CompactCustomer> compact = new ArrayList<>(customers.size());
+        for (CustomerV4 customer : customers) {
+            compact.add(CompactCustomer.of(customer));
+        }
+        return compact;
+    }
+
+    /**
+     * The number of distinct values in the pool.
+     */
+    public static int pooledValues() {
+        return POOL.size();
+    }
+
+    // values with few distinct values only: the pool is never trimmed, so it stops growing once full
+    @SuppressWarnings("unchecked")
+    private static <T> T pooled(T value) {
+        if (value == null) {
+            return null;
+        }
+        Object pooled = POOL.get(value);
+        if (pooled != null) {
+            return (T) pooled;
+        }
+        if (POOL.size() >= POOL_SIZE) {
+            return value;
+        }
+        pooled = POOL.putIfAbsent(value, value);
+        return pooled == null ? value : (T) pooled;
+    }
+
+    // ids: an upper-case UUID is two longs and a null text, anything else (including null and the
+    // all-zero UUID, so that zero with no text can mean null) is its text
+
+    private static boolean isUuid(String id) {
+        if (id == null || id.length() != 36) {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if (!(c >= '0' && c <= '9' || c >= 'A' && c <= 'F')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long uuidHigh(String id) {
+        return isUuid(id) ? hex(id, 0, 8) << 32 | hex(id, 9, 13) << 16 | hex(id, 14, 18) : 0;
+    }
+
+    private static long uuidLow(String id) {
+        return isUuid(id) ? hex(id, 19, 23) << 48 | hex(id, 24, 36) : 0;
+    }
+
+    private static String uuidText(String id) {
+        return isUuid(id) && (uuidHigh(id) != 0 || uuidLow(id) != 0) ? null : id;
+    }
+
+    private static long hex(String id, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            value = value << 4 | Character.digit(id.charAt(i), 16);
+        }
+        return value;
+    }
+
+    private static String id(long high, long low, String text) {
+        if (text != null || high == 0 && low == 0) {
+            return text;
+        }
+        char[] chars = new char[36];
+        hex(chars, 0, 8, high >>> 32);
+        chars[8] = '-';
+        hex(chars, 9, 13, high >>> 16);
+        chars[13] = '-';
+        hex(chars, 14, 18, high);
+        chars[18] = '-';
+        hex(chars, 19, 23, low >>> 48);
+        chars[23] = '-';
+        hex(chars, 24, 36, low);
+        return new String(chars);
+    }
+
+    private static void hex(char[] chars, int start, int end, long value) {
+        for (int i = end - 1; i >= start; i--) {
+            chars[i] = Character.toUpperCase(Character.forDigit((int) value & 0xF, 16));
+            value >>>= 4;
+        }
+    }
+
+    private static Password copy(Password password) {
+        Password copy = new Password();
+        copy.hash = password.hash;
+        copy.salt = password.salt;
+        return copy;
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,439 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.models;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes one of the {@link Models} classes without reflection, as a token stream or as a
+ * tree. The codecs themselves are generated into {@link ModelCodecs} by {@link ModelCodecGenerator}
+ * and produce exactly the JSON the SDK's object mapper does for the same object. They also bind input
+ * the way that mapper does: numbers and strings are coerced to each other, an empty string is the
+ * default value, and what it rejects (e.g. text that is not a number, a fraction or an out-of-range
+ * value for an integral field, or a boolean for a number) fails with the same
+ * {@link JsonMappingException}, wrapped in an {@link UncheckedIOException} when reading a tree.
+ * <p>
+ * The codecs are used unless -DMODEL_CODECS=false, in which case {@link #forType} finds none and
+ * every caller falls back to Jackson's reflection-based binding.
+ */
+public abstract class ModelCodec<T> {
+
+    public static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("MODEL_CODECS"));
+
+    static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private static final Map<Class<?>, ModelCodec<?>> CODECS = new HashMap<>();
+
+    static {
+        for (ModelCodec<?> codec : ModelCodecs.ALL) {
+            CODECS.put(codec.type, codec);
+        }
+    }
+
+    private final Class<T> type;
+
+    protected ModelCodec(Class<T> type) {
+        this.type = type;
+    }
+
+    /**
+     * The codec of {@code type}, or {@code null} if it is not one of the {@link Models} or the codecs
+     * are disabled.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ModelCodec<T> forType(Class<T> type) {
+        return ENABLED ? (ModelCodec<T>) CODECS.get(type) : null;
+    }
+
+    /**
+     * A Jackson module that binds every {@link Models} class through its codec.
+     */
+    public static Module module() {
+        SimpleModule module = new SimpleModule("ModelCodecs");
+        for (ModelCodec<?> codec : ModelCodecs.ALL) {
+            register(module, codec);
+        }
+        return module;
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Writes {@code value}, or a JSON null.
+     */
+    public final void write(JsonGenerator generator, T value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            writeObject(generator, value);
+        }
+    }
+
+    /**
+     * Reads the value the parser is positioned at, which must be an object or null.
+     */
+    public final T read(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token == JsonToken.START_OBJECT) {
+            parser.nextToken();
+        } else if (token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+            throw mismatch(parser, token, type);
+        }
+        return readFields(parser);
+    }
+
+    public final JsonNode toTree(T value) {
+        return value == null ? NullNode.getInstance() : toObjectNode(value);
+    }
+
+    /**
+     * Binds {@code node}, which must be an object or null; fails with an {@link UncheckedIOException}
+     * around the {@link JsonMappingException} the SDK's object mapper would throw.
+     */
+    public final T fromTree(JsonNode node) {
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        if (!node.isObject()) {
+            throw mismatch(node, type);
+        }
+        return fromObjectNode(node);
+    }
+
+    protected abstract void writeObject(JsonGenerator generator, T value) throws IOException;
+
+    /**
+     * Reads the fields of an object, starting at its first field name (or closing brace) and ending at
+     * its closing brace.
+     */
+    protected abstract T readFields(JsonParser parser) throws IOException;
+
+    protected abstract ObjectNode toObjectNode(T value);
+
+    protected abstract T fromObjectNode(JsonNode node);
+
+    // helpers for the generated codecs, binding scalars the way the SDK's object mapper does
+
+    interface ElementWriter<E> {
+        void write(JsonGenerator generator, E element) throws IOException;
+    }
+
+    interface ElementReader<E> {
+        E read(JsonParser parser) throws IOException;
+    }
+
+    interface ElementToTree<E> {
+        JsonNode toTree(E element);
+    }
+
+    interface ElementFromTree<E> {
+        E fromTree(JsonNode node);
+    }
+
+    static String readString(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            throw mismatch(parser, token, String.class);
+        }
+        return parser.getValueAsString();
+    }
+
+    static int readInt(JsonParser parser) throws IOException {
+        return (int) readIntegral(parser, Integer.MIN_VALUE, Integer.MAX_VALUE, int.class);
+    }
+
+    static long readLong(JsonParser parser) throws IOException {
+        return readIntegral(parser, Long.MIN_VALUE, Long.MAX_VALUE, long.class);
+    }
+
+    static double readDouble(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        switch (token) {
+            case VALUE_NULL:
+                return 0;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_STRING:
+                return parseDouble(parser, parser.getText(), double.class);
+            default:
+                throw mismatch(parser, token, double.class);
+        }
+    }
+
+    static float readFloat(JsonParser parser) throws IOException {
+        return (float) readDouble(parser);
+    }
+
+    static boolean readBoolean(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (!token.isScalarValue()) {
+            throw mismatch(parser, token, boolean.class);
+        }
+        return token != JsonToken.VALUE_NULL && parser.getValueAsBoolean();
+    }
+
+    static Float readFloatObject(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NULL ? null : readFloat(parser);
+    }
+
+    static <E> List<E> readList(JsonParser parser, ElementReader<E> element) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.START_ARRAY) {
+            throw mismatch(parser, token, List.class);
+        }
+        List<E> list = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            list.add(element.read(parser));
+        }
+        return list;
+    }
+
+    static void writeFloatObject(JsonGenerator generator, Float value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    static <E> void writeList(JsonGenerator generator, List<E> list, ElementWriter<E> element) throws IOException {
+        if (list == null) {
+            generator.writeNull();
+            return;
+        }
+        generator.writeStartArray();
+        for (E value : list) {
+            element.write(generator, value);
+        }
+        generator.writeEndArray();
+    }
+
+    static String stringValue(JsonNode node) {
+        if (node.isNull()) {
+            return null;
+        }
+        if (!node.isValueNode()) {
+            throw mismatch(node, String.class);
+        }
+        return node.asText();
+    }
+
+    static int intValue(JsonNode node) {
+        return (int) integralValue(node, Integer.MIN_VALUE, Integer.MAX_VALUE, int.class);
+    }
+
+    static long longValue(JsonNode node) {
+        return integralValue(node, Long.MIN_VALUE, Long.MAX_VALUE, long.class);
+    }
+
+    static double doubleValue(JsonNode node) {
+        if (node.isNull()) {
+            return 0;
+        }
+        if (node.isNumber()) {
+            return node.doubleValue();
+        }
+        if (node.isTextual()) {
+            try {
+                return parseDouble(null, node.textValue(), double.class);
+            } catch (JsonMappingException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        throw mismatch(node, double.class);
+    }
+
+    static float floatValue(JsonNode node) {
+        return node.isNumber() ? node.floatValue() : (float) doubleValue(node);
+    }
+
+    static boolean booleanValue(JsonNode node) {
+        if (!node.isValueNode()) {
+            throw mismatch(node, boolean.class);
+        }
+        return !node.isNull() && node.asBoolean();
+    }
+
+    static Float floatObjectValue(JsonNode node) {
+        return node.isNull() ? null : floatValue(node);
+    }
+
+    static JsonNode floatObjectToTree(Float value) {
+        return value == null ? NullNode.getInstance() : NODES.numberNode(value.floatValue());
+    }
+
+    static <E> List<E> listValue(JsonNode node, ElementFromTree<E> element) {
+        if (node.isNull()) {
+            return null;
+        }
+        if (!node.isArray()) {
+            throw mismatch(node, List.class);
+        }
+        List<E> list = new ArrayList<>(node.size());
+        for (JsonNode value : node) {
+            list.add(element.fromTree(value));
+        }
+        return list;
+    }
+
+    static <E> JsonNode listToTree(List<E> list, ElementToTree<E> element) {
+        if (list == null) {
+            return NullNode.getInstance();
+        }
+        ArrayNode array = NODES.arrayNode(list.size());
+        for (E value : list) {
+            array.add(element.toTree(value));
+        }
+        return array;
+    }
+
+    private static long readIntegral(JsonParser parser, long min, long max, Class<?> type) throws IOException {
+        JsonToken token = parser.currentToken();
+        switch (token) {
+            case VALUE_NULL:
+                return 0;
+            case VALUE_NUMBER_INT:
+                if (parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER
+                        || parser.getLongValue() < min || parser.getLongValue() > max) {
+                    throw InvalidFormatException.from(parser, "Numeric value (" + parser.getText()
+                            + ") out of range of `" + type.getName() + "`", parser.getNumberValue(), type);
+                }
+                return parser.getLongValue();
+            case VALUE_NUMBER_FLOAT:
+                throw InvalidFormatException.from(parser, "Cannot coerce Floating-point value ("
+                        + parser.getText() + ") to `" + type.getName() + "`", parser.getNumberValue(), type);
+            case VALUE_STRING:
+                return parseIntegral(parser, parser.getText(), min, max, type);
+            default:
+                throw mismatch(parser, token, type);
+        }
+    }
+
+    private static long integralValue(JsonNode node, long min, long max, Class<?> type) {
+        if (node.isNull()) {
+            return 0;
+        }
+        try {
+            if (node.isIntegralNumber()) {
+                if (!node.canConvertToLong() || node.longValue() < min || node.longValue() > max) {
+                    throw InvalidFormatException.from(null, "Numeric value (" + node.asText() + ") out of range of `"
+                            + type.getName() + "`", node.numberValue(), type);
+                }
+                return node.longValue();
+            }
+            if (node.isNumber()) {
+                throw InvalidFormatException.from(null, "Cannot coerce Floating-point value (" + node.asText()
+                        + ") to `" + type.getName() + "`", node.numberValue(), type);
+            }
+            if (node.isTextual()) {
+                return parseIntegral(null, node.textValue(), min, max, type);
+            }
+        } catch (JsonMappingException e) {
+            throw new UncheckedIOException(e);
+        }
+        throw mismatch(node, type);
+    }
+
+    /**
+     * The integral value of {@code text}; an empty string is 0.
+     */
+    private static long parseIntegral(JsonParser parser, String text, long min, long max, Class<?> type)
+            throws JsonMappingException {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            return 0;
+        }
+        long value;
+        try {
+            value = Long.parseLong(trimmed);
+        } catch (NumberFormatException e) {
+            throw InvalidFormatException.from(parser, "Cannot deserialize value of type `" + type.getName()
+                    + "` from String \"" + text + "\": not a valid `" + type.getName() + "` value", text, type);
+        }
+        if (value < min || value > max) {
+            throw InvalidFormatException.from(parser, "Cannot deserialize value of type `" + type.getName()
+                    + "` from String \"" + text + "\": value out of range", text, type);
+        }
+        return value;
+    }
+
+    /**
+     * The floating-point value of {@code text}; an empty string is 0.
+     */
+    private static double parseDouble(JsonParser parser, String text, Class<?> type) throws JsonMappingException {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(trimmed);
+        } catch (NumberFormatException e) {
+            throw InvalidFormatException.from(parser, "Cannot deserialize value of type `" + type.getName()
+                    + "` from String \"" + text + "\": not a valid `" + type.getName() + "` value", text, type);
+        }
+    }
+
+    private static MismatchedInputException mismatch(JsonParser parser, JsonToken token, Class<?> type) {
+        return MismatchedInputException.from(parser, type,
+                "Cannot deserialize value of type `" + type.getName() + "` from " + token);
+    }
+
+    private static UncheckedIOException mismatch(JsonNode node, Class<?> type) {
+        return new UncheckedIOException(MismatchedInputException.from((JsonParser) null, type,
+                "Cannot deserialize value of type `" + type.getName() + "` from " + node.getNodeType()));
+    }
+
+    private static <T> void register(SimpleModule module, ModelCodec<T> codec) {
+        module.addSerializer(codec.type, new StdSerializer<T>(codec.type) {
+            @Override
+            public void serialize(T value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+                codec.writeObject(generator, value);
+            }
+        });
+        module.addDeserializer(codec.type, new StdDeserializer<T>(codec.type) {
+            @Override
+            public T deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+                return codec.read(parser);
+            }
+        });
+    }
+}
@@ -0,0 +1,319 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.models;
+
+import com.azure.cosmos.implementation.Utils;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedField;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMethod;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Generates {@link ModelCodecs}, the reflection-free codecs of every class in {@link Models}.
+ * <p>
+ * The generator asks Jackson, configured as the SDK's object mapper is, which properties each class
+ * has, in which order they are written and through which field or method they are read and written,
+ * and emits the equivalent straight-line code. Run it after changing a model:
+ * <pre>
+ * mvn compile exec:java -Dexec.mainClass=com.azure.cosmos.examples.models.ModelCodecGenerator
+ * </pre>
+ * The generated file is written to {@code src/main/java/com/azure/cosmos/examples/models/ModelCodecs.java},
+ * or to the file given as the first argument.
+ */
+public final class ModelCodecGenerator {
+
+    private static final String OUTPUT = "src/main/java/com/azure/cosmos/examples/models/ModelCodecs.java";
+
+    private final ObjectMapper mapper = Utils.getSimpleObjectMapper();
+    private final List<Class<?>> models = new ArrayList<>();
+    private final Map<String, String> names = new TreeMap<>();
+
+    private ModelCodecGenerator() {
+        models.addAll(Arrays.asList(Models.class.getDeclaredClasses()));
+        models.sort(Comparator.comparing(Class::getSimpleName));
+    }
+
+    public static void main(String[] args) throws IOException {
+        File output = new File(args.length > 0 ? args[0] : OUTPUT);
+        Files.write(output.toPath(), new ModelCodecGenerator().generate().getBytes(StandardCharsets.UTF_8));
+        System.out.println("wrote " + output);
+    }
+
+    private String generate() {
+        StringBuilder codecs = new StringBuilder();
+        for (Class<?> model : models) {
+            codec(codecs, model);
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append("// Copyright (c) Microsoft Corporation. All rights reserved.\n")
+                .append("// Licensed under the MIT License.\n")
+                .append("\n")
+                .append("// Generated by ModelCodecGenerator from Models, do not edit.\n")
+                .append("\n")
+                .append("package com.azure.cosmos.examples.models;\n")
+                .append("\n")
+                .append("import com.fasterxml.jackson.core.JsonGenerator;\n")
+                .append("import com.fasterxml.jackson.core.JsonParser;\n")
+                .append("import com.fasterxml.jackson.core.JsonToken;\n")
+                .append("import com.fasterxml.jackson.core.io.SerializedString;\n")
+                .append("import com.fasterxml.jackson.databind.JsonNode;\n")
+                .append("import com.fasterxml.jackson.databind.node.ObjectNode;\n")
+                .append("\n")
+                .append("import java.io.IOException;\n")
+                .append("import java.util.Arrays;\n")
+                .append("import java.util.List;\n")
+                .append("\n")
+                .append("/**\n")
+                .append(" * The {@link ModelCodec} of every class in {@link Models}.\n")
+                .append(" */\n")
+                .append("final class ModelCodecs {\n")
+                .append("\n");
+        for (Map.Entry<String, String> name : names.entrySet()) {
+            out.append("    private static final SerializedString ").append(name.getValue())
+                    .append(" = new SerializedString(\"").append(name.getKey()).append("\");\n");
+        }
+        out.append(codecs);
+        out.append("\n    static final List<ModelCodec<?>> ALL = Arrays.asList(");
+        for (int i = 0; i < models.size(); i++) {
+            out.append(i == 0 ? "\n            " : ",\n            ").append(codecName(models.get(i)));
+        }
+        out.append(");\n")
+                .append("\n")
+                .append("    private ModelCodecs() {\n")
+                .append("    }\n")
+                .append("}\n");
+        return out.toString();
+    }
+
+    private void codec(StringBuilder out, Class<?> model) {
+        String type = "Models." + model.getSimpleName();
+        List<Property> written = properties(model, true);
+        List<Property> read = properties(model, false);
+
+        out.append("\n    static final ModelCodec<").append(type).append("> ").append(codecName(model))
+                .append(" = new ModelCodec<").append(type).append(">(").append(type).append(".class) {\n");
+
+        out.append("\n        @Override\n")
+                .append("        protected void writeObject(JsonGenerator generator, ").append(type)
+                .append(" value) throws IOException {\n")
+                .append("            generator.writeStartObject();\n");
+        for (Property property : written) {
+            out.append("            generator.writeFieldName(").append(fieldName(property.name)).append(");\n")
+                    .append("            ").append(property.kind.write(property.get)).append(";\n");
+        }
+        out.append("            generator.writeEndObject();\n")
+                .append("        }\n");
+
+        out.append("\n        @Override\n")
+                .append("        protected ").append(type).append(" readFields(JsonParser parser) throws IOException {\n")
+                .append("            ").append(type).append(" value = new ").append(type).append("();\n")
+                .append("            for (; parser.currentToken() == JsonToken.FIELD_NAME; parser.nextToken()) {\n")
+                .append("                String name = parser.currentName();\n")
+                .append("                parser.nextToken();\n")
+                .append("                switch (name) {\n");
+        for (Property property : read) {
+            out.append("                    case \"").append(property.name).append("\":\n")
+                    .append("                        ").append(property.set(property.kind.read())).append(";\n")
+                    .append("                        break;\n");
+        }
+        out.append("                    default:\n")
+                .append("                        parser.skipChildren();\n")
+                .append("                }\n")
+                .append("            }\n")
+                .append("            return value;\n")
+                .append("        }\n");
+
+        out.append("\n        @Override\n")
+                .append("        protected ObjectNode toObjectNode(").append(type).append(" value) {\n")
+                .append("            ObjectNode node = NODES.objectNode();\n");
+        for (Property property : written) {
+            out.append("            ").append(property.kind.toTree(property.name, property.get)).append(";\n");
+        }
+        out.append("            return node;\n")
+                .append("        }\n");
+
+        out.append("\n        @Override\n")
+                .append("        protected ").append(type).append(" fromObjectNode(JsonNode node) {\n")
+                .append("            ").append(type).append(" value = new ").append(type).append("();\n")
+                .append("            JsonNode field;\n");
+        for (Property property : read) {
+            out.append("            if ((field = node.get(\"").append(property.name).append("\")) != null) {\n")
+                    .append("                ").append(property.set(property.kind.fromTree("field"))).append(";\n")
+                    .append("            }\n");
+        }
+        out.append("            return value;\n")
+                .append("        }\n")
+                .append("    };\n");
+    }
+
+    /**
+     * The properties Jackson writes ({@code serialization}) or reads, in Jackson's order.
+     */
+    private List<Property> properties(Class<?> model, boolean serialization) {
+        JavaType type = mapper.constructType(model);
+        BeanDescription description = serialization
+                ? mapper.getSerializationConfig().introspect(type)
+                : mapper.getDeserializationConfig().introspect(type);
+        List<Property> properties = new ArrayList<>();
+        for (BeanPropertyDefinition definition : description.findProperties()) {
+            AnnotatedField field = definition.getField();
+            boolean publicField = field != null && Modifier.isPublic(field.getModifiers());
+            if (serialization) {
+                AnnotatedMethod getter = definition.getGetter();
+                if (!publicField && getter == null) {
+                    continue;
+                }
+                properties.add(new Property(definition.getName(), kind(definition.getPrimaryType(), model),
+                        publicField ? "value." + field.getName() : "value." + getter.getName() + "()", null));
+            } else {
+                AnnotatedMethod setter = definition.getSetter();
+                if (!publicField && setter == null) {
+                    continue;
+                }
+                properties.add(new Property(definition.getName(), kind(definition.getPrimaryType(), model), null,
+                        publicField ? "value." + field.getName() + " = %s" : "value." + setter.getName() + "(%s)"));
+            }
+        }
+        return properties;
+    }
+
+    private Kind kind(JavaType type, Class<?> model) {
+        Class<?> raw = type.getRawClass();
+        if (raw == String.class) {
+            return new Kind("generator.writeString(%s)", "readString(parser)", "node.put(\"%s\", %s)",
+                    "stringValue(%s)");
+        }
+        if (raw == int.class) {
+            return new Kind("generator.writeNumber(%s)", "readInt(parser)", "node.put(\"%s\", %s)", "intValue(%s)");
+        }
+        if (raw == long.class) {
+            return new Kind("generator.writeNumber(%s)", "readLong(parser)", "node.put(\"%s\", %s)", "longValue(%s)");
+        }
+        if (raw == double.class) {
+            return new Kind("generator.writeNumber(%s)", "readDouble(parser)", "node.put(\"%s\", %s)",
+                    "doubleValue(%s)");
+        }
+        if (raw == float.class) {
+            return new Kind("generator.writeNumber(%s)", "readFloat(parser)", "node.put(\"%s\", %s)", "floatValue(%s)");
+        }
+        if (raw == boolean.class) {
+            return new Kind("generator.writeBoolean(%s)", "readBoolean(parser)", "node.put(\"%s\", %s)",
+                    "booleanValue(%s)");
+        }
+        if (raw == Float.class) {
+            return new Kind("writeFloatObject(generator, %s)", "readFloatObject(parser)",
+                    "node.set(\"%s\", floatObjectToTree(%s))", "floatObjectValue(%s)");
+        }
+        if (raw == List.class) {
+            Class<?> element = type.getContentType().getRawClass();
+            if (element == String.class) {
+                return new Kind("writeList(generator, %s, JsonGenerator::writeString)",
+                        "readList(parser, ModelCodec::readString)",
+                        "node.set(\"%s\", listToTree(%s, NODES::textNode))",
+                        "listValue(%s, ModelCodec::stringValue)");
+            }
+            if (element == Float.class) {
+                return new Kind("writeList(generator, %s, ModelCodec::writeFloatObject)",
+                        "readList(parser, ModelCodec::readFloatObject)",
+                        "node.set(\"%s\", listToTree(%s, ModelCodec::floatObjectToTree))",
+                        "listValue(%s, ModelCodec::floatObjectValue)");
+            }
+            if (models.contains(element)) {
+                String codec = codecName(element);
+                return new Kind("writeList(generator, %s, " + codec + "::write)",
+                        "readList(parser, " + codec + "::read)",
+                        "node.set(\"%s\", listToTree(%s, " + codec + "::toTree))",
+                        "listValue(%s, " + codec + "::fromTree)");
+            }
+        }
+        if (models.contains(raw)) {
+            String codec = codecName(raw);
+            return new Kind(codec + ".write(generator, %s)", codec + ".read(parser)",
+                    "node.set(\"%s\", " + codec + ".toTree(%s))", codec + ".fromTree(%s)");
+        }
+        throw new IllegalArgumentException("No codec for " + type + " in " + model.getSimpleName());
+    }
+
+    private String fieldName(String name) {
+        return names.computeIfAbsent(name, n -> "NAME_" + constant(n));
+    }
+
+    private static String codecName(Class<?> model) {
+        return constant(model.getSimpleName());
+    }
+
+    /**
+     * {@code categoryId} as {@code CATEGORY_ID}, {@code CustomerV4} as {@code CUSTOMER_V4}.
+     */
+    private static String constant(String name) {
+        return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+    }
+
+    private static final class Property {
+        final String name;
+        final Kind kind;
+        final String get;
+        final String set;
+
+        Property(String name, Kind kind, String get, String set) {
+            this.name = name;
+            this.kind = kind;
+            this.get = get;
+            this.set = set;
+        }
+
+        String set(String value) {
+            return String.format(set, value);
+        }
+    }
+
+    /**
+     * The code templates for one type of property.
+     */
+    private static final class Kind {
+        private final String write;
+        private final String read;
+        private final String toTree;
+        private final String fromTree;
+
+        Kind(String write, String read, String toTree, String fromTree) {
+            this.write = write;
+            this.read = read;
+            this.toTree = toTree;
+            this.fromTree = fromTree;
+        }
+
+        String write(String value) {
+            return String.format(write, value);
+        }
+
+        String read() {
+            return read;
+        }
+
+        String toTree(String name, String value) {
+            return String.format(toTree, name, value);
+        }
+
+        String fromTree(String node) {
+            return String.format(fromTree, node);
+        }
+    }
+}
@@ -0,0 +1,1027 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+// Generated by ModelCodecGenerator from Models, do not edit.
+
+package com.azure.cosmos.examples.models;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The {@link ModelCodec} of every class in {@link Models}.
+ */
+final class ModelCodecs {
+
+    private static final SerializedString NAME_ADDRESS_LINE1 = new SerializedString("addressLine1");
+    private static final SerializedString NAME_ADDRESS_LINE2 = new SerializedString("addressLine2");
+    private static final SerializedString NAME_ADDRESSES = new SerializedString("addresses");
+    private static final SerializedString NAME_CATEGORY_ID = new SerializedString("categoryId");
+    private static final SerializedString NAME_CATEGORY_NAME = new SerializedString("categoryName");
+    private static final SerializedString NAME_CITY = new SerializedString("city");
+    private static final SerializedString NAME_COORDINATES = new SerializedString("coordinates");
+    private static final SerializedString NAME_COUNTRY = new SerializedString("country");
+    private static final SerializedString NAME_CREATION_DATE = new SerializedString("creationDate");
+    private static final SerializedString NAME_CUSTOMER_ID = new SerializedString("customerId");
+    private static final SerializedString NAME_DESCRIPTION = new SerializedString("description");
+    private static final SerializedString NAME_DETAILS = new SerializedString("details");
+    private static final SerializedString NAME_EMAIL_ADDRESS = new SerializedString("emailAddress");
+    private static final SerializedString NAME_FIRST_NAME = new SerializedString("firstName");
+    private static final SerializedString NAME_HASH = new SerializedString("hash");
+    private static final SerializedString NAME_ID = new SerializedString("id");
+    private static final SerializedString NAME_LAST_NAME = new SerializedString("lastName");
+    private static final SerializedString NAME_LOCATION = new SerializedString("location");
+    private static final SerializedString NAME_NAME = new SerializedString("name");
+    private static final SerializedString NAME_ORDER_DATE = new SerializedString("orderDate");
+    private static final SerializedString NAME_PASSWORD = new SerializedString("password");
+    private static final SerializedString NAME_PHONE_NUMBER = new SerializedString("phoneNumber");
+    private static final SerializedString NAME_PRICE = new SerializedString("price");
+    private static final SerializedString NAME_QUANTITY = new SerializedString("quantity");
+    private static final SerializedString NAME_SALES_ORDER_COUNT = new SerializedString("salesOrderCount");
+    private static final SerializedString NAME_SALT = new SerializedString("salt");
+    private static final SerializedString NAME_SHIP_DATE = new SerializedString("shipDate");
+    private static final SerializedString NAME_SKU = new SerializedString("sku");
+    private static final SerializedString NAME_STATE = new SerializedString("state");
+    private static final SerializedString NAME_TAGS = new SerializedString("tags");
+    private static final SerializedString NAME_TITLE = new SerializedString("title");
+    private static final SerializedString NAME_TYPE = new SerializedString("type");
+    private static final SerializedString NAME_ZIP_CODE = new SerializedString("zipCode");
+
+    static final ModelCodec<Models.CustomerAddress> CUSTOMER_ADDRESS = new ModelCodec<Models.CustomerAddress>(Models.CustomerAddress.class) {
+
+        @Override
+        protected void writeObject(JsonGenerator generator, Models.CustomerAddress value) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName(NAME_ADDRESS_LINE1);
+            generator.writeString(value.addressLine1);
+            generator.writeFieldName(NAME_ADDRESS_LINE2);
+            generator.writeString(value.addressLine2);
+            generator.writeFieldName(NAME_CITY);
+            generator.writeString(value.city);
+            generator.writeFieldName(NAME_STATE);
+            generator.writeString(value.state);
+            generator.writeFieldName(NAME_COUNTRY);
+            generator.writeString(value.country);
+            generator.writeFieldName(NAME_ZIP_CODE);
+            generator.writeString(value.zipCode);
+            generator.writeFieldName(NAME_LOCATION);
+            LOCATION.write(generator, value.location);
+            generator.writeEndObject();
+        }
+
+        @Override
+        protected Models.CustomerAddress readFields(JsonParser parser) throws IOException {
+            Models.CustomerAddress value = new Models.CustomerAddress();
+            for (; parser.currentToken() == JsonToken.FIELD_NAME; parser.nextToken()) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "addressLine1":
+                        value.addressLine1 = readString(parser);
+                        break;
+                    case "addressLine2":
+                        value.addressLine2 = readString(parser);
+                        break;
+                    case "city":
+                        value.city = readString(parser);
+                        break;
+                    case "state":
+                        value.state = readString(parser);
+                        break;
+                    case "country":
+                        value.country = readString(parser);
+                        break;
+                    case "zipCode":
+                        value.zipCode = readString(parser);
+                        break;
+                    case "location":
+                        value.location = LOCATION.read(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return value;
+        }
+
+        @Override
+        protected ObjectNode toObjectNode(Models.CustomerAddress value) {
+            ObjectNode node = NODES.objectNode();
+            node.put("addressLine1", value.addressLine1);
+            node.put("addressLine2", value.addressLine2);
+            node.put("city", value.city);
+            node.put("state", value.state);
+            node.put("country", value.country);
+            node.put("zipCode", value.zipCode);
+            node.set("location", LOCATION.toTree(value.location));
+            return node;
+        }
+
+        @Override
+        protected Models.CustomerAddress fromObjectNode(JsonNode node) {
+            Models.CustomerAddress value = new Models.CustomerAddress();
+            JsonNode field;
+            if ((field = node.get("addressLine1")) != null) {
+                value.addressLine1 = stringValue(field);
+            }
+            if ((field = node.get("addressLine2")) != null) {
+                value.addressLine2 = stringValue(field);
+            }
+            if ((field = node.get("city")) != null) {
+                value.city = stringValue(field);
+            }
+            if ((field = node.get("state")) != null) {
+                value.state = stringValue(field);
+            }
+            if ((field = node.get("country")) != null) {
+                value.country = stringValue(field);
+            }
+            if ((field = node.get("zipCode")) != null) {
+                value.zipCode = stringValue(field);
+            }
+            if ((field = node.get("location")) != null) {
+                value.location = LOCATION.fromTree(field);
+            }
+            return value;
+        }
+    };
+
+    static final ModelCodec<Models.CustomerV1> CUSTOMER_V1 = new ModelCodec<Models.CustomerV1>(Models.CustomerV1.class) {
+
+        @Override
+        protected void writeObject(JsonGenerator generator, Models.CustomerV1 value) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName(NAME_ID);
+            generator.writeString(value.id);
+            generator.writeFieldName(NAME_TITLE);
+            generator.writeString(value.title);
+            generator.writeFieldName(NAME_FIRST_NAME);
+            generator.writeString(value.firstName);
+            generator.writeFieldName(NAME_LAST_NAME);
+            generator.writeString(value.lastName);
+            generator.writeFieldName(NAME_EMAIL_ADDRESS);
+            generator.writeString(value.emailAddress);
+            generator.writeFieldName(NAME_PHONE_NUMBER);
+            generator.writeString(value.phoneNumber);
+            generator.writeFieldName(NAME_CREATION_DATE);
+            generator.writeString(value.creationDate);
+            generator.writeEndObject();
+        }
+
+        @Override
+        protected Models.CustomerV1 readFields(JsonParser parser) throws IOException {
+            Models.CustomerV1 value = new Models.CustomerV1();
+            for (; parser.currentToken() == JsonToken.FIELD_NAME; parser.nextToken()) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "id":
+                        value.id = readString(parser);
+                        break;
+                    case "title":
+                        value.title = readString(parser);
+                        break;
+                    case "firstName":
+                        value.firstName = readString(parser);
+                        break;
+                    case "lastName":
+                        value.lastName = readString(parser);
+                        break;
+                    case "emailAddress":
+                        value.emailAddress = readString(parser);
+                        break;
+                    case "phoneNumber":
+                        value.phoneNumber = readString(parser);
+                        break;
+                    case "creationDate":
+                        value.creationDate = readString(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return value;
+        }
+
+        @Override
+        protected ObjectNode toObjectNode(Models.CustomerV1 value) {
+            ObjectNode node = NODES.objectNode();
+            node.put("id", value.id);
+            node.put("title", value.title);
+            node.put("firstName", value.firstName);
+            node.put("lastName", value.lastName);
+            node.put("emailAddress", value.emailAddress);
+            node.put("phoneNumber", value.phoneNumber);
+            node.put("creationDate", value.creationDate);
+            return node;
+        }
+
+        @Override
+        protected Models.CustomerV1 fromObjectNode(JsonNode node) {
+            Models.CustomerV1 value = new Models.CustomerV1();
+            JsonNode field;
+            if ((field = node.get("id")) != null) {
+                value.id = stringValue(field);
+            }
+            if ((field = node.get("title")) != null) {
+                value.title = stringValue(field);
+            }
+            if ((field = node.get("firstName")) != null) {
+                value.firstName = stringValue(field);
+            }
+            if ((field = node.get("lastName")) != null) {
+                value.lastName = stringValue(field);
+            }
+            if ((field = node.get("emailAddress")) != null) {
+                value.emailAddress = stringValue(field);
+            }
+            if ((field = node.get("phoneNumber")) != null) {
+                value.phoneNumber = stringValue(field);
+            }
+            if ((field = node.get("creationDate")) != null) {
+                value.creationDate = stringValue(field);
+            }
+            return value;
+        }
+    };
+
+    static final ModelCodec<Models.CustomerV2> CUSTOMER_V2 = new ModelCodec<Models.CustomerV2>(Models.CustomerV2.class) {
+
+        @Override
+        protected void writeObject(JsonGenerator generator, Models.CustomerV2 value) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName(NAME_ID);
+            generator.writeString(value.id);
+            generator.writeFieldName(NAME_TITLE);
+            generator.writeString(value.title);
+            generator.writeFieldName(NAME_FIRST_NAME);
+            generator.writeString(value.firstName);
+            generator.writeFieldName(NAME_LAST_NAME);
+            generator.writeString(value.lastName);
+            generator.writeFieldName(NAME_EMAIL_ADDRESS);
+            generator.writeString(value.emailAddress);
+            generator.writeFieldName(NAME_PHONE_NUMBER);
+            generator.writeString(value.phoneNumber);
+            generator.writeFieldName(NAME_CREATION_DATE);
+            generator.writeString(value.creationDate);
+            generator.writeFieldName(NAME_ADDRESSES);
+            writeList(generator, value.addresses, CUSTOMER_ADDRESS::write);
+            generator.writeFieldName(NAME_PASSWORD);
+            PASSWORD.write(generator, value.password);
+            generator.writeEndObject();
+        }
+
+        @Override
+        protected Models.CustomerV2 readFields(JsonParser parser) throws IOException {
+            Models.CustomerV2 value = new Models.CustomerV2();
+            for (; parser.currentToken() == JsonToken.FIELD_NAME; parser.nextToken()) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "id":
+                        value.id = readString(parser);
+                        break;
+                    case "title":
+                        value.title = readString(parser);
+                        break;
+                    case "firstName":
+                        value.firstName = readString(parser);
+                        break;
+                    case "lastName":
+                        value.lastName = readString(parser);
+                        break;
+                    case "emailAddress":
+                        value.emailAddress = readString(parser);
+                        break;
+                    case "phoneNumber":
+                        value.phoneNumber = readString(parser);
+                        break;
+                    case "creationDate":
+                        value.creationDate = readString(parser);
+                        break;
+                    case "addresses":
+                        value.addresses = readList(parser, CUSTOMER_ADDRESS::read);
+                        break;
+                    case "password":
+                        value.password = PASSWORD.read(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return value;
+        }
+
+        @Override
+        protected ObjectNode toObjectNode(Models.CustomerV2 value) {
+            ObjectNode node = NODES.objectNode();
+            node.put("id", value.id);
+            node.put("title", value.title);
+            node.put("firstName", value.firstName);
+            node.put("lastName", value.lastName);
+            node.put("emailAddress", value.emailAddress);
+            node.put("phoneNumber", value.phoneNumber);
+            node.put("creationDate", value.creationDate);
+            node.set("addresses", listToTree(value.addresses, CUSTOMER_ADDRESS::toTree));
+            node.set("password", PASSWORD.toTree(value.password));
+            return node;
+        }
+
+        @Override
+        protected Models.CustomerV2 fromObjectNode(JsonNode node) {
+            Models.CustomerV2 value = new Models.CustomerV2();
+            JsonNode field;
+            if ((field = node.get("id")) != null) {
+                value.id = stringValue(field);
+            }
+            if ((field = node.get("title")) != null) {
+                value.title = stringValue(field);
+            }
+            if ((field = node.get("firstName")) != null) {
+                value.firstName = stringValue(field);
+            }
+            if ((field = node.get("lastName")) != null) {
+                value.lastName = stringValue(field);
+            }
+            if ((field = node.get("emailAddress")) != null) {
+                value.emailAddress = stringValue(field);
+            }
+            if ((field = node.get("phoneNumber")) != null) {
+                value.phoneNumber = stringValue(field);
+            }
+            if ((field = node.get("creationDate")) != null) {
+                value.creationDate = stringValue(field);
+            }
+            if ((field = node.get("addresses")) != null) {
+                value.addresses = listValue(field, CUSTOMER_ADDRESS::fromTree);
+            }
+            if ((field = node.get("password")) != null) {
+                value.password = PASSWORD.fromTree(field);
+            }
+            return value;
+        }
+    };
+
+    static final ModelCodec<Models.CustomerV4> CUSTOMER_V4 = new ModelCodec<Models.CustomerV4>(Models.CustomerV4.class) {
+
+        @Override
+        protected void writeObject(JsonGenerator generator, Models.CustomerV4 value) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName(NAME_ID);
+            generator.writeString(value.id);
+            generator.writeFieldName(NAME_TYPE);
+            generator.writeString(value.type);
+            generator.writeFieldName(NAME_CUSTOMER_ID);
+            generator.writeString(value.customerId);
+            generator.writeFieldName(NAME_TITLE);
+            generator.writeString(value.title);
+            generator.writeFieldName(NAME_FIRST_NAME);
+            generator.writeString(value.firstName);
+            generator.writeFieldName(NAME_LAST_NAME);
+            generator.writeString(value.lastName);
+            generator.writeFieldName(NAME_EMAIL_ADDRESS);
+            generator.writeString(value.emailAddress);
+            generator.writeFieldName(NAME_PHONE_NUMBER);
+            generator.writeString(value.phoneNumber);
+            generator.writeFieldName(NAME_CREATION_DATE);
+            generator.writeString(value.creationDate);
+            generator.writeFieldName(NAME_ADDRESSES);
+            writeList(generator, value.addresses, CUSTOMER_ADDRESS::write);
+            generator.writeFieldName(NAME_PASSWORD);
+            PASSWORD.write(generator, value.password);
+            generator.writeFieldName(NAME_SALES_ORDER_COUNT);
+            generator.writeNumber(value.salesOrderCount);
+            generator.writeEndObject();
+        }
+
+        @Override
+        protected Models.CustomerV4 readFields(JsonParser parser) throws IOException {
+            Models.CustomerV4 value = new Models.CustomerV4();
+            for (; parser.currentToken() == JsonToken.FIELD_NAME; parser.nextToken()) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "id":
+                        value.id = readString(parser);
+                        break;
+                    case "type":
+                        value.type = readString(parser);
+                        break;
+                    case "customerId":
+                        value.customerId = readString(parser);
+                        break;
+                    case "title":
+                        value.title = readString(parser);
+                        break;
+                    case "firstName":
+                        value.firstName = readString(parser);
+                        break;
+                    case "lastName":
+                        value.lastName = readString(parser);
+                        break;
+                    case "emailAddress":
+                        value.emailAddress = readString(parser);
+                        break;
+                    case "phoneNumber":
+                        value.phoneNumber = readString(parser);
+                        break;
+                    case "creationDate":
+                        value.creationDate = readString(parser);
+                        break;
+                    case "addresses":
+                        value.addresses = readList(parser, CUSTOMER_ADDRESS::read);
+                        break;
+                    case "password":
+                        value.password = PASSWORD.read(parser);
+                        break;
+                    case "salesOrderCount":
+                        value.salesOrderCount = readInt(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return value;
+        }
+
+        @Override
+        protected ObjectNode toObjectNode(Models.CustomerV4 value) {
+            ObjectNode node = NODES.objectNode();
+            node.put("id", value.id);
+            node.put("type", value.type);
+            node.put("customerId", value.customerId);
+            node.put("title", value.title);
+            node.put("firstName", value.firstName);
+            node.put("lastName", value.lastName);
+            node.put("emailAddress", value.emailAddress);
+            node.put("phoneNumber", value.phoneNumber);
+            node.put("creationDate", value.creationDate);
+            node.set("addresses", listToTree(value.addresses, CUSTOMER_ADDRESS::toTree));
+            node.set("password", PASSWORD.toTree(value.password));
+            node.put("salesOrderCount", value.salesOrderCount);
+            return node;
+        }
+
+        @Override
+        protected Models.CustomerV4 fromObjectNode(JsonNode node) {
+            Models.CustomerV4 value = new Models.CustomerV4();
+            JsonNode field;
+            if ((field = node.get("id")) != null) {
+                value.id = stringValue(field);
+            }
+            if ((field = node.get("type")) != null) {
+                value.type = stringValue(field);
+            }
+            if ((field = node.get("customerId")) != null) {
+                value.customerId = stringValue(field);
+            }
+            if ((field = node.get("title")) != null) {
+                value.title = stringValue(field);
+            }
+            if ((field = node.get("firstName")) != null) {
+                value.firstName = stringValue(field);
+            }
+            if ((field = node.get("lastName")) != null) {
+                value.lastName = stringValue(field);
+            }
+            if ((field = node.get("emailAddress")) != null) {
+                value.emailAddress = stringValue(field);
+            }
+            if ((field = node.get("phoneNumber")) != null) {
+                value.phoneNumber = stringValue(field);
+            }
+            if ((field = node.get("creationDate")) != null) {
+                value.creationDate = stringValue(field);
+            }
+            if ((field = node.get("addresses")) != null) {
+                value.addresses = listValue(field, CUSTOMER_ADDRESS::fromTree);
+            }
+            if ((field = node.get("password")) != null) {
+                value.password = PASSWORD.fromTree(field);
+            }
+            if ((field = node.get("salesOrderCount")) != null) {
+                value.salesOrderCount = intValue(field);
+            }
+            return value;
+        }
+    };
+
+    static final ModelCodec<Models.Location> LOCATION = new ModelCodec<Models.Location>(Models.Location.class) {
+
+        @Override
+        protected void writeObject(JsonGenerator generator, Models.Location value) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName(NAME_TYPE);
+            generator.writeString(value.type);
+            generator.writeFieldName(NAME_COORDINATES);
+            writeList(generator, value.coordinates, ModelCodec::writeFloatObject);
+            generator.writeEndObject();
+        }
+
+        @Override
+        protected Models.Location readFields(JsonParser parser) throws IOException {
+            Models.Location value = new Models.Location();
+            for (; parser.currentToken() == JsonToken.FIELD_NAME; parser.nextToken()) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "type":
+                        value.type = readString(parser);
+                        break;
+                    case "coordinates":
+                        value.coordinates = readList(parser, ModelCodec::readFloatObject);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return value;
+        }
+
+        @Override
+        protected ObjectNode toObjectNode(Models.Location value) {
+            ObjectNode node = NODES.objectNode();
+            node.put("type", value.type);
+            node.set("coordinates", listToTree(value.coordinates, ModelCodec::floatObjectToTree));
+            return node;
+        }
+
+        @Override
+        protected Models.Location fromObjectNode(JsonNode node) {
+            Models.Location value = new Models.Location();
+            JsonNode field;
+            if ((field = node.get("type")) != null) {
+                value.type = stringValue(field);
+            }
+            if ((field = node.get("coordinates")) != null) {
+                value.coordinates = listValue(field, ModelCodec::floatObjectValue);
+            }
+            return value;
+        }
+    };
+
+    static final ModelCodec<Models.Password> PASSWORD = new ModelCodec<Models.Password>(Models.Password.class) {
+
+        @Override
+        protected void writeObject(JsonGenerator generator, Models.Password value) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName(NAME_HASH);
+            generator.writeString(value.hash);
+            generator.writeFieldName(NAME_SALT);
+            generator.writeString(value.salt);
+            generator.writeEndObject();
+        }
+
+        @Override
+        protected Models.Password readFields(JsonParser parser) throws IOException {
+            Models.Password value = new Models.Password();
+            for (; parser.currentToken() == JsonToken.FIELD_NAME; parser.nextToken()) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "hash":
+                        value.hash = readString(parser);
+                        break;
+                    case "salt":
+                        value.salt = readString(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return value;
+        }
+
+        @Override
+        protected ObjectNode toObjectNode(Models.Password value) {
+            ObjectNode node = NODES.objectNode();
+            node.put("hash", value.hash);
+            node.put("salt", value.salt);
+            return node;
+        }
+
+        @Override
+        protected Models.Password fromObjectNode(JsonNode node) {
+            Models.Password value = new Models.Password();
+            JsonNode field;
+            if ((field = node.get("hash")) != null) {
+                value.hash = stringValue(field);
+            }
+            if ((field = node.get("salt")) != null) {
+                value.salt = stringValue(field);
+            }
+            return value;
+        }
+    };
+
+    static final ModelCodec<Models.Product> PRODUCT = new ModelCodec<Models.Product>(Models.Product.class) {
+
+        @Override
+        protected void writeObject(JsonGenerator generator, Models.Product value) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName(NAME_ID);
+            generator.writeString(value.id);
+            generator.writeFieldName(NAME_CATEGORY_ID);
+            generator.writeString(value.categoryId);
+            generator.writeFieldName(NAME_CATEGORY_NAME);
+            generator.writeString(value.categoryName);
+            generator.writeFieldName(NAME_SKU);
+            generator.writeString(value.sku);
+            generator.writeFieldName(NAME_NAME);
+            generator.writeString(value.name);
+            generator.writeFieldName(NAME_DESCRIPTION);
+            generator.writeString(value.description);
+            generator.writeFieldName(NAME_PRICE);
+            generator.writeNumber(value.price);
+            generator.writeFieldName(NAME_TAGS);
+            writeList(generator, value.tags, TAG::write);
+            generator.writeEndObject();
+        }
+
+        @Override
+        protected Models.Product readFields(JsonParser parser) throws IOException {
+            Models.Product value = new Models.Product();
+            for (; parser.currentToken() == JsonToken.FIELD_NAME; parser.nextToken()) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "id":
+                        value.id = readString(parser);
+                        break;
+                    case "categoryId":
+                        value.categoryId = readString(parser);
+                        break;
+                    case "categoryName":
+                        value.categoryName = readString(parser);
+                        break;
+                    case "sku":
+                        value.sku = readString(parser);
+                        break;
+                    case "name":
+                        value.name = readString(parser);
+                        break;
+                    case "description":
+                        value.description = readString(parser);
+                        break;
+                    case "price":
+                        value.price = readDouble(parser);
+                        break;
+                    case "tags":
+                        value.tags = readList(parser, TAG::read);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return value;
+        }
+
+        @Override
+        protected ObjectNode toObjectNode(Models.Product value) {
+            ObjectNode node = NODES.objectNode();
+            node.put("id", value.id);
+            node.put("categoryId", value.categoryId);
+            node.put("categoryName", value.categoryName);
+            node.put("sku", value.sku);
+            node.put("name", value.name);
+            node.put("description", value.description);
+            node.put("price", value.price);
+            node.set("tags", listToTree(value.tags, TAG::toTree));
+            return node;
+        }
+
+        @Override
+        protected Models.Product fromObjectNode(JsonNode node) {
+            Models.Product value = new Models.Product();
+            JsonNode field;
+            if ((field = node.get("id")) != null) {
+                value.id = stringValue(field);
+            }
+            if ((field = node.get("categoryId")) != null) {
+                value.categoryId = stringValue(field);
+            }
+            if ((field = node.get("categoryName")) != null) {
+                value.categoryName = stringValue(field);
+            }
+            if ((field = node.get("sku")) != null) {
+                value.sku = stringValue(field);
+            }
+            if ((field = node.get("name")) != null) {
+                value.name = stringValue(field);
+            }
+            if ((field = node.get("description")) != null) {
+                value.description = stringValue(field);
+            }
+            if ((field = node.get("price")) != null) {
+                value.price = doubleValue(field);
+            }
+            if ((field = node.get("tags")) != null) {
+                value.tags = listValue(field, TAG::fromTree);
+            }
+            return value;
+        }
+    };
+
+    static final ModelCodec<Models.ProductCategory> PRODUCT_CATEGORY = new ModelCodec<Models.ProductCategory>(Models.ProductCategory.class) {
+
+        @Override
+        protected void writeObject(JsonGenerator generator, Models.ProductCategory value) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName(NAME_ID);
+            generator.writeString(value.getId());
+            generator.writeFieldName(NAME_NAME);
+            generator.writeString(value.getName());
+            generator.writeFieldName(NAME_TYPE);
+            generator.writeString(value.getType());
+            generator.writeEndObject();
+        }
+
+        @Override
+        protected Models.ProductCategory readFields(JsonParser parser) throws IOException {
+            Models.ProductCategory value = new Models.ProductCategory();
+            for (; parser.currentToken() == JsonToken.FIELD_NAME; parser.nextToken()) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "id":
+                        value.setId(readString(parser));
+                        break;
+                    case "name":
+                        value.setName(readString(parser));
+                        break;
+                    case "type":
+                        value.setType(readString(parser));
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return value;
+        }
+
+        @Override
+        protected ObjectNode toObjectNode(Models.ProductCategory value) {
+            ObjectNode node = NODES.objectNode();
+            node.put("id", value.getId());
+            node.put("name", value.getName());
+            node.put("type", value.getType());
+            return node;
+        }
+
+        @Override
+        protected Models.ProductCategory fromObjectNode(JsonNode node) {
+            Models.ProductCategory value = new Models.ProductCategory();
+            JsonNode field;
+            if ((field = node.get("id")) != null) {
+                value.setId(stringValue(field));
+            }
+            if ((field = node.get("name")) != null) {
+                value.setName(stringValue(field));
+            }
+            if ((field = node.get("type")) != null) {
+                value.setType(stringValue(field));
+            }
+            return value;
+        }
+    };
+
+    static final ModelCodec<Models.SalesOrder> SALES_ORDER = new ModelCodec<Models.SalesOrder>(Models.SalesOrder.class) {
+
+        @Override
+        protected void writeObject(JsonGenerator generator, Models.SalesOrder value) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName(NAME_ID);
+            generator.writeString(value.id);
+            generator.writeFieldName(NAME_TYPE);
+            generator.writeString(value.type);
+            generator.writeFieldName(NAME_CUSTOMER_ID);
+            generator.writeString(value.customerId);
+            generator.writeFieldName(NAME_ORDER_DATE);
+            generator.writeString(value.orderDate);
+            generator.writeFieldName(NAME_SHIP_DATE);
+            generator.writeString(value.shipDate);
+            generator.writeFieldName(NAME_DETAILS);
+            writeList(generator, value.details, SALES_ORDER_DETAILS::write);
+            generator.writeEndObject();
+        }
+
+        @Override
+        protected Models.SalesOrder readFields(JsonParser parser) throws IOException {
+            Models.SalesOrder value = new Models.SalesOrder();
+            for (; parser.currentToken() == JsonToken.FIELD_NAME; parser.nextToken()) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "id":
+                        value.id = readString(parser);
+                        break;
+                    case "type":
+                        value.type = readString(parser);
+                        break;
+                    case "customerId":
+                        value.customerId = readString(parser);
+                        break;
+                    case "orderDate":
+                        value.orderDate = readString(parser);
+                        break;
+                    case "shipDate":
+                        value.shipDate = readString(parser);
+                        break;
+                    case "details":
+                        value.details = readList(parser, SALES_ORDER_DETAILS::read);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return value;
+        }
+
+        @Override
+        protected ObjectNode toObjectNode(Models.SalesOrder value) {
+            ObjectNode node = NODES.objectNode();
+            node.put("id", value.id);
+            node.put("type", value.type);
+            node.put("customerId", value.customerId);
+            node.put("orderDate", value.orderDate);
+            node.put("shipDate", value.shipDate);
+            node.set("details", listToTree(value.details, SALES_ORDER_DETAILS::toTree));
+            return node;
+        }
+
+        @Override
+        protected Models.SalesOrder fromObjectNode(JsonNode node) {
+            Models.SalesOrder value = new Models.SalesOrder();
+            JsonNode field;
+            if ((field = node.get("id")) != null) {
+                value.id = stringValue(field);
+            }
+            if ((field = node.get("type")) != null) {
+                value.type = stringValue(field);
+            }
+            if ((field = node.get("customerId")) != null) {
+                value.customerId = stringValue(field);
+            }
+            if ((field = node.get("orderDate")) != null) {
+                value.orderDate = stringValue(field);
+            }
+            if ((field = node.get("shipDate")) != null) {
+                value.shipDate = stringValue(field);
+            }
+            if ((field = node.get("details")) != null) {
+                value.details = listValue(field, SALES_ORDER_DETAILS::fromTree);
+            }
+            return value;
+        }
+    };
+
+    static final ModelCodec<Models.SalesOrderDetails> SALES_ORDER_DETAILS = new ModelCodec<Models.SalesOrderDetails>(Models.SalesOrderDetails.class) {
+
+        @Override
+        protected void writeObject(JsonGenerator generator, Models.SalesOrderDetails value) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName(NAME_SKU);
+            generator.writeString(value.sku);
+            generator.writeFieldName(NAME_NAME);
+            generator.writeString(value.name);
+            generator.writeFieldName(NAME_PRICE);
+            generator.writeNumber(value.price);
+            generator.writeFieldName(NAME_QUANTITY);
+            generator.writeNumber(value.quantity);
+            generator.writeEndObject();
+        }
+
+        @Override
+        protected Models.SalesOrderDetails readFields(JsonParser parser) throws IOException {
+            Models.SalesOrderDetails value = new Models.SalesOrderDetails();
+            for (; parser.currentToken() == JsonToken.FIELD_NAME; parser.nextToken()) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "sku":
+                        value.sku = readString(parser);
+                        break;
+                    case "name":
+                        value.name = readString(parser);
+                        break;
+                    case "price":
+                        value.price = readDouble(parser);
+                        break;
+                    case "quantity":
+                        value.quantity = readInt(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return value;
+        }
+
+        @Override
+        protected ObjectNode toObjectNode(Models.SalesOrderDetails value) {
+            ObjectNode node = NODES.objectNode();
+            node.put("sku", value.sku);
+            node.put("name", value.name);
+            node.put("price", value.price);
+            node.put("quantity", value.quantity);
+            return node;
+        }
+
+        @Override
+        protected Models.SalesOrderDetails fromObjectNode(JsonNode node) {
+            Models.SalesOrderDetails value = new Models.SalesOrderDetails();
+            JsonNode field;
+            if ((field = node.get("sku")) != null) {
+                value.sku = stringValue(field);
+            }
+            if ((field = node.get("name")) != null) {
+                value.name = stringValue(field);
+            }
+            if ((field = node.get("price")) != null) {
+                value.price = doubleValue(field);
+            }
+            if ((field = node.get("quantity")) != null) {
+                value.quantity = intValue(field);
+            }
+            return value;
+        }
+    };
+
+    static final ModelCodec<Models.Tag> TAG = new ModelCodec<Models.Tag>(Models.Tag.class) {
+
+        @Override
+        protected void writeObject(JsonGenerator generator, Models.Tag value) throws IOException {
+            generator.writeStartObject();
+            generator.writeFieldName(NAME_ID);
+            generator.writeString(value.id);
+            generator.writeFieldName(NAME_NAME);
+            generator.writeString(value.name);
+            generator.writeEndObject();
+        }
+
+        @Override
+        protected Models.Tag readFields(JsonParser parser) throws IOException {
+            Models.Tag value = new Models.Tag();
+            for (; parser.currentToken() == JsonToken.FIELD_NAME; parser.nextToken()) {
+                String name = parser.currentName();
+                parser.nextToken();
+                switch (name) {
+                    case "id":
+                        value.id = readString(parser);
+                        break;
+                    case "name":
+                        value.name = readString(parser);
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            return value;
+        }
+
+        @Override
+        protected ObjectNode toObjectNode(Models.Tag value) {
+            ObjectNode node = NODES.objectNode();
+            node.put("id", value.id);
+            node.put("name", value.name);
+            return node;
+        }
+
+        @Override
+        protected Models.Tag fromObjectNode(JsonNode node) {
+            Models.Tag value = new Models.Tag();
+            JsonNode field;
+            if ((field = node.get("id")) != null) {
+                value.id = stringValue(field);
+            }
+            if ((field = node.get("name")) != null) {
+                value.name = stringValue(field);
+            }
+            return value;
+        }
+    };
+
+    static final List<ModelCodec<?>> ALL = Arrays.asList(
+            CUSTOMER_ADDRESS,
+            CUSTOMER_V1,
+            CUSTOMER_V2,
+            CUSTOMER_V4,
+            LOCATION,
+            PASSWORD,
+            PRODUCT,
+            PRODUCT_CATEGORY,
+            SALES_ORDER,
+            SALES_ORDER_DETAILS,
+            TAG);
+
+    private ModelCodecs() {
+    }
+}
@@ -0,0 +1,51 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.models;
+
+import com.azure.cosmos.CosmosClientBuilder;
+import com.azure.cosmos.CosmosItemSerializer;
+import com.azure.cosmos.implementation.ObjectNodeMap;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Item serializer that converts the {@link Models} classes to and from the SDK's documents through
+ * their generated {@link ModelCodec}s, and everything else through the SDK's default serializer.
+ * Install it with {@link CosmosClientBuilder#customItemSerializer}.
+ */
+public final class ModelItemSerializer extends CosmosItemSerializer {
+
+    public static final ModelItemSerializer INSTANCE = new ModelItemSerializer();
+
+    private ModelItemSerializer() {
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Map<String, Object> serialize(T item) {
+        ModelCodec<T> codec = item != null ? ModelCodec.forType((Class<T>) item.getClass()) : null;
+        if (codec == null) {
+            return DEFAULT_SERIALIZER.serialize(item);
+        }
+        return new ObjectNodeMap(codec.toObjectNode(item));
+    }
+
+    @Override
+    public <T> T deserialize(Map<String, Object> jsonNodeMap, Class<T> classType) {
+        ModelCodec<T> codec = ModelCodec.forType(classType);
+        if (codec == null || !(jsonNodeMap instanceof ObjectNodeMap)) {
+            return DEFAULT_SERIALIZER.deserialize(jsonNodeMap, classType);
+        }
+        ObjectNode node = ((ObjectNodeMap) jsonNodeMap).getObjectNode();
+        try {
+            return codec.fromTree(node);
+        } catch (UncheckedIOException e) {
+            // fail the way the default serializer does
+            throw new IllegalStateException("Unable to parse JSON " + node + " as " + classType.getName(),
+                    e.getCause());
+        }
+    }
+}
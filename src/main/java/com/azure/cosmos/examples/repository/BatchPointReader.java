@@ -0,0 +1,138 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import com.azure.cosmos.examples.common.PartitionKeyRanges;
+import com.azure.cosmos.models.CosmosItemIdentity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads many items known by id and partition key with a few {@link ItemContainer#readMany} calls
+ * instead of one point read each.
+ * <p>
+ * The items are grouped by the partition key range they are in, so that every read goes to a single
+ * physical partition, and each group is split into reads of at most {@link #BATCH_SIZE} items. The
+ * reads run in parallel, up to {@link #CONCURRENCY} at a time and taking turns between the ranges, and
+ * their results are emitted as each one completes, with its request charge and latency. Over a
+ * container that is not backed by Cosmos DB, or whose ranges cannot be fetched, all items form one
+ * group.
+ * <p>
+ * The limits are configurable with -DREAD_MANY_BATCH_SIZE=[n] and -DREAD_MANY_CONCURRENCY=[n].
+ */
+public class BatchPointReader {
+
+    public static final int BATCH_SIZE = Integer.getInteger("READ_MANY_BATCH_SIZE", 100);
+    public static final int CONCURRENCY = Integer.getInteger("READ_MANY_CONCURRENCY", 8);
+
+    private static Logger logger = LoggerFactory.getLogger(BatchPointReader.class);
+
+    private final ItemContainer container;
+    private final PartitionKeyRanges ranges;
+
+    private BatchPointReader(ItemContainer container, PartitionKeyRanges ranges) {
+        this.container = container;
+        this.ranges = ranges;
+    }
+
+    /**
+     * A reader of {@code container}, which groups by the partition key ranges of the Cosmos DB
+     * container behind it, if there is one.
+     */
+    public static Mono<BatchPointReader> create(ItemContainer container) {
+        ItemContainer wrapped = container;
+        while (wrapped instanceof PointReadItemContainer || wrapped instanceof CachingItemContainer) {
+            wrapped = wrapped instanceof PointReadItemContainer
+                    ? ((PointReadItemContainer) wrapped).getContainer()
+                    : ((CachingItemContainer) wrapped).getContainer();
+        }
+        if (!(wrapped instanceof CosmosItemContainer)) {
+            return Mono.just(new BatchPointReader(container, null));
+        }
+        return PartitionKeyRanges.fetch(((CosmosItemContainer) wrapped).getContainer())
+                .map(ranges -> new BatchPointReader(container, ranges))
+                .onErrorResume(e -> {
+                    logger.warn("cannot resolve partition key ranges of " + container.getId()
+                            + ", reading without grouping: " + e);
+                    return Mono.just(new BatchPointReader(container, null));
+                });
+    }
+
+    /**
+     * Number of partition key ranges the items are grouped by.
+     */
+    public int getRangeCount() {
+        return ranges == null ? 1 : ranges.size();
+    }
+
+    /**
+     * Reads the items that exist among {@code items}, read once each, and emits a batch per read in
+     * the order the reads complete.
+     */
+    public <T> Flux<ReadManyBatch<T>> read(Collection<CosmosItemIdentity> items, Class<T> type) {
+        return Flux.defer(() -> Flux.fromIterable(batches(items)))
+                .flatMap(batch -> read(batch, type), CONCURRENCY);
+    }
+
+    private <T> Mono<ReadManyBatch<T>> read(Batch batch, Class<T> type) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return container.readMany(batch.items, type)
+                    .map(page -> new ReadManyBatch<>(page.getResults(), batch.items.size(), batch.rangeIndex,
+                            page.getRequestCharge(), Duration.ofNanos(System.nanoTime() - start)));
+        });
+    }
+
+    /**
+     * {@code items} without duplicates, grouped by range and split into batches, the first batch of
+     * every range first, then the second of every range, and so on.
+     */
+    private List<Batch> batches(Collection<CosmosItemIdentity> items) {
+        List<List<CosmosItemIdentity>> groups = new ArrayList<>(getRangeCount());
+        for (int i = 0; i < getRangeCount(); i++) {
+            groups.add(new ArrayList<>());
+        }
+        // PartitionKey.hashCode does not agree with its equals, so compare the JSON forms
+        Set<String> seen = new HashSet<>();
+        for (CosmosItemIdentity item : items) {
+            if (seen.add(item.getId() + '\u0000' + item.getPartitionKey())) {
+                groups.get(ranges == null ? 0 : ranges.indexOf(item.getPartitionKey())).add(item);
+            }
+        }
+        List<Batch> batches = new ArrayList<>();
+        for (int offset = 0; ; offset += BATCH_SIZE) {
+            boolean any = false;
+            for (int i = 0; i < groups.size(); i++) {
+                List<CosmosItemIdentity> group = groups.get(i);
+                if (offset < group.size()) {
+                    batches.add(new Batch(i,
+                            new ArrayList<>(group.subList(offset, Math.min(offset + BATCH_SIZE, group.size())))));
+                    any = true;
+                }
+            }
+            if (!any) {
+                return batches;
+            }
+        }
+    }
+
+    private static final class Batch {
+        final int rangeIndex;
+        final List<CosmosItemIdentity> items;
+
+        Batch(int rangeIndex, List<CosmosItemIdentity> items) {
+            this.rangeIndex = rangeIndex;
+            this.items = items;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import java.util.List;
+
+/**
+ * Outcome of a transactional batch: either every operation was applied, or none was.
+ */
+public final class BatchResult {
+
+    private final List<OperationResult<Object>> results;
+    private final double requestCharge;
+
+    public BatchResult(List<OperationResult<Object>> results, double requestCharge) {
+        this.results = results;
+        this.requestCharge = requestCharge;
+    }
+
+    public boolean isSuccessStatusCode() {
+        for (OperationResult<Object> result : results) {
+            if (!result.isSuccessStatusCode()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The results of the operations, in the order they were added to the batch. When the batch failed,
+     * the operation that caused it has its own status code and the others have 424 (failed dependency).
+     */
+    public List<OperationResult<Object>> getResults() {
+        return results;
+    }
+
+    public double getRequestCharge() {
+        return requestCharge;
+    }
+}
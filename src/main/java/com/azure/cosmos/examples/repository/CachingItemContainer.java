@@ -0,0 +1,448 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import com.azure.cosmos.examples.common.JsonCodecs;
+import com.azure.cosmos.models.CosmosBatch;
+import com.azure.cosmos.models.CosmosItemIdentity;
+import com.azure.cosmos.models.CosmosItemOperation;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ItemContainer} that serves point reads from an in-process cache, and everything else from
+ * the container it wraps.
+ * <p>
+ * A read that misses loads the item from the container and keeps its JSON; later reads of it cost no
+ * request charge and decode a fresh copy, so callers can change what they get. Entries are evicted
+ * least recently used first once their JSON takes more than the configured number of bytes, and
+ * expire after the time to live. From the first read on, the change feed of the container refreshes
+ * the entries of items written elsewhere, and writes through this container invalidate theirs. The
+ * change feed does not report deletes: the time to live bounds how long a deleted item is served.
+ * <p>
+ * The defaults are configurable with -DITEM_CACHE_BYTES=[n] and -DITEM_CACHE_TTL_SECONDS=[n].
+ */
+public class CachingItemContainer implements ItemContainer, AutoCloseable {
+
+    public static final long DEFAULT_MAX_BYTES = Long.getLong("ITEM_CACHE_BYTES", 64L * 1024 * 1024);
+    public static final Duration DEFAULT_TTL = Duration.ofSeconds(Long.getLong("ITEM_CACHE_TTL_SECONDS", 300));
+
+    // key, entry and map node, roughly
+    private static final int ENTRY_OVERHEAD = 128;
+    private static final Duration RESUBSCRIBE_DELAY = Duration.ofSeconds(5);
+
+    private static Logger logger = LoggerFactory.getLogger(CachingItemContainer.class);
+
+    private final ItemContainer container;
+    private final String partitionKeyPath;
+    private final long maxBytes;
+    private final long ttlNanos;
+    // in access order, guarded by itself, as are bytes and the stale flag of the loads
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Load> loads = new ConcurrentHashMap<>();
+    private final AtomicBoolean listening = new AtomicBoolean();
+    private volatile Disposable changeFeed;
+    private long bytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CachingItemContainer(ItemContainer container, String partitionKeyPath) {
+        this(container, partitionKeyPath, DEFAULT_MAX_BYTES, DEFAULT_TTL);
+    }
+
+    public CachingItemContainer(ItemContainer container, String partitionKeyPath, long maxBytes, Duration ttl) {
+        this.container = container;
+        this.partitionKeyPath = partitionKeyPath;
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public ItemContainer getContainer() {
+        return container;
+    }
+
+    @Override
+    public String getId() {
+        return container.getId();
+    }
+
+    @Override
+    public <T> Mono<ItemResult<T>> read(String id, PartitionKey partitionKey, Class<T> type) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            String key = key(id, partitionKey);
+            Entry entry = lookup(key);
+            if (entry != null) {
+                hits.incrementAndGet();
+                return Mono.fromCallable(() -> new ItemResult<>(decode(entry.json, type), entry.eTag, 0,
+                        Duration.ofNanos(System.nanoTime() - start)));
+            }
+            misses.incrementAndGet();
+            listen();
+            return load(key, id, partitionKey)
+                    .map(loaded -> new ItemResult<>(decode(loaded.json, type), loaded.eTag, loaded.requestCharge,
+                            loaded.duration));
+        });
+    }
+
+    /**
+     * Drops the entry of an item, e.g. after writing it other than through this container.
+     */
+    public void invalidate(String id, PartitionKey partitionKey) {
+        String key = key(id, partitionKey);
+        synchronized (entries) {
+            Entry entry = entries.remove(key);
+            if (entry != null) {
+                bytes -= entry.weight;
+                invalidations.incrementAndGet();
+            }
+            Load load = loads.get(key);
+            if (load != null) {
+                load.stale = true;
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            bytes = 0;
+            for (Load load : loads.values()) {
+                load.stale = true;
+            }
+        }
+    }
+
+    /**
+     * Stops following the change feed and drops all entries.
+     */
+    @Override
+    public void close() {
+        Disposable subscription = changeFeed;
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        clear();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Share of the reads served from the cache, 0 before the first read.
+     */
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long readCount = hitCount + misses.get();
+        return readCount == 0 ? 0 : (double) hitCount / readCount;
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public long getExpirationCount() {
+        return expirations.get();
+    }
+
+    /**
+     * Number of entries replaced with a newer version from the change feed.
+     */
+    public long getRefreshCount() {
+        return refreshes.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    public int getSize() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Bytes the entries are weighed at, their JSON and a fixed overhead each.
+     */
+    public long getWeight() {
+        synchronized (entries) {
+            return bytes;
+        }
+    }
+
+    public String getSummary() {
+        return String.format(Locale.ROOT,
+                "%s: %d hits, %d misses (%.1f%% hit rate), %d entries of %d bytes, %d evicted, %d expired, "
+                        + "%d refreshed, %d invalidated",
+                getId(), getHitCount(), getMissCount(), 100 * getHitRate(), getSize(), getWeight(),
+                getEvictionCount(), getExpirationCount(), getRefreshCount(), getInvalidationCount());
+    }
+
+    private Entry lookup(String key) {
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (System.nanoTime() - entry.expiresAt > 0) {
+                entries.remove(key);
+                bytes -= entry.weight;
+                expirations.incrementAndGet();
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * Reads an item into the cache, sharing the read with concurrent misses of the same item. The
+     * result is not kept if the item changed while it was read.
+     */
+    private Mono<Loaded> load(String key, String id, PartitionKey partitionKey) {
+        Load load = new Load();
+        load.result = container.read(id, partitionKey, JsonNode.class)
+                .map(result -> new Loaded(encode(result.getItem()), timestamp(result.getItem()),
+                        eTag(result.getItem()), result.getRequestCharge(), result.getDuration()))
+                .doOnSuccess(loaded -> {
+                    synchronized (entries) {
+                        loads.remove(key, load);
+                        if (loaded != null && !load.stale) {
+                            put(key, loaded.json, loaded.timestamp, loaded.eTag);
+                        }
+                    }
+                })
+                .doFinally(signal -> loads.remove(key, load))
+                .cache();
+        Load pending = loads.putIfAbsent(key, load);
+        // the read is charged to the miss that started it
+        return pending != null ? pending.result.map(Loaded::joined) : load.result;
+    }
+
+    // callers hold the lock on entries
+    private void put(String key, byte[] json, long timestamp, String eTag) {
+        Entry entry = new Entry(json, timestamp, eTag, System.nanoTime() + ttlNanos,
+                json.length + 2 * key.length() + ENTRY_OVERHEAD);
+        Entry replaced = entries.put(key, entry);
+        bytes += entry.weight - (replaced != null ? replaced.weight : 0);
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().weight;
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Follows the change feed from now on, once. On a failure the changes made until it is followed
+     * again are not seen, so the entries are dropped.
+     */
+    private void listen() {
+        if (!listening.compareAndSet(false, true)) {
+            return;
+        }
+        changeFeed = container.changes(false)
+                .doOnNext(this::apply)
+                .doOnError(e -> {
+                    logger.warn("Following the change feed of " + getId() + " failed, clearing its cache", e);
+                    clear();
+                })
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, RESUBSCRIBE_DELAY))
+                .subscribe();
+    }
+
+    private void apply(List<JsonNode> documents) {
+        for (JsonNode document : documents) {
+            JsonNode id = document.get("id");
+            PartitionKey partitionKey = PointReadItemContainer.partitionKey(document.at(partitionKeyPath));
+            if (id == null || !id.isTextual() || partitionKey == null) {
+                continue;
+            }
+            String key = key(id.textValue(), partitionKey);
+            long timestamp = timestamp(document);
+            synchronized (entries) {
+                Entry entry = entries.get(key);
+                if (entry != null) {
+                    // the feed can deliver a version older than the one read
+                    if (timestamp >= entry.timestamp) {
+                        put(key, encode(document), timestamp, eTag(document));
+                        refreshes.incrementAndGet();
+                    }
+                } else {
+                    Load load = loads.get(key);
+                    if (load != null) {
+                        load.stale = true;
+                    }
+                }
+            }
+        }
+    }
+
+    private static String key(String id, PartitionKey partitionKey) {
+        // PartitionKey.hashCode does not agree with its equals, so key by the JSON form
+        return id + '\u0000' + partitionKey;
+    }
+
+    private static long timestamp(JsonNode document) {
+        return document.path("_ts").asLong();
+    }
+
+    private static String eTag(JsonNode document) {
+        return document.path("_etag").asText(null);
+    }
+
+    private static byte[] encode(JsonNode document) {
+        try {
+            return JsonCodecs.writer(JsonNode.class).writeValueAsBytes(document);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> T decode(byte[] json, Class<T> type) {
+        try {
+            return JsonCodecs.reader(type).readValue(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String idOf(Object item) {
+        JsonNode node = item instanceof JsonNode ? (JsonNode) item : JsonCodecs.mapper().valueToTree(item);
+        return node.path("id").asText(null);
+    }
+
+    /**
+     * The id {@code operation} writes; create and upsert operations carry only their item.
+     */
+    private static String idOf(CosmosItemOperation operation) {
+        return operation.getId() != null ? operation.getId() : idOf(operation.<Object>getItem());
+    }
+
+    @Override
+    public <T> Mono<FeedPage<T>> readMany(List<CosmosItemIdentity> items, Class<T> type) {
+        return container.readMany(items, type);
+    }
+
+    @Override
+    public <T> Flux<FeedPage<T>> query(SqlQuerySpec query, PartitionKey partitionKey, Class<T> type) {
+        return container.query(query, partitionKey, type);
+    }
+
+    @Override
+    public <T> Mono<ItemResult<T>> create(T item, PartitionKey partitionKey) {
+        return container.create(item, partitionKey).doOnSuccess(result -> invalidate(idOf(item), partitionKey));
+    }
+
+    @Override
+    public <T> Mono<ItemResult<T>> upsert(T item, PartitionKey partitionKey) {
+        return container.upsert(item, partitionKey).doOnSuccess(result -> invalidate(idOf(item), partitionKey));
+    }
+
+    @Override
+    public <T> Mono<ItemResult<T>> replace(String id, T item, PartitionKey partitionKey) {
+        return container.replace(id, item, partitionKey).doOnSuccess(result -> invalidate(id, partitionKey));
+    }
+
+    @Override
+    public Mono<ItemResult<Void>> delete(String id, PartitionKey partitionKey) {
+        return container.delete(id, partitionKey).doOnSuccess(result -> invalidate(id, partitionKey));
+    }
+
+    @Override
+    public Mono<BatchResult> executeBatch(CosmosBatch batch) {
+        return container.executeBatch(batch).doOnSuccess(result -> {
+            if (result.isSuccessStatusCode()) {
+                for (CosmosItemOperation operation : batch.getOperations()) {
+                    invalidate(idOf(operation), operation.getPartitionKeyValue());
+                }
+            }
+        });
+    }
+
+    @Override
+    public <TContext> Flux<OperationResult<TContext>> executeBulk(Flux<CosmosItemOperation> operations) {
+        return container.<TContext>executeBulk(operations).doOnNext(result -> {
+            if (result.isSuccessStatusCode()) {
+                invalidate(idOf(result.getOperation()), result.getOperation().getPartitionKeyValue());
+            }
+        });
+    }
+
+    @Override
+    public Flux<List<JsonNode>> changes(boolean fromBeginning) {
+        return container.changes(fromBeginning);
+    }
+
+    private static final class Entry {
+        final byte[] json;
+        final long timestamp;
+        final String eTag;
+        final long expiresAt;
+        final int weight;
+
+        Entry(byte[] json, long timestamp, String eTag, long expiresAt, int weight) {
+            this.json = json;
+            this.timestamp = timestamp;
+            this.eTag = eTag;
+            this.expiresAt = expiresAt;
+            this.weight = weight;
+        }
+    }
+
+    private static final class Load {
+        Mono<Loaded> result;
+        boolean stale;
+    }
+
+    private static final class Loaded {
+        final byte[] json;
+        final long timestamp;
+        final String eTag;
+        final double requestCharge;
+        final Duration duration;
+
+        Loaded(byte[] json, long timestamp, String eTag, double requestCharge, Duration duration) {
+            this.json = json;
+            this.timestamp = timestamp;
+            this.eTag = eTag;
+            this.requestCharge = requestCharge;
+            this.duration = duration;
+        }
+
+        Loaded joined() {
+            return new Loaded(json, timestamp, eTag, 0, duration);
+        }
+    }
+}
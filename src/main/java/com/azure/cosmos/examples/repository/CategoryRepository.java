@@ -0,0 +1,30 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import com.azure.cosmos.examples.models.Models.ProductCategory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Product categories, all stored in the {@code category} partition of their container.
+ */
+public interface CategoryRepository {
+
+    /**
+     * Point read of a category, completing empty when there is none.
+     */
+    Mono<ProductCategory> findById(String id);
+
+    Flux<ProductCategory> findAll();
+
+    Mono<ProductCategory> save(ProductCategory category);
+
+    /**
+     * Categories as they are created or updated, see {@link ItemContainer#changes}.
+     */
+    Flux<List<ProductCategory>> changes(boolean fromBeginning);
+}
@@ -0,0 +1,65 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import com.azure.cosmos.examples.common.JsonCodecs;
+import com.azure.cosmos.examples.common.QueryCatalog;
+import com.azure.cosmos.examples.models.Models.ProductCategory;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class ContainerCategoryRepository implements CategoryRepository {
+
+
+    private static final String TYPE = "category";
+
+    private final ItemContainer container;
+
+    ContainerCategoryRepository(ItemContainer container) {
+        this.container = container;
+    }
+
+    @Override
+    public Mono<ProductCategory> findById(String id) {
+        return container.read(id, new PartitionKey(TYPE), ProductCategory.class).map(ItemResult::getItem);
+    }
+
+    @Override
+    public Flux<ProductCategory> findAll() {
+        SqlQuerySpec query = QueryCatalog.DOCUMENTS_BY_TYPE.bind(TYPE);
+        return container.query(query, QueryCatalog.DOCUMENTS_BY_TYPE.partitionKey(query), ProductCategory.class)
+                .flatMapIterable(FeedPage::getResults);
+    }
+
+    @Override
+    public Mono<ProductCategory> save(ProductCategory category) {
+        return container.upsert(category, new PartitionKey(category.getType())).map(ItemResult::getItem);
+    }
+
+    @Override
+    public Flux<List<ProductCategory>> changes(boolean fromBeginning) {
+        return container.changes(fromBeginning)
+                .map(documents -> {
+                    List<ProductCategory> categories = new ArrayList<>();
+                    for (JsonNode document : documents) {
+                        if (TYPE.equals(document.path("type").asText())) {
+                            try {
+                                categories.add(JsonCodecs.treeToValue(document, ProductCategory.class));
+                            } catch (JsonProcessingException e) {
+                                throw new IllegalArgumentException("Cannot read category " + document.path("id"), e);
+                            }
+                        }
+                    }
+                    return categories;
+                })
+                .filter(categories -> !categories.isEmpty());
+    }
+}
@@ -0,0 +1,53 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import com.azure.cosmos.examples.common.QueryCatalog;
+import com.azure.cosmos.examples.models.Models.CustomerV4;
+import com.azure.cosmos.models.CosmosItemIdentity;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlQuerySpec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+class ContainerCustomerRepository implements CustomerRepository {
+
+    private final ItemContainer container;
+    private final Mono<BatchPointReader> reader;
+
+    ContainerCustomerRepository(ItemContainer container) {
+        this.container = container;
+        this.reader = BatchPointReader.create(container).cache();
+    }
+
+    @Override
+    public Mono<CustomerV4> findById(String customerId) {
+        return container.read(customerId, new PartitionKey(customerId), CustomerV4.class).map(ItemResult::getItem);
+    }
+
+    @Override
+    public Flux<CustomerV4> findAllById(Collection<String> customerIds) {
+        List<CosmosItemIdentity> items = new ArrayList<>(customerIds.size());
+        for (String customerId : customerIds) {
+            items.add(new CosmosItemIdentity(new PartitionKey(customerId), customerId));
+        }
+        return reader.flatMapMany(reader -> reader.read(items, CustomerV4.class))
+                .flatMapIterable(ReadManyBatch::getItems);
+    }
+
+    @Override
+    public Flux<CustomerV4> findTopBySalesOrderCount(int count) {
+        SqlQuerySpec query = QueryCatalog.TOP_CUSTOMERS.bind(count);
+        return container.query(query, QueryCatalog.TOP_CUSTOMERS.partitionKey(query), CustomerV4.class).flatMapIterable(FeedPage::getResults);
+    }
+
+    @Override
+    public Mono<CustomerV4> save(CustomerV4 customer) {
+        return container.upsert(customer, new PartitionKey(customer.customerId)).map(ItemResult::getItem);
+    }
+}
@@ -0,0 +1,39 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import com.azure.cosmos.examples.common.QueryCatalog;
+import com.azure.cosmos.examples.models.Models.Product;
+import com.azure.cosmos.models.CosmosBulkOperations;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlQuerySpec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class ContainerProductRepository implements ProductRepository {
+
+    private final ItemContainer container;
+
+    ContainerProductRepository(ItemContainer container) {
+        this.container = container;
+    }
+
+    @Override
+    public Mono<Product> findById(String id, String categoryId) {
+        return container.read(id, new PartitionKey(categoryId), Product.class).map(ItemResult::getItem);
+    }
+
+    @Override
+    public Flux<Product> findByCategoryId(String categoryId) {
+        SqlQuerySpec query = QueryCatalog.PRODUCTS_BY_CATEGORY.bind(categoryId);
+        return container.query(query, QueryCatalog.PRODUCTS_BY_CATEGORY.partitionKey(query), Product.class)
+                .flatMapIterable(FeedPage::getResults);
+    }
+
+    @Override
+    public Flux<OperationResult<Product>> replaceAll(Flux<Product> products) {
+        return container.executeBulk(products.map(product -> CosmosBulkOperations.getReplaceItemOperation(
+                product.getId(), product, new PartitionKey(product.getCategoryId()), null, product)));
+    }
+}
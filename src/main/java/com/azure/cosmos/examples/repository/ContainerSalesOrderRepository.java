@@ -0,0 +1,78 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import com.azure.cosmos.examples.common.JsonCodecs;
+import com.azure.cosmos.examples.common.QueryCatalog;
+import com.azure.cosmos.examples.models.Models.CustomerV4;
+import com.azure.cosmos.examples.models.Models.SalesOrder;
+import com.azure.cosmos.models.CosmosBatch;
+import com.azure.cosmos.models.CosmosBatchItemRequestOptions;
+import com.azure.cosmos.models.CosmosItemIdentity;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlQuerySpec;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+class ContainerSalesOrderRepository implements SalesOrderRepository {
+
+    private final ItemContainer container;
+    private final Mono<BatchPointReader> reader;
+
+    ContainerSalesOrderRepository(ItemContainer container) {
+        this.container = container;
+        this.reader = BatchPointReader.create(container).cache();
+    }
+
+    @Override
+    public Flux<SalesOrder> findByCustomerId(String customerId) {
+        SqlQuerySpec query = QueryCatalog.SALES_ORDERS_BY_CUSTOMER.bind(customerId);
+        return container.query(query, QueryCatalog.SALES_ORDERS_BY_CUSTOMER.partitionKey(query), SalesOrder.class)
+                .flatMapIterable(FeedPage::getResults);
+    }
+
+    @Override
+    public Flux<SalesOrder> findAllById(Collection<CosmosItemIdentity> orders) {
+        return reader.flatMapMany(reader -> reader.read(orders, SalesOrder.class))
+                .flatMapIterable(ReadManyBatch::getItems);
+    }
+
+    @Override
+    public Mono<BatchResult> create(CustomerV4 customer, String customerETag, SalesOrder order) {
+        return Mono.defer(() -> {
+            CustomerV4 updated = withSalesOrderCount(customer, customer.salesOrderCount + 1);
+            CosmosBatch batch = CosmosBatch.createCosmosBatch(new PartitionKey(customer.customerId));
+            batch.createItemOperation(order);
+            batch.replaceItemOperation(updated.id, updated, ifMatch(customerETag));
+            return container.executeBatch(batch);
+        });
+    }
+
+    @Override
+    public Mono<BatchResult> delete(CustomerV4 customer, String customerETag, String orderId) {
+        return Mono.defer(() -> {
+            CustomerV4 updated = withSalesOrderCount(customer, customer.salesOrderCount - 1);
+            CosmosBatch batch = CosmosBatch.createCosmosBatch(new PartitionKey(customer.customerId));
+            batch.deleteItemOperation(orderId);
+            batch.replaceItemOperation(updated.id, updated, ifMatch(customerETag));
+            return container.executeBatch(batch);
+        });
+    }
+
+    private static CosmosBatchItemRequestOptions ifMatch(String eTag) {
+        return new CosmosBatchItemRequestOptions().setIfMatchETag(eTag);
+    }
+
+    /**
+     * A copy of {@code customer} with {@code salesOrderCount}, so that the caller's customer is left as
+     * it is whether or not the batch goes through.
+     */
+    private static CustomerV4 withSalesOrderCount(CustomerV4 customer, int salesOrderCount) {
+        CustomerV4 copy = JsonCodecs.mapper().convertValue(customer, CustomerV4.class);
+        copy.salesOrderCount = salesOrderCount;
+        return copy;
+    }
+}
@@ -0,0 +1,148 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.examples.common.BulkWriter;
+import com.azure.cosmos.models.CosmosBatch;
+import com.azure.cosmos.models.CosmosBatchOperationResult;
+import com.azure.cosmos.models.CosmosChangeFeedRequestOptions;
+import com.azure.cosmos.models.CosmosItemIdentity;
+import com.azure.cosmos.models.CosmosItemOperation;
+import com.azure.cosmos.models.CosmosItemRequestOptions;
+import com.azure.cosmos.models.CosmosItemResponse;
+import com.azure.cosmos.models.CosmosQueryRequestOptions;
+import com.azure.cosmos.models.FeedRange;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.fasterxml.jackson.databind.JsonNode;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link ItemContainer} backed by a Cosmos DB container.
+ */
+public class CosmosItemContainer implements ItemContainer {
+
+    /**
+     * How long {@link #changes} waits before polling the change feed again once it has caught up,
+     * configurable with -DCHANGE_FEED_POLL_MILLIS=[n].
+     */
+    public static final Duration CHANGE_FEED_POLL_INTERVAL = Duration.ofMillis(Long.getLong("CHANGE_FEED_POLL_MILLIS", 1000));
+
+    private static final int PAGE_SIZE = 100;
+
+    private final CosmosAsyncContainer container;
+    private final BulkWriter bulkWriter;
+
+    public CosmosItemContainer(CosmosAsyncContainer container) {
+        this.container = container;
+        this.bulkWriter = new BulkWriter(container, container.getDatabase().getId() + "." + container.getId());
+    }
+
+    public CosmosAsyncContainer getContainer() {
+        return container;
+    }
+
+    @Override
+    public String getId() {
+        return container.getId();
+    }
+
+    @Override
+    public <T> Mono<ItemResult<T>> read(String id, PartitionKey partitionKey, Class<T> type) {
+        return container.readItem(id, partitionKey, type)
+                .map(response -> new ItemResult<>(response.getItem(), response.getETag(), response.getRequestCharge(),
+                        response.getDuration()))
+                .onErrorResume(e -> e instanceof CosmosException && ((CosmosException) e).getStatusCode() == 404,
+                        e -> Mono.empty());
+    }
+
+    @Override
+    public <T> Mono<FeedPage<T>> readMany(List<CosmosItemIdentity> items, Class<T> type) {
+        return container.readMany(items, type)
+                .map(response -> new FeedPage<>(response.getResults(), response.getRequestCharge()));
+    }
+
+    @Override
+    public <T> Flux<FeedPage<T>> query(SqlQuerySpec query, PartitionKey partitionKey, Class<T> type) {
+        CosmosQueryRequestOptions options = new CosmosQueryRequestOptions();
+        if (partitionKey != null) {
+            options.setPartitionKey(partitionKey);
+        }
+        return container.queryItems(query, options, type)
+                .byPage(PAGE_SIZE)
+                .map(page -> new FeedPage<>(page.getResults(), page.getRequestCharge()));
+    }
+
+    @Override
+    public <T> Mono<ItemResult<T>> create(T item, PartitionKey partitionKey) {
+        return container.createItem(item, partitionKey, new CosmosItemRequestOptions())
+                .map(response -> written(item, response));
+    }
+
+    @Override
+    public <T> Mono<ItemResult<T>> upsert(T item, PartitionKey partitionKey) {
+        return container.upsertItem(item, partitionKey, new CosmosItemRequestOptions())
+                .map(response -> written(item, response));
+    }
+
+    @Override
+    public <T> Mono<ItemResult<T>> replace(String id, T item, PartitionKey partitionKey) {
+        return container.replaceItem(item, id, partitionKey, new CosmosItemRequestOptions())
+                .map(response -> written(item, response));
+    }
+
+    @Override
+    public Mono<ItemResult<Void>> delete(String id, PartitionKey partitionKey) {
+        return container.deleteItem(id, partitionKey, new CosmosItemRequestOptions())
+                .map(response -> new ItemResult<Void>(null, response.getRequestCharge(), response.getDuration()));
+    }
+
+    @Override
+    public Mono<BatchResult> executeBatch(CosmosBatch batch) {
+        return container.executeCosmosBatch(batch)
+                .map(response -> {
+                    List<OperationResult<Object>> results = new ArrayList<>();
+                    for (CosmosBatchOperationResult result : response.getResults()) {
+                        results.add(new OperationResult<>(result.getOperation(), result.getStatusCode(),
+                                result.getRequestCharge()));
+                    }
+                    return new BatchResult(results, response.getRequestCharge());
+                });
+    }
+
+    @Override
+    public <TContext> Flux<OperationResult<TContext>> executeBulk(Flux<CosmosItemOperation> operations) {
+        return bulkWriter.execute(operations);
+    }
+
+    @Override
+    public Flux<List<JsonNode>> changes(boolean fromBeginning) {
+        return Flux.defer(() -> {
+            AtomicReference<String> continuation = new AtomicReference<>();
+            return Flux.defer(() -> container.queryChangeFeed(continuation.get() != null
+                                    ? CosmosChangeFeedRequestOptions.createForProcessingFromContinuation(continuation.get())
+                                    : fromBeginning
+                                    ? CosmosChangeFeedRequestOptions.createForProcessingFromBeginning(FeedRange.forFullRange())
+                                    : CosmosChangeFeedRequestOptions.createForProcessingFromNow(FeedRange.forFullRange()),
+                            JsonNode.class)
+                            .byPage())
+                    .doOnNext(page -> continuation.set(page.getContinuationToken()))
+                    .filter(page -> !page.getResults().isEmpty())
+                    .map(page -> page.getResults())
+                    .repeatWhen(caughtUp -> caughtUp.delayElements(CHANGE_FEED_POLL_INTERVAL));
+        });
+    }
+
+    private static <T> ItemResult<T> written(T item, CosmosItemResponse<T> response) {
+        return new ItemResult<>(item, response.getETag(), response.getRequestCharge(), response.getDuration());
+    }
+}
@@ -0,0 +1,34 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import com.azure.cosmos.examples.models.Models.CustomerV4;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Customers of the v4 schema, which share the {@code customer} container with their sales orders.
+ */
+public interface CustomerRepository {
+
+    /**
+     * Point read of a customer, completing empty when there is none.
+     */
+    Mono<CustomerV4> findById(String customerId);
+
+    /**
+     * The customers that exist among {@code customerIds}, in no particular order, read with a few
+     * batched point reads (see {@link BatchPointReader}).
+     */
+    Flux<CustomerV4> findAllById(Collection<String> customerIds);
+
+    /**
+     * The {@code count} customers with the most sales orders, most first.
+     */
+    Flux<CustomerV4> findTopBySalesOrderCount(int count);
+
+    Mono<CustomerV4> save(CustomerV4 customer);
+}
@@ -0,0 +1,28 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import java.util.List;
+
+/**
+ * One page of query results from an {@link ItemContainer}.
+ */
+public final class FeedPage<T> {
+
+    private final List<T> results;
+    private final double requestCharge;
+
+    public FeedPage(List<T> results, double requestCharge) {
+        this.results = results;
+        this.requestCharge = requestCharge;
+    }
+
+    public List<T> getResults() {
+        return results;
+    }
+
+    public double getRequestCharge() {
+        return requestCharge;
+    }
+}
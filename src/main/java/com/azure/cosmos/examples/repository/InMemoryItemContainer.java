@@ -0,0 +1,463 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import com.azure.cosmos.BridgeInternal;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.examples.common.JsonCodecs;
+import com.azure.cosmos.implementation.RequestOptions;
+import com.azure.cosmos.implementation.batch.ItemBatchOperation;
+import com.azure.cosmos.models.CosmosBatch;
+import com.azure.cosmos.models.CosmosItemIdentity;
+import com.azure.cosmos.models.CosmosItemOperation;
+import com.azure.cosmos.models.CosmosItemOperationType;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ItemContainer} that keeps its items in process, for running the repositories without an
+ * account.
+ * <p>
+ * Items are stored as JSON trees, grouped by the value at the partition key path, so a write whose
+ * item does not carry the partition key it is sent with fails like it does on the service. Point
+ * operations, transactional batches (atomic within one partition), bulk and the subset of SQL
+ * described in {@link InMemoryQuery} are supported, and every created or updated item is appended to
+ * a change feed in latest version mode. Each request waits for the configured latency before it
+ * runs, and is charged according to the given {@link RequestCharges}.
+ */
+public class InMemoryItemContainer implements ItemContainer {
+
+    private static final ObjectMapper OBJECT_MAPPER = JsonCodecs.mapper();
+
+    private static final int PAGE_SIZE = 100;
+
+    private static final int BULK_CONCURRENCY = 8;
+    private static final Duration BULK_FLUSH_INTERVAL = Duration.ofMillis(1);
+
+    private final String id;
+    private final String partitionKeyPath;
+    private final Duration latency;
+    private final RequestCharges charges;
+    /** Keyed by the JSON form of the partition key, whose hashCode does not agree with its equals. */
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+    private final AtomicLong lsn = new AtomicLong();
+    private final ConcurrentSkipListMap<Long, ObjectNode> changeLog = new ConcurrentSkipListMap<>();
+    private final Sinks.Many<Long> writes = Sinks.many().multicast().directBestEffort();
+
+    public InMemoryItemContainer(String id, String partitionKeyPath, Duration latency, RequestCharges charges) {
+        this.id = id;
+        this.partitionKeyPath = partitionKeyPath;
+        this.latency = latency;
+        this.charges = charges;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Number of items in the container.
+     */
+    public int size() {
+        int size = 0;
+        for (Partition partition : partitions.values()) {
+            synchronized (partition) {
+                size += partition.items.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public <T> Mono<ItemResult<T>> read(String itemId, PartitionKey partitionKey, Class<T> type) {
+        return respond(() -> {
+            Partition partition = partitions.get(partitionKey.toString());
+            Stored stored = null;
+            if (partition != null) {
+                synchronized (partition) {
+                    stored = partition.items.get(itemId);
+                }
+            }
+            return stored;
+        }).map(stored -> new ItemResult<>(convert(stored.document, type), eTag(stored), charges.read(stored.bytes),
+                latency));
+    }
+
+    @Override
+    public <T> Mono<FeedPage<T>> readMany(List<CosmosItemIdentity> items, Class<T> type) {
+        return respond(() -> {
+            List<T> results = new ArrayList<>();
+            double charge = 0;
+            for (CosmosItemIdentity item : items) {
+                Partition partition = partitions.get(item.getPartitionKey().toString());
+                Stored stored = null;
+                if (partition != null) {
+                    synchronized (partition) {
+                        stored = partition.items.get(item.getId());
+                    }
+                }
+                if (stored != null) {
+                    results.add(convert(stored.document, type));
+                    charge += charges.read(stored.bytes);
+                }
+            }
+            return new FeedPage<>(results, charge);
+        });
+    }
+
+    @Override
+    public <T> Flux<FeedPage<T>> query(SqlQuerySpec query, PartitionKey partitionKey, Class<T> type) {
+        return respond(() -> {
+            InMemoryQuery parsed = InMemoryQuery.parse(query);
+            List<ObjectNode> scanned = new ArrayList<>();
+            for (Partition partition : partitionKey != null
+                    ? Collections.singletonList(partitions.get(partitionKey.toString()))
+                    : partitions.values()) {
+                if (partition != null) {
+                    synchronized (partition) {
+                        for (Stored stored : partition.items.values()) {
+                            scanned.add(stored.document);
+                        }
+                    }
+                }
+            }
+            List<JsonNode> results = parsed.execute(scanned);
+            List<FeedPage<T>> pages = new ArrayList<>();
+            for (int start = 0; start == 0 || start < results.size(); start += PAGE_SIZE) {
+                List<T> page = new ArrayList<>();
+                int bytes = 0;
+                for (JsonNode result : results.subList(start, Math.min(results.size(), start + PAGE_SIZE))) {
+                    page.add(convert(result, type));
+                    bytes += charges == RequestCharges.NONE ? 0 : size(result);
+                }
+                pages.add(new FeedPage<>(page, charges.query(start == 0 ? scanned.size() : 0, bytes)));
+            }
+            return pages;
+        }).flatMapIterable(pages -> pages);
+    }
+
+    @Override
+    public <T> Mono<ItemResult<T>> create(T item, PartitionKey partitionKey) {
+        return write(CosmosItemOperationType.CREATE, null, item, partitionKey);
+    }
+
+    @Override
+    public <T> Mono<ItemResult<T>> upsert(T item, PartitionKey partitionKey) {
+        return write(CosmosItemOperationType.UPSERT, null, item, partitionKey);
+    }
+
+    @Override
+    public <T> Mono<ItemResult<T>> replace(String itemId, T item, PartitionKey partitionKey) {
+        return write(CosmosItemOperationType.REPLACE, itemId, item, partitionKey);
+    }
+
+    @Override
+    public Mono<ItemResult<Void>> delete(String itemId, PartitionKey partitionKey) {
+        return write(CosmosItemOperationType.DELETE, itemId, null, partitionKey);
+    }
+
+    @Override
+    public Mono<BatchResult> executeBatch(CosmosBatch batch) {
+        return respond(() -> {
+            List<Write> batchWrites = new ArrayList<>();
+            for (CosmosItemOperation operation : batch.getOperations()) {
+                batchWrites.add(Write.of(operation, this));
+            }
+            List<Outcome> outcomes = apply(batch.getPartitionKeyValue(), batchWrites);
+            List<OperationResult<Object>> results = new ArrayList<>();
+            double requestCharge = 0;
+            for (int i = 0; i < outcomes.size(); i++) {
+                results.add(new OperationResult<>(batch.getOperations().get(i), outcomes.get(i).statusCode,
+                        outcomes.get(i).requestCharge));
+                requestCharge += outcomes.get(i).requestCharge;
+            }
+            return new BatchResult(results, requestCharge);
+        });
+    }
+
+    @Override
+    public <TContext> Flux<OperationResult<TContext>> executeBulk(Flux<CosmosItemOperation> operations) {
+        return operations
+                // a partial page goes out after a moment, like the micro-batches of the bulk executor
+                .bufferTimeout(PAGE_SIZE, BULK_FLUSH_INTERVAL, true)
+                .flatMap(batch -> respond(() -> {
+                    List<OperationResult<TContext>> results = new ArrayList<>();
+                    for (CosmosItemOperation operation : batch) {
+                        Outcome outcome;
+                        try {
+                            outcome = apply(operation.getPartitionKeyValue(),
+                                    Collections.singletonList(Write.of(operation, this))).get(0);
+                        } catch (CosmosException e) {
+                            outcome = new Outcome(e.getStatusCode(), 0);
+                        }
+                        results.add(new OperationResult<>(operation, outcome.statusCode, outcome.requestCharge));
+                    }
+                    return results;
+                }), BULK_CONCURRENCY)
+                .flatMapIterable(results -> results);
+    }
+
+    @Override
+    public Flux<List<JsonNode>> changes(boolean fromBeginning) {
+        return Flux.defer(() -> {
+            AtomicLong position = new AtomicLong(fromBeginning ? 0 : lsn.get());
+            return Flux.merge(Flux.just(0L), writes.asFlux())
+                    .onBackpressureLatest()
+                    .publishOn(Schedulers.boundedElastic(), 1)
+                    .concatMapIterable(write -> drain(position));
+        });
+    }
+
+    /**
+     * Stores {@code items} as they are, without latency or charges, e.g. to seed the container before
+     * a benchmark.
+     */
+    public Mono<Void> load(Flux<? extends JsonNode> items) {
+        return items
+                .doOnNext(item -> {
+                    ObjectNode document = item.deepCopy();
+                    apply(partitionKey(document), Collections.singletonList(
+                            new Write(CosmosItemOperationType.UPSERT, document.path("id").asText(), document)));
+                })
+                .then();
+    }
+
+    private <T> Mono<ItemResult<T>> write(CosmosItemOperationType type, String itemId, T item,
+                                          PartitionKey partitionKey) {
+        return respond(() -> {
+            ObjectNode document = item != null ? document(item) : null;
+            Outcome outcome = apply(partitionKey, Collections.singletonList(
+                    new Write(type, itemId != null ? itemId : document.path("id").asText(), document))).get(0);
+            if (outcome.statusCode >= 300) {
+                throw BridgeInternal.createCosmosException(outcome.statusCode,
+                        type + " of item " + itemId + " in " + id + " failed");
+            }
+            return new ItemResult<>(item, outcome.requestCharge, latency);
+        });
+    }
+
+    /**
+     * Applies {@code batchWrites} to the partition atomically: either all succeed, or none is applied
+     * and the first failure is reported, the other writes getting 424 (failed dependency).
+     */
+    private List<Outcome> apply(PartitionKey partitionKey, List<Write> batchWrites) {
+        for (Write write : batchWrites) {
+            if (write.document != null && !partitionKey.toString().equals(partitionKey(write.document).toString())) {
+                throw BridgeInternal.createCosmosException(400, "Partition key of item " + write.id
+                        + " does not match " + partitionKey + " in " + id);
+            }
+        }
+        Partition partition = partitions.computeIfAbsent(partitionKey.toString(), key -> new Partition());
+        List<Outcome> outcomes = new ArrayList<>();
+        synchronized (partition) {
+            Map<String, Stored> changed = new LinkedHashMap<>();
+            int failed = -1;
+            for (Write write : batchWrites) {
+                Stored existing = changed.containsKey(write.id) ? changed.get(write.id) : partition.items.get(write.id);
+                Stored next = write.document != null ? new Stored(write.document) : null;
+                Outcome outcome;
+                if (write.ifMatch != null && existing != null && !write.ifMatch.equals(eTag(existing))) {
+                    // the item changed since the version the write is conditional on
+                    outcomes.add(new Outcome(412, charges.read(0)));
+                    failed = outcomes.size() - 1;
+                    break;
+                }
+                switch (write.type) {
+                    case CREATE:
+                        outcome = existing != null ? new Outcome(409, charges.read(0)) : new Outcome(201, charges.write(next.bytes));
+                        break;
+                    case UPSERT:
+                        outcome = existing != null ? new Outcome(200, charges.replace(next.bytes)) : new Outcome(201, charges.write(next.bytes));
+                        break;
+                    case REPLACE:
+                        outcome = existing == null ? new Outcome(404, charges.read(0)) : new Outcome(200, charges.replace(next.bytes));
+                        break;
+                    case DELETE:
+                        outcome = existing == null ? new Outcome(404, charges.read(0)) : new Outcome(204, charges.write(existing.bytes));
+                        break;
+                    case READ:
+                        outcome = existing == null ? new Outcome(404, charges.read(0)) : new Outcome(200, charges.read(existing.bytes));
+                        next = existing;
+                        break;
+                    default:
+                        outcome = new Outcome(400, 0);
+                        next = existing;
+                }
+                outcomes.add(outcome);
+                if (outcome.statusCode >= 300) {
+                    failed = outcomes.size() - 1;
+                    break;
+                }
+                if (write.type != CosmosItemOperationType.READ) {
+                    changed.put(write.id, next);
+                }
+            }
+            if (failed >= 0) {
+                List<Outcome> rolledBack = new ArrayList<>();
+                for (int i = 0; i < batchWrites.size(); i++) {
+                    rolledBack.add(i == failed ? outcomes.get(i) : new Outcome(424, 0));
+                }
+                return rolledBack;
+            }
+            for (Map.Entry<String, Stored> entry : changed.entrySet()) {
+                commit(partition, entry.getKey(), entry.getValue());
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * Stores the new version of an item, or removes it when {@code next} is {@code null}, and records
+     * it in the change feed. Must be called with the partition locked.
+     */
+    private void commit(Partition partition, String itemId, Stored next) {
+        synchronized (changeLog) {
+            Stored previous = next != null ? partition.items.put(itemId, next) : partition.items.remove(itemId);
+            if (previous != null) {
+                changeLog.remove(previous.lsn);
+            }
+            if (next != null) {
+                next.lsn = lsn.incrementAndGet();
+                next.document.put("_etag", "\"" + next.lsn + "\"");
+                next.document.put("_ts", System.currentTimeMillis() / 1000);
+                changeLog.put(next.lsn, next.document);
+                writes.tryEmitNext(next.lsn);
+            }
+        }
+    }
+
+    private List<List<JsonNode>> drain(AtomicLong position) {
+        List<List<JsonNode>> batches = new ArrayList<>();
+        List<JsonNode> batch = new ArrayList<>();
+        for (Map.Entry<Long, ObjectNode> change : changeLog.tailMap(position.get(), false).entrySet()) {
+            batch.add(change.getValue().deepCopy());
+            position.set(change.getKey());
+            if (batch.size() == PAGE_SIZE) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private <R> Mono<R> respond(Callable<R> operation) {
+        Mono<R> result = Mono.fromCallable(operation);
+        return latency.isZero() ? result : Mono.delay(latency).then(result);
+    }
+
+    private PartitionKey partitionKey(JsonNode document) {
+        return new PartitionKey(document.at(partitionKeyPath).asText());
+    }
+
+    private ObjectNode document(Object item) {
+        JsonNode document = OBJECT_MAPPER.valueToTree(item);
+        if (!document.isObject() || !document.path("id").isTextual()) {
+            throw BridgeInternal.createCosmosException(400, "Item written to " + id + " has no string id");
+        }
+        return (ObjectNode) document;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T convert(JsonNode node, Class<T> type) {
+        if (type.isInstance(node)) {
+            return (T) node.deepCopy();
+        }
+        try {
+            return JsonCodecs.treeToValue(node, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot read " + node.path("id") + " as " + type.getSimpleName(), e);
+        }
+    }
+
+    private static String eTag(Stored stored) {
+        return stored.document.path("_etag").asText(null);
+    }
+
+    private static int size(JsonNode node) {
+        try {
+            return OBJECT_MAPPER.writeValueAsBytes(node).length;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static final class Partition {
+        final Map<String, Stored> items = new HashMap<>();
+    }
+
+    private static final class Stored {
+        final ObjectNode document;
+        final int bytes;
+        long lsn;
+
+        Stored(ObjectNode document) {
+            this.document = document;
+            this.bytes = size(document);
+        }
+    }
+
+    private static final class Write {
+        final CosmosItemOperationType type;
+        final String id;
+        final ObjectNode document;
+        // the version the write is conditional on, if any
+        final String ifMatch;
+
+        Write(CosmosItemOperationType type, String id, ObjectNode document) {
+            this(type, id, document, null);
+        }
+
+        Write(CosmosItemOperationType type, String id, ObjectNode document, String ifMatch) {
+            this.type = type;
+            this.id = id;
+            this.document = document;
+            this.ifMatch = ifMatch;
+        }
+
+        static Write of(CosmosItemOperation operation, InMemoryItemContainer container) {
+            CosmosItemOperationType type = operation.getOperationType();
+            boolean hasItem = type == CosmosItemOperationType.CREATE || type == CosmosItemOperationType.UPSERT
+                    || type == CosmosItemOperationType.REPLACE;
+            ObjectNode document = hasItem ? container.document(operation.getItem()) : null;
+            RequestOptions options = operation instanceof ItemBatchOperation
+                    ? ((ItemBatchOperation<?>) operation).getRequestOptions() : null;
+            return new Write(type, document != null ? document.path("id").asText() : operation.getId(), document,
+                    options != null ? options.getIfMatchETag() : null);
+        }
+    }
+
+    private static final class Outcome {
+        final int statusCode;
+        final double requestCharge;
+
+        Outcome(int statusCode, double requestCharge) {
+            this.statusCode = statusCode;
+            this.requestCharge = requestCharge;
+        }
+    }
+}
@@ -0,0 +1,708 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import com.azure.cosmos.implementation.Utils;
+import com.azure.cosmos.models.SqlParameter;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The subset of the Cosmos DB query language {@link InMemoryItemContainer} understands:
+ * <pre>
+ * SELECT [VALUE] [TOP n] * | expression [AS name], ... | COUNT(1) [AS name]
+ * FROM alias
+ * [WHERE condition]
+ * [ORDER BY expression [ASC|DESC], ...]
+ * </pre>
+ * where a condition combines comparisons ({@code = != <> < > <= >=}, {@code [NOT] IN (...)}) with
+ * {@code AND}, {@code OR}, {@code NOT} and parentheses, and an expression is a property path, a
+ * literal, a {@code @parameter} or one of {@code IS_DEFINED}, {@code STARTSWITH}, {@code CONTAINS}
+ * and {@code ARRAY_CONTAINS}. Anything else, joins and {@code GROUP BY} included, is rejected with an
+ * {@link IllegalArgumentException}.
+ */
+final class InMemoryQuery {
+
+    private static final ObjectMapper OBJECT_MAPPER = Utils.getSimpleObjectMapper();
+
+    private final boolean value;
+    private final int top;
+    private final List<Projection> projections;
+    private final Expression filter;
+    private final List<Order> orderBy;
+
+    private InMemoryQuery(boolean value, int top, List<Projection> projections, Expression filter,
+                          List<Order> orderBy) {
+        this.value = value;
+        this.top = top;
+        this.projections = projections;
+        this.filter = filter;
+        this.orderBy = orderBy;
+    }
+
+    static InMemoryQuery parse(SqlQuerySpec query) {
+        return new Parser(query.getQueryText(), parameters(query)).parseQuery();
+    }
+
+    /**
+     * The values {@code query} pins its properties to, by path (e.g. {@code /customerId}), if it is a
+     * {@code SELECT *} whose filter is nothing but {@code AND}ed {@code path = value} and
+     * {@code path IN (value, ...)} terms on distinct paths, with literals or parameters for values.
+     * {@code null} for any other query, including one that does not parse.
+     */
+    static Map<String, List<JsonNode>> equalities(SqlQuerySpec query) {
+        try {
+            return new Parser(query.getQueryText(), parameters(query)).parseEqualities();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, JsonNode> parameters(SqlQuerySpec query) {
+        Map<String, JsonNode> parameters = new HashMap<>();
+        for (SqlParameter parameter : query.getParameters()) {
+            parameters.put(parameter.getName(), OBJECT_MAPPER.valueToTree(parameter.getValue(Object.class)));
+        }
+        return parameters;
+    }
+
+    /**
+     * Evaluates the query over {@code items}, which it does not modify.
+     */
+    List<JsonNode> execute(Collection<? extends JsonNode> items) {
+        List<JsonNode> matching = new ArrayList<>();
+        for (JsonNode item : items) {
+            if (filter == null || filter.evaluate(item) == BooleanNode.TRUE) {
+                matching.add(item);
+            }
+        }
+        if (!projections.isEmpty() && projections.get(0).count) {
+            LongNode count = LongNode.valueOf(matching.size());
+            List<JsonNode> result = new ArrayList<>();
+            result.add(value ? count : JsonNodeFactory.instance.objectNode().set(projections.get(0).name, count));
+            return result;
+        }
+        if (!orderBy.isEmpty()) {
+            matching.sort((left, right) -> {
+                for (Order order : orderBy) {
+                    int comparison = compare(order.expression.evaluate(left), order.expression.evaluate(right));
+                    if (comparison != 0) {
+                        return order.descending ? -comparison : comparison;
+                    }
+                }
+                return 0;
+            });
+        }
+        if (top >= 0 && matching.size() > top) {
+            matching = new ArrayList<>(matching.subList(0, top));
+        }
+        if (projections.isEmpty()) {
+            return matching;
+        }
+        List<JsonNode> results = new ArrayList<>(matching.size());
+        for (JsonNode item : matching) {
+            if (value) {
+                JsonNode projected = projections.get(0).expression.evaluate(item);
+                if (!projected.isMissingNode()) {
+                    results.add(projected);
+                }
+                continue;
+            }
+            ObjectNode projected = JsonNodeFactory.instance.objectNode();
+            for (Projection projection : projections) {
+                JsonNode field = projection.expression.evaluate(item);
+                if (!field.isMissingNode()) {
+                    projected.set(projection.name, field);
+                }
+            }
+            results.add(projected);
+        }
+        return results;
+    }
+
+    /**
+     * Orders values the way the service does: undefined, null, booleans, numbers, then strings.
+     */
+    static int compare(JsonNode left, JsonNode right) {
+        int leftRank = rank(left);
+        int rightRank = rank(right);
+        if (leftRank != rightRank) {
+            return Integer.compare(leftRank, rightRank);
+        }
+        if (left.isNumber()) {
+            return left.decimalValue().compareTo(right.decimalValue());
+        }
+        if (left.isBoolean()) {
+            return Boolean.compare(left.booleanValue(), right.booleanValue());
+        }
+        if (left.isTextual()) {
+            return left.textValue().compareTo(right.textValue());
+        }
+        return 0;
+    }
+
+    private static int rank(JsonNode node) {
+        if (node.isMissingNode()) {
+            return 0;
+        }
+        if (node.isNull()) {
+            return 1;
+        }
+        if (node.isBoolean()) {
+            return 2;
+        }
+        if (node.isNumber()) {
+            return 3;
+        }
+        if (node.isTextual()) {
+            return 4;
+        }
+        return 5;
+    }
+
+    private static boolean equal(JsonNode left, JsonNode right) {
+        if (left.isNumber() && right.isNumber()) {
+            return left.decimalValue().compareTo(right.decimalValue()) == 0;
+        }
+        return left.equals(right);
+    }
+
+    /**
+     * Result of comparing two values: undefined unless both are of the same comparable type.
+     */
+    private static JsonNode comparison(String operator, JsonNode left, JsonNode right) {
+        if (left.isMissingNode() || right.isMissingNode()) {
+            return MissingNode.getInstance();
+        }
+        if (operator.equals("=")) {
+            return BooleanNode.valueOf(equal(left, right));
+        }
+        if (operator.equals("!=") || operator.equals("<>")) {
+            return BooleanNode.valueOf(!equal(left, right));
+        }
+        if (rank(left) != rank(right) || rank(left) > 4 || left.isNull()) {
+            return MissingNode.getInstance();
+        }
+        int comparison = compare(left, right);
+        switch (operator) {
+            case "<":
+                return BooleanNode.valueOf(comparison < 0);
+            case ">":
+                return BooleanNode.valueOf(comparison > 0);
+            case "<=":
+                return BooleanNode.valueOf(comparison <= 0);
+            default:
+                return BooleanNode.valueOf(comparison >= 0);
+        }
+    }
+
+    private interface Expression {
+        JsonNode evaluate(JsonNode item);
+    }
+
+    private static final class Projection {
+        final Expression expression;
+        final String name;
+        final boolean count;
+
+        Projection(Expression expression, String name, boolean count) {
+            this.expression = expression;
+            this.name = name;
+            this.count = count;
+        }
+    }
+
+    private static final class Order {
+        final Expression expression;
+        final boolean descending;
+
+        Order(Expression expression, boolean descending) {
+            this.expression = expression;
+            this.descending = descending;
+        }
+    }
+
+    private static final class Parser {
+
+        private final String text;
+        private final Map<String, JsonNode> parameters;
+        private final List<String> tokens = new ArrayList<>();
+        private int position;
+        private String alias;
+
+        Parser(String text, Map<String, JsonNode> parameters) {
+            this.text = text;
+            this.parameters = parameters;
+            tokenize();
+        }
+
+        InMemoryQuery parseQuery() {
+            expectKeyword("SELECT");
+            boolean value = acceptKeyword("VALUE");
+            int top = -1;
+            if (acceptKeyword("TOP")) {
+                String count = next();
+                top = count.startsWith("@") ? parameter(count).asInt() : Integer.parseInt(count);
+            }
+            int projectionStart = position;
+            skipUntilKeyword("FROM");
+            expectKeyword("FROM");
+            alias = next();
+            int afterFrom = position;
+
+            position = projectionStart;
+            List<Projection> projections = new ArrayList<>();
+            if (accept("*")) {
+                if (value) {
+                    throw unsupported("SELECT VALUE *");
+                }
+            } else {
+                do {
+                    projections.add(parseProjection(projections.size()));
+                } while (accept(","));
+            }
+            boolean aggregate = false;
+            for (Projection projection : projections) {
+                aggregate |= projection.count;
+            }
+            if (aggregate && projections.size() > 1) {
+                throw unsupported("aggregates mixed with other values (GROUP BY)");
+            }
+            if (value && projections.size() != 1) {
+                throw unsupported("SELECT VALUE with several values");
+            }
+            expectKeyword("FROM");
+            position = afterFrom;
+
+            Expression filter = null;
+            if (acceptKeyword("WHERE")) {
+                filter = parseOr();
+            }
+            List<Order> orderBy = new ArrayList<>();
+            if (acceptKeyword("ORDER")) {
+                expectKeyword("BY");
+                do {
+                    Expression expression = parseOperand();
+                    boolean descending = acceptKeyword("DESC");
+                    if (!descending) {
+                        acceptKeyword("ASC");
+                    }
+                    orderBy.add(new Order(expression, descending));
+                } while (accept(","));
+            }
+            if (position < tokens.size()) {
+                throw unsupported("'" + tokens.get(position) + "'");
+            }
+            return new InMemoryQuery(value, top, projections, filter, orderBy);
+        }
+
+        Map<String, List<JsonNode>> parseEqualities() {
+            expectKeyword("SELECT");
+            if (!accept("*")) {
+                return null;
+            }
+            expectKeyword("FROM");
+            alias = next();
+            if (!acceptKeyword("WHERE")) {
+                return null;
+            }
+            Map<String, List<JsonNode>> equalities = new LinkedHashMap<>();
+            do {
+                String path = acceptPath();
+                if (path == null || equalities.containsKey(path)) {
+                    return null;
+                }
+                List<JsonNode> values = new ArrayList<>();
+                if (accept("=")) {
+                    values.add(acceptConstant());
+                } else if (acceptKeyword("IN")) {
+                    expect("(");
+                    do {
+                        values.add(acceptConstant());
+                    } while (accept(","));
+                    expect(")");
+                } else {
+                    return null;
+                }
+                if (values.contains(null)) {
+                    return null;
+                }
+                equalities.put(path, values);
+            } while (acceptKeyword("AND"));
+            return position == tokens.size() ? equalities : null;
+        }
+
+        /**
+         * A property path such as {@code c.address["city"]} as a JSON pointer, or {@code null}.
+         */
+        private String acceptPath() {
+            if (!accept(alias)) {
+                return null;
+            }
+            StringBuilder path = new StringBuilder();
+            while (true) {
+                if (accept(".")) {
+                    path.append('/').append(next());
+                } else if (accept("[")) {
+                    String segment = next();
+                    if (!segment.startsWith("'") && !segment.startsWith("\"")) {
+                        return null;
+                    }
+                    path.append('/').append(segment, 1, segment.length() - 1);
+                    expect("]");
+                } else {
+                    break;
+                }
+            }
+            return path.length() == 0 ? null : path.toString();
+        }
+
+        /**
+         * A string, number or boolean literal or a parameter, or {@code null}.
+         */
+        private JsonNode acceptConstant() {
+            String token = peek();
+            if (token == null) {
+                return null;
+            }
+            JsonNode constant;
+            if (token.startsWith("@")) {
+                constant = parameter(token);
+            } else if (token.startsWith("'") || token.startsWith("\"")) {
+                constant = TextNode.valueOf(token.substring(1, token.length() - 1));
+            } else if (Character.isDigit(token.charAt(0)) || token.charAt(0) == '-') {
+                constant = JsonNodeFactory.instance.numberNode(new BigDecimal(token));
+            } else if (token.equalsIgnoreCase("true") || token.equalsIgnoreCase("false")) {
+                constant = BooleanNode.valueOf(token.equalsIgnoreCase("true"));
+            } else {
+                return null;
+            }
+            position++;
+            return constant;
+        }
+
+        private Projection parseProjection(int index) {
+            if (peekKeyword("COUNT")) {
+                next();
+                expect("(");
+                next();
+                expect(")");
+                return new Projection(null, acceptKeyword("AS") ? next() : "$" + (index + 1), true);
+            }
+            Expression expression = parseOperand();
+            String name = acceptKeyword("AS") ? next() : null;
+            if (name == null) {
+                String last = tokens.get(position - 1);
+                name = isIdentifier(last) ? last : "$" + (index + 1);
+            }
+            return new Projection(expression, name, false);
+        }
+
+        private Expression parseOr() {
+            Expression left = parseAnd();
+            while (acceptKeyword("OR")) {
+                Expression l = left;
+                Expression r = parseAnd();
+                left = item -> {
+                    JsonNode a = l.evaluate(item);
+                    JsonNode b = r.evaluate(item);
+                    if (a == BooleanNode.TRUE || b == BooleanNode.TRUE) {
+                        return BooleanNode.TRUE;
+                    }
+                    return a == BooleanNode.FALSE && b == BooleanNode.FALSE ? BooleanNode.FALSE : MissingNode.getInstance();
+                };
+            }
+            return left;
+        }
+
+        private Expression parseAnd() {
+            Expression left = parseNot();
+            while (acceptKeyword("AND")) {
+                Expression l = left;
+                Expression r = parseNot();
+                left = item -> {
+                    JsonNode a = l.evaluate(item);
+                    JsonNode b = r.evaluate(item);
+                    if (a == BooleanNode.FALSE || b == BooleanNode.FALSE) {
+                        return BooleanNode.FALSE;
+                    }
+                    return a == BooleanNode.TRUE && b == BooleanNode.TRUE ? BooleanNode.TRUE : MissingNode.getInstance();
+                };
+            }
+            return left;
+        }
+
+        private Expression parseNot() {
+            if (acceptKeyword("NOT")) {
+                Expression operand = parseNot();
+                return item -> {
+                    JsonNode result = operand.evaluate(item);
+                    return result.isBoolean() ? BooleanNode.valueOf(!result.booleanValue()) : MissingNode.getInstance();
+                };
+            }
+            return parseComparison();
+        }
+
+        private Expression parseComparison() {
+            Expression left = parseOperand();
+            String operator = peek();
+            if (operator != null && (operator.equals("=") || operator.equals("!=") || operator.equals("<>")
+                    || operator.equals("<") || operator.equals(">") || operator.equals("<=") || operator.equals(">="))) {
+                next();
+                Expression right = parseOperand();
+                return item -> comparison(operator, left.evaluate(item), right.evaluate(item));
+            }
+            boolean negated = false;
+            if (peekKeyword("NOT") && position + 1 < tokens.size() && tokens.get(position + 1).equalsIgnoreCase("IN")) {
+                next();
+                negated = true;
+            }
+            if (acceptKeyword("IN")) {
+                expect("(");
+                List<Expression> candidates = new ArrayList<>();
+                do {
+                    candidates.add(parseOperand());
+                } while (accept(","));
+                expect(")");
+                boolean not = negated;
+                return item -> {
+                    JsonNode value = left.evaluate(item);
+                    if (value.isMissingNode()) {
+                        return MissingNode.getInstance();
+                    }
+                    for (Expression candidate : candidates) {
+                        if (equal(value, candidate.evaluate(item))) {
+                            return BooleanNode.valueOf(!not);
+                        }
+                    }
+                    return BooleanNode.valueOf(not);
+                };
+            }
+            return left;
+        }
+
+        private Expression parseOperand() {
+            String token = next();
+            if (token.equals("(")) {
+                Expression inner = parseOr();
+                expect(")");
+                return inner;
+            }
+            if (token.startsWith("@")) {
+                JsonNode parameter = parameter(token);
+                return item -> parameter;
+            }
+            if (token.startsWith("'") || token.startsWith("\"")) {
+                JsonNode literal = TextNode.valueOf(token.substring(1, token.length() - 1));
+                return item -> literal;
+            }
+            if (Character.isDigit(token.charAt(0)) || token.charAt(0) == '-') {
+                JsonNode literal = JsonNodeFactory.instance.numberNode(new BigDecimal(token));
+                return item -> literal;
+            }
+            switch (token.toLowerCase(Locale.ROOT)) {
+                case "true":
+                    return item -> BooleanNode.TRUE;
+                case "false":
+                    return item -> BooleanNode.FALSE;
+                case "null":
+                    return item -> NullNode.getInstance();
+                case "undefined":
+                    return item -> MissingNode.getInstance();
+                default:
+                    break;
+            }
+            if (peek() != null && peek().equals("(")) {
+                return parseFunction(token);
+            }
+            if (!token.equals(alias)) {
+                throw unsupported("identifier '" + token + "', expected a path starting with " + alias);
+            }
+            List<String> path = new ArrayList<>();
+            while (true) {
+                if (accept(".")) {
+                    path.add(next());
+                } else if (accept("[")) {
+                    String segment = next();
+                    path.add(segment.startsWith("'") || segment.startsWith("\"")
+                            ? segment.substring(1, segment.length() - 1) : segment);
+                    expect("]");
+                } else {
+                    break;
+                }
+            }
+            return item -> {
+                JsonNode node = item;
+                for (String segment : path) {
+                    node = node.isArray() && !segment.isEmpty() && Character.isDigit(segment.charAt(0))
+                            ? node.path(Integer.parseInt(segment)) : node.path(segment);
+                }
+                return node;
+            };
+        }
+
+        private Expression parseFunction(String name) {
+            expect("(");
+            List<Expression> arguments = new ArrayList<>();
+            if (!accept(")")) {
+                do {
+                    arguments.add(parseOr());
+                } while (accept(","));
+                expect(")");
+            }
+            switch (name.toUpperCase(Locale.ROOT)) {
+                case "IS_DEFINED":
+                    return item -> BooleanNode.valueOf(!arguments.get(0).evaluate(item).isMissingNode());
+                case "STARTSWITH":
+                    return item -> {
+                        JsonNode value = arguments.get(0).evaluate(item);
+                        JsonNode prefix = arguments.get(1).evaluate(item);
+                        return value.isTextual() && prefix.isTextual()
+                                ? BooleanNode.valueOf(value.textValue().startsWith(prefix.textValue()))
+                                : MissingNode.getInstance();
+                    };
+                case "CONTAINS":
+                    return item -> {
+                        JsonNode value = arguments.get(0).evaluate(item);
+                        JsonNode part = arguments.get(1).evaluate(item);
+                        return value.isTextual() && part.isTextual()
+                                ? BooleanNode.valueOf(value.textValue().contains(part.textValue()))
+                                : MissingNode.getInstance();
+                    };
+                case "ARRAY_CONTAINS":
+                    return item -> {
+                        JsonNode array = arguments.get(0).evaluate(item);
+                        JsonNode element = arguments.get(1).evaluate(item);
+                        if (!array.isArray()) {
+                            return MissingNode.getInstance();
+                        }
+                        for (JsonNode candidate : array) {
+                            if (equal(candidate, element)) {
+                                return BooleanNode.TRUE;
+                            }
+                        }
+                        return BooleanNode.FALSE;
+                    };
+                default:
+                    throw unsupported("function " + name);
+            }
+        }
+
+        private JsonNode parameter(String name) {
+            JsonNode parameter = parameters.get(name);
+            if (parameter == null) {
+                throw new IllegalArgumentException("Parameter " + name + " is not defined in query: " + text);
+            }
+            return parameter;
+        }
+
+        private void tokenize() {
+            int i = 0;
+            while (i < text.length()) {
+                char c = text.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (c == '\'' || c == '"') {
+                    int end = text.indexOf(c, i + 1);
+                    if (end < 0) {
+                        throw new IllegalArgumentException("Unterminated string in query: " + text);
+                    }
+                    tokens.add(text.substring(i, end + 1));
+                    i = end + 1;
+                } else if (Character.isLetterOrDigit(c) || c == '_' || c == '@' || c == '$'
+                        || (c == '-' && i + 1 < text.length() && Character.isDigit(text.charAt(i + 1)))) {
+                    int start = i++;
+                    while (i < text.length() && (Character.isLetterOrDigit(text.charAt(i)) || text.charAt(i) == '_'
+                            || (Character.isDigit(text.charAt(start)) && text.charAt(i) == '.'))) {
+                        i++;
+                    }
+                    tokens.add(text.substring(start, i));
+                } else if ((c == '!' || c == '<' || c == '>') && i + 1 < text.length()
+                        && (text.charAt(i + 1) == '=' || (c == '<' && text.charAt(i + 1) == '>'))) {
+                    tokens.add(text.substring(i, i + 2));
+                    i += 2;
+                } else {
+                    tokens.add(String.valueOf(c));
+                    i++;
+                }
+            }
+        }
+
+        private String peek() {
+            return position < tokens.size() ? tokens.get(position) : null;
+        }
+
+        private String next() {
+            if (position >= tokens.size()) {
+                throw new IllegalArgumentException("Unexpected end of query: " + text);
+            }
+            return tokens.get(position++);
+        }
+
+        private boolean accept(String symbol) {
+            if (symbol.equals(peek())) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String symbol) {
+            if (!accept(symbol)) {
+                throw new IllegalArgumentException("Expected '" + symbol + "' at '" + peek() + "' in query: " + text);
+            }
+        }
+
+        private boolean peekKeyword(String keyword) {
+            return keyword.equalsIgnoreCase(peek());
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            if (peekKeyword(keyword)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expectKeyword(String keyword) {
+            if (!acceptKeyword(keyword)) {
+                throw new IllegalArgumentException("Expected " + keyword + " at '" + peek() + "' in query: " + text);
+            }
+        }
+
+        private void skipUntilKeyword(String keyword) {
+            int depth = 0;
+            while (position < tokens.size() && (depth > 0 || !peekKeyword(keyword))) {
+                String token = next();
+                depth += token.equals("(") ? 1 : token.equals(")") ? -1 : 0;
+            }
+        }
+
+        private static boolean isIdentifier(String token) {
+            return Character.isLetter(token.charAt(0)) || token.charAt(0) == '_';
+        }
+
+        private IllegalArgumentException unsupported(String what) {
+            return new IllegalArgumentException("Unsupported " + what + " in query: " + text);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import com.azure.cosmos.models.CosmosBatch;
+import com.azure.cosmos.models.CosmosItemIdentity;
+import com.azure.cosmos.models.CosmosItemOperation;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.fasterxml.jackson.databind.JsonNode;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * The container operations the repositories are written against.
+ * <p>
+ * {@link CosmosItemContainer} forwards them to a Cosmos DB container, {@link InMemoryItemContainer}
+ * runs them in process, so the same repository code can be exercised with or without an account.
+ * Writes fail with a {@link com.azure.cosmos.CosmosException} carrying the status code the service
+ * would return (409 for a create of an existing item, 404 for a replace or delete of a missing one).
+ */
+public interface ItemContainer {
+
+    String getId();
+
+    /**
+     * Reads an item, or completes empty when there is none with that id and partition key.
+     */
+    <T> Mono<ItemResult<T>> read(String id, PartitionKey partitionKey, Class<T> type);
+
+    /**
+     * Reads the items that exist among {@code items}, as one page.
+     */
+    <T> Mono<FeedPage<T>> readMany(List<CosmosItemIdentity> items, Class<T> type);
+
+    /**
+     * Runs {@code query} within {@code partitionKey}, or across all partitions when it is {@code null}.
+     */
+    <T> Flux<FeedPage<T>> query(SqlQuerySpec query, PartitionKey partitionKey, Class<T> type);
+
+    <T> Mono<ItemResult<T>> create(T item, PartitionKey partitionKey);
+
+    <T> Mono<ItemResult<T>> upsert(T item, PartitionKey partitionKey);
+
+    <T> Mono<ItemResult<T>> replace(String id, T item, PartitionKey partitionKey);
+
+    Mono<ItemResult<Void>> delete(String id, PartitionKey partitionKey);
+
+    /**
+     * Applies all operations of {@code batch}, all within its partition key, or none of them.
+     */
+    Mono<BatchResult> executeBatch(CosmosBatch batch);
+
+    /**
+     * Applies each of {@code operations} independently, and emits their results in completion order.
+     */
+    <TContext> Flux<OperationResult<TContext>> executeBulk(Flux<CosmosItemOperation> operations);
+
+    /**
+     * The change feed in latest version mode: an endless stream of batches of created or updated
+     * items, from the first write if {@code fromBeginning} is set, from now otherwise.
+     */
+    Flux<List<JsonNode>> changes(boolean fromBeginning);
+}
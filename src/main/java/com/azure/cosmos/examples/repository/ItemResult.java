@@ -0,0 +1,51 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import java.time.Duration;
+
+/**
+ * Outcome of a point operation on an {@link ItemContainer}: the item, and what the operation cost.
+ */
+public final class ItemResult<T> {
+
+    private final T item;
+    private final String eTag;
+    private final double requestCharge;
+    private final Duration duration;
+
+    public ItemResult(T item, double requestCharge, Duration duration) {
+        this(item, null, requestCharge, duration);
+    }
+
+    public ItemResult(T item, String eTag, double requestCharge, Duration duration) {
+        this.item = item;
+        this.eTag = eTag;
+        this.requestCharge = requestCharge;
+        this.duration = duration;
+    }
+
+    /**
+     * The item read, or the item as it was written; {@code null} for a delete.
+     */
+    public T getItem() {
+        return item;
+    }
+
+    /**
+     * The version of the item read or written, to make a later write of it conditional on; {@code null}
+     * for a delete, or when the container does not report it.
+     */
+    public String getETag() {
+        return eTag;
+    }
+
+    public double getRequestCharge() {
+        return requestCharge;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+}
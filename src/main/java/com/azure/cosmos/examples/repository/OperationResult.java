@@ -0,0 +1,67 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import com.azure.cosmos.models.CosmosItemOperation;
+
+import java.time.Duration;
+
+/**
+ * Outcome of one operation of a bulk request or transactional batch.
+ */
+public final class OperationResult<TContext> {
+
+    private final CosmosItemOperation operation;
+    private final int statusCode;
+    private final double requestCharge;
+    private final Duration duration;
+    private final Duration retryAfter;
+
+    public OperationResult(CosmosItemOperation operation, int statusCode, double requestCharge) {
+        this(operation, statusCode, requestCharge, null, null);
+    }
+
+    public OperationResult(CosmosItemOperation operation, int statusCode, double requestCharge, Duration duration,
+                           Duration retryAfter) {
+        this.operation = operation;
+        this.statusCode = statusCode;
+        this.requestCharge = requestCharge;
+        this.duration = duration;
+        this.retryAfter = retryAfter;
+    }
+
+    public CosmosItemOperation getOperation() {
+        return operation;
+    }
+
+    public TContext getContext() {
+        return operation.getContext();
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public boolean isSuccessStatusCode() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    public double getRequestCharge() {
+        return requestCharge;
+    }
+
+    /**
+     * How long the request that carried the operation took, or {@code null} if it is not known.
+     */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * How long the service asked to wait before retrying a throttled operation, or {@code null}.
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,208 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import com.azure.cosmos.models.CosmosBatch;
+import com.azure.cosmos.models.CosmosItemIdentity;
+import com.azure.cosmos.models.CosmosItemOperation;
+import com.azure.cosmos.models.PartitionKey;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ItemContainer} that runs queries which only select items by id and partition key as point
+ * reads, and everything else on the container it wraps.
+ * <p>
+ * A query is rewritten when it is a {@code SELECT *} whose filter pins {@code id} with {@code =} or
+ * {@code IN} and pins the partition key too, either in the filter or through the partition key it
+ * is scoped to, and has no other terms (see {@link InMemoryQuery#equalities}). A single item is then
+ * read with {@link ItemContainer#read}, several with {@link ItemContainer#readMany}, and the results
+ * come back as one {@link FeedPage}, as a query for them would. How many queries were rewritten is
+ * counted, for logging how much of a workload could have been point reads in the first place.
+ */
+public class PointReadItemContainer implements ItemContainer {
+
+    private static final String ID_PATH = "/id";
+
+    private static Logger logger = LoggerFactory.getLogger(PointReadItemContainer.class);
+
+    private final ItemContainer container;
+    private final String partitionKeyPath;
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong rewrittenQueries = new AtomicLong();
+
+    public PointReadItemContainer(ItemContainer container, String partitionKeyPath) {
+        this.container = container;
+        this.partitionKeyPath = partitionKeyPath;
+    }
+
+    public ItemContainer getContainer() {
+        return container;
+    }
+
+    /**
+     * Number of queries run through this container.
+     */
+    public long getQueryCount() {
+        return queries.get();
+    }
+
+    /**
+     * Number of those queries that were run as point reads.
+     */
+    public long getRewrittenQueryCount() {
+        return rewrittenQueries.get();
+    }
+
+    @Override
+    public String getId() {
+        return container.getId();
+    }
+
+    @Override
+    public <T> Mono<ItemResult<T>> read(String id, PartitionKey partitionKey, Class<T> type) {
+        return container.read(id, partitionKey, type);
+    }
+
+    @Override
+    public <T> Mono<FeedPage<T>> readMany(List<CosmosItemIdentity> items, Class<T> type) {
+        return container.readMany(items, type);
+    }
+
+    @Override
+    public <T> Flux<FeedPage<T>> query(SqlQuerySpec query, PartitionKey partitionKey, Class<T> type) {
+        queries.incrementAndGet();
+        List<CosmosItemIdentity> items = pointReads(query, partitionKey);
+        if (items == null) {
+            return container.query(query, partitionKey, type);
+        }
+        rewrittenQueries.incrementAndGet();
+        logger.debug("running query on {} as {} point reads: {}", getId(), items.size(), query.getQueryText());
+        if (items.isEmpty()) {
+            return Flux.just(new FeedPage<>(Collections.emptyList(), 0));
+        }
+        if (items.size() > 1) {
+            return container.readMany(items, type).flux();
+        }
+        CosmosItemIdentity item = items.get(0);
+        return container.read(item.getId(), item.getPartitionKey(), type)
+                .map(result -> new FeedPage<>(Collections.singletonList(result.getItem()), result.getRequestCharge()))
+                .defaultIfEmpty(new FeedPage<>(Collections.emptyList(), 0))
+                .flux();
+    }
+
+    /**
+     * The items {@code query}, scoped to {@code scope} if that is not {@code null}, selects, or
+     * {@code null} if it cannot be run as point reads.
+     */
+    List<CosmosItemIdentity> pointReads(SqlQuerySpec query, PartitionKey scope) {
+        Map<String, List<JsonNode>> equalities = InMemoryQuery.equalities(query);
+        if (equalities == null || !equalities.containsKey(ID_PATH)) {
+            return null;
+        }
+        boolean idIsPartitionKey = ID_PATH.equals(partitionKeyPath);
+        List<JsonNode> partitionKeyValues = idIsPartitionKey ? null : equalities.get(partitionKeyPath);
+        if (equalities.size() != (partitionKeyValues == null ? 1 : 2)
+                || !idIsPartitionKey && partitionKeyValues == null && scope == null) {
+            // other terms filter further, or the partition of the items is not known
+            return null;
+        }
+        List<PartitionKey> partitionKeys = new ArrayList<>();
+        if (partitionKeyValues != null) {
+            for (JsonNode value : partitionKeyValues) {
+                PartitionKey partitionKey = partitionKey(value);
+                if (partitionKey == null) {
+                    return null;
+                }
+                partitionKeys.add(partitionKey);
+            }
+        } else if (!idIsPartitionKey) {
+            partitionKeys.add(scope);
+        }
+
+        List<CosmosItemIdentity> items = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (JsonNode id : equalities.get(ID_PATH)) {
+            if (!id.isTextual()) {
+                // ids are strings, so this one matches nothing
+                continue;
+            }
+            for (PartitionKey partitionKey : idIsPartitionKey
+                    ? Collections.singletonList(new PartitionKey(id.textValue())) : partitionKeys) {
+                // PartitionKey.hashCode does not agree with its equals, so compare the JSON forms
+                if (scope != null && !scope.toString().equals(partitionKey.toString())) {
+                    continue;
+                }
+                if (seen.add(id.textValue() + '\u0000' + partitionKey)) {
+                    items.add(new CosmosItemIdentity(partitionKey, id.textValue()));
+                }
+            }
+        }
+        return items;
+    }
+
+    /**
+     * The partition key with the value of {@code value}, or {@code null} if it is not a string,
+     * number or boolean.
+     */
+    static PartitionKey partitionKey(JsonNode value) {
+        if (value.isTextual()) {
+            return new PartitionKey(value.textValue());
+        }
+        if (value.isNumber()) {
+            return new PartitionKey(value.doubleValue());
+        }
+        if (value.isBoolean()) {
+            return new PartitionKey(value.booleanValue());
+        }
+        return null;
+    }
+
+    @Override
+    public <T> Mono<ItemResult<T>> create(T item, PartitionKey partitionKey) {
+        return container.create(item, partitionKey);
+    }
+
+    @Override
+    public <T> Mono<ItemResult<T>> upsert(T item, PartitionKey partitionKey) {
+        return container.upsert(item, partitionKey);
+    }
+
+    @Override
+    public <T> Mono<ItemResult<T>> replace(String id, T item, PartitionKey partitionKey) {
+        return container.replace(id, item, partitionKey);
+    }
+
+    @Override
+    public Mono<ItemResult<Void>> delete(String id, PartitionKey partitionKey) {
+        return container.delete(id, partitionKey);
+    }
+
+    @Override
+    public Mono<BatchResult> executeBatch(CosmosBatch batch) {
+        return container.executeBatch(batch);
+    }
+
+    @Override
+    public <TContext> Flux<OperationResult<TContext>> executeBulk(Flux<CosmosItemOperation> operations) {
+        return container.executeBulk(operations);
+    }
+
+    @Override
+    public Flux<List<JsonNode>> changes(boolean fromBeginning) {
+        return container.changes(fromBeginning);
+    }
+}
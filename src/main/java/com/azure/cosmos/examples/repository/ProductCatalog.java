@@ -0,0 +1,335 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import com.azure.cosmos.examples.common.JsonCodecs;
+import com.azure.cosmos.examples.common.QueryCatalog;
+import com.azure.cosmos.examples.models.CompactModels.CompactProduct;
+import com.azure.cosmos.examples.models.Models.Product;
+import com.azure.cosmos.examples.models.Models.ProductCategory;
+import com.azure.cosmos.models.SqlQuerySpec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-process copy of the product catalog: the categories, and the products of each category.
+ * <p>
+ * The first {@link #snapshot()} queries both containers once; after that the catalog follows their
+ * change feeds and applies each batch of changes to a copy of the current {@link Snapshot}, which it
+ * then swaps in. Readers get the snapshot current at the time, which never changes, so they neither
+ * wait for nor see half of an update, and browsing the catalog makes no requests. Changes made while
+ * a snapshot is built are applied once it is in place. Items deleted from the containers stay in the
+ * catalog, as the change feed does not report deletes, until it is {@link #refresh() rebuilt}. When
+ * a change feed fails, the next read starts a rebuild and gets the last snapshot meanwhile.
+ */
+public class ProductCatalog implements AutoCloseable {
+
+    private static final String CATEGORY_TYPE = "category";
+
+    private static Logger logger = LoggerFactory.getLogger(ProductCatalog.class);
+
+    private final ItemContainer categories;
+    private final ItemContainer products;
+    private volatile Snapshot current;
+    private volatile boolean stale;
+    // guarded by this, as are the subscriptions and the changes that arrive while a snapshot is built
+    private Mono<Snapshot> building;
+    private boolean loading;
+    private Disposable categoryChanges;
+    private Disposable productChanges;
+    private final List<JsonNode> pendingCategories = new ArrayList<>();
+    private final List<JsonNode> pendingProducts = new ArrayList<>();
+
+    /**
+     * A catalog of the categories in {@code categories}, a container partitioned by {@code /type},
+     * and of the products in {@code products}.
+     */
+    public ProductCatalog(ItemContainer categories, ItemContainer products) {
+        this.categories = categories;
+        this.products = products;
+    }
+
+    /**
+     * The current snapshot, built first if there is none yet.
+     */
+    public Mono<Snapshot> snapshot() {
+        Snapshot snapshot = current;
+        if (snapshot == null) {
+            return build();
+        }
+        if (stale) {
+            build().subscribe(rebuilt -> { }, e -> logger.warn("Rebuilding the product catalog failed", e));
+        }
+        return Mono.just(snapshot);
+    }
+
+    /**
+     * The current snapshot, or {@code null} if there is none yet.
+     */
+    public Snapshot getSnapshot() {
+        return current;
+    }
+
+    /**
+     * Builds a new snapshot from the containers, e.g. to drop deleted items; readers keep getting the
+     * current one until it is done.
+     */
+    public Mono<Snapshot> refresh() {
+        return build();
+    }
+
+    /**
+     * Stops following the change feeds; the next {@link #snapshot()} builds the catalog again.
+     */
+    @Override
+    public synchronized void close() {
+        stopFollowing();
+        current = null;
+        stale = false;
+    }
+
+    private synchronized Mono<Snapshot> build() {
+        if (building == null) {
+            building = Mono.defer(this::load)
+                    .doFinally(signal -> {
+                        synchronized (this) {
+                            building = null;
+                        }
+                    })
+                    .cache();
+        }
+        return building;
+    }
+
+    private Mono<Snapshot> load() {
+        synchronized (this) {
+            // from now on, so that nothing written while the containers are queried is missed
+            follow();
+            loading = true;
+        }
+        SqlQuerySpec categoryQuery = QueryCatalog.DOCUMENTS_BY_TYPE.bind(CATEGORY_TYPE);
+        Mono<List<ProductCategory>> loadedCategories = categories
+                .query(categoryQuery, QueryCatalog.DOCUMENTS_BY_TYPE.partitionKey(categoryQuery), ProductCategory.class)
+                .flatMapIterable(FeedPage::getResults)
+                .collectList();
+        Mono<List<CompactProduct>> loadedProducts = products
+                .query(QueryCatalog.ALL_DOCUMENTS.bind(), null, Product.class)
+                .flatMapIterable(FeedPage::getResults)
+                .map(CompactProduct::of)
+                .collectList();
+        return Mono.zip(loadedCategories, loadedProducts)
+                .map(loaded -> {
+                    synchronized (this) {
+                        // the items as loaded are version 0
+                        Snapshot snapshot = new Snapshot(-1, Collections.emptyMap(), Collections.emptyMap(),
+                                Collections.emptyMap()).with(loaded.getT1(), loaded.getT2());
+                        if (!pendingCategories.isEmpty() || !pendingProducts.isEmpty()) {
+                            snapshot = snapshot.with(categories(pendingCategories), products(pendingProducts));
+                            pendingCategories.clear();
+                            pendingProducts.clear();
+                        }
+                        current = snapshot;
+                        stale = false;
+                        loading = false;
+                        logger.info("Built the product catalog: {} categories, {} products",
+                                snapshot.getCategories().size(), snapshot.getProductCount());
+                        return snapshot;
+                    }
+                })
+                .doOnError(e -> {
+                    synchronized (this) {
+                        stopFollowing();
+                        loading = false;
+                    }
+                });
+    }
+
+    // callers hold the lock
+    private void follow() {
+        stopFollowing();
+        categoryChanges = categories.changes(false).subscribe(
+                documents -> apply(documents, Collections.emptyList()), this::failed);
+        productChanges = products.changes(false).subscribe(
+                documents -> apply(Collections.emptyList(), documents), this::failed);
+    }
+
+    // callers hold the lock
+    private void stopFollowing() {
+        if (categoryChanges != null) {
+            categoryChanges.dispose();
+            productChanges.dispose();
+            categoryChanges = null;
+            productChanges = null;
+        }
+        pendingCategories.clear();
+        pendingProducts.clear();
+    }
+
+    private synchronized void apply(List<JsonNode> categoryDocuments, List<JsonNode> productDocuments) {
+        if (loading) {
+            pendingCategories.addAll(categoryDocuments);
+            pendingProducts.addAll(productDocuments);
+            return;
+        }
+        if (current == null) {
+            // a batch that raced with closing the catalog
+            return;
+        }
+        current = current.with(categories(categoryDocuments), products(productDocuments));
+    }
+
+    private synchronized void failed(Throwable e) {
+        logger.warn("Following the change feed of the product catalog failed, it is rebuilt on next use", e);
+        stopFollowing();
+        stale = true;
+    }
+
+    private static List<ProductCategory> categories(List<JsonNode> documents) {
+        List<ProductCategory> categories = new ArrayList<>();
+        for (JsonNode document : documents) {
+            if (CATEGORY_TYPE.equals(document.path("type").asText())) {
+                try {
+                    categories.add(JsonCodecs.treeToValue(document, ProductCategory.class));
+                } catch (JsonProcessingException e) {
+                    logger.warn("Skipping category " + document.path("id").asText() + ": " + e.getMessage());
+                }
+            }
+        }
+        return categories;
+    }
+
+    private static List<CompactProduct> products(List<JsonNode> documents) {
+        List<CompactProduct> products = new ArrayList<>();
+        for (JsonNode document : documents) {
+            try {
+                products.add(CompactProduct.of(JsonCodecs.treeToValue(document, Product.class)));
+            } catch (JsonProcessingException e) {
+                logger.warn("Skipping product " + document.path("id").asText() + ": " + e.getMessage());
+            }
+        }
+        return products;
+    }
+
+    /**
+     * The catalog at one point in time. It never changes; the models it returns are copies.
+     */
+    public static final class Snapshot {
+
+        private final long version;
+        private final Map<String, ProductCategory> categories;
+        private final Map<String, CompactProduct> products;
+        private final Map<String, List<CompactProduct>> productsByCategory;
+
+        private Snapshot(long version, Map<String, ProductCategory> categories, Map<String, CompactProduct> products,
+                         Map<String, List<CompactProduct>> productsByCategory) {
+            this.version = version;
+            this.categories = categories;
+            this.products = products;
+            this.productsByCategory = productsByCategory;
+        }
+
+        /**
+         * Number of batches of changes applied since the catalog was built.
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        public List<ProductCategory> getCategories() {
+            List<ProductCategory> copies = new ArrayList<>(categories.size());
+            for (ProductCategory category : categories.values()) {
+                copies.add(copy(category));
+            }
+            return copies;
+        }
+
+        /**
+         * The category with id {@code categoryId}, or {@code null}.
+         */
+        public ProductCategory getCategory(String categoryId) {
+            ProductCategory category = categories.get(categoryId);
+            return category == null ? null : copy(category);
+        }
+
+        /**
+         * The products of the category with id {@code categoryId}, empty if there are none.
+         */
+        public List<Product> getProducts(String categoryId) {
+            List<CompactProduct> compact = productsByCategory.getOrDefault(categoryId, Collections.emptyList());
+            List<Product> models = new ArrayList<>(compact.size());
+            for (CompactProduct product : compact) {
+                models.add(product.toModel());
+            }
+            return models;
+        }
+
+        public int getProductCount() {
+            return products.size();
+        }
+
+        /**
+         * This snapshot with {@code changedCategories} and {@code changedProducts} added or replaced.
+         * Copies the indexes, which is cheap next to the requests it saves for a catalog that changes
+         * rarely, and only the product lists of the categories that changed.
+         */
+        private Snapshot with(List<ProductCategory> changedCategories, List<CompactProduct> changedProducts) {
+            Map<String, ProductCategory> newCategories = new LinkedHashMap<>(categories);
+            for (ProductCategory category : changedCategories) {
+                newCategories.put(category.getId(), category);
+            }
+            Map<String, CompactProduct> newProducts = new HashMap<>(products);
+            Map<String, List<CompactProduct>> newProductsByCategory = new HashMap<>(productsByCategory);
+            Map<String, List<CompactProduct>> changedLists = new HashMap<>();
+            for (CompactProduct product : changedProducts) {
+                CompactProduct replaced = newProducts.put(product.getId(), product);
+                List<CompactProduct> list = changedLists.computeIfAbsent(product.getCategoryId(),
+                        categoryId -> new ArrayList<>(newProductsByCategory.getOrDefault(categoryId,
+                                Collections.emptyList())));
+                if (replaced != null && replaced.getCategoryId().equals(product.getCategoryId())) {
+                    list.set(indexOf(list, product.getId()), product);
+                    continue;
+                }
+                if (replaced != null) {
+                    List<CompactProduct> previous = changedLists.computeIfAbsent(replaced.getCategoryId(),
+                            categoryId -> new ArrayList<>(newProductsByCategory.get(categoryId)));
+                    previous.remove(indexOf(previous, replaced.getId()));
+                }
+                list.add(product);
+            }
+            for (Map.Entry<String, List<CompactProduct>> changed : changedLists.entrySet()) {
+                newProductsByCategory.put(changed.getKey(), Collections.unmodifiableList(changed.getValue()));
+            }
+            return new Snapshot(version + 1, Collections.unmodifiableMap(newCategories),
+                    Collections.unmodifiableMap(newProducts), Collections.unmodifiableMap(newProductsByCategory));
+        }
+
+        private static int indexOf(List<CompactProduct> products, String id) {
+            for (int i = 0; i < products.size(); i++) {
+                if (products.get(i).getId().equals(id)) {
+                    return i;
+                }
+            }
+            throw new IllegalStateException("Product " + id + " is not indexed under its category");
+        }
+
+        private static ProductCategory copy(ProductCategory category) {
+            ProductCategory copy = new ProductCategory();
+            copy.setId(category.getId());
+            copy.setType(category.getType());
+            copy.setName(category.getName());
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import com.azure.cosmos.examples.models.Models.Product;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Products, partitioned by their category.
+ */
+public interface ProductRepository {
+
+    /**
+     * Point read of a product, completing empty when there is none.
+     */
+    Mono<Product> findById(String id, String categoryId);
+
+    Flux<Product> findByCategoryId(String categoryId);
+
+    /**
+     * Replaces every product of {@code products} through the bulk executor.
+     */
+    Flux<OperationResult<Product>> replaceAll(Flux<Product> products);
+}
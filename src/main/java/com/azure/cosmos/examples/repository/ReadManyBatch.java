@@ -0,0 +1,56 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of one read of a {@link BatchPointReader}: the items found, and what the read cost.
+ */
+public final class ReadManyBatch<T> {
+
+    private final List<T> items;
+    private final int requested;
+    private final int rangeIndex;
+    private final double requestCharge;
+    private final Duration duration;
+
+    public ReadManyBatch(List<T> items, int requested, int rangeIndex, double requestCharge, Duration duration) {
+        this.items = items;
+        this.requested = requested;
+        this.rangeIndex = rangeIndex;
+        this.requestCharge = requestCharge;
+        this.duration = duration;
+    }
+
+    /**
+     * The items that exist among those requested, in no particular order.
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Number of items requested; those missing from {@link #getItems()} do not exist.
+     */
+    public int getRequested() {
+        return requested;
+    }
+
+    /**
+     * Index of the partition key range all the items requested are in, 0 if the container has none.
+     */
+    public int getRangeIndex() {
+        return rangeIndex;
+    }
+
+    public double getRequestCharge() {
+        return requestCharge;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+}
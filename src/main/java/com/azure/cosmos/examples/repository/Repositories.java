@@ -0,0 +1,160 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import com.azure.cosmos.CosmosAsyncClient;
+import com.azure.cosmos.CosmosAsyncDatabase;
+import com.azure.cosmos.examples.generator.SyntheticDataGenerator;
+import com.azure.cosmos.examples.schema.SchemaDefinition;
+import com.azure.cosmos.examples.schema.SchemaDefinition.ContainerDefinition;
+import com.azure.cosmos.examples.schema.SchemaDefinition.DatabaseDefinition;
+import com.azure.cosmos.models.CosmosBulkOperations;
+import com.azure.cosmos.models.PartitionKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The repositories of the v4 schema, over either the containers of a Cosmos DB account or in-process
+ * stand-ins for them. Either way, queries that only select items by id and partition key are run as
+ * point reads (see {@link PointReadItemContainer}).
+ * <p>
+ * For the in-process containers, -DREPOSITORY_LATENCY_MICROS=[n] sets the latency of every request
+ * and -DREPOSITORY_CHARGES=none turns request charges off (see {@link RequestCharges}).
+ */
+public final class Repositories {
+
+    /** Schema version whose containers the repositories work with. */
+    public static final int SCHEMA_VERSION = 4;
+
+    public static final Duration LATENCY = Duration.ofNanos(1000 * Long.getLong("REPOSITORY_LATENCY_MICROS", 0));
+
+    public static final RequestCharges CHARGES = "none".equalsIgnoreCase(System.getProperty("REPOSITORY_CHARGES"))
+            ? RequestCharges.NONE : RequestCharges.DEFAULT;
+
+    private static final String CUSTOMER_CONTAINER = "customer";
+    private static final String PRODUCT_CONTAINER = "product";
+    private static final String CATEGORY_CONTAINER = "productMeta";
+
+    private static Logger logger = LoggerFactory.getLogger(Repositories.class);
+
+    private final Map<String, ItemContainer> containers;
+    private final Map<String, String> partitionKeyPaths;
+    private final CustomerRepository customers;
+    private final SalesOrderRepository salesOrders;
+    private final ProductRepository products;
+    private final CategoryRepository categories;
+
+    private Repositories(Map<String, ItemContainer> containers, Map<String, String> partitionKeyPaths) {
+        this.containers = containers;
+        this.partitionKeyPaths = partitionKeyPaths;
+        this.customers = new ContainerCustomerRepository(containers.get(CUSTOMER_CONTAINER));
+        this.salesOrders = new ContainerSalesOrderRepository(containers.get(CUSTOMER_CONTAINER));
+        this.products = new ContainerProductRepository(containers.get(PRODUCT_CONTAINER));
+        this.categories = new ContainerCategoryRepository(containers.get(CATEGORY_CONTAINER));
+    }
+
+    /**
+     * Repositories over the containers of the v4 database of the account behind {@code client}.
+     */
+    public static Repositories cosmos(CosmosAsyncClient client) {
+        return cosmos(client, SchemaDefinition.load().getDatabase(SCHEMA_VERSION).name);
+    }
+
+    /**
+     * Repositories over the v4 containers of the database {@code databaseName}.
+     */
+    public static Repositories cosmos(CosmosAsyncClient client, String databaseName) {
+        DatabaseDefinition definition = SchemaDefinition.load().getDatabase(SCHEMA_VERSION);
+        CosmosAsyncDatabase database = client.getDatabase(databaseName);
+        Map<String, ItemContainer> containers = new LinkedHashMap<>();
+        Map<String, String> partitionKeyPaths = new LinkedHashMap<>();
+        for (ContainerDefinition container : definition.containers) {
+            containers.put(container.name, new PointReadItemContainer(
+                    new CosmosItemContainer(database.getContainer(container.name)), container.partitionKey));
+            partitionKeyPaths.put(container.name, container.partitionKey);
+        }
+        return new Repositories(containers, partitionKeyPaths);
+    }
+
+    /**
+     * Repositories over empty in-process containers, with the default {@link #LATENCY} and
+     * {@link #CHARGES}.
+     */
+    public static Repositories inMemory() {
+        return inMemory(LATENCY, CHARGES);
+    }
+
+    public static Repositories inMemory(Duration latency, RequestCharges charges) {
+        DatabaseDefinition definition = SchemaDefinition.load().getDatabase(SCHEMA_VERSION);
+        Map<String, ItemContainer> containers = new LinkedHashMap<>();
+        Map<String, String> partitionKeyPaths = new LinkedHashMap<>();
+        for (ContainerDefinition container : definition.containers) {
+            containers.put(container.name, new PointReadItemContainer(new InMemoryItemContainer(container.name,
+                    container.partitionKey, latency, charges), container.partitionKey));
+            partitionKeyPaths.put(container.name, container.partitionKey);
+        }
+        return new Repositories(containers, partitionKeyPaths);
+    }
+
+    public CustomerRepository customers() {
+        return customers;
+    }
+
+    public SalesOrderRepository salesOrders() {
+        return salesOrders;
+    }
+
+    public ProductRepository products() {
+        return products;
+    }
+
+    public CategoryRepository categories() {
+        return categories;
+    }
+
+    /**
+     * The container named {@code name} in the v4 schema.
+     */
+    public ItemContainer getContainer(String name) {
+        ItemContainer container = containers.get(name);
+        if (container == null) {
+            throw new IllegalArgumentException("No container " + name + " in schema v" + SCHEMA_VERSION);
+        }
+        return container;
+    }
+
+    /**
+     * Creates the synthetic documents of {@code generator} in every container, through the bulk
+     * executor. Documents that already exist are left as they are.
+     */
+    public Mono<Void> loadSyntheticData(SyntheticDataGenerator generator) {
+        return Flux.fromIterable(containers.keySet())
+                .concatMap(name -> {
+                    String partitionKeyPath = partitionKeyPaths.get(name);
+                    AtomicLong failed = new AtomicLong();
+                    return getContainer(name)
+                            .executeBulk(generator.documents(SCHEMA_VERSION, name)
+                                    .map(document -> CosmosBulkOperations.getCreateItemOperation(document,
+                                            new PartitionKey(document.at(partitionKeyPath).asText()))))
+                            .doOnNext(result -> {
+                                if (!result.isSuccessStatusCode() && result.getStatusCode() != 409) {
+                                    failed.incrementAndGet();
+                                }
+                            })
+                            .then(Mono.fromRunnable(() -> {
+                                if (failed.get() > 0) {
+                                    logger.warn(failed.get() + " synthetic documents could not be created in " + name);
+                                }
+                            }));
+                })
+                .then();
+    }
+}
@@ -0,0 +1,51 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+/**
+ * How {@link InMemoryItemContainer} charges request units. A rough model of the service, meant to
+ * keep costs comparable between code paths, not to predict the bill: reads and writes cost a fixed
+ * amount per started KB of item, a replace costs two writes, and a query costs a base charge plus an
+ * amount per item it scans and the read charge of the items it returns.
+ */
+public final class RequestCharges {
+
+    /** Charges close to those of a 1 KB item in a container with the default indexing policy. */
+    public static final RequestCharges DEFAULT = new RequestCharges(1.0, 5.71, 2.3, 0.03);
+
+    /** Charges nothing, for measuring client-side costs only. */
+    public static final RequestCharges NONE = new RequestCharges(0, 0, 0, 0);
+
+    private final double readPerKb;
+    private final double writePerKb;
+    private final double query;
+    private final double queryPerScannedItem;
+
+    public RequestCharges(double readPerKb, double writePerKb, double query, double queryPerScannedItem) {
+        this.readPerKb = readPerKb;
+        this.writePerKb = writePerKb;
+        this.query = query;
+        this.queryPerScannedItem = queryPerScannedItem;
+    }
+
+    double read(int bytes) {
+        return readPerKb * kilobytes(bytes);
+    }
+
+    double write(int bytes) {
+        return writePerKb * kilobytes(bytes);
+    }
+
+    double replace(int bytes) {
+        return 2 * write(bytes);
+    }
+
+    double query(int scannedItems, int returnedBytes) {
+        return query + queryPerScannedItem * scannedItems + (returnedBytes > 0 ? read(returnedBytes) : 0);
+    }
+
+    private static int kilobytes(int bytes) {
+        return Math.max(1, (bytes + 1023) / 1024);
+    }
+}
@@ -0,0 +1,41 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.repository;
+
+import com.azure.cosmos.examples.models.Models.CustomerV4;
+import com.azure.cosmos.examples.models.Models.SalesOrder;
+import com.azure.cosmos.models.CosmosItemIdentity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+/**
+ * Sales orders of the v4 schema, stored in the partition of their customer.
+ */
+public interface SalesOrderRepository {
+
+    Flux<SalesOrder> findByCustomerId(String customerId);
+
+    /**
+     * The orders that exist among {@code orders}, each given by its id and the id of its customer as
+     * the partition key, in no particular order, read with a few batched point reads (see
+     * {@link BatchPointReader}).
+     */
+    Flux<SalesOrder> findAllById(Collection<CosmosItemIdentity> orders);
+
+    /**
+     * Creates {@code order} and stores {@code customer} with its sales order count incremented, in one
+     * transactional batch that fails with 412 if the stored customer no longer has the ETag
+     * {@code customerETag}; {@code null} stores it regardless. {@code customer} itself is not changed.
+     */
+    Mono<BatchResult> create(CustomerV4 customer, String customerETag, SalesOrder order);
+
+    /**
+     * Deletes the order and stores {@code customer} with its sales order count decremented, in one
+     * transactional batch that fails with 412 if the stored customer no longer has the ETag
+     * {@code customerETag}; {@code null} stores it regardless. {@code customer} itself is not changed.
+     */
+    Mono<BatchResult> delete(CustomerV4 customer, String customerETag, String orderId);
+}
@@ -0,0 +1,216 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.schema;
+
+import com.azure.cosmos.implementation.Utils;
+import com.azure.cosmos.models.CompositePath;
+import com.azure.cosmos.models.CompositePathSortOrder;
+import com.azure.cosmos.models.ExcludedPath;
+import com.azure.cosmos.models.IncludedPath;
+import com.azure.cosmos.models.IndexingMode;
+import com.azure.cosmos.models.IndexingPolicy;
+import com.azure.cosmos.models.ThroughputProperties;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The databases and containers of the Cosmic Works schemas, read from a versioned definition file.
+ * <p>
+ * The definition is the {@code cosmic-works-schema.json} resource unless -DSCHEMA_DEFINITION=[path]
+ * points to another file. Per container it holds the partition key path and, optionally, the
+ * throughput, default time to live and indexing policy; a container without throughput gets the one
+ * in {@code defaults}. For example:
+ * <pre>
+ * { "name": "customer", "partitionKey": "/customerId",
+ *   "throughput": { "autoscaleMax": 10000 }, "defaultTimeToLive": -1,
+ *   "indexingPolicy": { "indexingMode": "consistent", "includedPaths": ["/*"], "excludedPaths": ["/password/*"],
+ *                       "compositeIndexes": [[{ "path": "/type" }, { "path": "/orderDate", "order": "descending" }]] } }
+ * </pre>
+ */
+public class SchemaDefinition {
+
+    /** The only version of the definition format this class reads. */
+    public static final int VERSION = 1;
+
+    private static final String RESOURCE = "cosmic-works-schema.json";
+
+    public int version;
+    public Defaults defaults = new Defaults();
+    public List<DatabaseDefinition> databases = new ArrayList<>();
+
+    /**
+     * Reads the definition from -DSCHEMA_DEFINITION, or from the bundled resource.
+     */
+    public static SchemaDefinition load() {
+        String path = System.getProperty("SCHEMA_DEFINITION");
+        try (InputStream in = path != null
+                ? Files.newInputStream(Paths.get(path))
+                : SchemaDefinition.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Schema definition " + RESOURCE + " not found on the classpath");
+            }
+            ObjectMapper mapper = Utils.getSimpleObjectMapper().copy()
+                    .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, true);
+            return mapper.readValue(in, SchemaDefinition.class).validate(path != null ? path : RESOURCE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read schema definition " + (path != null ? path : RESOURCE), e);
+        }
+    }
+
+    /**
+     * The databases whose schema version is between {@code from} and {@code to}, both included.
+     */
+    public List<DatabaseDefinition> getDatabases(int from, int to) {
+        List<DatabaseDefinition> selected = new ArrayList<>();
+        for (DatabaseDefinition database : databases) {
+            if (database.schemaVersion >= from && database.schemaVersion <= to) {
+                selected.add(database);
+            }
+        }
+        return selected;
+    }
+
+    public DatabaseDefinition getDatabase(int schemaVersion) {
+        for (DatabaseDefinition database : databases) {
+            if (database.schemaVersion == schemaVersion) {
+                return database;
+            }
+        }
+        throw new IllegalArgumentException("No database for schema v" + schemaVersion + " in the schema definition");
+    }
+
+    /**
+     * The throughput of {@code container}, falling back to the default one.
+     */
+    public ThroughputDefinition getThroughput(ContainerDefinition container) {
+        return container.throughput != null ? container.throughput : defaults.throughput;
+    }
+
+    private SchemaDefinition validate(String source) {
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported version " + version + " of schema definition " + source
+                    + ", expected " + VERSION);
+        }
+        for (DatabaseDefinition database : databases) {
+            if (database.name == null) {
+                throw new IllegalStateException("Database without a name in " + source);
+            }
+            for (ContainerDefinition container : database.containers) {
+                if (container.name == null || container.partitionKey == null) {
+                    throw new IllegalStateException("Container without a name or partition key in database "
+                            + database.name + " of " + source);
+                }
+            }
+        }
+        return this;
+    }
+
+    public static class Defaults {
+        public ThroughputDefinition throughput;
+    }
+
+    public static class DatabaseDefinition {
+        public String name;
+        public int schemaVersion;
+        /** Throughput shared by the containers of the database; none when absent. */
+        public ThroughputDefinition throughput;
+        public List<ContainerDefinition> containers = new ArrayList<>();
+
+        public ContainerDefinition getContainer(String name) {
+            for (ContainerDefinition container : containers) {
+                if (container.name.equals(name)) {
+                    return container;
+                }
+            }
+            throw new IllegalArgumentException("No container " + name + " in database " + this.name);
+        }
+
+        /**
+         * This database under another name, e.g. to provision a schema version into a scratch database.
+         */
+        public DatabaseDefinition withName(String name) {
+            DatabaseDefinition renamed = new DatabaseDefinition();
+            renamed.name = name;
+            renamed.schemaVersion = schemaVersion;
+            renamed.throughput = throughput;
+            renamed.containers = containers;
+            return renamed;
+        }
+    }
+
+    public static class ContainerDefinition {
+        public String name;
+        public String partitionKey;
+        public ThroughputDefinition throughput;
+        /** -1 enables time to live without a default expiry; absent disables it. */
+        public Integer defaultTimeToLive;
+        public IndexingDefinition indexingPolicy;
+    }
+
+    /**
+     * Either {@code manual} or {@code autoscaleMax} RU/s.
+     */
+    public static class ThroughputDefinition {
+        public Integer manual;
+        public Integer autoscaleMax;
+
+        public ThroughputProperties toThroughputProperties() {
+            return manual != null
+                    ? ThroughputProperties.createManualThroughput(manual)
+                    : ThroughputProperties.createAutoscaledThroughput(autoscaleMax);
+        }
+
+        @Override
+        public String toString() {
+            return manual != null ? manual + " RU/s" : "autoscale " + autoscaleMax + " RU/s";
+        }
+    }
+
+    public static class IndexingDefinition {
+        public String indexingMode = "consistent";
+        public boolean automatic = true;
+        public List<String> includedPaths = Collections.singletonList("/*");
+        public List<String> excludedPaths = Collections.emptyList();
+        public List<List<CompositePathDefinition>> compositeIndexes = Collections.emptyList();
+
+        public IndexingPolicy toIndexingPolicy() {
+            IndexingPolicy policy = new IndexingPolicy()
+                    .setIndexingMode(IndexingMode.valueOf(indexingMode.toUpperCase(Locale.ROOT)))
+                    .setAutomatic(automatic);
+            List<IncludedPath> included = new ArrayList<>();
+            for (String path : includedPaths) {
+                included.add(new IncludedPath(path));
+            }
+            List<ExcludedPath> excluded = new ArrayList<>();
+            for (String path : excludedPaths) {
+                excluded.add(new ExcludedPath(path));
+            }
+            List<List<CompositePath>> composites = new ArrayList<>();
+            for (List<CompositePathDefinition> composite : compositeIndexes) {
+                List<CompositePath> paths = new ArrayList<>();
+                for (CompositePathDefinition path : composite) {
+                    paths.add(new CompositePath().setPath(path.path)
+                            .setOrder(CompositePathSortOrder.valueOf(path.order.toUpperCase(Locale.ROOT))));
+                }
+                composites.add(paths);
+            }
+            return policy.setIncludedPaths(included).setExcludedPaths(excluded).setCompositeIndexes(composites);
+        }
+    }
+
+    public static class CompositePathDefinition {
+        public String path;
+        public String order = "ascending";
+    }
+}
@@ -0,0 +1,230 @@
+// Copyright (c) Microsoft Corporation. All rights reserved.
+// Licensed under the MIT License.
+
+package com.azure.cosmos.examples.schema;
+
+import com.azure.cosmos.CosmosAsyncClient;
+import com.azure.cosmos.CosmosAsyncContainer;
+import com.azure.cosmos.CosmosAsyncDatabase;
+import com.azure.cosmos.CosmosException;
+import com.azure.cosmos.examples.schema.SchemaDefinition.ContainerDefinition;
+import com.azure.cosmos.examples.schema.SchemaDefinition.DatabaseDefinition;
+import com.azure.cosmos.examples.schema.SchemaDefinition.ThroughputDefinition;
+import com.azure.cosmos.models.CompositePath;
+import com.azure.cosmos.models.CosmosContainerProperties;
+import com.azure.cosmos.models.ExcludedPath;
+import com.azure.cosmos.models.IncludedPath;
+import com.azure.cosmos.models.IndexingPolicy;
+import com.azure.cosmos.models.ThroughputProperties;
+import com.azure.cosmos.models.ThroughputResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Brings the databases and containers of a {@link SchemaDefinition} into existence, concurrently and
+ * idempotently.
+ * <p>
+ * Databases are provisioned in parallel, and so are the containers of each database, up to
+ * {@link #MAX_CONCURRENCY} requests at a time. A missing database or container is created; an
+ * existing one is compared with its definition and only what differs (throughput, default time to
+ * live, indexing policy) is replaced, so running the provisioning again is cheap and changes nothing
+ * once the account matches the definition. A partition key, or a switch between manual and autoscale
+ * throughput, cannot be changed in place and is reported instead.
+ */
+public class SchemaProvisioner {
+
+    /**
+     * Maximum number of containers provisioned at the same time, configurable with
+     * -DPROVISION_MAX_CONCURRENCY=[n].
+     */
+    public static final int MAX_CONCURRENCY = Integer.getInteger("PROVISION_MAX_CONCURRENCY", 8);
+
+    private static final String ETAG_PATH = "/\"_etag\"/?";
+
+    private static Logger logger = LoggerFactory.getLogger(SchemaProvisioner.class);
+
+    private final CosmosAsyncClient client;
+    private final SchemaDefinition definition;
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger updated = new AtomicInteger();
+    private final AtomicInteger unchanged = new AtomicInteger();
+
+    public SchemaProvisioner(CosmosAsyncClient client, SchemaDefinition definition) {
+        this.client = client;
+        this.definition = definition;
+    }
+
+    /**
+     * Provisions {@code databases} and all their containers.
+     */
+    public Mono<Void> provision(List<DatabaseDefinition> databases) {
+        return Mono.defer(() -> {
+            long start = System.currentTimeMillis();
+            return Flux.fromIterable(databases)
+                    .flatMap(this::provisionDatabase)
+                    .flatMap(this::provisionContainer, MAX_CONCURRENCY)
+                    .then(Mono.fromRunnable(() -> logger.info("provisioned " + databases.size() + " databases in "
+                            + (System.currentTimeMillis() - start) + " ms: " + created + " containers created, "
+                            + updated + " updated, " + unchanged + " unchanged")));
+        });
+    }
+
+    private Flux<Tuple2<CosmosAsyncDatabase, ContainerDefinition>> provisionDatabase(DatabaseDefinition databaseDefinition) {
+        Mono<?> createDatabase = databaseDefinition.throughput != null
+                ? client.createDatabaseIfNotExists(databaseDefinition.name, databaseDefinition.throughput.toThroughputProperties())
+                : client.createDatabaseIfNotExists(databaseDefinition.name);
+        CosmosAsyncDatabase database = client.getDatabase(databaseDefinition.name);
+        Mono<Boolean> throughput = databaseDefinition.throughput == null
+                ? Mono.just(false)
+                : reconcileThroughput(databaseDefinition.name, databaseDefinition.throughput,
+                        database::readThroughput, database::replaceThroughput);
+        return createDatabase
+                .then(throughput)
+                .thenMany(Flux.fromIterable(databaseDefinition.containers))
+                .map(container -> Tuples.of(database, container));
+    }
+
+    private Mono<Void> provisionContainer(Tuple2<CosmosAsyncDatabase, ContainerDefinition> databaseAndContainer) {
+        CosmosAsyncDatabase database = databaseAndContainer.getT1();
+        ContainerDefinition containerDefinition = databaseAndContainer.getT2();
+        String name = database.getId() + "." + containerDefinition.name;
+        ThroughputDefinition throughput = definition.getThroughput(containerDefinition);
+        CosmosAsyncContainer container = database.getContainer(containerDefinition.name);
+
+        CosmosContainerProperties properties = new CosmosContainerProperties(containerDefinition.name,
+                containerDefinition.partitionKey);
+        properties.setDefaultTimeToLiveInSeconds(containerDefinition.defaultTimeToLive);
+        if (containerDefinition.indexingPolicy != null) {
+            properties.setIndexingPolicy(containerDefinition.indexingPolicy.toIndexingPolicy());
+        }
+
+        return container.read()
+                .flatMap(response -> reconcileContainer(name, container, response.getProperties(), containerDefinition)
+                        .zipWith(throughput == null
+                                ? Mono.just(false)
+                                : reconcileThroughput(name, throughput, container::readThroughput, container::replaceThroughput),
+                                (propertiesChanged, throughputChanged) -> propertiesChanged || throughputChanged))
+                .doOnNext(changed -> (changed ? updated : unchanged).incrementAndGet())
+                .then()
+                .onErrorResume(e -> e instanceof CosmosException && ((CosmosException) e).getStatusCode() == 404,
+                        e -> (throughput != null
+                                ? database.createContainerIfNotExists(properties, throughput.toThroughputProperties())
+                                : database.createContainerIfNotExists(properties))
+                                .doOnNext(response -> {
+                                    created.incrementAndGet();
+                                    logger.info("container: " + name + " created!");
+                                })
+                                .then());
+    }
+
+    private Mono<Boolean> reconcileContainer(String name, CosmosAsyncContainer container,
+                                             CosmosContainerProperties existing, ContainerDefinition containerDefinition) {
+        List<String> differences = new ArrayList<>();
+        List<String> existingPaths = existing.getPartitionKeyDefinition().getPaths();
+        if (!existingPaths.contains(containerDefinition.partitionKey)) {
+            logger.warn("container " + name + " is partitioned by " + existingPaths + " instead of "
+                    + containerDefinition.partitionKey + ", recreate it to change the partition key");
+        }
+        if (!Objects.equals(existing.getDefaultTimeToLiveInSeconds(), containerDefinition.defaultTimeToLive)) {
+            differences.add("default time to live " + existing.getDefaultTimeToLiveInSeconds() + " -> "
+                    + containerDefinition.defaultTimeToLive);
+            existing.setDefaultTimeToLiveInSeconds(containerDefinition.defaultTimeToLive);
+        }
+        if (containerDefinition.indexingPolicy != null) {
+            IndexingPolicy wanted = containerDefinition.indexingPolicy.toIndexingPolicy();
+            if (!sameIndexing(existing.getIndexingPolicy(), wanted)) {
+                differences.add("indexing policy");
+                existing.setIndexingPolicy(wanted);
+            }
+        }
+        if (differences.isEmpty()) {
+            return Mono.just(false);
+        }
+        logger.info("updating container " + name + ": " + String.join(", ", differences));
+        return container.replace(existing).thenReturn(true);
+    }
+
+    /**
+     * Replaces the throughput read by {@code read} with {@code wanted} when they differ, and tells
+     * whether it did.
+     */
+    private Mono<Boolean> reconcileThroughput(String name, ThroughputDefinition wanted,
+                                              Supplier<Mono<ThroughputResponse>> read,
+                                              Function<ThroughputProperties, Mono<ThroughputResponse>> replace) {
+        return read.get()
+                .flatMap(response -> {
+                    ThroughputProperties current = response.getProperties();
+                    boolean autoscale = current.getAutoscaleMaxThroughput() > 0;
+                    if (autoscale != (wanted.autoscaleMax != null)) {
+                        logger.warn(name + " has " + (autoscale ? "autoscale" : "manual") + " throughput, migrate it"
+                                + " in the portal to get " + wanted);
+                        return Mono.just(false);
+                    }
+                    int currentValue = autoscale ? current.getAutoscaleMaxThroughput() : current.getManualThroughput();
+                    int wantedValue = autoscale ? wanted.autoscaleMax : wanted.manual;
+                    if (currentValue == wantedValue) {
+                        return Mono.just(false);
+                    }
+                    logger.info("changing throughput of " + name + " from " + currentValue + " to " + wanted);
+                    return replace.apply(wanted.toThroughputProperties()).thenReturn(true);
+                })
+                .onErrorResume(e -> e instanceof CosmosException && ((CosmosException) e).getStatusCode() == 400,
+                        e -> {
+                            logger.warn(name + " has no dedicated throughput, cannot give it " + wanted);
+                            return Mono.just(false);
+                        });
+    }
+
+    private static boolean sameIndexing(IndexingPolicy existing, IndexingPolicy wanted) {
+        return existing.getIndexingMode() == wanted.getIndexingMode()
+                && Objects.equals(existing.isAutomatic(), wanted.isAutomatic())
+                && includedPaths(existing).equals(includedPaths(wanted))
+                && excludedPaths(existing).equals(excludedPaths(wanted))
+                && compositeIndexes(existing).equals(compositeIndexes(wanted));
+    }
+
+    private static Set<String> includedPaths(IndexingPolicy policy) {
+        Set<String> paths = new HashSet<>();
+        for (IncludedPath path : policy.getIncludedPaths()) {
+            paths.add(path.getPath());
+        }
+        return paths;
+    }
+
+    /**
+     * The excluded paths, without the {@code _etag} path the service adds to every policy.
+     */
+    private static Set<String> excludedPaths(IndexingPolicy policy) {
+        Set<String> paths = new HashSet<>();
+        for (ExcludedPath path : policy.getExcludedPaths()) {
+            paths.add(path.getPath());
+        }
+        paths.remove(ETAG_PATH);
+        return paths;
+    }
+
+    private static Set<List<String>> compositeIndexes(IndexingPolicy policy) {
+        Set<List<String>> indexes = new HashSet<>();
+        for (List<CompositePath> composite : policy.getCompositeIndexes()) {
+            List<String> paths = new ArrayList<>();
+            for (CompositePath path : composite) {
+                paths.add(path.getPath() + " " + path.getOrder());
+            }
+            indexes.add(paths);
+        }
+        return indexes;
+    }
+}